@@ -0,0 +1,62 @@
+package com.qhrtech.emr.restapi.benchmarks;
+
+import com.qhrtech.emr.restapi.security.AccuroUserDetails;
+import com.qhrtech.emr.restapi.security.MultiTenantAuthenticationKeyGenerator;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+/**
+ * Token store key generation, run for every token lookup and creation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationKeyBenchmark {
+
+  private MultiTenantAuthenticationKeyGenerator keyGenerator;
+  private OAuth2Authentication authentication;
+
+  @Setup
+  public void setUp() {
+    keyGenerator = new MultiTenantAuthenticationKeyGenerator();
+
+    Map<String, Serializable> extensions = new HashMap<>();
+    extensions.put("office", 3);
+    OAuth2Request request = new OAuth2Request(null, "benchmark-client", null, true,
+        new HashSet<>(Arrays.asList("PATIENT_DEMOGRAPHICS", "DOCUMENTS_READ", "LABS_READ")),
+        null, null, null, extensions);
+
+    AccuroUserDetails user = new AccuroUserDetails.Builder()
+        .setUserId(42)
+        .setUsername("benchmark-user")
+        .setTenantId("benchmark-tenant")
+        .build();
+    authentication = new OAuth2Authentication(request,
+        new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+  }
+
+  @Benchmark
+  public String extractKey() {
+    return keyGenerator.extractKey(authentication);
+  }
+}
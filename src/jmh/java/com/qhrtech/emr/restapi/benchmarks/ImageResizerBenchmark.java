@@ -0,0 +1,53 @@
+package com.qhrtech.emr.restapi.benchmarks;
+
+import com.qhrtech.emr.restapi.util.ImageResizer;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Profile picture resizing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ImageResizerBenchmark {
+
+  @Param({"640", "3000"})
+  private int width;
+
+  @Param({"true", "false"})
+  private boolean preserveAlpha;
+
+  private BufferedImage image;
+
+  @Setup
+  public void setUp() {
+    image = new BufferedImage(width, width * 3 / 4, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    g.setPaint(new GradientPaint(0, 0, Color.BLUE, width, width, Color.ORANGE));
+    g.fillRect(0, 0, image.getWidth(), image.getHeight());
+    g.dispose();
+  }
+
+  @Benchmark
+  public BufferedImage resize() {
+    return ImageResizer.resizeImage(300, 300, image, preserveAlpha);
+  }
+}
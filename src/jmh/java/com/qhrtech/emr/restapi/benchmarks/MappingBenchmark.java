@@ -0,0 +1,80 @@
+package com.qhrtech.emr.restapi.benchmarks;
+
+import com.qhrtech.emr.accuro.model.labs.LabGroup;
+import com.qhrtech.emr.accuro.model.patient.Patient;
+import com.qhrtech.emr.accuro.model.prescription.PrescriptionMedication;
+import com.qhrtech.emr.accuro.model.scheduling.Appointment;
+import com.qhrtech.emr.restapi.config.MappingConfig;
+import com.qhrtech.emr.restapi.models.dto.AppointmentDto;
+import com.qhrtech.emr.restapi.models.dto.LabGroupDto;
+import com.qhrtech.emr.restapi.models.dto.patientv2.PatientDto;
+import com.qhrtech.emr.restapi.models.dto.prescriptions.PrescriptionMedicationDto;
+import java.util.concurrent.TimeUnit;
+import org.dozer.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.jemos.podam.api.PodamFactory;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+/**
+ * AbstractEndpoint.mapDto for the DTOs returned by the busiest list endpoints, comparing the
+ * generated mapper with plain Dozer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+  @Param({"generated", "dozer"})
+  private String backend;
+
+  private Mapper mapper;
+  private Appointment appointment;
+  private Patient patient;
+  private PrescriptionMedication prescription;
+  private LabGroup labGroup;
+
+  @Setup
+  public void setUp() {
+    MappingConfig config = new MappingConfig();
+    mapper = "dozer".equals(backend) ? config.dozerMapper() : config.modelMapper();
+
+    PodamFactory podamFactory = new PodamFactoryImpl();
+    appointment = podamFactory.manufacturePojo(Appointment.class);
+    patient = podamFactory.manufacturePojo(Patient.class);
+    prescription = podamFactory.manufacturePojo(PrescriptionMedication.class);
+    labGroup = podamFactory.manufacturePojo(LabGroup.class);
+  }
+
+  @Benchmark
+  public AppointmentDto appointment() {
+    return mapper.map(appointment, AppointmentDto.class);
+  }
+
+  @Benchmark
+  public PatientDto patient() {
+    return mapper.map(patient, PatientDto.class);
+  }
+
+  @Benchmark
+  public PrescriptionMedicationDto prescription() {
+    return mapper.map(prescription, PrescriptionMedicationDto.class);
+  }
+
+  @Benchmark
+  public LabGroupDto labGroup() {
+    return mapper.map(labGroup, LabGroupDto.class);
+  }
+}
@@ -0,0 +1,95 @@
+package com.qhrtech.emr.restapi.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.mergepatch.JsonMergePatch;
+import com.qhrtech.emr.accuro.model.patient.Patient;
+import com.qhrtech.emr.restapi.config.MappingConfig;
+import com.qhrtech.emr.restapi.config.serialization.AccuroObjectMapperFactory;
+import com.qhrtech.emr.restapi.models.dto.PatientDto;
+import com.qhrtech.emr.restapi.models.dto.PhoneDto;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+/**
+ * The JSON merge patch of a patient as done per request by the PATCH endpoints, once building the
+ * ObjectMapper and ValidatorFactory for the request and once with the shared instances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MergePatchBenchmark {
+
+  private static final String PATCH = "{\"demographics\": {\"firstName\": \"Jane\", "
+      + "\"phones\": [{\"number\": \"250-555-0100\", \"usage\": \"Home\"}]}}";
+
+  private ObjectMapper objectMapper;
+  private ValidatorFactory validatorFactory;
+  private Validator validator;
+  private JsonMergePatch patch;
+  private PatientDto patient;
+
+  @Setup
+  public void setUp() throws Exception {
+    objectMapper = AccuroObjectMapperFactory.newJsonObjectMapper();
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+    patch = JsonMergePatch.fromJson(objectMapper.readTree(PATCH));
+    patient = new MappingConfig().modelMapper()
+        .map(new PodamFactoryImpl().manufacturePojo(Patient.class), PatientDto.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    validatorFactory.close();
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<PhoneDto>> perRequestInstances() throws Exception {
+    ObjectMapper requestMapper = AccuroObjectMapperFactory.newJsonObjectMapper();
+    ValidatorFactory requestFactory = Validation.buildDefaultValidatorFactory();
+    try {
+      JsonNode patched = patch.apply(requestMapper.convertValue(patient, JsonNode.class));
+      PatientDto patchedPatient = requestMapper.treeToValue(patched, PatientDto.class);
+      return validatePhones(requestFactory.getValidator(), patchedPatient);
+    } finally {
+      requestFactory.close();
+    }
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<PhoneDto>> sharedInstances() throws Exception {
+    JsonNode patched = patch.apply(objectMapper.valueToTree(patient));
+    PatientDto patchedPatient = objectMapper.treeToValue(patched, PatientDto.class);
+    return validatePhones(validator, patchedPatient);
+  }
+
+  private static Set<ConstraintViolation<PhoneDto>> validatePhones(Validator validator,
+      PatientDto patient) {
+    Set<ConstraintViolation<PhoneDto>> violations = new HashSet<>();
+    for (PhoneDto phone : patient.getDemographics().getPhones()) {
+      violations.addAll(validator.validate(phone));
+    }
+    return violations;
+  }
+}
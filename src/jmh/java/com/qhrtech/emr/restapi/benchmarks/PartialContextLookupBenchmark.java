@@ -0,0 +1,40 @@
+package com.qhrtech.emr.restapi.benchmarks;
+
+import com.qhrtech.emr.restapi.util.AccuroApiPartialContextEndpoints;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Partial context lookup, run by the security filter chain on every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartialContextLookupBenchmark {
+
+  @Param({
+      "/v1/provider-portal/patients/12345/documents",
+      "/v1/provider-portal/scheduler/statuses",
+      "/v2/patient-portal/appointments"})
+  private String url;
+
+  @Param({"GET", "POST"})
+  private String requestType;
+
+  @Benchmark
+  public Boolean lookUp() {
+    return AccuroApiPartialContextEndpoints.lookUpByUrlAndRequestType(url, requestType);
+  }
+}
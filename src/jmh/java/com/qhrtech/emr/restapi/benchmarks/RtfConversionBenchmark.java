@@ -0,0 +1,69 @@
+package com.qhrtech.emr.restapi.benchmarks;
+
+import com.qhrtech.emr.restapi.services.exceptions.RtfConversionException;
+import com.qhrtech.emr.restapi.services.impl.DefaultRtfConversionService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RTF to plain text conversion of encounter notes and medical history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RtfConversionBenchmark {
+
+  private static final String PARAGRAPH = "\\pard\\plain\\f0\\fs20 Patient reports "
+      + "{\\b intermittent} headaches over the last {\\i two weeks}. "
+      + "{\\strike Previously prescribed} Follow up in one month.\\par\n";
+
+  @Param({"1", "50"})
+  private int paragraphs;
+
+  private DefaultRtfConversionService conversionService;
+  private DefaultRtfConversionService cachingConversionService;
+  private String rtf;
+  private String plain;
+
+  @Setup
+  public void setUp() {
+    conversionService = new DefaultRtfConversionService(0);
+    cachingConversionService = new DefaultRtfConversionService(1000);
+
+    StringBuilder builder = new StringBuilder("{\\rtf1\\ansi\\deff0"
+        + "{\\fonttbl{\\f0\\fswiss Arial;}}\n");
+    for (int i = 0; i < paragraphs; i++) {
+      builder.append(PARAGRAPH);
+    }
+    rtf = builder.append('}').toString();
+    plain = "Patient reports intermittent headaches over the last two weeks.";
+  }
+
+  @Benchmark
+  public String rtf() throws RtfConversionException {
+    return conversionService.getPainText(rtf);
+  }
+
+  @Benchmark
+  public String cachedRtf() throws RtfConversionException {
+    return cachingConversionService.getPainText(rtf);
+  }
+
+  @Benchmark
+  public String plainText() throws RtfConversionException {
+    return conversionService.getPainText(plain);
+  }
+}
@@ -0,0 +1,93 @@
+package com.qhrtech.emr.restapi.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qhrtech.emr.accuro.model.patient.Patient;
+import com.qhrtech.emr.accuro.model.scheduling.Appointment;
+import com.qhrtech.emr.accuro.model.time.AccuroCalendar;
+import com.qhrtech.emr.accuro.model.time.CalendarPrecision;
+import com.qhrtech.emr.restapi.config.MappingConfig;
+import com.qhrtech.emr.restapi.config.serialization.AccuroObjectMapperFactory;
+import com.qhrtech.emr.restapi.models.dto.AppointmentDto;
+import com.qhrtech.emr.restapi.models.dto.patientv2.PatientDto;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.dozer.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.jemos.podam.api.PodamFactory;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+/**
+ * Response serialization through the ObjectMapper configured for CXF, including the custom
+ * Calendar and AccuroCalendar serializers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({"1", "100"})
+  private int size;
+
+  private ObjectMapper objectMapper;
+  private List<AppointmentDto> appointments;
+  private List<PatientDto> patients;
+  private List<Calendar> calendars;
+  private List<AccuroCalendar> accuroCalendars;
+
+  @Setup
+  public void setUp() {
+    objectMapper = AccuroObjectMapperFactory.newJsonObjectMapper();
+    Mapper mapper = new MappingConfig().modelMapper();
+    PodamFactory podamFactory = new PodamFactoryImpl();
+
+    appointments = new ArrayList<>(size);
+    patients = new ArrayList<>(size);
+    calendars = new ArrayList<>(size);
+    accuroCalendars = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      appointments.add(
+          mapper.map(podamFactory.manufacturePojo(Appointment.class), AppointmentDto.class));
+      patients.add(mapper.map(podamFactory.manufacturePojo(Patient.class), PatientDto.class));
+      Calendar calendar = Calendar.getInstance();
+      calendar.add(Calendar.MINUTE, i);
+      calendars.add(calendar);
+      accuroCalendars.add(new AccuroCalendar(calendar, CalendarPrecision.Millisecond));
+    }
+  }
+
+  @Benchmark
+  public String appointments() throws JsonProcessingException {
+    return objectMapper.writeValueAsString(appointments);
+  }
+
+  @Benchmark
+  public String patients() throws JsonProcessingException {
+    return objectMapper.writeValueAsString(patients);
+  }
+
+  @Benchmark
+  public String calendars() throws JsonProcessingException {
+    return objectMapper.writeValueAsString(calendars);
+  }
+
+  @Benchmark
+  public String accuroCalendars() throws JsonProcessingException {
+    return objectMapper.writeValueAsString(accuroCalendars);
+  }
+}
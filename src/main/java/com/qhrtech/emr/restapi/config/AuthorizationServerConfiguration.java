@@ -11,11 +11,16 @@ import com.qhrtech.emr.restapi.security.AccuroRequestFactory;
 import com.qhrtech.emr.restapi.security.AccuroScopeLookup;
 import com.qhrtech.emr.restapi.security.AccuroTokenEnhancer;
 import com.qhrtech.emr.restapi.security.AccuroUserApprovalHandler;
+import com.qhrtech.emr.restapi.security.CachingTokenStore;
+import com.qhrtech.emr.restapi.security.LocalTokenInvalidationChannel;
 import com.qhrtech.emr.restapi.security.MultiTenantAuthenticationKeyGenerator;
+import com.qhrtech.emr.restapi.security.TokenInvalidationChannel;
 import com.qhrtech.emr.restapi.security.datasource.DataSourceService;
+import java.time.Duration;
 import javax.sql.DataSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -70,6 +75,12 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
   @Autowired
   private WebResponseExceptionTranslator exceptionTranslator;
 
+  @Value("${tokenstore.cache.ttl:60000}")
+  private Long tokenCacheTtl;
+
+  @Value("${tokenstore.cache.max-size:10000}")
+  private Integer tokenCacheMaxSize;
+
   @Bean
   public AccuroOAuthClientLookup clientLookup() {
     AccuroOAuthClientLookup lookup = new AccuroOAuthClientCacheLookup();
@@ -92,11 +103,21 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
     return new MultiTenantAuthenticationKeyGenerator();
   }
 
+  /**
+   * Propagates revoked access tokens between nodes. Replace this bean to share invalidations in
+   * load balanced installations.
+   */
+  @Bean
+  public TokenInvalidationChannel tokenInvalidationChannel() {
+    return new LocalTokenInvalidationChannel();
+  }
+
   @Bean
   public TokenStore tokenStore(AuthenticationKeyGenerator authKeyGenerator) {
     JdbcTokenStore tokenStore = new JdbcTokenStore(dataSource);
     tokenStore.setAuthenticationKeyGenerator(authKeyGenerator);
-    return tokenStore;
+    return new CachingTokenStore(tokenStore, tokenInvalidationChannel(),
+        Duration.ofMillis(tokenCacheTtl), tokenCacheMaxSize);
   }
 
   @Bean
@@ -8,10 +8,19 @@ package com.qhrtech.emr.restapi.config;
 import com.qhrtech.emr.restapi.security.AccuroOAuthClient;
 import com.qhrtech.emr.restapi.security.AccuroScope;
 import com.qhrtech.emr.restapi.services.impl.HostedOauthServiceImpl;
-import com.qhrtech.util.SoftCache;
-import com.qhrtech.util.transformer.Transformer;
+import com.qhrtech.emr.restapi.util.RefreshingCache;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -21,28 +30,57 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class CacheConfig {
 
+  private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "oauth-cache-refresh");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   @Autowired
   private HostedOauthServiceImpl hostedOauthServiceImpl;
 
+  @Value("${oauth.cache.refresh-after:300000}")
+  private long refreshAfterMillis;
+
+  @Value("${oauth.cache.expire-after:3600000}")
+  private long expireAfterMillis;
+
+  @Value("${oauth.cache.max-size:10000}")
+  private int maxSize;
+
   @Bean
   @Qualifier("clientCache")
-  public SoftCache<String, AccuroOAuthClient> clientCache() {
-    return new SoftCache<>(SoftCache.CacheType.WEAK, new TransformerImpl());
+  public RefreshingCache<String, AccuroOAuthClient> clientCache() {
+    return newCache(ids -> toMap(hostedOauthServiceImpl.lookupClients(ids),
+        AccuroOAuthClient::getClientId));
   }
 
   @Bean
   @Qualifier("scopeCache")
-  public SoftCache<String, AccuroScope> scopeCache() {
-    return new SoftCache<>(SoftCache.CacheType.WEAK);
+  public RefreshingCache<String, AccuroScope> scopeCache() {
+    return newCache(ids -> toMap(hostedOauthServiceImpl.lookupScopes(ids), AccuroScope::getId));
   }
 
-  private class TransformerImpl implements Transformer<String, AccuroOAuthClient> {
+  @PreDestroy
+  public void shutdown() {
+    refreshExecutor.shutdownNow();
+  }
+
+  /**
+   * Entries are reloaded in the background once they are older than the refresh period. Each
+   * load runs one batched query on a hosted OAuth connection, which the lookup closes before it
+   * returns, so the reloads do not hold pool connections between requests.
+   */
+  private <V> RefreshingCache<String, V> newCache(Function<Set<String>, Map<String, V>> loader) {
+    return new RefreshingCache<>(loader, Duration.ofMillis(refreshAfterMillis),
+        Duration.ofMillis(expireAfterMillis), maxSize, refreshExecutor);
+  }
 
-    @Override
-    public AccuroOAuthClient transform(String input) {
-      // Lookup client in database
-      AccuroOAuthClient client = hostedOauthServiceImpl.lookupClient(input);
-      return client;
+  private static <V> Map<String, V> toMap(Collection<V> values, Function<V, String> id) {
+    Map<String, V> map = new HashMap<>();
+    for (V value : values) {
+      map.put(id.apply(value), value);
     }
+    return map;
   }
 }
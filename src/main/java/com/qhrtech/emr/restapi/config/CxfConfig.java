@@ -16,11 +16,15 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
 import org.apache.cxf.endpoint.Server;
 import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
 import org.apache.cxf.jaxrs.provider.MultipartProvider;
 import org.apache.cxf.jaxrs.spring.JAXRSServerFactoryBeanDefinitionParser;
 import org.apache.cxf.jaxrs.validation.JAXRSBeanValidationInInterceptor;
+import org.apache.cxf.validation.BeanValidationProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -43,6 +47,20 @@ public class CxfConfig {
     return AccuroObjectMapperFactory.newJsonObjectMapper();
   }
 
+  /**
+   * Building a factory scans the constraint metadata of every validated class again, so one
+   * factory is shared by CXF and the endpoints validating by hand.
+   */
+  @Bean(destroyMethod = "close")
+  public ValidatorFactory beanValidatorFactory() {
+    return Validation.buildDefaultValidatorFactory();
+  }
+
+  @Bean
+  public Validator beanValidator() {
+    return beanValidatorFactory().getValidator();
+  }
+
   @Bean
   public JacksonJsonProvider jacksonJsonProvider() {
     return new JacksonJsonProvider(jsonObjectMapper());
@@ -76,7 +94,9 @@ public class CxfConfig {
             webApplicationExceptionHandler(),
             conversationsMultipartProvider,
             new ValidationExceptionMapper()));
-    bean.setInInterceptors(Collections.singletonList(new JAXRSBeanValidationInInterceptor()));
+    JAXRSBeanValidationInInterceptor validationInterceptor = new JAXRSBeanValidationInInterceptor();
+    validationInterceptor.setProvider(new BeanValidationProvider(beanValidatorFactory()));
+    bean.setInInterceptors(Collections.singletonList(validationInterceptor));
     bean.setAddress("/");
     bean.setProperties(getProperties());
     Server server = bean.create();
@@ -1,6 +1,6 @@
-
 package com.qhrtech.emr.restapi.config;
 
+import com.qhrtech.emr.restapi.util.GeneratedMapper;
 import org.dozer.DozerBeanMapper;
 import org.dozer.Mapper;
 import org.springframework.context.annotation.Bean;
@@ -12,10 +12,25 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class MappingConfig {
 
+  private static final String MAPPING_FILE = "/dozer-mappings.xml";
+
+  /**
+   * Flat beans are mapped with generated accessors, everything else is still mapped by Dozer
+   * using the rules in {@value #MAPPING_FILE}.
+   */
   @Bean
   public Mapper modelMapper() {
+    return new GeneratedMapper(dozerMapper(),
+        MappingConfig.class.getResourceAsStream(MAPPING_FILE));
+  }
+
+  /**
+   * The reflective Dozer mapper, used by {@link #modelMapper()} for class pairs it can not
+   * generate.
+   */
+  public DozerBeanMapper dozerMapper() {
     DozerBeanMapper mapper = new DozerBeanMapper();
-    mapper.addMapping(MappingConfig.class.getResourceAsStream("/dozer-mappings.xml"));
+    mapper.addMapping(MappingConfig.class.getResourceAsStream(MAPPING_FILE));
     return mapper;
   }
 }
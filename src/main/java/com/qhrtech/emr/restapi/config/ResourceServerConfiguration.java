@@ -8,6 +8,7 @@ import com.qhrtech.emr.restapi.security.OktaResourceServerTokenServices;
 import com.qhrtech.emr.restapi.security.OktaResourcesFactory;
 import java.io.IOException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
@@ -27,6 +28,8 @@ public class ResourceServerConfiguration extends ResourceServerConfigurerAdapter
   OktaResourcesFactory metadata;
   @Autowired
   private TokenStore tokenStore;
+  @Value("${okta.token.cache.max-size:10000}")
+  private Integer oktaTokenCacheMaxSize;
 
   @Override
   public void configure(ResourceServerSecurityConfigurer resources) throws Exception {
@@ -34,7 +37,7 @@ public class ResourceServerConfiguration extends ResourceServerConfigurerAdapter
         .expressionHandler(new AccuroWebSecurityExpressionHandler())
         .tokenServices(
             new MultiTokenResourceServerTokenServices(
-                new OktaResourceServerTokenServices(getJwtTokenStore()),
+                new OktaResourceServerTokenServices(getJwtTokenStore(), oktaTokenCacheMaxSize),
                 new AccuroResourceServerTokenServices(tokenStore)));
   }
 
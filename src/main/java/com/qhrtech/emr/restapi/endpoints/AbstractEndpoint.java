@@ -1,11 +1,18 @@
 
 package com.qhrtech.emr.restapi.endpoints;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.JsonPatchException;
+import com.github.fge.jsonpatch.mergepatch.JsonMergePatch;
+import com.qhrtech.emr.accuro.model.pagination.Envelope;
 import com.qhrtech.emr.accuro.model.security.permissions.AccuroApiContext;
 import com.qhrtech.emr.accuro.permissions.AuditLogUser;
 import com.qhrtech.emr.restapi.models.endpoints.Error;
 import com.qhrtech.emr.restapi.services.AccuroApiService;
 import com.qhrtech.emr.restapi.services.SecurityContextService;
+import com.qhrtech.emr.restapi.util.JsonStreamingOutput;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
@@ -16,6 +23,7 @@ import java.util.UUID;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
+import javax.validation.Validator;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
@@ -24,6 +32,7 @@ import javax.ws.rs.core.Response.Status;
 import org.dozer.Mapper;
 import org.joda.time.LocalDate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -43,6 +52,12 @@ public abstract class AbstractEndpoint {
   @Autowired
   private Mapper mapper;
   @Autowired
+  @Qualifier("jsonObjectMapper")
+  private ObjectMapper jsonObjectMapper;
+  @Autowired
+  @Qualifier("beanValidator")
+  private Validator beanValidator;
+  @Autowired
   private AccuroApiService api;
 
   protected <T> T getImpl(Class<T> interfaceClass) {
@@ -191,6 +206,81 @@ public abstract class AbstractEndpoint {
             mapFactory));
   }
 
+  /**
+   * <p>
+   * Maps a Collection of entities to another representation while writing them as a JSON array.
+   * </p>
+   *
+   * <p>
+   * The response body is the same as returning the mapped list, but each element is mapped just
+   * before it is written so the mapped list is never held in memory. Validate the request before
+   * calling this, mapping errors can only surface once the response is being written.
+   * </p>
+   *
+   * @param <S> Source Type (e.g. Data layer object type).
+   * @param <D> Destination Type (e.g. API Data Transfer Object type).
+   * @param source Collection of source objects.
+   * @param destinationType Destination Type flag.
+   * @return A JSON response streaming the mapped Data Transfer Objects.
+   */
+  protected <S, D> Response streamDto(Collection<S> source, Class<D> destinationType) {
+    return Response.ok(
+        JsonStreamingOutput.array(jsonObjectMapper, source, s -> mapToDtoImpl(s, destinationType)),
+        MediaType.APPLICATION_JSON_TYPE).build();
+  }
+
+  /**
+   * Maps a page of entities while writing it as an {@code EnvelopeDto}, see
+   * {@link #streamDto(Collection, Class)}.
+   *
+   * @param <S> Source Type (e.g. Data layer object type).
+   * @param <D> Destination Type (e.g. API Data Transfer Object type).
+   * @param source The page of source objects.
+   * @param destinationType Destination Type flag.
+   * @return A JSON response streaming the envelope of mapped Data Transfer Objects.
+   */
+  protected <S, D> Response streamEnvelope(Envelope<S> source, Class<D> destinationType) {
+    return Response.ok(
+        JsonStreamingOutput.envelope(jsonObjectMapper, source.getContents(),
+            s -> mapToDtoImpl(s, destinationType), source.getCount(), source.getTotal(),
+            source.getLastId()),
+        MediaType.APPLICATION_JSON_TYPE).build();
+  }
+
+  /**
+   * Applies a JSON merge patch to a Data Transfer Object.
+   *
+   * The object is converted to a tree, patched and read back with the shared JSON mapper, it is
+   * never written out as text.
+   *
+   * @param <D> Type of the Data Transfer Object.
+   * @param patch The merge patch of the request.
+   * @param source The current state of the object.
+   * @param type Type flag of the object.
+   * @return A new object with the patch applied.
+   * @throws JsonPatchException If the patch can not be applied.
+   * @throws JsonProcessingException If the patched tree is not a valid object of the type.
+   */
+  protected <D> D applyMergePatch(JsonMergePatch patch, D source, Class<D> type)
+      throws JsonPatchException, JsonProcessingException {
+    JsonNode patched = patch.apply(jsonObjectMapper.valueToTree(source));
+    return jsonObjectMapper.treeToValue(patched, type);
+  }
+
+  /**
+   * @return The JSON mapper shared by all requests, configured for the Accuro data model.
+   */
+  protected ObjectMapper getJsonObjectMapper() {
+    return jsonObjectMapper;
+  }
+
+  /**
+   * @return The bean validator shared by all requests.
+   */
+  protected Validator getValidator() {
+    return beanValidator;
+  }
+
   protected String getOAuthId() {
     return securityContextService.getSecurityContext().getOauthClientId();
   }
@@ -5,6 +5,7 @@ import com.qhrtech.emr.accuro.api.demographics.GenderManager;
 import com.qhrtech.emr.accuro.model.exceptions.ProtossException;
 import com.qhrtech.emr.accuro.model.exceptions.dataaccess.DataAccessException;
 import com.qhrtech.emr.restapi.models.dto.GenderDto;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -61,6 +62,7 @@ public class GenderEndpoint extends AbstractEndpoint {
                   array = @ArraySchema(schema = @Schema(
                       implementation = GenderDto.class))))
       })
+  @CachedReferenceData(invalidatedBy = GenderManager.class)
   public Set<GenderDto> getGenders() throws ProtossException {
 
     GenderManager genderManager = getImpl(GenderManager.class);
@@ -12,6 +12,7 @@ import com.qhrtech.emr.accuro.model.exceptions.ProtossException;
 import com.qhrtech.emr.accuro.model.exceptions.dataaccess.DataAccessException;
 import com.qhrtech.emr.restapi.models.dto.OfficialLanguageDto;
 import com.qhrtech.emr.restapi.models.dto.SpokenLanguageDto;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -65,6 +66,7 @@ public class LanguageEndpoint extends AbstractEndpoint {
       })
   @GET
   @Path("/official")
+  @CachedReferenceData(invalidatedBy = CodeSubSystemManager.class)
   public List<OfficialLanguageDto> getOfficialLanguages() throws ProtossException {
     CodeSubSystemManager manager = getImpl(CodeSubSystemManager.class);
     List<CodeSubValue> protossResults =
@@ -99,6 +101,7 @@ public class LanguageEndpoint extends AbstractEndpoint {
       })
   @GET
   @Path("/spoken")
+  @CachedReferenceData(invalidatedBy = CodeSystemManager.class)
   public List<SpokenLanguageDto> getSpokenLanguages() throws ProtossException {
     CodeSystemManager manager = getImpl(CodeSystemManager.class);
     CodeSystem codeSystem = manager.getCodeSystem(CodeTableName.LANGUAGES_ISO.getTableId());
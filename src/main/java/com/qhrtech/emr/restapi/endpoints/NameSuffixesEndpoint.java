@@ -8,6 +8,7 @@ import com.qhrtech.emr.accuro.model.exceptions.dataaccess.DataAccessException;
 import com.qhrtech.emr.restapi.models.dto.ProviderDto;
 import com.qhrtech.emr.restapi.models.dto.ProviderTypeDto;
 import com.qhrtech.emr.restapi.models.dto.SelectionListName;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -63,6 +64,7 @@ public class NameSuffixesEndpoint extends AbstractEndpoint {
       description = "Client, patient, or provider level authorization grant",
       in = ParameterIn.HEADER,
       required = true)
+  @CachedReferenceData(invalidatedBy = SelectionListManager.class)
   public List<String> getNameSuffixes() throws ProtossException {
     // Add default values:
     List<String> nameSuffixes = new ArrayList<>(Arrays.asList("Sr.", "Jr.", "III", "IV", "V"));
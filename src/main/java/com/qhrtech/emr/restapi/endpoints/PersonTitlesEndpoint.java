@@ -7,6 +7,7 @@ import com.qhrtech.emr.accuro.model.exceptions.ProtossException;
 import com.qhrtech.emr.accuro.model.exceptions.dataaccess.DataAccessException;
 import com.qhrtech.emr.restapi.models.dto.ProviderDto;
 import com.qhrtech.emr.restapi.models.dto.ProviderTypeDto;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -58,6 +59,7 @@ public class PersonTitlesEndpoint extends AbstractEndpoint {
       description = "Client, patient, or provider level authorization grant",
       in = ParameterIn.HEADER,
       required = true)
+  @CachedReferenceData(invalidatedBy = PersonTitleManager.class)
   public List<String> getPersonTitles() throws ProtossException {
 
     PersonTitleManager personTitleManager = getImpl(PersonTitleManager.class);
@@ -16,6 +16,8 @@ import com.qhrtech.emr.restapi.models.dto.ProviderIdentifierDto;
 import com.qhrtech.emr.restapi.models.dto.ProviderTypeDto;
 import com.qhrtech.emr.restapi.models.dto.pagination.EnvelopeDto;
 import com.qhrtech.emr.restapi.models.endpoints.Error;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
+import com.qhrtech.emr.restapi.util.InvalidatesReferenceData;
 import com.qhrtech.emr.restapi.util.PaginationConstant;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -90,6 +92,7 @@ public class ProviderEndpoint extends AbstractEndpoint {
       description = "Client, patient, or provider level authorization grant",
       in = ParameterIn.HEADER,
       required = true)
+  @CachedReferenceData(invalidatedBy = ProviderManager.class)
   public Set<ProviderDto> getProviders() throws ProtossException {
 
     ProviderManager providerManager = getImpl(ProviderManager.class);
@@ -178,6 +181,7 @@ public class ProviderEndpoint extends AbstractEndpoint {
       description = "Client, patient, or provider level authorization grant",
       in = ParameterIn.HEADER,
       required = true)
+  @CachedReferenceData(invalidatedBy = ProviderManager.class)
   public Set<ProviderTypeDto> getProviderTypes() throws ProtossException {
 
     ProviderManager providerManager = getImpl(ProviderManager.class);
@@ -242,6 +246,7 @@ public class ProviderEndpoint extends AbstractEndpoint {
       description = "Client, patient, or provider level authorization grant",
       in = ParameterIn.HEADER,
       required = true)
+  @CachedReferenceData(invalidatedBy = ProviderManager.class)
   public Map<String, String> getSpecialties() throws ProtossException {
 
     ProviderManager providerManager = getImpl(ProviderManager.class);
@@ -327,6 +332,7 @@ public class ProviderEndpoint extends AbstractEndpoint {
       name = "authorization", description = "Okta authorization",
       in = ParameterIn.HEADER,
       required = true)
+  @InvalidatesReferenceData(ProviderManager.class)
   public Response createProvider(
       @RequestBody(
           description = "New provider") @Valid ProviderDto providerDto)
@@ -380,6 +386,7 @@ public class ProviderEndpoint extends AbstractEndpoint {
   @PUT
   @Path("/{providerId}/offices")
   @PreAuthorize("#oauth2.hasScope( 'user/provider.Provider.update' )")
+  @InvalidatesReferenceData(ProviderManager.class)
   public Response addProviderToOffices(
       @Parameter(description = "provider id") @PathParam("providerId") int providerId,
       @RequestBody(description = "A list of office ids") List<Integer> officeList)
@@ -618,6 +625,7 @@ public class ProviderEndpoint extends AbstractEndpoint {
       in = ParameterIn.HEADER,
       required = true)
 
+  @InvalidatesReferenceData(ProviderManager.class)
   public Response disableProviderVisibility(
       @PathParam("providerId") int providerId)
       throws DatabaseInteractionException, TimeZoneNotFoundException {
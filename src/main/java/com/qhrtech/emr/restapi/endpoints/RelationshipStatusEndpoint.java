@@ -6,6 +6,7 @@ import com.qhrtech.emr.accuro.model.exceptions.ProtossException;
 import com.qhrtech.emr.accuro.model.exceptions.dataaccess.DataAccessException;
 import com.qhrtech.emr.accuro.model.person.RelationshipStatus;
 import com.qhrtech.emr.restapi.models.dto.RelationshipStatusDto;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -57,6 +58,7 @@ public class RelationshipStatusEndpoint extends AbstractEndpoint {
                       implementation = RelationshipStatusDto.class))))
       })
   @GET
+  @CachedReferenceData(invalidatedBy = RelationshipStatusManager.class)
   public List<RelationshipStatusDto> getRelationshipStatuses() throws ProtossException {
     RelationshipStatusManager manager = getImpl(RelationshipStatusManager.class);
 
@@ -7,6 +7,7 @@ import com.qhrtech.emr.accuro.model.exceptions.dataaccess.DataAccessException;
 import com.qhrtech.emr.accuro.model.scheduling.Site;
 import com.qhrtech.emr.restapi.models.dto.SiteDto;
 import com.qhrtech.emr.restapi.models.endpoints.Error;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -96,6 +97,7 @@ public class SiteEndpoint extends AbstractEndpoint {
               description = "Success",
               content = @Content(
                   array = @ArraySchema(schema = @Schema(implementation = SiteDto.class))))})
+  @CachedReferenceData(invalidatedBy = SiteManager.class)
   public List<SiteDto> getSites() throws ProtossException {
 
     SiteManager siteManager = getImpl(SiteManager.class);
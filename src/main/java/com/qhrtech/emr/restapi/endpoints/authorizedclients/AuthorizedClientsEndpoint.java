@@ -13,6 +13,7 @@ import com.qhrtech.emr.restapi.models.dto.authorizedclients.AuthorizedClientDto;
 import com.qhrtech.emr.restapi.models.dto.pagination.EnvelopeDto;
 import com.qhrtech.emr.restapi.models.dto.tasks.UserTaskDto;
 import com.qhrtech.emr.restapi.models.endpoints.Error;
+import com.qhrtech.emr.restapi.security.apicontext.CachingAccuroApiContextService;
 import com.qhrtech.emr.restapi.util.PaginationConstant;
 import com.webcohesion.enunciate.metadata.Facet;
 import io.swagger.v3.oas.annotations.Hidden;
@@ -40,6 +41,7 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Component;
 
@@ -60,6 +62,9 @@ public class AuthorizedClientsEndpoint extends AbstractEndpoint {
   private static final int DEFAULT_PAGE_SIZE = PaginationConstant.DEFAULT_PAGE_SIZE.getSize();
   private static final int MAX_PAGE_SIZE = PaginationConstant.MAX_PAGE_SIZE.getSize();
 
+  @Autowired
+  private CachingAccuroApiContextService accuroApiContextService;
+
   /**
    * Get all authorized clients which meet the specified filters. The results will be provided in a
    * paginated form. Set the startingId to the {@code EnvelopeDto.lastId} of the previous page to
@@ -282,6 +287,7 @@ public class AuthorizedClientsEndpoint extends AbstractEndpoint {
     AuthorizedClientManager manager = getImpl(AuthorizedClientManager.class);
     int id =
         manager.createAuthorizedClient(mapDto(authorizedClientDto, AuthorizedClient.class));
+    accuroApiContextService.invalidateTenant(getTenantId());
     AuthorizedClient authorizedClient = manager.getAuthorizedClientById(id);
     return mapDto(authorizedClient, AuthorizedClientDto.class);
   }
@@ -338,6 +344,7 @@ public class AuthorizedClientsEndpoint extends AbstractEndpoint {
     AuthorizedClientManager manager = getImpl(AuthorizedClientManager.class);
 
     manager.updateAuthorizedClient(mapDto(authorizedClientDto, AuthorizedClient.class));
+    accuroApiContextService.invalidateTenant(getTenantId());
     return Response.status(Status.NO_CONTENT).build();
   }
 
@@ -370,6 +377,8 @@ public class AuthorizedClientsEndpoint extends AbstractEndpoint {
     AuthorizedClientManager manager = getImpl(AuthorizedClientManager.class);
 
     manager.deleteAuthorizedClient(id);
+    // the cached contexts of a revoked client must not outlive it
+    accuroApiContextService.invalidateTenant(getTenantId());
     return Response.status(Status.NO_CONTENT).build();
   }
 
@@ -16,6 +16,7 @@ import com.qhrtech.emr.restapi.models.swagger.LogicalOperation;
 import com.qhrtech.emr.restapi.models.swagger.ProviderPermission;
 import com.qhrtech.emr.restapi.models.swagger.RolePermission;
 import com.qhrtech.emr.restapi.models.swagger.RolePermissions;
+import com.webcohesion.enunciate.metadata.rs.TypeHint;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -24,7 +25,6 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import javax.ws.rs.GET;
@@ -234,7 +234,8 @@ public class AppointmentMaterialsEndpointV2 extends AbstractEndpoint {
 
               in = ParameterIn.QUERY)
       })
-  public EnvelopeDto<AppointmentMaterialsDto> getAppointments(
+  @TypeHint(EnvelopeDto.class)
+  public Response getAppointments(
       @Parameter(hidden = true) @QueryParam("providerId") Integer providerId,
       @Parameter(hidden = true) @QueryParam("startingId") Long startingId,
       @Parameter(hidden = true) @QueryParam("pageSize") Integer pageSize,
@@ -293,14 +294,7 @@ public class AppointmentMaterialsEndpointV2 extends AbstractEndpoint {
             startingId,
             pageSize);
 
-    EnvelopeDto<AppointmentMaterialsDto> envelope = new EnvelopeDto<>();
-
-    envelope.setContents(mapDto(data.getContents(), AppointmentMaterialsDto.class, ArrayList::new));
-
-    envelope.setCount(data.getCount());
-    envelope.setTotal(data.getTotal());
-    envelope.setLastId(data.getLastId());
-    return envelope;
+    return streamEnvelope(data, AppointmentMaterialsDto.class);
   }
 
   /**
@@ -14,6 +14,7 @@ import com.qhrtech.emr.restapi.models.dto.LabObservationDto;
 import com.qhrtech.emr.restapi.models.endpoints.Error;
 import com.qhrtech.emr.restapi.models.swagger.ProviderPermission;
 import com.webcohesion.enunciate.metadata.Facet;
+import com.webcohesion.enunciate.metadata.rs.TypeHint;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -32,6 +33,7 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import org.joda.time.LocalDate;
 import org.springframework.stereotype.Component;
@@ -112,7 +114,8 @@ public class PatientLabsEndpoint extends AbstractEndpoint {
   @ProviderPermission(type = AccessType.Labs, level = AccessLevel.ReadOnly,
       description = "Allows access to lab groups with a recipient provider the user has this "
           + "permission for.")
-  public List<LabGroupDto> getLabGroups(
+  @TypeHint(LabGroupDto[].class)
+  public Response getLabGroups(
       @Parameter(hidden = true) @QueryParam("testIds") Set<Integer> testIds,
       @Parameter(hidden = true) @QueryParam("resultIds") Set<Integer> resultIds,
       @Parameter(hidden = true) @QueryParam("startDate") Calendar startDate,
@@ -122,9 +125,9 @@ public class PatientLabsEndpoint extends AbstractEndpoint {
     LocalDate end = endDate == null ? null : LocalDate.fromCalendarFields(endDate);
 
     LabManager labManager = getImpl(LabManager.class);
-    return mapDto(
+    return streamDto(
         labManager.getLabsForPatient(getPatientId(), testIds, resultIds, start, end),
-        LabGroupDto.class, ArrayList::new);
+        LabGroupDto.class);
   }
 
   /**
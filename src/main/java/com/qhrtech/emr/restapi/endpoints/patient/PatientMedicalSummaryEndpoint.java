@@ -61,10 +61,15 @@ import com.qhrtech.emr.restapi.models.dto.medicalsummary.PrescriptionDto;
 import com.qhrtech.emr.restapi.models.dto.medications.GenericDrugDto;
 import com.qhrtech.emr.restapi.models.dto.prescriptions.DosageDto;
 import com.qhrtech.emr.restapi.models.swagger.ProviderPermission;
+import com.qhrtech.emr.restapi.security.SecurityContextExecutor;
 import com.qhrtech.emr.restapi.security.exceptions.PrescriptionConversionException;
 import com.qhrtech.emr.restapi.services.PrescriptionDetailsService;
+import com.qhrtech.emr.restapi.util.ApiMetrics;
 import com.qhrtech.emr.restapi.util.EmrUnitsMapping;
 import com.webcohesion.enunciate.metadata.Facet;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -81,6 +86,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.ws.rs.GET;
@@ -113,9 +120,23 @@ import org.springframework.stereotype.Component;
     description = "Exposes patient medical summary endpoints")
 public class PatientMedicalSummaryEndpoint extends AbstractEndpoint {
 
+  private static final AttributeKey<String> SECTION = AttributeKey.stringKey("section");
+  private static final Attributes PRESCRIPTIONS = Attributes.of(SECTION, "prescriptions");
+  private static final Attributes DIAGNOSES = Attributes.of(SECTION, "diagnoses");
+  private static final Attributes ALLERGIES = Attributes.of(SECTION, "allergies");
+  private static final Attributes REACTIONS = Attributes.of(SECTION, "reactions");
+  private static final DoubleHistogram SECTION_DURATION = ApiMetrics.meter()
+      .histogramBuilder("accuro.api.medical.summary.section.duration")
+      .setDescription("Time taken to assemble each section of a patient medical summary")
+      .setUnit("ms")
+      .build();
+
   @Autowired
   private PrescriptionDetailsService service;
 
+  @Autowired
+  private SecurityContextExecutor executor;
+
   private static String formatFloat(float num) {
     if (num == (long) num) {
       return String.format("%d", (long) num);
@@ -172,13 +193,41 @@ public class PatientMedicalSummaryEndpoint extends AbstractEndpoint {
 
     PatientMedicalSummaryDto medicalSummaryDto = new PatientMedicalSummaryDto();
 
-    populatePrescription(medicalSummaryDto, filterPrescriptions(patientId));
+    // The sections are independent of each other, so they are read concurrently.
+    CompletableFuture<Void> prescriptions = submitSection(PRESCRIPTIONS,
+        () -> populatePrescription(medicalSummaryDto, filterPrescriptions(patientId)));
+    CompletableFuture<Void> diagnoses = submitSection(DIAGNOSES,
+        () -> populateDiagnosis(medicalSummaryDto, patientId));
+    CompletableFuture<Void> allergies = submitSection(ALLERGIES,
+        () -> populateAllergies(medicalSummaryDto, patientId));
+
+    // Let every section finish before failing, the security context ends with the request.
+    CompletableFuture.allOf(prescriptions, diagnoses, allergies)
+        .exceptionally(ex -> null)
+        .join();
+    SecurityContextExecutor.await(prescriptions);
+    SecurityContextExecutor.await(diagnoses);
+    SecurityContextExecutor.await(allergies);
 
-    populateDiagnosis(medicalSummaryDto, patientId);
+    return medicalSummaryDto;
+  }
 
-    populateAllergies(medicalSummaryDto, patientId);
+  private CompletableFuture<Void> submitSection(Attributes section, Section task) {
+    return executor.submit(timed(section, () -> {
+      task.populate();
+      return null;
+    }));
+  }
 
-    return medicalSummaryDto;
+  private static <T> Callable<T> timed(Attributes section, Callable<T> task) {
+    return () -> {
+      long start = System.nanoTime();
+      try {
+        return task.call();
+      } finally {
+        SECTION_DURATION.record((System.nanoTime() - start) / 1_000_000d, section);
+      }
+    };
   }
 
   /**
@@ -242,6 +291,7 @@ public class PatientMedicalSummaryEndpoint extends AbstractEndpoint {
       throws ProtossException {
     PatientAllergyManager patientAllergyManager = getImpl(PatientAllergyManager.class);
     List<PatientAllergy> patientAllergies = patientAllergyManager.getForPatient(patientId);
+    Map<Integer, Set<AllergyReaction>> reactionsByAllergy = getReactions(patientAllergies);
     List<PatientAllergySummaryDto> allergySummaryDtos = new ArrayList<>();
     for (PatientAllergy patientAllergy : patientAllergies) {
       /**
@@ -250,15 +300,13 @@ public class PatientMedicalSummaryEndpoint extends AbstractEndpoint {
        */
       PatientAllergySummaryDto allergySummaryDto =
           mapDto(patientAllergy, PatientAllergySummaryDto.class);
-      AllergyReactionManager allergyReactionManager = getImpl(AllergyReactionManager.class);
 
       StringBuilder displayText = new StringBuilder();
       displayText.append("Group: ").append(patientAllergy.getAllergyGroupName()).append(" - ");
       displayText.append("Name: ").append(patientAllergy.getAllergyName()).append(" - ");
       displayText.append("Severity: ").append(patientAllergy.getSeverityCode());
 
-      Set<AllergyReaction> allergyReactions =
-          allergyReactionManager.getByPatientAllergyId(patientAllergy.getId());
+      Set<AllergyReaction> allergyReactions = reactionsByAllergy.get(patientAllergy.getId());
 
       if (!allergyReactions.isEmpty()) {
         displayText.append(" - ");
@@ -287,6 +335,29 @@ public class PatientMedicalSummaryEndpoint extends AbstractEndpoint {
     allergiesDto.setPatientAllergies(allergySummaryDtos);
   }
 
+  /**
+   * Loads the reactions of all the allergies, reading each distinct allergy once. The
+   * AllergyReactionManager has no lookup for several allergies, so this is still one query per
+   * distinct allergy.
+   */
+  private Map<Integer, Set<AllergyReaction>> getReactions(List<PatientAllergy> patientAllergies)
+      throws ProtossException {
+    Map<Integer, Set<AllergyReaction>> reactionsByAllergy = new HashMap<>();
+    if (patientAllergies.isEmpty()) {
+      return reactionsByAllergy;
+    }
+    long start = System.nanoTime();
+    AllergyReactionManager allergyReactionManager = getImpl(AllergyReactionManager.class);
+    for (PatientAllergy patientAllergy : patientAllergies) {
+      Integer allergyId = patientAllergy.getId();
+      if (!reactionsByAllergy.containsKey(allergyId)) {
+        reactionsByAllergy.put(allergyId, allergyReactionManager.getByPatientAllergyId(allergyId));
+      }
+    }
+    SECTION_DURATION.record((System.nanoTime() - start) / 1_000_000d, REACTIONS);
+    return reactionsByAllergy;
+  }
+
   private void populateDiagnosis(PatientMedicalSummaryDto medicalSummaryDto, int patientId)
       throws ProtossException {
 
@@ -673,4 +744,10 @@ public class PatientMedicalSummaryEndpoint extends AbstractEndpoint {
 
     return (int) ((double) duration * (double) unitDuration);
   }
+
+  @FunctionalInterface
+  private interface Section {
+
+    void populate() throws ProtossException;
+  }
 }
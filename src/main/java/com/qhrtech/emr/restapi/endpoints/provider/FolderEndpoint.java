@@ -14,6 +14,8 @@ import com.qhrtech.emr.restapi.models.dto.FolderDto;
 import com.qhrtech.emr.restapi.models.dto.SubFolderDto;
 import com.qhrtech.emr.restapi.models.endpoints.Error;
 import com.qhrtech.emr.restapi.security.exceptions.PreferenceDisabledException;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
+import com.qhrtech.emr.restapi.util.InvalidatesReferenceData;
 import com.webcohesion.enunciate.metadata.Facet;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -112,6 +114,7 @@ public class FolderEndpoint extends AbstractEndpoint {
           + "If it's a wild-card the results will be matching folders. "
           + "And is a case-insensitive.",
       in = ParameterIn.QUERY)
+  @CachedReferenceData(invalidatedBy = FolderTypeManager.class)
   public Set<FolderDto> getFolders(
       @Parameter(hidden = true) @QueryParam("folderName") String folderName)
       throws ProtossException {
@@ -331,6 +334,7 @@ public class FolderEndpoint extends AbstractEndpoint {
               responseCode = "404",
               description = "Resource not found")
       })
+  @InvalidatesReferenceData(FolderTypeManager.class)
   public int createFolder(
       @Parameter(description = "Object of folder") @Valid FolderDto folder)
       throws ProtossException {
@@ -400,6 +404,7 @@ public class FolderEndpoint extends AbstractEndpoint {
               responseCode = "400",
               description = "Invalid folder id or folder information not provided")
       })
+  @InvalidatesReferenceData(FolderTypeManager.class)
   public Response updateFolderLinks(
       @Parameter(description = "The folder id") @PathParam("folderId") Integer folderId,
       @Parameter(description = "Object of folder") FolderDto folderType)
@@ -455,6 +460,7 @@ public class FolderEndpoint extends AbstractEndpoint {
   @Parameter(name = "folderId",
       description = "The folder id of the folder to be deleted",
       in = ParameterIn.PATH)
+  @InvalidatesReferenceData(FolderTypeManager.class)
   public Response deleteFolder(
       @Parameter(hidden = true) @PathParam("folderId") Integer folderId)
       throws ProtossException {
@@ -502,6 +508,7 @@ public class FolderEndpoint extends AbstractEndpoint {
               content = @Content(
                   schema = @Schema(
                       type = "integer", description = "The sub-folder id", example = "1")))})
+  @InvalidatesReferenceData(FolderTypeManager.class)
   public Response createSubFolder(
       @Parameter(description = "The sub-folder") @Valid SubFolderDto subFolderDto)
       throws ProtossException, TimeZoneNotFoundException, SaveException {
@@ -548,6 +555,7 @@ public class FolderEndpoint extends AbstractEndpoint {
               responseCode = "200",
               description = "OK")
       })
+  @InvalidatesReferenceData(FolderTypeManager.class)
   public Response deleteSubFolder(
       @Parameter(
           description = "The sub-folder id") @PathParam("subFolderId") Integer subFolderId)
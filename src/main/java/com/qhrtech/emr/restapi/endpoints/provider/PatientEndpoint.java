@@ -1,10 +1,7 @@
 
 package com.qhrtech.emr.restapi.endpoints.provider;
 
-import static com.qhrtech.emr.restapi.config.serialization.AccuroObjectMapperFactory.newJsonObjectMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatchException;
 import com.github.fge.jsonpatch.mergepatch.JsonMergePatch;
 import com.qhrtech.emr.accuro.api.customfield.CustomFieldManager;
@@ -72,9 +69,7 @@ import javax.imageio.ImageIO;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
-import javax.validation.Validation;
 import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
@@ -414,10 +409,8 @@ public class PatientEndpoint extends AbstractEndpoint {
 
     PatientDto patientDto = mapDto(patientById, PatientDto.class);
 
-    final ObjectMapper objectMapper = newJsonObjectMapper();
-    JsonNode patched = patch.apply(objectMapper.convertValue(patientDto, JsonNode.class));
-    PatientDto patchedPatientDto = objectMapper.treeToValue(patched, PatientDto.class);
-    PatientDto patientDto1 = objectMapper.convertValue(patch, PatientDto.class);
+    PatientDto patchedPatientDto = applyMergePatch(patch, patientDto, PatientDto.class);
+    PatientDto patientDto1 = getJsonObjectMapper().convertValue(patch, PatientDto.class);
 
     if (patchedPatientDto.getPatientId() != patientId) {
       throw Error.webApplicationException(Status.BAD_REQUEST,
@@ -434,8 +427,7 @@ public class PatientEndpoint extends AbstractEndpoint {
     }
 
     if (null != patientDto1.getDemographics()) {
-      ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-      Validator validator = factory.getValidator();
+      Validator validator = getValidator();
       Set<ConstraintViolation<PhoneDto>> violations = CollectionHelper.newHashSet();
       if (null != patientDto1.getDemographics().getPhones()) {
         List<PhoneDto> phoneDtoList = patientDto1.getDemographics().getPhones();
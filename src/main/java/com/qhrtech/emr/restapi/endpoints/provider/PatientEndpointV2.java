@@ -1,7 +1,6 @@
 
 package com.qhrtech.emr.restapi.endpoints.provider;
 
-import static com.qhrtech.emr.restapi.config.serialization.AccuroObjectMapperFactory.newJsonObjectMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -41,15 +40,11 @@ import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.ArrayList;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
-import javax.validation.Validation;
-import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 import javax.ws.rs.Consumes;
@@ -550,17 +545,15 @@ public class PatientEndpointV2 extends AbstractEndpoint {
       throw Error.webApplicationException(Status.BAD_REQUEST, "Invalid patient ID.");
     }
 
-    final ObjectMapper objectMapper = newJsonObjectMapper();
-    PatientDto patientDto1 = objectMapper.convertValue(patch, PatientDto.class);
-    Map<String, Object> map = objectMapper.convertValue(patch, Map.class);
+    final ObjectMapper objectMapper = getJsonObjectMapper();
+    // The patch is converted to a tree once and both reads below use it.
+    JsonNode patchTree = objectMapper.valueToTree(patch);
+    PatientDto patientDto1 = objectMapper.treeToValue(patchTree, PatientDto.class);
     // We need to set to existing value if passed as it is required field.
-    if (!map.containsKey("patientStatusId")) {
+    if (!patchTree.has("patientStatusId")) {
       patientDto1.setPatientStatusId(patientById.getPatientStatusId());
     }
-    ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-
-    Validator validator = factory.getValidator();
-    Set<ConstraintViolation<PatientDto>> violations = validator.validate(patientDto1);
+    Set<ConstraintViolation<PatientDto>> violations = getValidator().validate(patientDto1);
     if (!violations.isEmpty()) {
       throw new ConstraintViolationException("Request Validation Exception", violations);
     }
@@ -572,8 +565,7 @@ public class PatientEndpointV2 extends AbstractEndpoint {
 
     PatientDto patientDto = mapDto(patientById, PatientDto.class);
 
-    JsonNode patched = patch.apply(objectMapper.convertValue(patientDto, JsonNode.class));
-    PatientDto patchedPatientDto = objectMapper.treeToValue(patched, PatientDto.class);
+    PatientDto patchedPatientDto = applyMergePatch(patch, patientDto, PatientDto.class);
 
     validatePatientRequest(patchedPatientDto);
     formatPhoneNumber(patchedPatientDto);
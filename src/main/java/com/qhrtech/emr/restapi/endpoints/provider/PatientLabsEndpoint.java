@@ -19,6 +19,7 @@ import com.qhrtech.emr.restapi.models.swagger.LogicalOperation;
 import com.qhrtech.emr.restapi.models.swagger.ProviderPermission;
 import com.qhrtech.emr.restapi.models.swagger.ProviderPermissions;
 import com.webcohesion.enunciate.metadata.Facet;
+import com.webcohesion.enunciate.metadata.rs.TypeHint;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -45,6 +46,7 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import org.joda.time.LocalDate;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -132,7 +134,8 @@ public class PatientLabsEndpoint extends AbstractEndpoint {
   @ProviderPermission(type = AccessType.Labs, level = AccessLevel.ReadOnly,
       description = "Allows access to lab groups with a recipient provider the user has this "
           + "permission for.")
-  public List<LabGroupDto> getLabGroups(
+  @TypeHint(LabGroupDto[].class)
+  public Response getLabGroups(
       @Parameter(description = "Patient id", hidden = true) @PathParam("patientId") int patientId,
       @Parameter(hidden = true) @QueryParam("testIds") Set<Integer> testIds,
       @Parameter(hidden = true) @QueryParam("resultIds") Set<Integer> resultIds,
@@ -146,8 +149,8 @@ public class PatientLabsEndpoint extends AbstractEndpoint {
       throw Error.webApplicationException(Status.BAD_REQUEST, "Invalid Patient ID.");
     }
     LabManager labManager = getImpl(LabManager.class);
-    return mapDto(labManager.getLabsForPatient(patientId, testIds, resultIds, start, end),
-        LabGroupDto.class, ArrayList::new);
+    return streamDto(labManager.getLabsForPatient(patientId, testIds, resultIds, start, end),
+        LabGroupDto.class);
   }
 
   /**
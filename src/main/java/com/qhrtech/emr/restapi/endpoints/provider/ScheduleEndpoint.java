@@ -56,7 +56,10 @@ import com.qhrtech.emr.restapi.models.swagger.FeaturePermission;
 import com.qhrtech.emr.restapi.models.swagger.LogicalOperation;
 import com.qhrtech.emr.restapi.models.swagger.ProviderPermission;
 import com.qhrtech.emr.restapi.models.swagger.ProviderPermissions;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
+import com.qhrtech.emr.restapi.util.PaginationConstant;
 import com.webcohesion.enunciate.metadata.Facet;
+import com.webcohesion.enunciate.metadata.rs.TypeHint;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -71,6 +74,7 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -81,6 +85,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -100,6 +105,7 @@ import javax.ws.rs.core.UriInfo;
 import org.apache.commons.lang.StringUtils;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
+import org.joda.time.Days;
 import org.joda.time.LocalDate;
 import org.joda.time.Months;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -158,6 +164,9 @@ import org.springframework.stereotype.Component;
 public class ScheduleEndpoint extends AbstractEndpoint {
 
   private static final long DEFAULT_LOCK_EXPIRY = TimeUnit.MINUTES.toSeconds(5);
+  private static final int MAX_APPOINTMENT_RANGE_DAYS = 93;
+  private static final int DEFAULT_PAGE_SIZE = PaginationConstant.DEFAULT_PAGE_SIZE.getSize();
+  private static final int MAX_PAGE_SIZE = PaginationConstant.MAX_PAGE_SIZE.getSize();
 
   /**
    * Get all appointments for the specific date or date range. Filtered for the specific provider,
@@ -171,10 +180,14 @@ public class ScheduleEndpoint extends AbstractEndpoint {
    * @param officeId Office id.
    * @param accessionNumber The appointment accessionNumber. This is an identifier for the
    *        appointment resource. Null and blank accession numbers are not valid.
+   * @param startingId The starting appointment id (exclusive) of the page. Typically the id of the
+   *        last appointment of the previous page.
+   * @param pageSize Number of appointments in the page. Setting either this or {@code startingId}
+   *        returns a single page ordered by appointment id.
    * @return List of Appointment DTOs.
    * @throws TimeZoneNotFoundException If the TimeZone is not set in the Accuro Database.
    * @throws DataAccessException If there has been a database error.
-   * @HTTP 400 Bad request parameters
+   * @HTTP 400 Bad request parameters, or a date range longer than 93 days
    * @HTTP 403 Forbidden with current authentication level
    */
   @GET
@@ -193,7 +206,8 @@ public class ScheduleEndpoint extends AbstractEndpoint {
                   array = @ArraySchema(schema = @Schema(implementation = AppointmentDto.class)))),
           @ApiResponse(
               responseCode = "400",
-              description = "Start date or patient id must be supplied"),
+              description = "Start date or patient id must be supplied, or the date range "
+                  + "is longer than 93 days"),
           @ApiResponse(
               responseCode = "500",
               description = "Timezone not set in Accuro")})
@@ -212,7 +226,7 @@ public class ScheduleEndpoint extends AbstractEndpoint {
               example = "2018-10-01"),
           @Parameter(
               name = "endDate",
-              description = "End Date",
+              description = "End Date - at most 93 days after the start date",
               in = ParameterIn.QUERY,
               example = "2018-10-11"),
           @Parameter(
@@ -243,15 +257,30 @@ public class ScheduleEndpoint extends AbstractEndpoint {
               description = "The appointment accessionNumber. This is another "
                   + "identifier for the appointment resource. Null and blank accession numbers "
                   + "are not valid.",
-              in = ParameterIn.QUERY)})
-  public List<AppointmentDto> getAppointments(
+              in = ParameterIn.QUERY),
+          @Parameter(
+              name = "startingId",
+              description = "The starting appointment id (exclusive) of the page. Setting "
+                  + "either startingId or pageSize returns one page ordered by appointment id",
+              in = ParameterIn.QUERY,
+              schema = @Schema(type = "integer")),
+          @Parameter(
+              name = "pageSize",
+              description = "Number of appointments in the page. Default is " + DEFAULT_PAGE_SIZE
+                  + ", maximum is " + MAX_PAGE_SIZE,
+              in = ParameterIn.QUERY,
+              schema = @Schema(type = "integer"))})
+  @TypeHint(AppointmentDto[].class)
+  public Response getAppointments(
       @Parameter(hidden = true) @QueryParam("startDate") Calendar startDate,
       @Parameter(hidden = true) @QueryParam("endDate") Calendar endDate,
       @Parameter(hidden = true) @QueryParam("provider") Integer providerId,
       @Parameter(hidden = true) @QueryParam("resource") Integer resourceId,
       @Parameter(hidden = true) @QueryParam("patient") Integer patientId,
       @Parameter(hidden = true) @QueryParam("officeId") Integer officeId,
-      @Parameter(hidden = true) @QueryParam("accessionNumber") String accessionNumber)
+      @Parameter(hidden = true) @QueryParam("accessionNumber") String accessionNumber,
+      @Parameter(hidden = true) @QueryParam("startingId") Integer startingId,
+      @Parameter(hidden = true) @QueryParam("pageSize") Integer pageSize)
       throws ProtossException {
 
     if (startDate == null && patientId == null && StringUtils.isBlank(accessionNumber)) {
@@ -268,6 +297,12 @@ public class ScheduleEndpoint extends AbstractEndpoint {
       localEndDate = temp;
     }
 
+    if (localStartDate != null && localEndDate != null
+        && Days.daysBetween(localStartDate, localEndDate).getDays() > MAX_APPOINTMENT_RANGE_DAYS) {
+      throw Error.webApplicationException(Response.Status.BAD_REQUEST,
+          "Maximum date range of " + MAX_APPOINTMENT_RANGE_DAYS + " days allowed.");
+    }
+
     AppointmentManager appointmentManager = getImpl(AppointmentManager.class);
     List<Appointment> appointmentList = appointmentManager.getAppointments(
         localStartDate,
@@ -277,18 +312,21 @@ public class ScheduleEndpoint extends AbstractEndpoint {
         resourceId,
         StringUtils.isBlank(accessionNumber) ? null : accessionNumber);
 
-    List<AppointmentDto> appointments =
-        mapDto(appointmentList, AppointmentDto.class, ArrayList::new);
-
-    // Filter by officeId if provided
+    // Filter and page the domain objects so only returned appointments are mapped.
+    Stream<Appointment> appointments = appointmentList.stream();
     if (officeId != null) {
+      appointments = appointments.filter(a -> officeId.equals(a.getOfficeId()));
+    }
+    if (startingId != null || pageSize != null) {
+      int actualPageSize = pageSize == null || pageSize <= 0 ? DEFAULT_PAGE_SIZE
+          : Math.min(pageSize, MAX_PAGE_SIZE);
       appointments = appointments
-          .stream()
-          .filter(a -> officeId.equals(a.getOfficeId()))
-          .collect(Collectors.toList());
+          .filter(a -> startingId == null || a.getAppointmentId() > startingId)
+          .sorted(Comparator.comparingInt(Appointment::getAppointmentId))
+          .limit(actualPageSize);
     }
 
-    return appointments;
+    return streamDto(appointments.collect(Collectors.toList()), AppointmentDto.class);
   }
 
   /**
@@ -1209,6 +1247,7 @@ public class ScheduleEndpoint extends AbstractEndpoint {
       description = "Provider level authorization grant",
       in = ParameterIn.HEADER,
       required = true)
+  @CachedReferenceData(invalidatedBy = SuggestionManager.class)
   public Set<ScheduleSuggestionDto> getAllSuggestions() throws ProtossException {
     SuggestionManager suggestionManager = getImpl(SuggestionManager.class);
     Set<ScheduleSuggestion> suggestions = suggestionManager.getSuggestions();
@@ -1444,6 +1483,7 @@ public class ScheduleEndpoint extends AbstractEndpoint {
   @ProviderPermission(type = AccessType.Scheduling, level = AccessLevel.Full,
       description = "Allows access to sites "
           + "associated with an office the user has this permission for.")
+  @CachedReferenceData(invalidatedBy = SiteManager.class, perCaller = true)
   public List<SiteDto> getSites() throws ProtossException {
 
     SiteManager siteManager = getImpl(SiteManager.class);
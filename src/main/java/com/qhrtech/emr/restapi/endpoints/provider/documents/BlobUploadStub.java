@@ -4,6 +4,7 @@ package com.qhrtech.emr.restapi.endpoints.provider.documents;
 import com.qhrtech.emr.restapi.models.service.CloudStorageAccount;
 import com.qhrtech.emr.restapi.services.BlobIdentifier;
 import com.qhrtech.emr.restapi.services.BlobIdentifier.BlobIdentifierBuilder;
+import com.qhrtech.emr.restapi.services.BlobSource;
 import com.qhrtech.emr.restapi.services.BlobStorageService;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -35,4 +36,22 @@ public interface BlobUploadStub extends Consumer<String> {
       blobStorageService.uploadBlob(identifier, blobData);
     };
   }
+
+  /**
+   * Returns an uploader which streams the content from the source instead of holding it in memory.
+   */
+  static BlobUploadStub getUploader(BlobStorageService blobStorageService,
+      CloudStorageAccount cloudStorageAccount, BlobSource source, long length) {
+
+    BlobIdentifierBuilder blobIdentifierBuilder = new BlobIdentifierBuilder()
+        .withContainerName(cloudStorageAccount.getContainerName())
+        .withStorageAccount(cloudStorageAccount.getStorageAccountName());
+
+    return (blobName) -> {
+      BlobIdentifier identifier = blobIdentifierBuilder
+          .withBlobName(blobName)
+          .build();
+      blobStorageService.uploadBlob(identifier, source, length);
+    };
+  }
 }
@@ -1,7 +1,6 @@
 
 package com.qhrtech.emr.restapi.endpoints.provider.documents;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.qhrtech.emr.accdocs.api.docs.AccDocManager;
 import com.qhrtech.emr.accdocs.model.docs.AccDoc;
 import com.qhrtech.emr.accuro.api.docs.DocumentManager;
@@ -39,8 +38,11 @@ import com.qhrtech.emr.restapi.models.validators.DocumentValidator;
 import com.qhrtech.emr.restapi.security.exceptions.PreferenceDisabledException;
 import com.qhrtech.emr.restapi.services.AcronDetailsService;
 import com.qhrtech.emr.restapi.services.ModuleService;
+import com.qhrtech.emr.restapi.services.ProtectionLockService;
 import com.qhrtech.emr.restapi.services.exceptions.MD5Exception;
+import com.qhrtech.emr.restapi.services.exceptions.ProtectionLockTimeoutException;
 import com.qhrtech.emr.restapi.services.impl.AzureBlobStorageService;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
 import com.qhrtech.emr.restapi.util.CustomMD5;
 import com.qhrtech.emr.restapi.util.DateFormatter;
 import com.webcohesion.enunciate.metadata.Facet;
@@ -64,9 +66,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
-import javax.validation.Validation;
 import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -74,6 +74,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
@@ -109,10 +110,6 @@ public class DocumentEndpoint extends AbstractEndpoint {
 
   private static final int DEFAULT_LOCK_EXPIRY = (int) TimeUnit.MINUTES.toSeconds(5);
 
-  // Milli seconds
-  private static int WAIT_LOCK_INTERVAL = 200;
-  private static int WAIT_LOCK_MAX_COUNT = 1500;
-
   public static final String PDF = ".pdf";
 
   private static String[] NON_REFERRAL_EXN = {PDF, ".jpg", ".jpeg"};
@@ -126,6 +123,9 @@ public class DocumentEndpoint extends AbstractEndpoint {
   @Autowired
   private AcronDetailsService discoveryDetailsService;
 
+  @Autowired
+  private ProtectionLockService protectionLockService;
+
   /**
    * Creates a document by storing the document meta data and the contents in the database.
    *
@@ -153,7 +153,9 @@ public class DocumentEndpoint extends AbstractEndpoint {
    * @return Response with the document id(s) of the document(s) created.
    * @HTTP 400 if there are field or business validation errors.
    * @HTTP 401 if access is denied or preference not set for any field
+   * @HTTP 409 if another upload to the same patient folder did not finish in time.
    * @HTTP 413 if each document uploaded is more than 10MB
+   * @HTTP 503 if the folder lock could not be queried in time.
    **/
   @POST
   @Consumes("multipart/form-data")
@@ -171,8 +173,12 @@ public class DocumentEndpoint extends AbstractEndpoint {
               description = "If there are field or business validation errors"),
           @ApiResponse(responseCode = "401",
               description = "If access is denied or preference not set for any field"),
+          @ApiResponse(responseCode = "409",
+              description = "If another upload to the same patient folder did not finish in time"),
           @ApiResponse(responseCode = "413",
               description = "If document uploaded is more than 10MB"),
+          @ApiResponse(responseCode = "503",
+              description = "If the folder lock could not be queried in time"),
           @ApiResponse(
               responseCode = "200",
               description = "Success. Returns document id",
@@ -207,13 +213,11 @@ public class DocumentEndpoint extends AbstractEndpoint {
       throws IOException, ConstraintViolationException,
       MD5Exception, ProtossException {
 
-    String lockControlKey = null;
-    UUID lockUuid = null;
+    ProtectionLockService.Lease lease = null;
 
     try {
 
-      ObjectMapper mapper = new ObjectMapper();
-      DocumentDto documentDto = mapper.readValue(details, DocumentDto.class);
+      DocumentDto documentDto = getJsonObjectMapper().readValue(details, DocumentDto.class);
       validateRequest(documentDto, type);
       validateAttachments(document, type);
 
@@ -222,43 +226,22 @@ public class DocumentEndpoint extends AbstractEndpoint {
       DocumentManager documentManager = getImpl(DocumentManager.class);
       AuditLogUser auditLogUser = getUser();
 
-      lockControlKey = documentDto.getPatientId() + "-" + documentDto.getFolderId();
-
-      // Wait if there's an existing lock util it's done
-      int waitCount = 0;
-      boolean obtainedLock = false;
-
-      while (!obtainedLock) {
-        waitCount++;
-        if (waitCount > WAIT_LOCK_MAX_COUNT) {
-          return Response
-              .status(Status.CONFLICT)
-              .build();
-        }
-        try {
-          if (lockExisting(lockControlKey)) {
-            Thread.sleep(WAIT_LOCK_INTERVAL);
-            continue;
-          }
-          lockUuid = createProtectionLock(lockControlKey, auditLogUser.getComputerInfo());
-          if (lockUuid != null) {
-            obtainedLock = true;
-          }
-        } catch (InterruptedException exp) {
-          Thread.currentThread().interrupt();
-          log.error("Protection lock error interrupted: " + lockControlKey
-              + ", " + exp.getMessage());
-        } catch (ResourceConflictException
-            | DatabaseInteractionException exp) {
-          Thread.sleep(WAIT_LOCK_INTERVAL);
-          // Trying not to log too many errors
-          if (waitCount % 100 == 0) {
-            log.error("Protection lock error: " + lockControlKey + ", " + exp.getMessage());
-          }
-        }
+      String lockControlKey = documentDto.getPatientId() + "-" + documentDto.getFolderId();
+      try {
+        lease = protectionLockService.acquire(getTenantId(), lockControlKey,
+            newLockOperations(lockControlKey, auditLogUser.getComputerInfo()));
+      } catch (ProtectionLockTimeoutException ex) {
+        log.warn(ex.getMessage());
+        return Response
+            .status(ex.isUnavailable() ? Status.SERVICE_UNAVAILABLE : Status.CONFLICT)
+            .header(HttpHeaders.RETRY_AFTER, ex.getRetryAfterSeconds())
+            .build();
       }
 
       boolean isAccBlobMode = moduleService.isAccBlobEnabled();
+      CloudStorageAccount cloudStorageAccount = isAccBlobMode
+          ? discoveryDetailsService.getCloudStorageAccount(getTenantId())
+          : null;
 
       for (Attachment attachment : document) {
 
@@ -267,23 +250,30 @@ public class DocumentEndpoint extends AbstractEndpoint {
         // protoss in first loop iteration.
 
         Set<DocumentReview> reviews = getDocReviewMapping(documentDto);
-        byte[] fileBytes = attachment.getObject(byte[].class);
-
-        getEncryptedFileName(documentDto, fileBytes);
-        Document doc = getDocumentMapping(documentDto);
 
         // Azure blob storage
         if (isAccBlobMode) {
-          CloudStorageAccount cloudStorageAccount =
-              discoveryDetailsService.getCloudStorageAccount(getTenantId());
+          // the file is hashed while it is spooled to disk and then streamed to storage, so it is
+          // never held in memory
+          try (SpooledAttachment spooled =
+              SpooledAttachment.spool(attachment.getDataHandler().getInputStream())) {
 
-          BlobUploadStub azureUploader =
-              BlobUploadStub.getUploader(azureBlobStorageService, cloudStorageAccount, fileBytes);
+            setEncryptedFileName(documentDto, spooled.getMd5());
+            Document doc = getDocumentMapping(documentDto);
 
-          int documentId = documentManager.createDocument(doc, reviews, azureUploader);
-          documentIds.add(documentId);
+            BlobUploadStub azureUploader = BlobUploadStub.getUploader(azureBlobStorageService,
+                cloudStorageAccount, spooled, spooled.getLength());
+
+            int documentId = documentManager.createDocument(doc, reviews, azureUploader);
+            documentIds.add(documentId);
+          }
         } else {
           // AccDocs storage
+          byte[] fileBytes = attachment.getObject(byte[].class);
+
+          getEncryptedFileName(documentDto, fileBytes);
+          Document doc = getDocumentMapping(documentDto);
+
           AccDoc accDoc = getAccDocMapping(documentDto, fileBytes);
           int documentId = documentManager.createDocument(doc,
               reviews, accDoc,
@@ -312,8 +302,8 @@ public class DocumentEndpoint extends AbstractEndpoint {
           .type(MediaType.APPLICATION_JSON_TYPE)
           .build());
     } finally {
-      if (lockUuid != null) {
-        releaseProtectionLock(lockControlKey);
+      if (lease != null) {
+        lease.release();
       }
     }
   }
@@ -369,8 +359,7 @@ public class DocumentEndpoint extends AbstractEndpoint {
 
   private void validateRequest(DocumentDto documentDto, String documentType)
       throws ProtossException {
-    ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-    Validator validator = factory.getValidator();
+    Validator validator = getValidator();
 
     AccuroPreferenceManager preferenceManager = getImpl(AccuroPreferenceManager.class);
 
@@ -412,7 +401,11 @@ public class DocumentEndpoint extends AbstractEndpoint {
 
     CustomMD5 fileCrypt = new CustomMD5("md5");
     fileCrypt.readByteArray(fileBytes);
-    String fileName = fileCrypt.toString()
+    return setEncryptedFileName(documentDto, fileCrypt.toString());
+  }
+
+  private DocumentDto setEncryptedFileName(DocumentDto documentDto, String md5) {
+    String fileName = md5
         + documentDto.getFileName().substring(documentDto.getFileName().lastIndexOf("."));
     documentDto.setFileName(fileName);
     return documentDto;
@@ -499,6 +492,7 @@ public class DocumentEndpoint extends AbstractEndpoint {
               content = @Content(
                   array = @ArraySchema(
                       schema = @Schema(implementation = FileTypeDto.class))))})
+  @CachedReferenceData(invalidatedBy = DocumentManager.class)
   public Set<FileTypeDto> getFileTypes() throws ProtossException {
     DocumentManager documentManager = getImpl(DocumentManager.class);
     Set<FileType> fileTypes = documentManager.getFileTypes();
@@ -551,6 +545,32 @@ public class DocumentEndpoint extends AbstractEndpoint {
     return reviewsDto;
   }
 
+  private ProtectionLockService.LockOperations newLockOperations(String lockControlKey,
+      String machine) {
+    return new ProtectionLockService.LockOperations() {
+
+      @Override
+      public boolean isLocked() throws ProtossException {
+        return lockExisting(lockControlKey);
+      }
+
+      @Override
+      public boolean tryLock() throws ProtossException {
+        try {
+          return createProtectionLock(lockControlKey, machine) != null;
+        } catch (ResourceConflictException ex) {
+          // taken by another request between the query and the insert
+          return false;
+        }
+      }
+
+      @Override
+      public void unlock() throws ProtossException {
+        releaseProtectionLock(lockControlKey);
+      }
+    };
+  }
+
   private boolean lockExisting(String lockControlKey) throws DatabaseInteractionException {
     ProtectionLockManager lockManager = getImpl(ProtectionLockManager.class);
     ProtectionLock lock =
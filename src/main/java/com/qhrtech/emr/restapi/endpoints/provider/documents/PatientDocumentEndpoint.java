@@ -20,9 +20,11 @@ import com.qhrtech.emr.restapi.models.service.CloudStorageAccount;
 import com.qhrtech.emr.restapi.services.AcronDetailsService;
 import com.qhrtech.emr.restapi.services.BlobIdentifier;
 import com.qhrtech.emr.restapi.services.BlobIdentifier.BlobIdentifierBuilder;
+import com.qhrtech.emr.restapi.services.BlobMetadata;
 import com.qhrtech.emr.restapi.services.BlobStorageService;
 import com.qhrtech.emr.restapi.services.ModuleService;
 import com.qhrtech.emr.restapi.services.impl.HostedDiscoveryDetailsService;
+import com.qhrtech.emr.restapi.util.ByteRange;
 import com.qhrtech.emr.restapi.util.MimeTypeUtils;
 import com.webcohesion.enunciate.metadata.Facet;
 import io.swagger.v3.oas.annotations.Operation;
@@ -34,19 +36,26 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import org.apache.commons.lang.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -68,6 +77,11 @@ import org.springframework.stereotype.Component;
     description = "Exposes patient document endpoints")
 public class PatientDocumentEndpoint extends AbstractEndpoint {
 
+  private static final String RANGE = "Range";
+  private static final String ACCEPT_RANGES = "Accept-Ranges";
+  private static final String CONTENT_RANGE = "Content-Range";
+  private static final Pattern MD5_HASH = Pattern.compile("^[0-9a-fA-F]{32}$");
+
   @Autowired
   private ModuleService moduleService;
 
@@ -283,10 +297,19 @@ public class PatientDocumentEndpoint extends AbstractEndpoint {
   /**
    * Gets the actual bytes by Document ID.
    *
+   * The content is streamed to the client. A single byte range can be requested with the
+   * <code>Range</code> header, and the content is not sent again if the <code>If-None-Match</code>
+   * header matches the document's ETag.
+   *
    * @param patientId Patient ID
    * @param documentId Document ID
+   * @param range Optional byte range to return
+   * @param ifNoneMatch Optional ETag(s) of a copy the client already holds
    * @return The actual bytes of the document file
    * @throws DataAccessException If there has been a database error.
+   * @HTTP 206 if a range of the document was returned
+   * @HTTP 304 if the document matches the If-None-Match header
+   * @HTTP 416 if the requested range is outside the document
    */
   @GET
   @Path("/{patientId}/documents/{documentId}")
@@ -308,9 +331,18 @@ public class PatientDocumentEndpoint extends AbstractEndpoint {
                       type = "string",
                       format = "binary",
                       example = "Binary content of the file"))),
+          @ApiResponse(
+              responseCode = "206",
+              description = "Success, the requested range of the file"),
+          @ApiResponse(
+              responseCode = "304",
+              description = "The document matches the If-None-Match header"),
           @ApiResponse(
               responseCode = "404",
-              description = "Document not found")})
+              description = "Document not found"),
+          @ApiResponse(
+              responseCode = "416",
+              description = "The requested range is outside the document")})
 
   @Parameters(
       value = {@Parameter(
@@ -329,10 +361,22 @@ public class PatientDocumentEndpoint extends AbstractEndpoint {
               description = "The document id",
               in = ParameterIn.PATH,
               required = true,
-              schema = @Schema(type = "integer"))})
+              schema = @Schema(type = "integer")),
+          @Parameter(
+              name = RANGE,
+              description = "A single byte range of the document to return",
+              in = ParameterIn.HEADER,
+              schema = @Schema(type = "string", example = "bytes=0-1023")),
+          @Parameter(
+              name = HttpHeaders.IF_NONE_MATCH,
+              description = "ETag of a copy of the document held by the client",
+              in = ParameterIn.HEADER,
+              schema = @Schema(type = "string"))})
   public Response getDoc(
       @Parameter(hidden = true) @PathParam("patientId") Integer patientId,
-      @Parameter(hidden = true) @PathParam("documentId") Integer documentId)
+      @Parameter(hidden = true) @PathParam("documentId") Integer documentId,
+      @Parameter(hidden = true) @HeaderParam(RANGE) String range,
+      @Parameter(hidden = true) @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch)
       throws ProtossException {
 
     DocumentManager documentManager = getImpl(DocumentManager.class);
@@ -365,8 +409,18 @@ public class PatientDocumentEndpoint extends AbstractEndpoint {
           .withBlobName(docsAccblob.getBlobName())
           .build();
 
-      byte[] docsContent = blobStorageService.downloadBlob(blobIdentifier);
-      return Response.ok(docsContent, mediaType).build();
+      BlobMetadata metadata = blobStorageService.getBlobMetadata(blobIdentifier);
+      String eTag = metadata.getETag();
+      return buildContentResponse(mediaType, metadata.getSize(), eTag, range, ifNoneMatch,
+          (output, offset, count) -> blobStorageService.downloadBlob(blobIdentifier, output,
+              offset, count, eTag));
+    }
+
+    // AccDocs files are named after the MD5 hash of their content, so a client holding the current
+    // copy is answered without reading the document
+    String eTag = getStoredETag(document.getFileName());
+    if (eTag != null && matchesETag(ifNoneMatch, eTag)) {
+      return notModified(eTag);
     }
 
     AccDocManager accDocManager;
@@ -378,7 +432,107 @@ public class PatientDocumentEndpoint extends AbstractEndpoint {
     if (accDoc == null) {
       throw Error.webApplicationException(Status.NOT_FOUND, "Document not found");
     }
-    return Response.ok(accDoc.getContents(), mediaType).build();
+    byte[] contents = accDoc.getContents();
+    return buildContentResponse(mediaType, contents.length, eTag, range, ifNoneMatch,
+        (output, offset, count) -> output.write(contents, (int) offset, (int) count));
+  }
+
+  /**
+   * Returns the quoted ETag of an AccDocs document, taken from the content hash in its file name.
+   *
+   * @param fileName File name of the document
+   * @return The ETag, or null if the file name is not a content hash
+   */
+  private static String getStoredETag(String fileName) {
+    if (fileName == null) {
+      return null;
+    }
+    int extension = fileName.lastIndexOf('.');
+    String hash = extension < 0 ? fileName : fileName.substring(0, extension);
+    return MD5_HASH.matcher(hash).matches() ? "\"" + hash + "\"" : null;
+  }
+
+  /**
+   * Builds a streamed response for document content, honouring the Range and If-None-Match
+   * headers.
+   *
+   * @param mediaType Media type of the content
+   * @param size Size of the content in bytes
+   * @param eTag Quoted ETag of the content
+   * @param range Value of the Range header
+   * @param ifNoneMatch Value of the If-None-Match header
+   * @param contentWriter Writes a range of the content to the response
+   * @return The response
+   */
+  private static Response buildContentResponse(String mediaType, long size, String eTag,
+      String range, String ifNoneMatch, ContentWriter contentWriter) {
+
+    if (eTag != null && matchesETag(ifNoneMatch, eTag)) {
+      return notModified(eTag);
+    }
+
+    ByteRange byteRange = ByteRange.parse(range, size);
+    if (byteRange != null && !byteRange.isSatisfiable()) {
+      return Response.status(Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+          .header(CONTENT_RANGE, byteRange.toContentRange(size))
+          .build();
+    }
+
+    long offset = byteRange == null ? 0 : byteRange.getOffset();
+    long count = byteRange == null ? size : byteRange.getLength();
+    StreamingOutput body = output -> {
+      if (count > 0) {
+        contentWriter.write(output, offset, count);
+      }
+    };
+
+    ResponseBuilder builder;
+    if (byteRange == null) {
+      builder = Response.ok(body, mediaType);
+    } else {
+      builder = Response.status(Status.PARTIAL_CONTENT)
+          .entity(body)
+          .type(mediaType)
+          .header(CONTENT_RANGE, byteRange.toContentRange(size));
+    }
+    if (eTag != null) {
+      builder.header(HttpHeaders.ETAG, eTag);
+    }
+    return builder
+        .header(ACCEPT_RANGES, "bytes")
+        .header(HttpHeaders.CONTENT_LENGTH, count)
+        .build();
+  }
+
+  private static Response notModified(String eTag) {
+    return Response.notModified()
+        .header(HttpHeaders.ETAG, eTag)
+        .build();
+  }
+
+  private static boolean matchesETag(String ifNoneMatch, String eTag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if ("*".equals(tag) || tag.equals(eTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes part of a document's content to the response.
+   */
+  @FunctionalInterface
+  private interface ContentWriter {
+
+    void write(OutputStream output, long offset, long count) throws IOException;
   }
 
   /**
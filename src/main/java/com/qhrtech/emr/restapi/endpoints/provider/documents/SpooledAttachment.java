@@ -0,0 +1,66 @@
+package com.qhrtech.emr.restapi.endpoints.provider.documents;
+
+import com.qhrtech.emr.restapi.services.BlobSource;
+import com.qhrtech.emr.restapi.services.exceptions.MD5Exception;
+import com.qhrtech.emr.restapi.util.CustomMD5;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An uploaded file copied to a temporary file, with its MD5 computed while it was copied.
+ *
+ * Allows the content to be hashed and then uploaded to blob storage without ever holding the whole
+ * file in memory. The temporary file is deleted when this is closed.
+ */
+public final class SpooledAttachment implements Closeable, BlobSource {
+
+  private final Path file;
+  private final long length;
+  private final String md5;
+
+  private SpooledAttachment(Path file, long length, String md5) {
+    this.file = file;
+    this.length = length;
+    this.md5 = md5;
+  }
+
+  /**
+   * Copies the stream to a temporary file. The stream is not closed.
+   */
+  public static SpooledAttachment spool(InputStream in) throws IOException, MD5Exception {
+    Path file = Files.createTempFile("document-", ".upload");
+    try (OutputStream out = Files.newOutputStream(file)) {
+      CustomMD5 fileCrypt = new CustomMD5("md5");
+      long length = fileCrypt.readInputStream(in, out);
+      return new SpooledAttachment(file, length, fileCrypt.toString());
+    } catch (IOException | MD5Exception | RuntimeException ex) {
+      Files.deleteIfExists(file);
+      throw ex;
+    }
+  }
+
+  @Override
+  public InputStream openStream() throws IOException {
+    return Files.newInputStream(file);
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  /**
+   * @return the hex encoded MD5 of the content.
+   */
+  public String getMd5() {
+    return md5;
+  }
+
+  @Override
+  public void close() throws IOException {
+    Files.deleteIfExists(file);
+  }
+}
@@ -1,10 +1,7 @@
 
 package com.qhrtech.emr.restapi.endpoints.tasks;
 
-import static com.qhrtech.emr.restapi.config.serialization.AccuroObjectMapperFactory.newJsonObjectMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatchException;
 import com.github.fge.jsonpatch.mergepatch.JsonMergePatch;
 import com.qhrtech.emr.accuro.api.security.UserAuthenticationManager;
@@ -24,6 +21,7 @@ import com.qhrtech.emr.restapi.models.endpoints.Error;
 import com.qhrtech.emr.restapi.util.PATCH;
 import com.qhrtech.emr.restapi.validators.CheckNull;
 import com.webcohesion.enunciate.metadata.Facet;
+import com.webcohesion.enunciate.metadata.rs.TypeHint;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -42,9 +40,6 @@ import java.util.regex.Pattern;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
-import javax.validation.Validation;
-import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -186,7 +181,8 @@ public class UserTaskEndpoint extends AbstractEndpoint {
       })
   @GET
   @PreAuthorize("#oauth2.hasScope( 'user/provider.Task.read' )")
-  public EnvelopeDto<UserTaskDto> getTasks(
+  @TypeHint(EnvelopeDto.class)
+  public Response getTasks(
       @Parameter(hidden = true) @QueryParam("patientId") Integer patientId,
       @Parameter(hidden = true) @QueryParam("reason") String reason,
       @Parameter(hidden = true) @QueryParam("includeCompleted") boolean includeCompleted,
@@ -228,14 +224,7 @@ public class UserTaskEndpoint extends AbstractEndpoint {
         userTaskManager.getTasksForUser(getUser(), patientId, reason, includeCompleted, dueDate,
             startDate, endDate, startingId, pageSize);
 
-    EnvelopeDto<UserTaskDto> envelope = new EnvelopeDto<>();
-
-    envelope.setContents(mapDto(userTasks.getContents(), UserTaskDto.class, ArrayList::new));
-
-    envelope.setCount(userTasks.getCount());
-    envelope.setTotal(userTasks.getTotal());
-    envelope.setLastId(userTasks.getLastId());
-    return envelope;
+    return streamEnvelope(userTasks, UserTaskDto.class);
   }
 
   /**
@@ -507,9 +496,7 @@ public class UserTaskEndpoint extends AbstractEndpoint {
 
     UserTaskDto userTaskDto = mapDto(userTask, UserTaskDto.class);
 
-    final ObjectMapper objectMapper = newJsonObjectMapper();
-    JsonNode patched = patch.apply(objectMapper.convertValue(userTaskDto, JsonNode.class));
-    UserTaskDto userTaskPatchedDto = objectMapper.treeToValue(patched, UserTaskDto.class);
+    UserTaskDto userTaskPatchedDto = applyMergePatch(patch, userTaskDto, UserTaskDto.class);
 
     if (userTaskPatchedDto.getId() != taskId) {
       throw Error.webApplicationException(Status.BAD_REQUEST,
@@ -518,10 +505,8 @@ public class UserTaskEndpoint extends AbstractEndpoint {
               + " provided in the body.");
     }
 
-    ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-    Validator validator = factory.getValidator();
     Set<ConstraintViolation<UserTaskDto>> violations =
-        validator.validate(userTaskPatchedDto);
+        getValidator().validate(userTaskPatchedDto);
     if (!violations.isEmpty()) {
       throw new ConstraintViolationException("Request Validation Exception", violations);
     }
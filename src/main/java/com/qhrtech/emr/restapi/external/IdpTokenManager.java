@@ -5,26 +5,25 @@
 
 package com.qhrtech.emr.restapi.external;
 
-import com.qhrtech.emr.accuro.utils.Touple;
-import java.util.Collections;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
 import org.apache.cxf.configuration.jsse.TLSClientParameters;
-import org.apache.cxf.jaxrs.client.WebClient;
 import org.apache.cxf.rs.security.oauth2.client.Consumer;
-import org.apache.cxf.rs.security.oauth2.client.OAuthClientUtils;
-import org.apache.cxf.rs.security.oauth2.common.AccessTokenGrant;
 import org.apache.cxf.rs.security.oauth2.common.ClientAccessToken;
-import org.apache.cxf.rs.security.oauth2.grants.clientcred.ClientCredentialsGrant;
 import org.apache.cxf.rs.security.oauth2.grants.owner.ResourceOwnerGrant;
-import org.apache.cxf.rs.security.oauth2.provider.OAuthJSONProvider;
 import org.apache.cxf.rs.security.oauth2.provider.OAuthServiceException;
-import org.apache.cxf.transport.http.HTTPConduit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
+ * Obtains access tokens from the IDP over TLS 1.2. The client credentials token is cached and
+ * renewed in the background, password grants of concurrent logins run in parallel.
  *
  * @author bdickie
  */
@@ -33,73 +32,44 @@ public class IdpTokenManager {
 
   private static final long EARLY_RENEW_PERIOD = TimeUnit.MINUTES.toMillis(1);
   private static final Logger LOG = LoggerFactory.getLogger(IdpTokenManager.class);
-  private ClientAccessToken accessToken;
-  private long renewTime;
 
-  @Value("${medeo.idp.url}")
-  private String idpUrl;
+  private final ExecutorService renewExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "idp-token-renew");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final OAuthTokenClient tokenClient;
 
-  @Value("${medeo.client_id}")
-  private String clientId;
-
-  @Value("${medeo.client_secret}")
-  private String clientSecret;
-
-  /**
-   * This method is essentially a copy of OAuthClientUtils.getAccessToken() however the WebClient is
-   * modified to enable TLS 1.2 connections.
-   *
-   * @param accessTokenServiceUri
-   * @param consumer
-   * @param grant
-   *
-   * @return
-   *
-   * @throws OAuthServiceException
-   */
-  private static ClientAccessToken getAccessToken(
-      String accessTokenServiceUri,
-      Consumer consumer,
-      AccessTokenGrant grant) throws OAuthServiceException {
-    OAuthJSONProvider provider = new OAuthJSONProvider();
-    WebClient accessTokenService =
-        WebClient.create(accessTokenServiceUri, Collections.singletonList(provider));
-    HTTPConduit conduit = (HTTPConduit) WebClient.getConfig(accessTokenService).getConduit();
+  @Autowired
+  public IdpTokenManager(
+      @Value("${medeo.idp.url}") String idpUrl,
+      @Value("${medeo.client_id}") String clientId,
+      @Value("${medeo.client_secret}") String clientSecret) {
+    String url = idpUrl.endsWith("/") ? idpUrl.substring(0, idpUrl.length() - 1) : idpUrl;
     TLSClientParameters tlsParams = new TLSClientParameters();
     tlsParams.setSecureSocketProtocol("TLSv1.2");
-    conduit.setTlsClientParameters(tlsParams);
-    accessTokenService.accept("application/json");
-    return OAuthClientUtils.getAccessToken(accessTokenService, consumer, grant, true);
+    this.tokenClient = new OAuthTokenClient(url + "/oauth/token",
+        new Consumer(clientId, clientSecret), tlsParams, Duration.ofMillis(EARLY_RENEW_PERIOD),
+        renewExecutor);
   }
 
-  public synchronized String getAuthenticationHeader() {
-    if (accessToken == null || renewTime < System.currentTimeMillis()) {
-      ClientCredentialsGrant grant = new ClientCredentialsGrant("public");
-      Touple<ClientAccessToken, Long> token = obtainAccessToken(grant);
-      accessToken = token.getFirst();
-      renewTime = token.getSecond();
-    }
-    return OAuthClientUtils.createAuthorizationHeader(accessToken);
+  public String getAuthenticationHeader() {
+    return tokenClient.getAuthenticationHeader();
   }
 
-  public synchronized ClientAccessToken getPasswordToken(String username, String password) {
+  public ClientAccessToken getPasswordToken(String username, String password) {
     ResourceOwnerGrant grant = new ResourceOwnerGrant(username, password);
-    Touple<ClientAccessToken, Long> token;
     try {
-      token = obtainAccessToken(grant);
+      return tokenClient.requestToken(grant);
     } catch (OAuthServiceException ex) {
       LOG.debug("Error getting client access token.", ex);
       return null;
     }
-    return token.getFirst();
   }
 
-  private Touple<ClientAccessToken, Long> obtainAccessToken(AccessTokenGrant grant) {
-    String url = idpUrl.endsWith("/") ? idpUrl.substring(0, idpUrl.length() - 1) : idpUrl;
-    Consumer consumer = new Consumer(clientId, clientSecret);
-    ClientAccessToken token = getAccessToken(url + "/oauth/token", consumer, grant);
-    Long timeout =
-        TimeUnit.SECONDS.toMillis(token.getIssuedAt() + token.getExpiresIn()) - EARLY_RENEW_PERIOD;
-    return new Touple<>(token, timeout);
+  @PreDestroy
+  public void shutdown() {
+    renewExecutor.shutdownNow();
+    tokenClient.close();
   }
 }
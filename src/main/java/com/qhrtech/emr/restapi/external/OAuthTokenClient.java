@@ -0,0 +1,230 @@
+package com.qhrtech.emr.restapi.external;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.ws.rs.core.MediaType;
+import org.apache.cxf.configuration.jsse.TLSClientParameters;
+import org.apache.cxf.jaxrs.client.WebClient;
+import org.apache.cxf.rs.security.oauth2.client.Consumer;
+import org.apache.cxf.rs.security.oauth2.client.OAuthClientUtils;
+import org.apache.cxf.rs.security.oauth2.common.AccessTokenGrant;
+import org.apache.cxf.rs.security.oauth2.common.ClientAccessToken;
+import org.apache.cxf.rs.security.oauth2.grants.clientcred.ClientCredentialsGrant;
+import org.apache.cxf.rs.security.oauth2.provider.OAuthJSONProvider;
+import org.apache.cxf.transport.http.HTTPConduit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Obtains OAuth2 access tokens from one token endpoint over a single thread safe client, reusing
+ * its conduit and TLS configuration for every request. The client is built on the first request,
+ * so a token endpoint that is never used does not need to be configured.
+ *
+ * The client credentials token is cached and read without locking. It is used until one early
+ * renew period before it expires, and renewed on a background thread during the early renew
+ * period before that. Requests finding no usable token share a single request to the endpoint.
+ * Other grants, like password grants, are never cached and run in parallel.
+ */
+final class OAuthTokenClient {
+
+  private static final Logger log = LoggerFactory.getLogger(OAuthTokenClient.class);
+
+  private final AtomicReference<CompletableFuture<CachedToken>> renewal = new AtomicReference<>();
+  private final TokenRequester requester;
+  private final String tokenUrl;
+  private final Consumer consumer;
+  private final TLSClientParameters tlsParams;
+  private final long earlyRenewMillis;
+  private final Executor renewExecutor;
+  private final Clock clock;
+  private volatile CachedToken current;
+  private volatile WebClient webClient;
+
+  /**
+   * @param tokenUrl The URL of the token endpoint.
+   * @param consumer The client credentials, sent as basic authentication.
+   * @param tlsParams The TLS configuration of the conduit.
+   * @param earlyRenewPeriod How long before its expiry a token is no longer used.
+   * @param renewExecutor Runs the background renewals of the client credentials token.
+   */
+  OAuthTokenClient(String tokenUrl, Consumer consumer, TLSClientParameters tlsParams,
+      Duration earlyRenewPeriod, Executor renewExecutor) {
+    this.tokenUrl = tokenUrl;
+    this.consumer = consumer;
+    this.tlsParams = tlsParams;
+    this.requester = this::post;
+    this.earlyRenewMillis = earlyRenewPeriod.toMillis();
+    this.renewExecutor = renewExecutor;
+    this.clock = Clock.systemUTC();
+  }
+
+  OAuthTokenClient(TokenRequester requester, Duration earlyRenewPeriod, Executor renewExecutor,
+      Clock clock) {
+    this.requester = requester;
+    this.tokenUrl = null;
+    this.consumer = null;
+    this.tlsParams = null;
+    this.earlyRenewMillis = earlyRenewPeriod.toMillis();
+    this.renewExecutor = renewExecutor;
+    this.clock = clock;
+  }
+
+  /**
+   * @return The authorization header value of the client credentials token.
+   * @throws org.apache.cxf.rs.security.oauth2.provider.OAuthServiceException If there is no
+   *         usable token and the endpoint refused to issue one.
+   */
+  String getAuthenticationHeader() {
+    long now = clock.millis();
+    CachedToken cached = current;
+    if (cached != null && now < cached.expiry) {
+      if (now >= cached.renewAt) {
+        renew(false);
+      }
+      return cached.header;
+    }
+    return join(renew(true)).header;
+  }
+
+  /**
+   * Requests a token without caching it.
+   *
+   * @param grant The grant to request a token for.
+   * @return The issued token.
+   * @throws org.apache.cxf.rs.security.oauth2.provider.OAuthServiceException If the endpoint
+   *         refused to issue a token.
+   */
+  ClientAccessToken requestToken(AccessTokenGrant grant) {
+    return requester.request(grant);
+  }
+
+  void close() {
+    WebClient client = webClient;
+    if (client != null) {
+      client.close();
+    }
+  }
+
+  private ClientAccessToken post(AccessTokenGrant grant) {
+    WebClient client = getWebClient();
+    try {
+      client.accept(MediaType.APPLICATION_JSON);
+      return OAuthClientUtils.getAccessToken(client, consumer, grant, true);
+    } finally {
+      client.reset();
+    }
+  }
+
+  private WebClient getWebClient() {
+    WebClient client = webClient;
+    if (client == null) {
+      synchronized (this) {
+        client = webClient;
+        if (client == null) {
+          // a thread safe client keeps the headers and response of each request in thread local
+          // state
+          client = WebClient.create(tokenUrl,
+              Collections.singletonList(new OAuthJSONProvider()), true);
+          HTTPConduit conduit = (HTTPConduit) WebClient.getConfig(client).getConduit();
+          conduit.setTlsClientParameters(tlsParams);
+          webClient = client;
+        }
+      }
+    }
+    return client;
+  }
+
+  /**
+   * Starts renewing the client credentials token, unless a renewal is already running.
+   *
+   * @param wait True to renew on the calling thread, false to renew in the background.
+   * @return The running renewal.
+   */
+  private CompletableFuture<CachedToken> renew(boolean wait) {
+    while (true) {
+      CompletableFuture<CachedToken> running = renewal.get();
+      if (running != null) {
+        return running;
+      }
+      CompletableFuture<CachedToken> future = new CompletableFuture<>();
+      if (!renewal.compareAndSet(null, future)) {
+        continue;
+      }
+      Runnable task = () -> obtain(future, wait);
+      if (wait) {
+        task.run();
+      } else {
+        try {
+          renewExecutor.execute(task);
+        } catch (RejectedExecutionException ex) {
+          renewal.set(null);
+          future.completeExceptionally(ex);
+        }
+      }
+      return future;
+    }
+  }
+
+  private void obtain(CompletableFuture<CachedToken> future, boolean wait) {
+    try {
+      ClientAccessToken token = requester.request(new ClientCredentialsGrant("public"));
+      long expiry = TimeUnit.SECONDS.toMillis(token.getIssuedAt() + token.getExpiresIn())
+          - earlyRenewMillis;
+      CachedToken cached = new CachedToken(OAuthClientUtils.createAuthorizationHeader(token),
+          expiry, expiry - earlyRenewMillis);
+      current = cached;
+      renewal.set(null);
+      future.complete(cached);
+    } catch (RuntimeException | Error ex) {
+      if (!wait) {
+        // The current token is kept, and served until it expires.
+        log.warn("Background renewal of the access token failed", ex);
+      }
+      renewal.set(null);
+      future.completeExceptionally(ex);
+    }
+  }
+
+  private static <V> V join(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Requests a token from the endpoint.
+   */
+  interface TokenRequester {
+
+    ClientAccessToken request(AccessTokenGrant grant);
+  }
+
+  private static final class CachedToken {
+
+    private final String header;
+    private final long expiry;
+    private final long renewAt;
+
+    private CachedToken(String header, long expiry, long renewAt) {
+      this.header = header;
+      this.expiry = expiry;
+      this.renewAt = renewAt;
+    }
+  }
+}
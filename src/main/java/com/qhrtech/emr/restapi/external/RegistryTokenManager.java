@@ -5,29 +5,25 @@
 
 package com.qhrtech.emr.restapi.external;
 
-import java.util.Collections;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
 import javax.ws.rs.core.HttpHeaders;
-import javax.ws.rs.core.MediaType;
 import org.apache.cxf.configuration.jsse.TLSClientParameters;
-import org.apache.cxf.jaxrs.client.WebClient;
 import org.apache.cxf.rs.security.oauth2.client.Consumer;
-import org.apache.cxf.rs.security.oauth2.client.OAuthClientUtils;
-import org.apache.cxf.rs.security.oauth2.common.AccessTokenGrant;
-import org.apache.cxf.rs.security.oauth2.common.ClientAccessToken;
-import org.apache.cxf.rs.security.oauth2.grants.clientcred.ClientCredentialsGrant;
-import org.apache.cxf.rs.security.oauth2.provider.OAuthJSONProvider;
 import org.apache.cxf.rs.security.oauth2.provider.OAuthServiceException;
-import org.apache.cxf.transport.http.HTTPConduit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
- * Class for managing the Oauth2 Client Credentials Grant flow to the Registry Caches the access
- * token but will refresh the token automatically if it is less than one minute before the token is
- * set to expire.
+ * Class for managing the Oauth2 Client Credentials Grant flow to the Registry. Caches the access
+ * token, renewing it in the background two minutes before the token is set to expire and before
+ * use if it is less than one minute before it expires.
  *
  * @author bryan.bergen
  */
@@ -36,33 +32,25 @@ public class RegistryTokenManager {
 
   private static final long EARLY_RENEW_PERIOD = TimeUnit.MINUTES.toMillis(1);
   private static final Logger log = LoggerFactory.getLogger(RegistryTokenManager.class);
-  private ClientAccessToken accessToken;
-  private long renewTime;
 
-  @Value("${registry.url.token}")
-  private String registryTokenUrl;
+  private final ExecutorService renewExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "registry-token-renew");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final OAuthTokenClient tokenClient;
 
-  @Value("${registry.client_id}")
-  private String clientId;
-
-  @Value("${registry.client_secret}")
-  private String clientSecret;
-
-  private static ClientAccessToken getAccessToken(
-      String accessTokenServiceUrl,
-      Consumer consumer,
-      AccessTokenGrant grant) {
-    OAuthJSONProvider provider = new OAuthJSONProvider();
-    WebClient accessTokenService =
-        WebClient.create(accessTokenServiceUrl, Collections.singletonList(provider));
-    final HTTPConduit conduit = (HTTPConduit) WebClient.getConfig(accessTokenService).getConduit();
+  @Autowired
+  public RegistryTokenManager(
+      @Value("${registry.url.token}") String registryTokenUrl,
+      @Value("${registry.client_id}") String clientId,
+      @Value("${registry.client_secret}") String clientSecret) {
     TLSClientParameters tlsParams = new TLSClientParameters();
     tlsParams.setSecureSocketProtocol("TLSv1.2");
     tlsParams.setUseHttpsURLConnectionDefaultSslSocketFactory(true);
     tlsParams.setUseHttpsURLConnectionDefaultHostnameVerifier(true);
-    conduit.setTlsClientParameters(tlsParams);
-    accessTokenService.accept(MediaType.APPLICATION_JSON);
-    return OAuthClientUtils.getAccessToken(accessTokenService, consumer, grant, true);
+    this.tokenClient = new OAuthTokenClient(registryTokenUrl, new Consumer(clientId, clientSecret),
+        tlsParams, Duration.ofMillis(EARLY_RENEW_PERIOD), renewExecutor);
   }
 
   /**
@@ -72,42 +60,18 @@ public class RegistryTokenManager {
    *
    * @return - Authorization header value
    */
-  public synchronized String getAuthenticationHeader() {
-    if (accessToken == null || renewTime < System.currentTimeMillis()) {
-      ClientCredentialsGrant grant = new ClientCredentialsGrant("public");
-      ExpiringToken token;
-      try {
-        token = obtainAccessToken(grant);
-      } catch (OAuthServiceException e) {
-        log.error("Error getting client access token.", e);
-        return null;
-      }
-      accessToken = token.token;
-      renewTime = token.expiry;
+  public String getAuthenticationHeader() {
+    try {
+      return tokenClient.getAuthenticationHeader();
+    } catch (OAuthServiceException e) {
+      log.error("Error getting client access token.", e);
+      return null;
     }
-    return OAuthClientUtils.createAuthorizationHeader(accessToken);
   }
 
-  private ExpiringToken obtainAccessToken(AccessTokenGrant grant) {
-    Consumer consumer = new Consumer(clientId, clientSecret);
-    ClientAccessToken token = getAccessToken(registryTokenUrl, consumer, grant);
-    long timeout =
-        TimeUnit.SECONDS.toMillis(token.getIssuedAt() + token.getExpiresIn()) - EARLY_RENEW_PERIOD;
-    return new ExpiringToken(token, timeout);
-  }
-
-  /**
-   * Small immutable helper class for associating the expiry time with the access_token
-   */
-  private static class ExpiringToken {
-
-    private final ClientAccessToken token;
-    private final long expiry;
-
-    public ExpiringToken(ClientAccessToken token, long expiry) {
-      this.token = token;
-      this.expiry = expiry;
-    }
-
+  @PreDestroy
+  public void shutdown() {
+    renewExecutor.shutdownNow();
+    tokenClient.close();
   }
 }
@@ -31,6 +31,12 @@ import org.springframework.web.context.support.SpringBeanAutowiringSupport;
  */
 public class MultiTenantLoggingFilter implements Filter {
 
+  /**
+   * Request attribute holding the resolved tenant id for the filters further down the chain.
+   */
+  public static final String TENANT_ID_ATTRIBUTE = MultiTenantLoggingFilter.class.getName()
+      + ".tenantId";
+
   private static final String MDC_TENANT_ID_KEY = "tenant_id";
   private static final String NO_TENANT_ID = "BAD REQUEST";
 
@@ -43,12 +49,13 @@ public class MultiTenantLoggingFilter implements Filter {
         filterConfig.getServletContext());
   }
 
-  private void addTenantToTelemetry(ServletRequest request) {
+  private void addTenantToRequest(ServletRequest request) {
     if (!isTenantRequired()) {
       return;
     }
     String tenantId = getTenantId(request);
     if (tenantId != null && !tenantId.isEmpty()) {
+      request.setAttribute(TENANT_ID_ATTRIBUTE, tenantId);
       Span currentSpan = Span.current();
       currentSpan.setAttribute("deployment.acron", tenantId);
     }
@@ -59,7 +66,7 @@ public class MultiTenantLoggingFilter implements Filter {
       throws IOException, ServletException {
     try {
       MDC.put(MDC_TENANT_ID_KEY, tenantKey(request));
-      addTenantToTelemetry(request);
+      addTenantToRequest(request);
       chain.doFilter(request, response);
     } finally {
       MDC.remove(MDC_TENANT_ID_KEY);
@@ -3,6 +3,7 @@ package com.qhrtech.emr.restapi.filter;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.qhrtech.emr.restapi.models.dto.security.ErrorResponse;
 import java.io.IOException;
 import javax.servlet.FilterChain;
@@ -16,6 +17,9 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 public class SecurityExceptionHandlerFilter extends OncePerRequestFilter {
 
+  private static final ObjectWriter ERROR_WRITER =
+      new ObjectMapper().writerFor(ErrorResponse.class);
+
   private final Logger log = LoggerFactory.getLogger(getClass());
 
   @Override
@@ -35,8 +39,7 @@ public class SecurityExceptionHandlerFilter extends OncePerRequestFilter {
     if (object == null) {
       return null;
     }
-    ObjectMapper mapper = new ObjectMapper();
-    return mapper.writeValueAsString(object);
+    return ERROR_WRITER.writeValueAsString(object);
   }
 
   private void processExceptionImpl(HttpServletResponse response, String message, int status)
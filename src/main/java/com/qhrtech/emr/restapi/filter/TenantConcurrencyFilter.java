@@ -0,0 +1,61 @@
+package com.qhrtech.emr.restapi.filter;
+
+import com.qhrtech.emr.restapi.security.exceptions.FilterException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.support.SpringBeanAutowiringSupport;
+
+/**
+ * Servlet filter applying the {@link TenantConcurrencyLimiter} to the tenant resolved by the
+ * {@link MultiTenantLoggingFilter}. Requests over the limit of their tenant fail fast with 429.
+ */
+public class TenantConcurrencyFilter implements Filter {
+
+  @Autowired
+  private TenantConcurrencyLimiter limiter;
+
+  @Override
+  public void init(FilterConfig filterConfig) {
+    SpringBeanAutowiringSupport.processInjectionBasedOnServletContext(
+        this,
+        filterConfig.getServletContext());
+  }
+
+  @Override
+  public void destroy() {
+  }
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+
+    Object tenantId = request.getAttribute(MultiTenantLoggingFilter.TENANT_ID_ATTRIBUTE);
+    if (limiter == null || !(tenantId instanceof String)) {
+      chain.doFilter(request, response);
+      return;
+    }
+
+    String tenant = (String) tenantId;
+    if (!limiter.tryAcquire(tenant)) {
+      ((HttpServletResponse) response).setHeader(HttpHeaders.RETRY_AFTER, "1");
+      throw new FilterException(HttpStatus.TOO_MANY_REQUESTS.value(),
+          "Too many concurrent requests for this clinic. Please try again later.");
+    }
+    long start = System.nanoTime();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      limiter.release(tenant, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+  }
+}
@@ -0,0 +1,221 @@
+package com.qhrtech.emr.restapi.filter;
+
+import com.qhrtech.emr.restapi.util.ApiMetrics;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adaptive limit on the number of requests each tenant may run at once.
+ *
+ * A tenant runs up to its current limit of requests, a few more wait briefly for a slot and the
+ * rest are rejected. The limit is adjusted with AIMD: it grows by one when a request completes
+ * within the latency threshold while the tenant uses at least half of it, and is multiplied by
+ * the backoff ratio when a request is slower than the threshold. A tenant whose database slows
+ * down ends up holding few servlet threads instead of starving the other tenants.
+ *
+ * Every option is read from {@code tenants.limit.<option>} and can be overridden for a single
+ * tenant with {@code tenants.limit.<tenant id>.<option>}.
+ */
+@Component
+public class TenantConcurrencyLimiter {
+
+  private static final String PREFIX = "tenants.limit.";
+  private static final AttributeKey<String> TENANT = AttributeKey.stringKey("tenant");
+  private static final LongCounter REJECTED_COUNTER = ApiMetrics.meter()
+      .counterBuilder("accuro.api.tenant.requests.rejected")
+      .setDescription("Requests rejected by the tenant concurrency limit")
+      .build();
+
+  private final Map<String, TenantLimit> limits = new ConcurrentHashMap<>();
+  private final Environment environment;
+
+  @Autowired
+  public TenantConcurrencyLimiter(Environment environment) {
+    this.environment = environment;
+
+    Meter meter = ApiMetrics.meter();
+    registerGauge(meter, "accuro.api.tenant.requests.inflight",
+        "Requests of the tenant currently running", TenantLimit::getInFlight);
+    registerGauge(meter, "accuro.api.tenant.requests.queued",
+        "Requests of the tenant waiting for the concurrency limit", TenantLimit::getQueued);
+    registerGauge(meter, "accuro.api.tenant.requests.limit",
+        "Current concurrency limit of the tenant", TenantLimit::getLimit);
+  }
+
+  /**
+   * Takes a slot for a request of the tenant, waiting up to the queue timeout if the tenant is at
+   * its limit. Every successful call must be followed by {@link #release(String, long)}.
+   *
+   * @param tenantId The tenant of the request.
+   * @return False if the request was rejected.
+   */
+  public boolean tryAcquire(String tenantId) {
+    TenantLimit limit = getTenantLimit(tenantId);
+    if (limit.tryAcquire()) {
+      return true;
+    }
+    REJECTED_COUNTER.add(1, Attributes.of(TENANT, tenantId));
+    return false;
+  }
+
+  /**
+   * Frees the slot taken by a request and adjusts the limit of the tenant.
+   *
+   * @param tenantId The tenant of the request.
+   * @param latencyMillis How long the request took.
+   */
+  public void release(String tenantId, long latencyMillis) {
+    getTenantLimit(tenantId).release(latencyMillis);
+  }
+
+  public long getInFlight(String tenantId) {
+    return getTenantLimit(tenantId).getInFlight();
+  }
+
+  public long getQueued(String tenantId) {
+    return getTenantLimit(tenantId).getQueued();
+  }
+
+  public long getRejected(String tenantId) {
+    return getTenantLimit(tenantId).getRejected();
+  }
+
+  public long getLimit(String tenantId) {
+    return getTenantLimit(tenantId).getLimit();
+  }
+
+  private TenantLimit getTenantLimit(String tenantId) {
+    return limits.computeIfAbsent(tenantId, this::newTenantLimit);
+  }
+
+  private TenantLimit newTenantLimit(String tenantId) {
+    int min = getProperty(tenantId, "min", Integer.class, 2);
+    int max = Math.max(min, getProperty(tenantId, "max", Integer.class, 100));
+    int initial = Math.min(max, Math.max(min, getProperty(tenantId, "initial", Integer.class, 20)));
+    return new TenantLimit(
+        initial,
+        min,
+        max,
+        getProperty(tenantId, "latency-threshold", Long.class, 5000L),
+        getProperty(tenantId, "backoff-ratio", Double.class, 0.9),
+        getProperty(tenantId, "queue-size", Integer.class, 10),
+        getProperty(tenantId, "queue-timeout", Long.class, 100L));
+  }
+
+  private <T> T getProperty(String tenantId, String option, Class<T> type, T defaultValue) {
+    T value = environment.getProperty(PREFIX + tenantId + "." + option, type);
+    return value != null ? value : environment.getProperty(PREFIX + option, type, defaultValue);
+  }
+
+  private void registerGauge(Meter meter, String name, String description,
+      ToLongFunction<TenantLimit> value) {
+    meter.gaugeBuilder(name)
+        .setDescription(description)
+        .ofLongs()
+        .buildWithCallback(measurement -> observe(measurement, value));
+  }
+
+  private void observe(ObservableLongMeasurement measurement, ToLongFunction<TenantLimit> value) {
+    limits.forEach((tenantId, limit) -> measurement
+        .record(value.applyAsLong(limit), Attributes.of(TENANT, tenantId)));
+  }
+
+  private static final class TenantLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdMillis;
+    private final double backoffRatio;
+    private final int queueSize;
+    private final long queueTimeoutMillis;
+    private final LongAdder rejected = new LongAdder();
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+
+    private TenantLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdMillis,
+        double backoffRatio, int queueSize, long queueTimeoutMillis) {
+      this.limit = initialLimit;
+      this.minLimit = minLimit;
+      this.maxLimit = maxLimit;
+      this.latencyThresholdMillis = latencyThresholdMillis;
+      this.backoffRatio = backoffRatio;
+      this.queueSize = queueSize;
+      this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    private synchronized boolean tryAcquire() {
+      if (!isFull()) {
+        inFlight++;
+        return true;
+      }
+      if (queued >= queueSize || queueTimeoutMillis <= 0) {
+        rejected.increment();
+        return false;
+      }
+      queued++;
+      try {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        long remaining = deadline - System.nanoTime();
+        while (isFull() && remaining > 0) {
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+          remaining = deadline - System.nanoTime();
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } finally {
+        queued--;
+      }
+      if (isFull() || Thread.currentThread().isInterrupted()) {
+        rejected.increment();
+        return false;
+      }
+      inFlight++;
+      return true;
+    }
+
+    private synchronized void release(long latencyMillis) {
+      // Usage is judged with the released request still counted.
+      boolean saturated = inFlight * 2 >= limit;
+      inFlight = Math.max(0, inFlight - 1);
+      if (latencyMillis > latencyThresholdMillis) {
+        limit = Math.max(minLimit, limit * backoffRatio);
+      } else if (saturated) {
+        limit = Math.min(maxLimit, limit + 1);
+      }
+      notifyAll();
+    }
+
+    private boolean isFull() {
+      return inFlight >= (int) limit;
+    }
+
+    private synchronized long getInFlight() {
+      return inFlight;
+    }
+
+    private synchronized long getQueued() {
+      return queued;
+    }
+
+    private synchronized long getLimit() {
+      return (long) limit;
+    }
+
+    private long getRejected() {
+      return rejected.sum();
+    }
+  }
+}
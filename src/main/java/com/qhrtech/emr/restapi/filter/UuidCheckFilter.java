@@ -7,7 +7,6 @@ package com.qhrtech.emr.restapi.filter;
 
 import com.qhrtech.emr.accuro.api.registry.RegistryEntryManager;
 import com.qhrtech.emr.accuro.model.exceptions.ProtossException;
-import com.qhrtech.emr.accuro.model.exceptions.dataaccess.DataAccessException;
 import com.qhrtech.emr.accuro.model.registry.RegistryEntry;
 import com.qhrtech.emr.restapi.security.AccuroUserDetails;
 import com.qhrtech.emr.restapi.security.OktaJwtAccessTokenConverter;
@@ -18,7 +17,10 @@ import com.qhrtech.emr.restapi.security.db.TenantType;
 import com.qhrtech.emr.restapi.security.exceptions.FilterException;
 import com.qhrtech.emr.restapi.services.AccuroApiService;
 import com.qhrtech.emr.restapi.services.TenantDataSourceDetailsService;
+import com.qhrtech.emr.restapi.util.ExpiringCache;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import javax.servlet.Filter;
@@ -58,11 +60,22 @@ public class UuidCheckFilter implements Filter {
   @Value("${tenants.type:single}")
   private String tenantType;
 
+  @Value("${uuid.cache.ttl:3600000}")
+  private Long uuidCacheTtl;
+
+  @Value("${uuid.cache.negative-ttl:60000}")
+  private Long uuidCacheNegativeTtl;
+
+  private ExpiringCache<String, UUID> databaseUuidCache;
+
   @Override
   public void init(FilterConfig filterConfig) throws ServletException {
     SpringBeanAutowiringSupport.processInjectionBasedOnServletContext(
         this,
         filterConfig.getServletContext());
+    // the database uuid of a tenant almost never changes, only look it up once per ttl
+    databaseUuidCache = new ExpiringCache<>(this::loadDatabaseUuid,
+        Duration.ofMillis(uuidCacheTtl), Duration.ofMillis(uuidCacheNegativeTtl));
   }
 
   @Override
@@ -102,14 +115,9 @@ public class UuidCheckFilter implements Filter {
             throw new FilterException(HttpStatus.BAD_REQUEST.value(),
                 "Required Parameter Missing.");
           }
-          try {
-            if (!verifyUuid(dbUuid, tenantId)) {
-              throw new FilterException(HttpStatus.BAD_REQUEST.value(),
-                  "The requested database uuid does not match one associated with your ACRON");
-            }
-          } catch (ProtossException e) {
+          if (!verifyUuid(dbUuid, tenantId)) {
             throw new FilterException(HttpStatus.BAD_REQUEST.value(),
-                "Cannot connect to database.");
+                "The requested database uuid does not match one associated with your ACRON");
           }
         }
       }
@@ -169,26 +177,43 @@ public class UuidCheckFilter implements Filter {
    * @param tenantId - tenant if to compare against
    * @return - true if they match, false otherwise
    * @throws FilterException - if a uuid id cannot be obtained from the tenant id
-   * @throws DataAccessException If there has been a database error.
    */
-  private boolean verifyUuid(String providedUuidString, String tenantId)
-      throws ProtossException {
+  private boolean verifyUuid(String providedUuidString, String tenantId) {
     UUID providedUuid = null;
     try {
       providedUuid = UUID.fromString(providedUuidString);
     } catch (IllegalArgumentException e) {
       throw new FilterException(HttpStatus.BAD_REQUEST.value(), "Invalid UUID", e);
     }
-    RegistryEntryManager manager = api.getImpl(RegistryEntryManager.class, tenantId);
-    Set<RegistryEntry> dbUuids = manager.getEntriesByType(RegistryEntry.Type.Database);
-    if (dbUuids == null || dbUuids.isEmpty()) {
+    Optional<UUID> actualUuid = databaseUuidCache.get(tenantId);
+    if (!actualUuid.isPresent()) {
       throw new FilterException(
           HttpStatus.BAD_REQUEST.value(),
           "Unknown Tenant");
     }
-    RegistryEntry entry = dbUuids.iterator().next();
-    UUID actualUuid = entry.getUuid();
-    return providedUuid.equals(actualUuid);
+    return providedUuid.equals(actualUuid.get());
+  }
+
+  /**
+   * Loads the database uuid of the tenant from its registry entries.
+   *
+   * @param tenantId - tenant to load the uuid for
+   * @return - the database uuid, or null if the tenant has no database registry entry
+   * @throws FilterException - if the tenant database cannot be queried
+   */
+  private UUID loadDatabaseUuid(String tenantId) {
+    RegistryEntryManager manager = api.getImpl(RegistryEntryManager.class, tenantId);
+    Set<RegistryEntry> dbUuids;
+    try {
+      dbUuids = manager.getEntriesByType(RegistryEntry.Type.Database);
+    } catch (ProtossException e) {
+      throw new FilterException(HttpStatus.BAD_REQUEST.value(),
+          "Cannot connect to database.", e);
+    }
+    if (dbUuids == null || dbUuids.isEmpty()) {
+      return null;
+    }
+    return dbUuids.iterator().next().getUuid();
   }
 
 }
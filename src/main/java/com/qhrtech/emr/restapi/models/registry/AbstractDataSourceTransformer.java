@@ -3,11 +3,14 @@ package com.qhrtech.emr.restapi.models.registry;
 
 import com.qhrtech.emr.accuro.db.DatabaseType;
 import com.qhrtech.emr.accuro.utils.Transformer;
+import com.qhrtech.emr.restapi.security.datasource.PoolMetricsTrackerFactory;
 import com.qhrtech.emr.restapi.security.db.CypherUtil;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 
 /**
  * Abstract Base Transformer for Registry DTO to DataSouce This class will assume the user name and
@@ -19,6 +22,9 @@ import org.springframework.beans.factory.annotation.Value;
  * The transformation method will throw {@link RuntimeException} if the user name and password
  * credentials are not encrypted, or improperly encrypted
  *
+ * Pools are sized from {@code tenants.pool.<option>}, which can be overridden for a single pool
+ * with {@code tenants.pool.<pool name>.<option>}, the pool name being {@link #buildKey}.
+ *
  * @author bryan.bergen
  *
  * @see CypherUtil
@@ -28,9 +34,14 @@ import org.springframework.beans.factory.annotation.Value;
 public abstract class AbstractDataSourceTransformer
     implements Transformer<TenantDataSourceDetails, DataSource> {
 
+  private static final String POOL_PREFIX = "tenants.pool.";
+
   @Value("${jdbc.driverClassName}")
   private String driverClass;
 
+  @Autowired
+  private Environment environment;
+
   public static String buildKey(String tenantId, DatabaseType type) {
     return (tenantId + "_" + type.name()).toUpperCase();
   }
@@ -62,12 +73,21 @@ public abstract class AbstractDataSourceTransformer
       throw new RuntimeException("Could not decrypt database credentials", ex);
     }
     config.setDriverClassName(driverClass);
-    config.setMaximumPoolSize(100);
-    config.setConnectionTimeout(120 * 1000); // 2 min
-    config.setIdleTimeout(120 * 1000); // 2 min
+    config.setMaximumPoolSize(getPoolProperty(key, "maximum-size", Integer.class, 100));
+    config.setConnectionTimeout(
+        getPoolProperty(key, "connection-timeout", Long.class, 120 * 1000L)); // 2 min
+    config.setIdleTimeout(getPoolProperty(key, "idle-timeout", Long.class, 120 * 1000L)); // 2 min
     config.setPoolName(key);
-    config.setMinimumIdle(0);
+    config.setMinimumIdle(getPoolProperty(key, "minimum-idle", Integer.class, 0));
+    config.setMetricsTrackerFactory(PoolMetricsTrackerFactory.getInstance());
     return new HikariDataSource(config);
   }
+
+  private <T> T getPoolProperty(String key, String option, Class<T> type, T defaultValue) {
+    T value = environment.getProperty(POOL_PREFIX + key + "." + option, type);
+    return value != null
+        ? value
+        : environment.getProperty(POOL_PREFIX + option, type, defaultValue);
+  }
 }
 
@@ -8,7 +8,7 @@ package com.qhrtech.emr.restapi.scheduled;
 import com.qhrtech.emr.restapi.security.AccuroOAuthClient;
 import com.qhrtech.emr.restapi.security.AccuroScope;
 import com.qhrtech.emr.restapi.services.impl.HostedOauthServiceImpl;
-import com.qhrtech.util.SoftCache;
+import com.qhrtech.emr.restapi.util.RefreshingCache;
 import java.util.Collection;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -29,11 +29,11 @@ public class RegistrySyncTask {
 
   @Autowired
   @Qualifier("clientCache")
-  public SoftCache<String, AccuroOAuthClient> clientCache;
+  public RefreshingCache<String, AccuroOAuthClient> clientCache;
 
   @Autowired
   @Qualifier("scopeCache")
-  public SoftCache<String, AccuroScope> scopeCache;
+  public RefreshingCache<String, AccuroScope> scopeCache;
 
   @Autowired
   private HostedOauthServiceImpl hostedOauthService;
@@ -74,21 +74,14 @@ public class RegistrySyncTask {
         return;
       }
 
-      // Update clients and clear client cache
-      final SoftCache<String, AccuroOAuthClient> cCache = clientCache;
-      synchronized (cCache) {
-        for (AccuroOAuthClient authClient : clients) {
-          clientCache.put(authClient.getClientId(), authClient);
-        }
+      // Update clients
+      for (AccuroOAuthClient authClient : clients) {
+        clientCache.put(authClient.getClientId(), authClient);
       }
 
-      // Update scopes and clear scope cache
-      final SoftCache<String, AccuroScope> sCache = scopeCache;
-      synchronized (sCache) {
-        for (AccuroScope scope : scopes) {
-          scopeCache.put(scope.getId(), scope);
-        }
-
+      // Update scopes
+      for (AccuroScope scope : scopes) {
+        scopeCache.put(scope.getId(), scope);
       }
     }
   }
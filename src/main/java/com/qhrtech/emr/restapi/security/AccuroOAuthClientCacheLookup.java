@@ -5,9 +5,10 @@
 
 package com.qhrtech.emr.restapi.security;
 
-import com.qhrtech.util.SoftCache;
+import com.qhrtech.emr.restapi.util.RefreshingCache;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.oauth2.provider.ClientRegistrationException;
 
 /**
@@ -17,12 +18,13 @@ public class AccuroOAuthClientCacheLookup implements AccuroOAuthClientLookup {
 
   private static final Logger log = Logger.getLogger(AccuroOAuthClientCacheLookup.class);
   @Autowired
-  private SoftCache<String, AccuroOAuthClient> clientCache;
+  @Qualifier("clientCache")
+  private RefreshingCache<String, AccuroOAuthClient> clientCache;
 
   @Override
   public AccuroOAuthClient loadClientByClientId(String clientId)
       throws ClientRegistrationException {
-    AccuroOAuthClient client = clientCache.lookup(clientId);
+    AccuroOAuthClient client = clientCache.get(clientId);
 
     if (client == null) {
       log.error("OAuth Client not found with id: " + clientId);
@@ -4,8 +4,10 @@ package com.qhrtech.emr.restapi.security;
 import com.qhrtech.emr.accuro.api.AuthorizationContext;
 import com.qhrtech.emr.accuro.model.security.permissions.AccuroApiContext;
 import com.qhrtech.emr.accuro.permissions.AuditLogUser;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ApiSecurityContext {
 
@@ -19,6 +21,7 @@ public class ApiSecurityContext {
   private AuthorizationContext authorizationContext;
   private Set<String> scopes;
   private String grantType;
+  private final Map<Object, Object> managerInstances = new ConcurrentHashMap<>();
 
   public ApiSecurityContext(String oauthClientId,
       AuditLogUser user, Integer patientId, UUID sessionUuid, String tenantId,
@@ -121,6 +124,16 @@ public class ApiSecurityContext {
     this.grantType = grantType;
   }
 
+  /**
+   * Protoss managers built during the current request, keyed by interface, tenant and permission
+   * mode. The map lives and dies with this context.
+   *
+   * @return the request scoped manager instances.
+   */
+  public Map<Object, Object> getManagerInstances() {
+    return managerInstances;
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
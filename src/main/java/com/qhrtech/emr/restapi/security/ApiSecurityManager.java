@@ -29,6 +29,10 @@ public class ApiSecurityManager {
   }
 
   public void endSecurityContext() {
+    ApiSecurityContext current = securityContexts.get();
+    if (current != null) {
+      current.getManagerInstances().clear();
+    }
     securityContexts.remove();
   }
 
@@ -36,6 +40,19 @@ public class ApiSecurityManager {
     return securityContexts.get();
   }
 
+  /**
+   * Binds an existing context to the current thread, e.g. a worker thread running part of a
+   * request. Unlike {@link #endSecurityContext()}, passing {@code null} only unbinds the context
+   * and leaves its manager instances to the thread that started it.
+   */
+  public void attachSecurityContext(ApiSecurityContext context) {
+    if (context == null) {
+      securityContexts.remove();
+    } else {
+      securityContexts.set(context);
+    }
+  }
+
   // <editor-fold defaultstate="collapsed" desc=" Singleton ">
   // The following is appearently the best way to make a thread-safe singleton.
   private static class SingletonInstance {
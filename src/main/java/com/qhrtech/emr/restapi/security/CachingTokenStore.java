@@ -0,0 +1,308 @@
+package com.qhrtech.emr.restapi.security;
+
+import com.qhrtech.emr.restapi.util.ApiMetrics;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleCounter;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+/**
+ * {@link TokenStore} that caches access tokens and their authentications in memory, so resource
+ * requests do not query and deserialize them from the delegate store every time.
+ *
+ * Entries expire after the configured time to live or when the token itself expires, whichever
+ * comes first. Storing or removing an access token evicts it immediately and is published on the
+ * {@link TokenInvalidationChannel} so other nodes evict it too. Callers receive copies of the
+ * cached objects, as the security filters and {@code ChangeOfficeEndpoint} modify them in place.
+ * Missing tokens are never cached, and a token read while any eviction happened is not cached
+ * either, so a read racing a store or removal cannot put the old token back.
+ */
+public class CachingTokenStore implements TokenStore {
+
+  private static final AttributeKey<String> RESULT = AttributeKey.stringKey("result");
+  private static final Attributes HIT = Attributes.of(RESULT, "hit");
+  private static final Attributes MISS = Attributes.of(RESULT, "miss");
+  private static final LongCounter LOOKUP_COUNTER = ApiMetrics.meter()
+      .counterBuilder("accuro.api.tokenstore.cache.lookups")
+      .setDescription("Access token cache lookups by result")
+      .build();
+  private static final DoubleHistogram LOAD_DURATION = ApiMetrics.meter()
+      .histogramBuilder("accuro.api.tokenstore.load.duration")
+      .setDescription("Time taken to read and deserialize a token from the token store")
+      .setUnit("ms")
+      .build();
+  private static final DoubleCounter TIME_SAVED = ApiMetrics.meter()
+      .counterBuilder("accuro.api.tokenstore.cache.time.saved")
+      .ofDoubles()
+      .setDescription("Token store read time avoided by cache hits")
+      .setUnit("ms")
+      .build();
+
+  private final Map<String, CachedToken> cache = new ConcurrentHashMap<>();
+  private final AtomicLong evictions = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private final TokenStore delegate;
+  private final TokenInvalidationChannel invalidationChannel;
+  private final Duration ttl;
+  private final int maxSize;
+  private final Clock clock;
+
+  public CachingTokenStore(TokenStore delegate, TokenInvalidationChannel invalidationChannel,
+      Duration ttl, int maxSize) {
+    this(delegate, invalidationChannel, ttl, maxSize, Clock.systemUTC());
+  }
+
+  CachingTokenStore(TokenStore delegate, TokenInvalidationChannel invalidationChannel,
+      Duration ttl, int maxSize, Clock clock) {
+    this.delegate = delegate;
+    this.invalidationChannel = invalidationChannel;
+    this.ttl = ttl;
+    this.maxSize = maxSize;
+    this.clock = clock;
+    invalidationChannel.subscribe(this::evict);
+  }
+
+  @Override
+  public OAuth2AccessToken readAccessToken(String tokenValue) {
+    if (tokenValue == null || ttl.isZero()) {
+      return delegate.readAccessToken(tokenValue);
+    }
+    Instant now = clock.instant();
+    CachedToken cached = cache.get(tokenValue);
+    if (cached != null && cached.isValid(now) && cached.getToken() != null) {
+      hit(cached.getTokenLoadMillis());
+      return new DefaultOAuth2AccessToken(cached.getToken());
+    }
+
+    misses.increment();
+    LOOKUP_COUNTER.add(1, MISS);
+    long generation = evictions.get();
+    long start = System.nanoTime();
+    OAuth2AccessToken token = delegate.readAccessToken(tokenValue);
+    double loadMillis = elapsedMillis(start);
+    LOAD_DURATION.record(loadMillis);
+    if (token != null) {
+      put(tokenValue,
+          new CachedToken(new DefaultOAuth2AccessToken(token), loadMillis, expiry(now, token)),
+          now, generation);
+    }
+    return token;
+  }
+
+  @Override
+  public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+    return readAuthentication(token.getValue());
+  }
+
+  @Override
+  public OAuth2Authentication readAuthentication(String tokenValue) {
+    if (tokenValue == null || ttl.isZero()) {
+      return delegate.readAuthentication(tokenValue);
+    }
+    Instant now = clock.instant();
+    CachedToken cached = cache.get(tokenValue);
+    if (cached != null && cached.isValid(now) && cached.getAuthentication() != null) {
+      hit(cached.getAuthenticationLoadMillis());
+      return OAuth2Authentications.copy(cached.getAuthentication());
+    }
+
+    misses.increment();
+    LOOKUP_COUNTER.add(1, MISS);
+    long generation = evictions.get();
+    long start = System.nanoTime();
+    OAuth2Authentication authentication = delegate.readAuthentication(tokenValue);
+    double loadMillis = elapsedMillis(start);
+    LOAD_DURATION.record(loadMillis);
+    if (authentication == null) {
+      return null;
+    }
+    if (cached != null && cached.isValid(now)) {
+      cached.setAuthentication(OAuth2Authentications.copy(authentication), loadMillis);
+    } else {
+      CachedToken entry = new CachedToken(null, 0, now.plus(ttl));
+      entry.setAuthentication(OAuth2Authentications.copy(authentication), loadMillis);
+      put(tokenValue, entry, now, generation);
+    }
+    return authentication;
+  }
+
+  @Override
+  public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+    delegate.storeAccessToken(token, authentication);
+    invalidate(token.getValue());
+  }
+
+  @Override
+  public void removeAccessToken(OAuth2AccessToken token) {
+    delegate.removeAccessToken(token);
+    invalidate(token.getValue());
+  }
+
+  @Override
+  public void removeAccessTokenUsingRefreshToken(OAuth2RefreshToken refreshToken) {
+    delegate.removeAccessTokenUsingRefreshToken(refreshToken);
+    List<String> revoked = cache.entrySet().stream()
+        .filter(entry -> entry.getValue().hasRefreshToken(refreshToken.getValue()))
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toList());
+    revoked.forEach(this::invalidate);
+  }
+
+  @Override
+  public void storeRefreshToken(OAuth2RefreshToken refreshToken,
+      OAuth2Authentication authentication) {
+    delegate.storeRefreshToken(refreshToken, authentication);
+  }
+
+  @Override
+  public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+    return delegate.readRefreshToken(tokenValue);
+  }
+
+  @Override
+  public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+    return delegate.readAuthenticationForRefreshToken(token);
+  }
+
+  @Override
+  public void removeRefreshToken(OAuth2RefreshToken token) {
+    delegate.removeRefreshToken(token);
+  }
+
+  @Override
+  public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+    return delegate.getAccessToken(authentication);
+  }
+
+  @Override
+  public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(String clientId,
+      String userName) {
+    return delegate.findTokensByClientIdAndUserName(clientId, userName);
+  }
+
+  @Override
+  public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+    return delegate.findTokensByClientId(clientId);
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  int size() {
+    return cache.size();
+  }
+
+  private void invalidate(String tokenValue) {
+    evict(tokenValue);
+    invalidationChannel.publish(tokenValue);
+  }
+
+  private void evict(String tokenValue) {
+    // counted before removing, so a concurrent put either sees the new count or is removed here
+    evictions.incrementAndGet();
+    cache.remove(tokenValue);
+  }
+
+  private void hit(double loadMillis) {
+    hits.increment();
+    LOOKUP_COUNTER.add(1, HIT);
+    TIME_SAVED.add(loadMillis);
+  }
+
+  /**
+   * Caches the entry unless a token has been evicted since {@code generation} was read, as the
+   * entry may then hold the state from before the eviction.
+   */
+  private void put(String tokenValue, CachedToken entry, Instant now, long generation) {
+    if (cache.size() >= maxSize) {
+      cache.values().removeIf(cached -> !cached.isValid(now));
+    }
+    if (cache.size() < maxSize) {
+      cache.put(tokenValue, entry);
+      if (evictions.get() != generation) {
+        cache.remove(tokenValue, entry);
+      }
+    }
+  }
+
+  private Instant expiry(Instant now, OAuth2AccessToken token) {
+    Instant expiry = now.plus(ttl);
+    if (token.getExpiration() != null && token.getExpiration().toInstant().isBefore(expiry)) {
+      return token.getExpiration().toInstant();
+    }
+    return expiry;
+  }
+
+  private static double elapsedMillis(long startNanos) {
+    return (System.nanoTime() - startNanos) / 1_000_000d;
+  }
+
+  private static final class CachedToken {
+
+    private final OAuth2AccessToken token;
+    private final double tokenLoadMillis;
+    private final Instant expiry;
+    private volatile OAuth2Authentication authentication;
+    private volatile double authenticationLoadMillis;
+
+    private CachedToken(OAuth2AccessToken token, double tokenLoadMillis, Instant expiry) {
+      this.token = token;
+      this.tokenLoadMillis = tokenLoadMillis;
+      this.expiry = expiry;
+    }
+
+    private OAuth2AccessToken getToken() {
+      return token;
+    }
+
+    private double getTokenLoadMillis() {
+      return tokenLoadMillis;
+    }
+
+    private OAuth2Authentication getAuthentication() {
+      return authentication;
+    }
+
+    private double getAuthenticationLoadMillis() {
+      return authenticationLoadMillis;
+    }
+
+    private void setAuthentication(OAuth2Authentication authentication, double loadMillis) {
+      this.authenticationLoadMillis = loadMillis;
+      this.authentication = authentication;
+    }
+
+    private boolean hasRefreshToken(String refreshTokenValue) {
+      return token != null && token.getRefreshToken() != null
+          && Objects.equals(token.getRefreshToken().getValue(), refreshTokenValue);
+    }
+
+    private boolean isValid(Instant now) {
+      return now.isBefore(expiry);
+    }
+  }
+}
@@ -40,7 +40,6 @@ import javax.validation.ConstraintViolationException;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response.Status;
 import org.apache.commons.lang.ArrayUtils;
-import org.apache.cxf.jaxrs.JAXRSInvoker;
 import org.apache.cxf.message.Exchange;
 import org.springframework.security.access.AccessDeniedException;
 
@@ -49,7 +48,7 @@ import org.springframework.security.access.AccessDeniedException;
  */
 
 
-public class ExceptionHandlingInvoker extends JAXRSInvoker {
+public class ExceptionHandlingInvoker extends ReferenceDataCachingInvoker {
 
   private Status getBusinessLogicStatus(Throwable t) {
     if (t instanceof SaveException) {
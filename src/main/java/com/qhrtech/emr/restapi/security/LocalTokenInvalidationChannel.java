@@ -0,0 +1,26 @@
+package com.qhrtech.emr.restapi.security;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * {@link TokenInvalidationChannel} that only notifies subscribers within this JVM. Used for single
+ * node installations, other nodes rely on the cache time to live.
+ */
+public class LocalTokenInvalidationChannel implements TokenInvalidationChannel {
+
+  private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(String tokenValue) {
+    for (Consumer<String> listener : listeners) {
+      listener.accept(tokenValue);
+    }
+  }
+
+  @Override
+  public void subscribe(Consumer<String> listener) {
+    listeners.add(listener);
+  }
+}
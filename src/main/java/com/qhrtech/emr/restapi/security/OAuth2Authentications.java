@@ -0,0 +1,36 @@
+package com.qhrtech.emr.restapi.security;
+
+import java.util.HashMap;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+/**
+ * Helpers for handing out cached {@link OAuth2Authentication} instances.
+ */
+final class OAuth2Authentications {
+
+  private OAuth2Authentications() {
+  }
+
+  /**
+   * Copies the authentication so the caller may modify its details and request extensions, as the
+   * security filters and {@code ChangeOfficeEndpoint} do, without affecting the cached instance.
+   *
+   * @param authentication the cached authentication.
+   * @return a copy with its own request extensions.
+   */
+  static OAuth2Authentication copy(OAuth2Authentication authentication) {
+    OAuth2Request request = authentication.getOAuth2Request();
+    OAuth2Request requestCopy = new OAuth2Request(request.getRequestParameters(),
+        request.getClientId(), request.getAuthorities(), request.isApproved(),
+        request.getScope(), request.getResourceIds(), request.getRedirectUri(),
+        request.getResponseTypes(), new HashMap<>(request.getExtensions()));
+    if (request.getRefreshTokenRequest() != null) {
+      requestCopy = requestCopy.refresh(request.getRefreshTokenRequest());
+    }
+    OAuth2Authentication copy =
+        new OAuth2Authentication(requestCopy, authentication.getUserAuthentication());
+    copy.setDetails(authentication.getDetails());
+    return copy;
+  }
+}
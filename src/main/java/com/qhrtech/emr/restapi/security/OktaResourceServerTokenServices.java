@@ -1,38 +1,153 @@
-
 package com.qhrtech.emr.restapi.security;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qhrtech.emr.restapi.util.ApiMetrics;
+import com.qhrtech.emr.restapi.util.BoundedMaps;
+import com.qhrtech.emr.restapi.util.Hashes;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
 
-
+/**
+ * Verifies Okta access tokens.
+ *
+ * Verified authentications are cached by token hash until the token expires, so clients reusing
+ * a token skip the signature verification and claim conversion. The cache holds at most
+ * {@code maxSize} tokens, expired tokens are evicted first and then arbitrary ones.
+ */
 public class OktaResourceServerTokenServices implements ResourceServerTokenServices {
 
-  private OktaResourcesFactory resourcesFactory;
+  public static final int DEFAULT_CACHE_SIZE = 10000;
 
+  private static final AttributeKey<String> RESULT = AttributeKey.stringKey("result");
+  private static final AttributeKey<String> REASON = AttributeKey.stringKey("reason");
+  private static final Attributes HIT = Attributes.of(RESULT, "hit");
+  private static final Attributes MISS = Attributes.of(RESULT, "miss");
+  private static final Attributes EXPIRED = Attributes.of(REASON, "expired");
+  private static final Attributes SIZE = Attributes.of(REASON, "size");
+  private static final LongCounter LOOKUP_COUNTER = ApiMetrics.meter()
+      .counterBuilder("accuro.api.okta.token.cache.lookups")
+      .setDescription("Verified Okta token cache lookups by result")
+      .build();
+  private static final LongCounter EVICTION_COUNTER = ApiMetrics.meter()
+      .counterBuilder("accuro.api.okta.token.cache.evictions")
+      .setDescription("Verified Okta tokens evicted from the cache by reason")
+      .build();
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final Map<String, VerifiedToken> cache = new ConcurrentHashMap<>();
+
+  private OktaResourcesFactory resourcesFactory;
+  private final int maxSize;
+  private final Clock clock;
 
   public OktaResourceServerTokenServices(OktaResourcesFactory resourcesFactory) {
+    this(resourcesFactory, DEFAULT_CACHE_SIZE);
+  }
+
+  public OktaResourceServerTokenServices(OktaResourcesFactory resourcesFactory, int maxSize) {
+    this(resourcesFactory, maxSize, Clock.systemUTC());
+  }
+
+  OktaResourceServerTokenServices(OktaResourcesFactory resourcesFactory, int maxSize,
+      Clock clock) {
 
     this.resourcesFactory = resourcesFactory;
+    this.maxSize = maxSize;
+    this.clock = clock;
 
   }
 
   @Override
   public OAuth2Authentication loadAuthentication(String accessToken) {
 
-    // Check if the JWKs URL is expired or not.
-    resourcesFactory.validatePublicKeys();
+    String key = maxSize > 0 && accessToken != null ? Hashes.sha256(accessToken) : null;
+    Instant now = clock.instant();
+    if (key != null) {
+      VerifiedToken cached = cache.get(key);
+      if (cached != null && cached.isValid(now)) {
+        LOOKUP_COUNTER.add(1, HIT);
+        return OAuth2Authentications.copy(cached.getAuthentication());
+      }
+      LOOKUP_COUNTER.add(1, MISS);
+    }
+
+    // Make sure the JWKs are loaded and know the key the token was signed with.
     /**
      * Just for signature verification use spring-oauth2, we can use below method for that:
      * resourcesFactory.getSignatureVerifier().readAuthentication(accessToken);
      */
-    return resourcesFactory.getJwkTokenStore().readAuthentication(accessToken);
+    OAuth2Authentication authentication =
+        resourcesFactory.getJwkTokenStore(accessToken).readAuthentication(accessToken);
+
+    Instant expiry = getExpiry(accessToken);
+    if (key != null && authentication != null && expiry != null && now.isBefore(expiry)) {
+      put(key, new VerifiedToken(OAuth2Authentications.copy(authentication), expiry), now);
+    }
+    return authentication;
   }
 
   @Override
   public OAuth2AccessToken readAccessToken(String accessToken) {
-    resourcesFactory.validatePublicKeys();
-    return resourcesFactory.getJwkTokenStore().readAccessToken(accessToken);
+    return resourcesFactory.getJwkTokenStore(accessToken).readAccessToken(accessToken);
   }
 
+  int size() {
+    return cache.size();
+  }
+
+  private void put(String key, VerifiedToken token, Instant now) {
+    if (cache.size() >= maxSize) {
+      int before = cache.size();
+      cache.values().removeIf(cached -> !cached.isValid(now));
+      EVICTION_COUNTER.add(Math.max(0, before - cache.size()), EXPIRED);
+    }
+    EVICTION_COUNTER.add(BoundedMaps.makeRoom(cache, maxSize), SIZE);
+    cache.put(key, token);
+  }
+
+  /**
+   * Reads the exp claim of a token that has already been verified.
+   */
+  private Instant getExpiry(String accessToken) {
+    String[] parts = accessToken.split("\\.");
+    if (parts.length < 2) {
+      return null;
+    }
+    try {
+      JsonNode exp = mapper.readTree(Base64.getUrlDecoder().decode(parts[1])).get("exp");
+      return exp != null && exp.canConvertToLong() ? Instant.ofEpochSecond(exp.asLong()) : null;
+    } catch (IOException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static final class VerifiedToken {
+
+    private final OAuth2Authentication authentication;
+    private final Instant expiry;
+
+    private VerifiedToken(OAuth2Authentication authentication, Instant expiry) {
+      this.authentication = authentication;
+      this.expiry = expiry;
+    }
+
+    private OAuth2Authentication getAuthentication() {
+      return authentication;
+    }
+
+    private boolean isValid(Instant now) {
+      return now.isBefore(expiry);
+    }
+  }
 }
@@ -1,113 +1,302 @@
-
 package com.qhrtech.emr.restapi.security;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.okta.jwt.AccessTokenVerifier;
 import com.okta.jwt.JwtVerifiers;
 import com.qhrtech.emr.restapi.models.dto.OktaMetadata;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.Duration;
-import java.util.Date;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
 import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 import org.springframework.stereotype.Component;
 
+/**
+ * Provides the {@link TokenStore} used to verify Okta access tokens.
+ *
+ * The issuer metadata and signing keys are refreshed by a background schedule ahead of their
+ * expiry and the token store is swapped atomically, so token validation does not wait on Okta.
+ * Once the keys have expired they are still used for {@code okta.jwk.stale-window} while a
+ * refresh runs in the background. Only a cold start, keys past the stale window or a token signed
+ * with an unknown key id make the request wait, and concurrent requests then share one refresh.
+ */
 @Component
 public class OktaResourcesFactory {
 
   public static final String METADATA_PATH =
       "/.well-known/oauth-authorization-server";
 
+  private static final int CONNECTION_TIMEOUT = 10 * 1000; // 10 sec
+  private static final long REFRESH_TIMEOUT = 30 * 1000; // 30 sec
+  private static final String UNAVAILABLE_MESSAGE =
+      "Unable to authenticate the token at this moment. Please try again later.";
+
   private final Logger log = LoggerFactory.getLogger(getClass());
-  private TokenStore jwkTokenStore;
-  private long publicKeyExpirationTimeStamp;
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final AtomicReference<OktaResources> resources = new AtomicReference<>();
+  private final AtomicReference<CompletableFuture<OktaResources>> refreshing =
+      new AtomicReference<>();
+  private final AtomicReference<Instant> lastKeyIdRefresh = new AtomicReference<>(Instant.MIN);
+  private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "okta-jwk-refresh");
+    thread.setDaemon(true);
+    return thread;
+  });
 
-  @Value("${okta.url.issuer:}")
-  private String oktaIssuerUrl;
-  @Value("${okta.url.aud:api://default}")
-  private String aud;
+  private final String oktaIssuerUrl;
+  private final String aud;
+  private final Duration refreshAhead;
+  private final Duration staleWindow;
+  private final Duration defaultTtl;
+  private final Duration keyIdRefreshInterval;
+  private final Clock clock;
 
-  private long getPublicKeyExpirationTimeStamp() {
-    return publicKeyExpirationTimeStamp;
+  @Autowired
+  public OktaResourcesFactory(@Value("${okta.url.issuer:}") String oktaIssuerUrl,
+      @Value("${okta.url.aud:api://default}") String aud,
+      @Value("${okta.jwk.refresh-ahead:300000}") Long refreshAhead,
+      @Value("${okta.jwk.stale-window:3600000}") Long staleWindow,
+      @Value("${okta.jwk.default-ttl:3600000}") Long defaultTtl,
+      @Value("${okta.jwk.key-id-refresh-interval:30000}") Long keyIdRefreshInterval) {
+    this(oktaIssuerUrl, aud, Duration.ofMillis(refreshAhead), Duration.ofMillis(staleWindow),
+        Duration.ofMillis(defaultTtl), Duration.ofMillis(keyIdRefreshInterval),
+        Clock.systemUTC());
   }
 
-  private void setPublicKeyExpirationTimeStamp(long publicKeyExpirationTimeStamp) {
-    this.publicKeyExpirationTimeStamp = publicKeyExpirationTimeStamp;
+  OktaResourcesFactory(String oktaIssuerUrl, String aud, Duration refreshAhead,
+      Duration staleWindow, Duration defaultTtl, Duration keyIdRefreshInterval, Clock clock) {
+    this.oktaIssuerUrl = oktaIssuerUrl;
+    this.aud = aud;
+    this.refreshAhead = refreshAhead;
+    this.staleWindow = staleWindow;
+    this.defaultTtl = defaultTtl;
+    this.keyIdRefreshInterval = keyIdRefreshInterval;
+    this.clock = clock;
   }
 
   public TokenStore getJwkTokenStore() {
-    return jwkTokenStore;
+    OktaResources current = resources.get();
+    return current == null ? null : current.getTokenStore();
   }
 
-  private void setJwkTokenStore(TokenStore jwkTokenStore) {
-    this.jwkTokenStore = jwkTokenStore;
+  /**
+   * Returns the token store able to verify the given token, refreshing the signing keys first if
+   * the token was signed with a key id that is not known yet.
+   *
+   * @param accessToken the encoded access token.
+   * @return the token store to read the token with.
+   */
+  public TokenStore getJwkTokenStore(String accessToken) {
+    validatePublicKeys();
+    String keyId = getKeyId(accessToken);
+    if (keyId != null && !resources.get().hasKey(keyId) && claimKeyIdRefresh()) {
+      log.info("Unknown JWT key id " + keyId + ", refreshing the signing keys");
+      await(refresh());
+    }
+    return getJwkTokenStore();
   }
 
-  private void loadResources() throws IOException {
+  /**
+   * Ensures signing keys are available, only waiting for them to load if there are none yet or
+   * they are past the stale window.
+   */
+  public void validatePublicKeys() {
 
-    URL url = new URL(oktaIssuerUrl + METADATA_PATH);
-    HttpURLConnection con = null;
-    StringBuilder content = new StringBuilder();
-    OktaMetadata oktaMetadata;
-    try {
-      con = (HttpURLConnection) url.openConnection();
-      con.setRequestMethod("GET");
-      try (BufferedReader in = new BufferedReader(
-          new InputStreamReader(con.getInputStream()))) {
-        String inputLine;
-        while ((inputLine = in.readLine()) != null) {
-          content.append(inputLine);
-        }
-      }
-      ObjectMapper mapper = new ObjectMapper();
-      oktaMetadata = mapper.readValue(content.toString(), OktaMetadata.class);
-      URL pkUrl = new URL(oktaMetadata.getJwksUri());
+    if (oktaIssuerUrl.length() == 0) {
+      log.error("No URL provided for JWT Authentication services");
+      throw new InvalidTokenException("JWT Authentication services is not enabled.");
+    }
 
-      con.disconnect();
-      con = (HttpURLConnection) pkUrl.openConnection();
-      this.setPublicKeyExpirationTimeStamp(con.getExpiration());
+    OktaResources current = resources.get();
+    Instant now = clock.instant();
+    if (current != null && now.isBefore(current.getExpiry())) {
+      return;
+    }
+    if (current != null && now.isBefore(current.getExpiry().plus(staleWindow))) {
+      refresh();
+      return;
+    }
+    await(refresh());
+  }
 
-    } finally {
-      if (con != null) {
-        con.disconnect();
+  /**
+   * Refreshes the signing keys in the background before they expire.
+   */
+  @Scheduled(fixedDelayString = "${okta.jwk.refresh-interval:60000}")
+  public void refreshAhead() {
+    if (oktaIssuerUrl.length() == 0) {
+      return;
+    }
+    OktaResources current = resources.get();
+    if (current == null || !clock.instant().isBefore(current.getExpiry().minus(refreshAhead))) {
+      refresh();
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    refreshExecutor.shutdownNow();
+  }
+
+  /**
+   * Waits for the refresh in progress, if any.
+   */
+  void awaitRefresh() {
+    CompletableFuture<OktaResources> current = refreshing.get();
+    if (current != null) {
+      current.handle((loaded, error) -> loaded).join();
+    }
+  }
+
+  /**
+   * Starts a refresh unless one is already in progress.
+   *
+   * @return the refresh in progress.
+   */
+  private CompletableFuture<OktaResources> refresh() {
+    while (true) {
+      CompletableFuture<OktaResources> current = refreshing.get();
+      if (current != null) {
+        return current;
+      }
+      CompletableFuture<OktaResources> future = new CompletableFuture<>();
+      if (refreshing.compareAndSet(null, future)) {
+        refreshExecutor.execute(() -> load(future));
+        return future;
       }
     }
-    AccessTokenVerifier verifier = getAccessTokenVerifier(oktaMetadata);
+  }
 
-    TokenStore tokenStore =
-        new JwtTokenStore(new OktaJwtAccessTokenConverter(verifier));
-    this.setJwkTokenStore(tokenStore);
+  private void load(CompletableFuture<OktaResources> future) {
+    try {
+      OktaResources loaded = loadResources();
+      resources.set(loaded);
+      refreshing.set(null);
+      future.complete(loaded);
+    } catch (IOException | RuntimeException e) {
+      log.error("Unable to load the JWT Authentication resources: " + e);
+      refreshing.set(null);
+      future.completeExceptionally(e);
+    }
+  }
 
+  private void await(CompletableFuture<OktaResources> future) {
+    try {
+      future.get(REFRESH_TIMEOUT, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InvalidTokenException(UNAVAILABLE_MESSAGE);
+    } catch (ExecutionException | TimeoutException e) {
+      log.error(UNAVAILABLE_MESSAGE + ": " + e);
+      throw new InvalidTokenException(UNAVAILABLE_MESSAGE);
+    }
   }
 
-  public void validatePublicKeys() {
+  private boolean claimKeyIdRefresh() {
+    Instant now = clock.instant();
+    Instant last = lastKeyIdRefresh.get();
+    return now.isAfter(last.plus(keyIdRefreshInterval))
+        && lastKeyIdRefresh.compareAndSet(last, now);
+  }
 
-    if (oktaIssuerUrl.length() == 0) {
-      log.error("No URL provided for JWT Authentication services");
-      throw new InvalidTokenException("JWT Authentication services is not enabled.");
+  private String getKeyId(String accessToken) {
+    int end = accessToken == null ? -1 : accessToken.indexOf('.');
+    if (end <= 0) {
+      return null;
+    }
+    try {
+      byte[] header = Base64.getUrlDecoder().decode(accessToken.substring(0, end));
+      return mapper.readTree(header).path("kid").asText(null);
+    } catch (IOException | IllegalArgumentException e) {
+      // malformed tokens are rejected by the verifier
+      return null;
     }
+  }
 
-    long expirationTimeStamp = this.getPublicKeyExpirationTimeStamp();
-    Date date = new Date();
-    if (date.before(new Date(expirationTimeStamp))) {
-      return;
+  private OktaResources loadResources() throws IOException {
+
+    HttpURLConnection con =
+        (HttpURLConnection) new URL(oktaIssuerUrl + METADATA_PATH).openConnection();
+    OktaMetadata oktaMetadata;
+    try (InputStream in = open(con)) {
+      oktaMetadata = mapper.readValue(in, OktaMetadata.class);
+    } finally {
+      con.disconnect();
+    }
+
+    con = (HttpURLConnection) new URL(oktaMetadata.getJwksUri()).openConnection();
+    Set<String> keyIds = new HashSet<>();
+    Duration ttl;
+    try (InputStream in = open(con)) {
+      for (JsonNode key : mapper.readTree(in).path("keys")) {
+        if (key.hasNonNull("kid")) {
+          keyIds.add(key.get("kid").asText());
+        }
+      }
+      // relative to the server date so clock skew does not matter
+      long expiration = con.getExpiration();
+      long date = con.getDate();
+      ttl = expiration > 0 && date > 0
+          ? Duration.ofMillis(Math.max(0, expiration - date))
+          : defaultTtl;
+    } finally {
+      con.disconnect();
     }
+
+    AccessTokenVerifier verifier = getAccessTokenVerifier(oktaMetadata);
+    keyIds.stream().findFirst().ifPresent(keyId -> warmUp(verifier, keyId));
+    TokenStore tokenStore =
+        new JwtTokenStore(new OktaJwtAccessTokenConverter(verifier));
+    return new OktaResources(tokenStore, keyIds, clock.instant().plus(ttl));
+  }
+
+  /**
+   * The verifier downloads its signing keys on first use, make that happen on the refresh thread
+   * by verifying a token with a known key id and no valid signature.
+   */
+  private void warmUp(AccessTokenVerifier verifier, String keyId) {
+    Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    String header = "{\"alg\":\"RS256\",\"kid\":\"" + keyId + "\"}";
+    String token = encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+        + encoder.encodeToString("{}".getBytes(StandardCharsets.UTF_8)) + ".c2lnbmF0dXJl";
     try {
-      loadResources();
-    } catch (IOException e) {
-      String message = "Unable to authenticate the token at this moment. Please try again later.";
-      log.error(message + ": " + e);
-      throw new InvalidTokenException(message);
+      verifier.decode(token);
+    } catch (Exception e) {
+      // expected, the token is not signed
+      log.debug("JWT verifier warm up: " + e.getMessage());
     }
+  }
 
+  private static InputStream open(HttpURLConnection con) throws IOException {
+    con.setRequestMethod("GET");
+    con.setConnectTimeout(CONNECTION_TIMEOUT);
+    con.setReadTimeout(CONNECTION_TIMEOUT);
+    con.setRequestProperty("Accept", "application/json");
+    return con.getInputStream();
   }
 
   private AccessTokenVerifier getAccessTokenVerifier(OktaMetadata oktaMetadata) {
@@ -120,4 +309,30 @@ public class OktaResourcesFactory {
         .build();
 
   }
+
+  private static final class OktaResources {
+
+    private final TokenStore tokenStore;
+    private final Set<String> keyIds;
+    private final Instant expiry;
+
+    private OktaResources(TokenStore tokenStore, Set<String> keyIds, Instant expiry) {
+      this.tokenStore = tokenStore;
+      this.keyIds = Collections.unmodifiableSet(keyIds);
+      this.expiry = expiry;
+    }
+
+    private TokenStore getTokenStore() {
+      return tokenStore;
+    }
+
+    private boolean hasKey(String keyId) {
+      // without a key list every key id is left to the verifier
+      return keyIds.isEmpty() || keyIds.contains(keyId);
+    }
+
+    private Instant getExpiry() {
+      return expiry;
+    }
+  }
 }
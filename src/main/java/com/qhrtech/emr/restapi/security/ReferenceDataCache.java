@@ -0,0 +1,221 @@
+package com.qhrtech.emr.restapi.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qhrtech.emr.restapi.util.ApiMetrics;
+import com.qhrtech.emr.restapi.util.BoundedMaps;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
+import com.qhrtech.emr.restapi.util.Hashes;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.ws.rs.core.EntityTag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serialized responses of {@link CachedReferenceData} resource methods.
+ *
+ * Entries are keyed by tenant, resource method and request uri, expire after the configured time
+ * to live and are evicted early when one of the managers they were read from is written to. The
+ * cache holds at most {@code maxSize} responses, expired responses are evicted first and then
+ * arbitrary ones.
+ */
+@Component
+public class ReferenceDataCache {
+
+  private static final AttributeKey<String> RESULT = AttributeKey.stringKey("result");
+  private static final Attributes HIT = Attributes.of(RESULT, "hit");
+  private static final Attributes MISS = Attributes.of(RESULT, "miss");
+  private static final LongCounter LOOKUP_COUNTER = ApiMetrics.meter()
+      .counterBuilder("accuro.api.referencedata.cache.lookups")
+      .setDescription("Reference data response cache lookups by result")
+      .build();
+
+  private final Map<Key, CachedResponse> cache = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private final ObjectMapper objectMapper;
+  private final Duration ttl;
+  private final int maxSize;
+  private final Clock clock;
+
+  @Autowired
+  public ReferenceDataCache(
+      @Qualifier("jsonObjectMapper") ObjectMapper objectMapper,
+      @Value("${reference-data.cache.ttl:300000}") long ttlMillis,
+      @Value("${reference-data.cache.max-size:5000}") int maxSize) {
+    this(objectMapper, Duration.ofMillis(ttlMillis), maxSize, Clock.systemUTC());
+  }
+
+  ReferenceDataCache(ObjectMapper objectMapper, Duration ttl, int maxSize, Clock clock) {
+    this.objectMapper = objectMapper;
+    this.ttl = ttl;
+    this.maxSize = maxSize;
+    this.clock = clock;
+  }
+
+  /**
+   * @param key The request to look up.
+   * @return The cached response, or null if there is none or it has expired.
+   */
+  public CachedResponse get(Key key) {
+    CachedResponse cached = cache.get(key);
+    if (cached != null && clock.instant().isBefore(cached.expiry)) {
+      hits.increment();
+      LOOKUP_COUNTER.add(1, HIT);
+      return cached;
+    }
+    misses.increment();
+    LOOKUP_COUNTER.add(1, MISS);
+    return null;
+  }
+
+  /**
+   * Serializes and caches a response entity.
+   *
+   * @param key The request the entity was returned for.
+   * @param entity The entity returned by the resource method.
+   * @param managers The managers the entity was read from.
+   * @return The serialized response, cached unless caching is disabled.
+   * @throws JsonProcessingException If the entity cannot be serialized.
+   */
+  public CachedResponse put(Key key, Object entity, Class<?>... managers)
+      throws JsonProcessingException {
+    byte[] body = objectMapper.writeValueAsBytes(entity);
+    Instant now = clock.instant();
+    CachedResponse response = new CachedResponse(body, Hashes.sha256(body),
+        new HashSet<>(Arrays.asList(managers)), now.plus(ttl));
+    if (maxSize > 0 && ttl.compareTo(Duration.ZERO) > 0) {
+      BoundedMaps.makeRoom(cache, maxSize, cached -> !now.isBefore(cached.expiry));
+      cache.put(key, response);
+    }
+    return response;
+  }
+
+  /**
+   * Evicts the responses of a tenant that were read from the given manager.
+   *
+   * @param tenantId The tenant written to.
+   * @param manager The manager written to.
+   */
+  public void invalidate(String tenantId, Class<?> manager) {
+    cache.entrySet().removeIf(entry -> entry.getKey().tenantId.equals(tenantId)
+        && entry.getValue().managers.contains(manager));
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  int size() {
+    return cache.size();
+  }
+
+
+  /**
+   * Identifies a cached response. The caller is only set for
+   * {@link CachedReferenceData#perCaller()} resources.
+   */
+  public static final class Key {
+
+    private final String tenantId;
+    private final String caller;
+    private final String resource;
+    private final String uri;
+
+    public Key(String tenantId, String caller, String resource, String uri) {
+      this.tenantId = Objects.requireNonNull(tenantId);
+      this.caller = caller;
+      this.resource = resource;
+      this.uri = uri;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return tenantId.equals(key.tenantId)
+          && Objects.equals(caller, key.caller)
+          && Objects.equals(resource, key.resource)
+          && Objects.equals(uri, key.uri);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(tenantId, caller, resource, uri);
+    }
+  }
+
+  public static final class CachedResponse {
+
+    private final byte[] body;
+    private final EntityTag entityTag;
+    private final Set<Class<?>> managers;
+    private final Instant expiry;
+
+    private CachedResponse(byte[] body, String hash, Set<Class<?>> managers, Instant expiry) {
+      this.body = body;
+      this.entityTag = new EntityTag(hash);
+      this.managers = Collections.unmodifiableSet(managers);
+      this.expiry = expiry;
+    }
+
+    public byte[] getBody() {
+      return body;
+    }
+
+    public EntityTag getEntityTag() {
+      return entityTag;
+    }
+
+    /**
+     * @param ifNoneMatch The If-None-Match request header values, may be null.
+     * @return True if the client already holds this response.
+     */
+    public boolean isNotModified(List<String> ifNoneMatch) {
+      if (ifNoneMatch == null) {
+        return false;
+      }
+      for (String header : ifNoneMatch) {
+        for (String tag : header.split(",")) {
+          String value = tag.trim();
+          if (value.startsWith("W/")) {
+            value = value.substring(2);
+          }
+          if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+          }
+          if ("*".equals(value) || entityTag.getValue().equals(value)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.qhrtech.emr.restapi.security;
+
+import com.qhrtech.emr.restapi.security.ReferenceDataCache.CachedResponse;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
+import com.qhrtech.emr.restapi.util.InvalidatesReferenceData;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.apache.cxf.jaxrs.JAXRSInvoker;
+import org.apache.cxf.jaxrs.impl.HttpHeadersImpl;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+/**
+ * Serves {@link CachedReferenceData} resource methods from the {@link ReferenceDataCache} and
+ * evicts them after {@link InvalidatesReferenceData} writes.
+ *
+ * A cached response skips the resource method but not its authorization, the method security
+ * interceptor is run against the resource method before the cached response is returned. Without
+ * a cache, e.g. in endpoint tests, every method is invoked as is.
+ */
+public class ReferenceDataCachingInvoker extends JAXRSInvoker {
+
+  @Autowired(required = false)
+  private ReferenceDataCache referenceDataCache;
+
+  @Autowired(required = false)
+  @Qualifier("methodSecurityInterceptor")
+  private MethodInterceptor methodSecurityInterceptor;
+
+  @Override
+  protected Object performInvocation(
+      Exchange exchange,
+      final Object serviceObject,
+      Method m,
+      Object[] paramArray) throws Exception {
+
+    ApiSecurityContext context = ApiSecurityManager.getInstance().getCurrentSecurityContext();
+    if (referenceDataCache == null || context == null || context.getTenantId() == null) {
+      return super.performInvocation(exchange, serviceObject, m, paramArray);
+    }
+
+    CachedReferenceData cached = m.getAnnotation(CachedReferenceData.class);
+    if (cached != null && methodSecurityInterceptor != null) {
+      return invokeCached(exchange, serviceObject, m, paramArray, cached, context);
+    }
+
+    Object result = super.performInvocation(exchange, serviceObject, m, paramArray);
+    InvalidatesReferenceData invalidates = m.getAnnotation(InvalidatesReferenceData.class);
+    if (invalidates != null
+        && (!(result instanceof Response) || ((Response) result).getStatus() < 400)) {
+      for (Class<?> manager : invalidates.value()) {
+        referenceDataCache.invalidate(context.getTenantId(), manager);
+      }
+    }
+    return result;
+  }
+
+  private Object invokeCached(Exchange exchange, Object serviceObject, Method m,
+      Object[] paramArray, CachedReferenceData cached, ApiSecurityContext context)
+      throws Exception {
+
+    Message message = exchange.getInMessage();
+    ReferenceDataCache.Key key = new ReferenceDataCache.Key(
+        context.getTenantId(),
+        cached.perCaller() ? getCaller(context) : null,
+        m.getDeclaringClass().getName() + "#" + m.getName(),
+        getRequestUri(message));
+    List<String> ifNoneMatch =
+        new HttpHeadersImpl(message).getRequestHeader(HttpHeaders.IF_NONE_MATCH);
+
+    CachedResponse response = referenceDataCache.get(key);
+    if (response != null) {
+      SimpleMethodInvocation invocation = new SimpleMethodInvocation(serviceObject, m, paramArray) {
+        @Override
+        public Object proceed() {
+          return toResponse(response, ifNoneMatch);
+        }
+      };
+      try {
+        return methodSecurityInterceptor.invoke(invocation);
+      } catch (Exception | Error ex) {
+        throw ex;
+      } catch (Throwable t) {
+        throw new UndeclaredThrowableException(t);
+      }
+    }
+
+    Object result = super.performInvocation(exchange, serviceObject, m, paramArray);
+    if (result == null || result instanceof Response) {
+      return result;
+    }
+    return toResponse(referenceDataCache.put(key, result, cached.invalidatedBy()), ifNoneMatch);
+  }
+
+  private static Response toResponse(CachedResponse response, List<String> ifNoneMatch) {
+    // Clients may keep the response but have to revalidate it before using it.
+    CacheControl cacheControl = new CacheControl();
+    cacheControl.setPrivate(true);
+    cacheControl.setNoCache(true);
+    if (response.isNotModified(ifNoneMatch)) {
+      return Response.notModified(response.getEntityTag()).cacheControl(cacheControl).build();
+    }
+    return Response.ok(response.getBody(), MediaType.APPLICATION_JSON_TYPE)
+        .tag(response.getEntityTag())
+        .cacheControl(cacheControl)
+        .build();
+  }
+
+  private static String getCaller(ApiSecurityContext context) {
+    if (context.getUser() != null && context.getUser().getUserId() != null) {
+      return "user:" + context.getUser().getUserId();
+    }
+    if (context.getPatientId() != null) {
+      return "patient:" + context.getPatientId();
+    }
+    return "client:" + context.getOauthClientId();
+  }
+
+  private static String getRequestUri(Message message) {
+    Object uri = message.get(Message.REQUEST_URI);
+    Object query = message.get(Message.QUERY_STRING);
+    return query == null ? String.valueOf(uri) : uri + "?" + query;
+  }
+}
@@ -0,0 +1,135 @@
+package com.qhrtech.emr.restapi.security;
+
+import com.qhrtech.emr.accuro.model.exceptions.ProtossException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded executor for running independent parts of a request concurrently.
+ *
+ * Tasks run with the {@link ApiSecurityContext}, Spring security context and logging MDC of the
+ * thread that submitted them, so managers can be looked up from a worker exactly as from the
+ * request thread. When the pool and its queue are full the task runs on the submitting thread.
+ *
+ * Tasks must not wait on other tasks submitted to this executor.
+ */
+@Component
+public class SecurityContextExecutor {
+
+  private final ThreadPoolExecutor executor;
+
+  @Autowired
+  public SecurityContextExecutor(
+      @Value("${request.executor.pool-size:16}") int poolSize,
+      @Value("${request.executor.queue-size:64}") int queueSize) {
+
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "request-worker-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, queueSize)), threadFactory,
+        new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.allowCoreThreadTimeOut(true);
+
+  }
+
+  /**
+   * Runs the task with the security context of the calling thread.
+   *
+   * @param task The task to run.
+   * @param <T> Type of the task result.
+   * @return The pending result, see {@link #await(Future)}.
+   */
+  public <T> CompletableFuture<T> submit(Callable<T> task) {
+    ApiSecurityContext apiContext = ApiSecurityManager.getInstance().getCurrentSecurityContext();
+    SecurityContext springContext = SecurityContextHolder.getContext();
+    Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+    return CompletableFuture.supplyAsync(() -> {
+      ApiSecurityContext previousApiContext =
+          ApiSecurityManager.getInstance().getCurrentSecurityContext();
+      SecurityContext previousSpringContext = SecurityContextHolder.getContext();
+      Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+
+      ApiSecurityManager.getInstance().attachSecurityContext(apiContext);
+      SecurityContextHolder.setContext(springContext);
+      setMdc(mdc);
+      try {
+        return task.call();
+      } catch (RuntimeException ex) {
+        throw ex;
+      } catch (Exception ex) {
+        throw new CompletionException(ex);
+      } finally {
+        // Restore rather than clear, the task may have run on the submitting thread.
+        ApiSecurityManager.getInstance().attachSecurityContext(previousApiContext);
+        SecurityContextHolder.setContext(previousSpringContext);
+        setMdc(previousMdc);
+      }
+    }, executor);
+  }
+
+  /**
+   * Waits for a submitted task, rethrowing whatever the task threw.
+   *
+   * @param future The pending result returned by {@link #submit(Callable)}.
+   * @param <T> Type of the task result.
+   * @return The task result.
+   * @throws ProtossException If the task threw one.
+   */
+  public static <T> T await(Future<T> future) throws ProtossException {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting for a request task", ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof CompletionException && cause.getCause() != null) {
+        cause = cause.getCause();
+      }
+      if (cause instanceof ProtossException) {
+        throw (ProtossException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("Request task failed", cause);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private static void setMdc(Map<String, String> mdc) {
+    if (mdc == null) {
+      MDC.clear();
+    } else {
+      MDC.setContextMap(mdc);
+    }
+  }
+}
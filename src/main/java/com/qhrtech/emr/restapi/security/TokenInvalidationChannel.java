@@ -0,0 +1,26 @@
+package com.qhrtech.emr.restapi.security;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts revoked access tokens to every node running Accuro API, so that tokens cached by
+ * {@link CachingTokenStore} are dropped everywhere as soon as they are removed or replaced.
+ *
+ * @see LocalTokenInvalidationChannel
+ */
+public interface TokenInvalidationChannel {
+
+  /**
+   * Notifies every subscriber, including those on this node, that the token is no longer valid.
+   *
+   * @param tokenValue the access token value.
+   */
+  void publish(String tokenValue);
+
+  /**
+   * Registers a listener for tokens published by any node.
+   *
+   * @param listener called with the access token value.
+   */
+  void subscribe(Consumer<String> listener);
+}
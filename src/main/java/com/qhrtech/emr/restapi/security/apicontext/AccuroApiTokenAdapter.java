@@ -61,6 +61,21 @@ public class AccuroApiTokenAdapter {
     }
   }
 
+  /**
+   * @return the raw access token value of the request, or null if it is not available.
+   */
+  public String getTokenValue() {
+    if ((null == authentication)) {
+      throw new IllegalStateException("Authentication must be set.");
+    }
+
+    if (authentication.getDetails() instanceof OAuth2AuthenticationDetails) {
+      return ((OAuth2AuthenticationDetails) authentication.getDetails()).getTokenValue();
+    } else {
+      return null;
+    }
+  }
+
   public String getClientId() {
     if ((null == authentication)) {
       throw new IllegalStateException("Authentication must be set.");
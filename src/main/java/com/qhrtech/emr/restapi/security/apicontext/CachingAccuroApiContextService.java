@@ -0,0 +1,185 @@
+package com.qhrtech.emr.restapi.security.apicontext;
+
+import com.qhrtech.emr.accuro.model.security.permissions.AccuroApiContext;
+import com.qhrtech.emr.restapi.util.ApiMetrics;
+import com.qhrtech.emr.restapi.util.Hashes;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of {@link AccuroApiContextService} that caches loaded contexts for a short time,
+ * preventing clients that poll with the same token from loading permissions on every request.
+ *
+ * Contexts are keyed by the access token, user, tenant and whether partial permissions were
+ * requested. If there is a cache miss, or the cached context has expired, this implementation will
+ * fall back to its injected delegate. Failed lookups are never cached.
+ *
+ * @see DefaultAccuroApiContextService
+ */
+@Service
+@Primary
+public class CachingAccuroApiContextService implements AccuroApiContextService {
+
+  private static final AttributeKey<String> RESULT = AttributeKey.stringKey("result");
+  private static final Attributes HIT = Attributes.of(RESULT, "hit");
+  private static final Attributes MISS = Attributes.of(RESULT, "miss");
+  private static final LongCounter LOOKUP_COUNTER = ApiMetrics.meter()
+      .counterBuilder("accuro.api.context.cache.lookups")
+      .setDescription("AccuroApiContext cache lookups by result")
+      .build();
+
+  private final Map<ContextKey, CachedContext> cache = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private final AccuroApiContextService delegate;
+  private final Duration ttl;
+  private final int maxSize;
+  private final Clock clock;
+
+  @Autowired
+  public CachingAccuroApiContextService(
+      @Qualifier("defaultAccuroApiContextService") AccuroApiContextService delegate,
+      @Value("${apicontext.cache.ttl:30000}") Long ttl,
+      @Value("${apicontext.cache.max-size:10000}") Integer maxSize) {
+    this(delegate, Duration.ofMillis(ttl), maxSize, Clock.systemUTC());
+  }
+
+  CachingAccuroApiContextService(AccuroApiContextService delegate, Duration ttl, int maxSize,
+      Clock clock) {
+    this.delegate = delegate;
+    this.ttl = ttl;
+    this.maxSize = maxSize;
+    this.clock = clock;
+  }
+
+  @Override
+  public AccuroApiContext getAccuroApiUserContext(AccuroApiTokenAdapter accuroApiToken) {
+    String tokenValue = accuroApiToken.getTokenValue();
+    if (tokenValue == null || ttl.isZero()) {
+      return delegate.getAccuroApiUserContext(accuroApiToken);
+    }
+
+    ContextKey key = new ContextKey(Hashes.sha256(tokenValue), accuroApiToken.getUserIdentifier(),
+        accuroApiToken.getTenantId(),
+        DefaultAccuroApiContextService.basicPermissionAcceptable(
+            accuroApiToken.getTokenRequestDetails()));
+
+    Instant now = clock.instant();
+    CachedContext cached = cache.get(key);
+    if (cached != null && cached.isValid(now)) {
+      hits.increment();
+      LOOKUP_COUNTER.add(1, HIT);
+      return cached.getContext();
+    }
+
+    misses.increment();
+    LOOKUP_COUNTER.add(1, MISS);
+    AccuroApiContext context = delegate.getAccuroApiUserContext(accuroApiToken);
+    if (cache.size() >= maxSize) {
+      purgeExpired(now);
+    }
+    if (cache.size() < maxSize) {
+      cache.put(key, new CachedContext(context, now.plus(ttl)));
+    }
+    return context;
+  }
+
+  /**
+   * Removes every cached context of the given tenant. Should be called when user permissions or
+   * authorized clients of the tenant are changed.
+   *
+   * @param tenantId the tenant to invalidate.
+   */
+  public void invalidateTenant(String tenantId) {
+    cache.keySet().removeIf(key -> Objects.equals(key.tenantId, tenantId));
+  }
+
+  /**
+   * Removes every cached context.
+   */
+  public void invalidateAll() {
+    cache.clear();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  private void purgeExpired(Instant now) {
+    cache.values().removeIf(cached -> !cached.isValid(now));
+  }
+
+
+  private static final class ContextKey {
+
+    private final String tokenHash;
+    private final String userIdentifier;
+    private final String tenantId;
+    private final boolean partialPermission;
+
+    private ContextKey(String tokenHash, String userIdentifier, String tenantId,
+        boolean partialPermission) {
+      this.tokenHash = tokenHash;
+      this.userIdentifier = userIdentifier;
+      this.tenantId = tenantId;
+      this.partialPermission = partialPermission;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ContextKey)) {
+        return false;
+      }
+      ContextKey that = (ContextKey) o;
+      return partialPermission == that.partialPermission
+          && tokenHash.equals(that.tokenHash)
+          && Objects.equals(userIdentifier, that.userIdentifier)
+          && Objects.equals(tenantId, that.tenantId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(tokenHash, userIdentifier, tenantId, partialPermission);
+    }
+  }
+
+  private static final class CachedContext {
+
+    private final AccuroApiContext context;
+    private final Instant expiry;
+
+    private CachedContext(AccuroApiContext context, Instant expiry) {
+      this.context = context;
+      this.expiry = expiry;
+    }
+
+    private AccuroApiContext getContext() {
+      return context;
+    }
+
+    private boolean isValid(Instant now) {
+      return now.isBefore(expiry);
+    }
+  }
+}
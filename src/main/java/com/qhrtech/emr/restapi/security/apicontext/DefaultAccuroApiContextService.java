@@ -207,7 +207,7 @@ public class DefaultAccuroApiContextService implements AccuroApiContextService {
    * @return true if the Accuro context type can be partial. For eg. READ requests false - Full
    *         Accuro context needs to be loaded. For eg. WRITE requests
    */
-  private boolean basicPermissionAcceptable(TokenRequestDetails tokenRequestDetails) {
+  static boolean basicPermissionAcceptable(TokenRequestDetails tokenRequestDetails) {
     // check in mapper if the request is having exception of partial permission context
     Boolean isPartialContext =
         AccuroApiPartialContextEndpoints.lookUpByUrlAndRequestType(
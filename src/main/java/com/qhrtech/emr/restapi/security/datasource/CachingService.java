@@ -1,6 +1,8 @@
 
 package com.qhrtech.emr.restapi.security.datasource;
 
+import java.util.function.Function;
+
 /**
  * Service for caching values.
  *
@@ -35,4 +37,27 @@ public interface CachingService<T> {
    *
    */
   void evict(String key);
+
+  /**
+   * Retrieve an item from the cache, loading and inserting it if it is not present.
+   *
+   * Implementations may override this to guarantee that concurrent callers for the same key only
+   * trigger a single load.
+   *
+   * @param key - the key for which to get.
+   * @param loader - the function used to build the value when it is not cached.
+   *
+   * @return the cached or newly loaded value. Null if the loader returned null.
+   *
+   */
+  default T computeIfAbsent(String key, Function<String, T> loader) {
+    T value = get(key);
+    if (value == null) {
+      value = loader.apply(key);
+      if (value != null) {
+        put(key, value);
+      }
+    }
+    return value;
+  }
 }
@@ -20,18 +20,21 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class CachingServiceConfig {
   private final Long dataSourceDetailsRateLimit;
+  private final Long dataSourceIdleTimeout;
   private final TenantDataSourceDetailsService tenantDetailsService;
 
   public CachingServiceConfig(
       @Value("${datasource.details.rate-limit:60000}") Long dataSourceDetailsRateLimit,
+      @Value("${datasource.cache.idle-timeout:3600000}") Long dataSourceIdleTimeout,
       TenantDataSourceDetailsService tenantDetailsService) {
     this.dataSourceDetailsRateLimit = dataSourceDetailsRateLimit;
+    this.dataSourceIdleTimeout = dataSourceIdleTimeout;
     this.tenantDetailsService = tenantDetailsService;
   }
 
   @Bean(name = "dataSourceCache")
   public CachingService<DataSource> dataSourceCache() {
-    return new DataSourceCache();
+    return new ConcurrentDataSourceCache(Duration.ofMillis(dataSourceIdleTimeout));
   }
 
   @Bean
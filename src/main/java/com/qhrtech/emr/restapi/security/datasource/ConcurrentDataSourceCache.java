@@ -0,0 +1,218 @@
+package com.qhrtech.emr.restapi.security.datasource;
+
+import com.qhrtech.emr.restapi.util.Futures;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import javax.sql.DataSource;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Thread safe caching layer for DataSource instances.
+ *
+ * Concurrent builds for the same key are coalesced so that only one pool is created per tenant,
+ * and a build is only tracked while it is running.
+ * Cached pools are validated from a background schedule instead of on the request thread, and
+ * pools that have not been requested within the idle timeout are closed and evicted.
+ *
+ * @see DataSourceCache
+ */
+public class ConcurrentDataSourceCache implements CachingService<DataSource> {
+
+  private final Logger log = LoggerFactory.getLogger(getClass());
+
+  private final Map<String, CachedDataSource> dataSourceMap = new ConcurrentHashMap<>();
+  private final Map<String, CompletableFuture<DataSource>> builds = new ConcurrentHashMap<>();
+  private final Duration idleTimeout;
+  private final Clock clock;
+
+  public ConcurrentDataSourceCache(Duration idleTimeout) {
+    this(idleTimeout, Clock.systemUTC());
+  }
+
+  ConcurrentDataSourceCache(Duration idleTimeout, Clock clock) {
+    this.idleTimeout = idleTimeout;
+    this.clock = clock;
+  }
+
+  /**
+   * Retrieve a DataSource from the cache.
+   *
+   * @param key - the key for which to get.
+   *
+   * @return the DataSource if it is cached and passed its last background validation. Null
+   *         otherwise.
+   */
+  @Override
+  public DataSource get(String key) {
+    CachedDataSource cached = dataSourceMap.get(key);
+    if (cached == null || !cached.isHealthy()) {
+      return null;
+    }
+    cached.touch(clock.instant());
+    return cached.getDataSource();
+  }
+
+  @Override
+  public void put(String key, DataSource value) {
+    CachedDataSource previous =
+        dataSourceMap.put(key, new CachedDataSource(value, clock.instant()));
+    if (previous != null && previous.getDataSource() != value) {
+      close(previous.getDataSource());
+    }
+  }
+
+  @Override
+  public void evict(String key) {
+    if (StringUtils.isNotBlank(key)) {
+      CachedDataSource previous = dataSourceMap.remove(key);
+      if (previous != null) {
+        close(previous.getDataSource());
+      }
+    }
+  }
+
+  @Override
+  public DataSource computeIfAbsent(String key, Function<String, DataSource> loader) {
+    DataSource ds = get(key);
+    if (ds != null) {
+      return ds;
+    }
+    CompletableFuture<DataSource> build = new CompletableFuture<>();
+    CompletableFuture<DataSource> running = builds.putIfAbsent(key, build);
+    if (running != null) {
+      return Futures.join(running);
+    }
+    try {
+      // another thread may have completed its build since the first read
+      ds = get(key);
+      if (ds == null) {
+        ds = loader.apply(key);
+        if (ds != null) {
+          put(key, ds);
+        }
+      }
+      build.complete(ds);
+    } catch (RuntimeException | Error ex) {
+      build.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      builds.remove(key, build);
+    }
+    return ds;
+  }
+
+  /**
+   * Validates every cached DataSource and evicts those that have been idle longer than the
+   * configured idle timeout. Runs in the background so request threads never borrow a connection
+   * just to check the pool.
+   */
+  @Scheduled(fixedDelayString = "${datasource.cache.validation-interval:30000}")
+  public void validate() {
+    Instant now = clock.instant();
+    for (Map.Entry<String, CachedDataSource> entry : dataSourceMap.entrySet()) {
+      CachedDataSource cached = entry.getValue();
+      if (cached.isIdle(now, idleTimeout) && !hasActiveConnections(cached.getDataSource())) {
+        if (dataSourceMap.remove(entry.getKey(), cached)) {
+          log.info("Closing idle DataSource for {}", entry.getKey());
+          close(cached.getDataSource());
+        }
+        continue;
+      }
+      cached.setHealthy(isHealthy(cached.getDataSource()));
+    }
+  }
+
+  /**
+   * Closes every cached DataSource. Called by Spring on shutdown.
+   */
+  public void close() {
+    for (String key : dataSourceMap.keySet()) {
+      evict(key);
+    }
+  }
+
+  int size() {
+    return dataSourceMap.size();
+  }
+
+  int buildsInProgress() {
+    return builds.size();
+  }
+
+  private boolean isHealthy(DataSource ds) {
+    if (ds instanceof HikariDataSource) {
+      HikariDataSource hikari = (HikariDataSource) ds;
+      if (hikari.isClosed()) {
+        return false;
+      }
+      if (hasActiveConnections(hikari)) {
+        // Hikari validates connections as they are borrowed, an in use pool is a live pool
+        return true;
+      }
+    }
+    try (Connection conn = ds.getConnection()) {
+      return true;
+    } catch (SQLException e) {
+      log.debug(e.getMessage(), e);
+      return false;
+    }
+  }
+
+  private static boolean hasActiveConnections(DataSource ds) {
+    if (!(ds instanceof HikariDataSource)) {
+      return false;
+    }
+    HikariPoolMXBean pool = ((HikariDataSource) ds).getHikariPoolMXBean();
+    return pool != null && pool.getActiveConnections() > 0;
+  }
+
+  private static void close(DataSource ds) {
+    if (ds instanceof HikariDataSource) {
+      ((HikariDataSource) ds).close();
+    }
+  }
+
+  private static final class CachedDataSource {
+
+    private final DataSource dataSource;
+    private volatile Instant lastAccessed;
+    private volatile boolean healthy = true;
+
+    private CachedDataSource(DataSource dataSource, Instant created) {
+      this.dataSource = dataSource;
+      this.lastAccessed = created;
+    }
+
+    private DataSource getDataSource() {
+      return dataSource;
+    }
+
+    private void touch(Instant now) {
+      lastAccessed = now;
+    }
+
+    private boolean isIdle(Instant now, Duration idleTimeout) {
+      return lastAccessed.plus(idleTimeout).isBefore(now);
+    }
+
+    private boolean isHealthy() {
+      return healthy;
+    }
+
+    private void setHealthy(boolean healthy) {
+      this.healthy = healthy;
+    }
+  }
+}
@@ -8,6 +8,8 @@ package com.qhrtech.emr.restapi.security.datasource;
 import com.qhrtech.emr.restapi.security.db.TenantType;
 import com.qhrtech.emr.restapi.services.TenantDataSourceDetailsService;
 import com.qhrtech.emr.restapi.services.impl.RegistryTenantDataSourceDetailsService;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
@@ -21,7 +23,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.env.AbstractEnvironment;
 import org.springframework.core.io.Resource;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 /**
  * @author bryan.bergen
@@ -29,6 +30,13 @@ import org.springframework.jdbc.datasource.DriverManagerDataSource;
 @Configuration
 public class DataSourceServiceConfig {
 
+  private static final int DEFAULT_MAXIMUM_POOL_SIZE = 10;
+  private static final int DEFAULT_MINIMUM_IDLE = 1;
+  private static final long DEFAULT_CONNECTION_TIMEOUT = 30 * 1000; // 30 sec
+  private static final long DEFAULT_IDLE_TIMEOUT = 10 * 60 * 1000; // 10 min
+  private static final long DEFAULT_MAX_LIFETIME = 30 * 60 * 1000; // 30 min
+  private static final long DEFAULT_LEAK_DETECTION_THRESHOLD = 60 * 1000; // 1 min
+
   @Value("${tenants.type:SINGLE}")
   private String tenantType;
 
@@ -115,22 +123,51 @@ public class DataSourceServiceConfig {
     return getDataSource("jdbc");
   }
 
+  /**
+   * Builds a connection pool for the database configured under the given prefix. The pool can be
+   * tuned per prefix, e.g. {@code token-store.jdbc.pool.maximum-size}, see jdbc.properties.example.
+   */
   private DataSource getDataSource(String propertyPrefix) throws IOException {
     Resource resource = getJdbcResource("jdbc.resource");
     Properties props = new Properties();
     try (InputStream is = resource.getInputStream()) {
       props.load(is);
     }
-    DriverManagerDataSource dataSource = new DriverManagerDataSource();
-    dataSource.setDriverClassName(props.getProperty("jdbc.driverClassName"));
     String url = props.getProperty(propertyPrefix + ".url");
     if (StringUtils.isBlank(url)) {
       return null; // no database configured for this prefix
     }
-    dataSource.setUrl(url);
-    dataSource.setUsername(props.getProperty(propertyPrefix + ".username"));
-    dataSource.setPassword(props.getProperty(propertyPrefix + ".password"));
-    return dataSource;
+    HikariConfig config = new HikariConfig();
+    config.setDriverClassName(props.getProperty("jdbc.driverClassName"));
+    config.setJdbcUrl(url);
+    config.setUsername(props.getProperty(propertyPrefix + ".username"));
+    config.setPassword(props.getProperty(propertyPrefix + ".password"));
+    config.setPoolName(propertyPrefix);
+
+    String pool = propertyPrefix + ".pool.";
+    config.setMaximumPoolSize(
+        getInt(props, pool + "maximum-size", DEFAULT_MAXIMUM_POOL_SIZE));
+    config.setMinimumIdle(getInt(props, pool + "minimum-idle", DEFAULT_MINIMUM_IDLE));
+    config.setConnectionTimeout(
+        getLong(props, pool + "connection-timeout", DEFAULT_CONNECTION_TIMEOUT));
+    config.setIdleTimeout(getLong(props, pool + "idle-timeout", DEFAULT_IDLE_TIMEOUT));
+    config.setMaxLifetime(getLong(props, pool + "max-lifetime", DEFAULT_MAX_LIFETIME));
+    config.setLeakDetectionThreshold(getLong(props, pool + "leak-detection-threshold",
+        DEFAULT_LEAK_DETECTION_THRESHOLD));
+    // connect lazily, the database may not be reachable while the application starts
+    config.setInitializationFailTimeout(-1);
+    config.setMetricsTrackerFactory(PoolMetricsTrackerFactory.getInstance());
+    return new HikariDataSource(config);
+  }
+
+  private static int getInt(Properties props, String key, int defaultValue) {
+    String value = props.getProperty(key);
+    return StringUtils.isBlank(value) ? defaultValue : Integer.parseInt(value.trim());
+  }
+
+  private static long getLong(Properties props, String key, long defaultValue) {
+    String value = props.getProperty(key);
+    return StringUtils.isBlank(value) ? defaultValue : Long.parseLong(value.trim());
   }
 
   /**
@@ -52,10 +52,16 @@ public class HostedDataSourceService implements DataSourceService {
     String key = buildKey(acronym, type);
     DataSource ds = dataSourceCache.get(key);
 
-    if (validateDataSource(ds)) {
+    if (ds != null) {
+      // the cache validates its pools in the background, no need to borrow a connection here
       return ds;
     }
 
+    // concurrent requests for the same tenant share a single build
+    return dataSourceCache.computeIfAbsent(key, k -> loadDataSource(acronym, type, k));
+  }
+
+  private DataSource loadDataSource(String acronym, DatabaseType type, String key) {
     boolean updatedDetails = tenantDetailsCache.update(key);
 
     if (!updatedDetails) {
@@ -72,9 +78,9 @@ public class HostedDataSourceService implements DataSourceService {
           .orElseThrow(() -> new InvalidTenantException(
               "Configuration error: Accuro clinic not found with name '" + acronym + "'"));
 
-      // There has been a change in registry. Evict from cache and regenerate
-      ds = generateDataSource(type, details);
-      return verifyAndCache(ds, key);
+      // There has been a change in registry. Regenerate, the cache will close the old pool
+      DataSource ds = generateDataSource(type, details);
+      return verify(ds);
     }
   }
 
@@ -94,14 +100,12 @@ public class HostedDataSourceService implements DataSourceService {
   }
 
   /**
-   * Verifies the datasource by checking out a connection and closing it. Adds the data source to
-   * the data source cache and details hash cache.
+   * Verifies a newly built datasource by checking out a connection and closing it.
    * <p>
    * If the details cannot be verified then an exception will be thrown.
    */
-  private DataSource verifyAndCache(DataSource ds, String key) {
+  private DataSource verify(DataSource ds) {
     if (validateDataSource(ds)) {
-      dataSourceCache.put(key, ds);
       return ds;
     } else {
       if (ds instanceof HikariDataSource) {
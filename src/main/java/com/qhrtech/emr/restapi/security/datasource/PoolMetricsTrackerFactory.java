@@ -0,0 +1,122 @@
+package com.qhrtech.emr.restapi.security.datasource;
+
+import com.qhrtech.emr.restapi.util.ApiMetrics;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Publishes HikariCP pool metrics through {@link ApiMetrics}.
+ *
+ * Connection counts are observed from the pool statistics of every open pool, while acquire time,
+ * creation time, usage time and timeouts are recorded as they happen. All measurements carry the
+ * pool name.
+ */
+public final class PoolMetricsTrackerFactory implements MetricsTrackerFactory {
+
+  private static final PoolMetricsTrackerFactory INSTANCE = new PoolMetricsTrackerFactory();
+
+  private static final AttributeKey<String> POOL = AttributeKey.stringKey("pool");
+
+  private final Map<String, PoolStats> pools = new ConcurrentHashMap<>();
+
+  private final DoubleHistogram acquireDuration;
+  private final DoubleHistogram createDuration;
+  private final DoubleHistogram usageDuration;
+  private final LongCounter timeouts;
+
+  private PoolMetricsTrackerFactory() {
+    Meter meter = ApiMetrics.meter();
+    acquireDuration = meter.histogramBuilder("accuro.api.db.pool.acquire.duration")
+        .setDescription("Time taken to borrow a connection from the pool")
+        .setUnit("ms")
+        .build();
+    createDuration = meter.histogramBuilder("accuro.api.db.pool.create.duration")
+        .setDescription("Time taken to open a physical connection")
+        .setUnit("ms")
+        .build();
+    usageDuration = meter.histogramBuilder("accuro.api.db.pool.usage.duration")
+        .setDescription("Time a connection was borrowed for")
+        .setUnit("ms")
+        .build();
+    timeouts = meter.counterBuilder("accuro.api.db.pool.timeouts")
+        .setDescription("Connection requests that timed out waiting for the pool")
+        .build();
+    registerGauge(meter, "accuro.api.db.pool.connections.active",
+        "Connections currently borrowed from the pool", PoolStats::getActiveConnections);
+    registerGauge(meter, "accuro.api.db.pool.connections.idle",
+        "Open connections waiting in the pool", PoolStats::getIdleConnections);
+    registerGauge(meter, "accuro.api.db.pool.connections.total",
+        "Open connections held by the pool", PoolStats::getTotalConnections);
+    registerGauge(meter, "accuro.api.db.pool.pending",
+        "Threads waiting for a connection", PoolStats::getPendingThreads);
+  }
+
+  public static PoolMetricsTrackerFactory getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public IMetricsTracker create(String poolName, PoolStats poolStats) {
+    pools.put(poolName, poolStats);
+    return new Tracker(poolName, Attributes.of(POOL, poolName));
+  }
+
+  private void registerGauge(Meter meter, String name, String description,
+      ToIntFunction<PoolStats> value) {
+    meter.gaugeBuilder(name)
+        .setDescription(description)
+        .ofLongs()
+        .buildWithCallback(measurement -> observe(measurement, value));
+  }
+
+  private void observe(ObservableLongMeasurement measurement, ToIntFunction<PoolStats> value) {
+    pools.forEach((poolName, stats) ->
+        measurement.record(value.applyAsInt(stats), Attributes.of(POOL, poolName)));
+  }
+
+  private final class Tracker implements IMetricsTracker {
+
+    private final String poolName;
+    private final Attributes attributes;
+
+    private Tracker(String poolName, Attributes attributes) {
+      this.poolName = poolName;
+      this.attributes = attributes;
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+      createDuration.record(connectionCreatedMillis, attributes);
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+      acquireDuration.record(elapsedAcquiredNanos / 1_000_000d, attributes);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+      usageDuration.record(elapsedBorrowedMillis, attributes);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+      timeouts.add(1, attributes);
+    }
+
+    @Override
+    public void close() {
+      pools.remove(poolName);
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.qhrtech.emr.restapi.services;
+
+/**
+ * Properties of a stored blob needed to serve it without downloading it first.
+ */
+public class BlobMetadata {
+
+  private final long size;
+  private final String eTag;
+
+  public BlobMetadata(long size, String eTag) {
+    this.size = size;
+    this.eTag = eTag;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public String getETag() {
+    return eTag;
+  }
+}
@@ -0,0 +1,14 @@
+package com.qhrtech.emr.restapi.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Content to be uploaded to blob storage. A new stream is opened for every attempt, so an upload
+ * can be retried without buffering the content in memory.
+ */
+@FunctionalInterface
+public interface BlobSource {
+
+  InputStream openStream() throws IOException;
+}
@@ -1,7 +1,7 @@
-
 package com.qhrtech.emr.restapi.services;
 
 import com.qhrtech.emr.restapi.services.exceptions.StorageServiceException;
+import java.io.OutputStream;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -10,4 +10,28 @@ public interface BlobStorageService {
   byte[] downloadBlob(BlobIdentifier blobIdentifier) throws StorageServiceException;
 
   void uploadBlob(BlobIdentifier blobIdentifier, byte[] blobData) throws StorageServiceException;
+
+  /**
+   * Uploads the content without holding it in memory.
+   *
+   * @param blobIdentifier the blob to write.
+   * @param source the content to upload, opened once per attempt.
+   * @param length the exact length of the content in bytes.
+   */
+  void uploadBlob(BlobIdentifier blobIdentifier, BlobSource source, long length)
+      throws StorageServiceException;
+
+  BlobMetadata getBlobMetadata(BlobIdentifier blobIdentifier) throws StorageServiceException;
+
+  /**
+   * Writes a range of the blob to the output stream as it is downloaded.
+   *
+   * @param blobIdentifier the blob to read.
+   * @param outputStream the stream to write the content to.
+   * @param offset the first byte to write.
+   * @param count the number of bytes to write.
+   * @param eTag if not null, the download fails unless the blob still has this ETag.
+   */
+  void downloadBlob(BlobIdentifier blobIdentifier, OutputStream outputStream, long offset,
+      long count, String eTag) throws StorageServiceException;
 }
@@ -29,4 +29,12 @@ public interface ModuleService {
    */
   boolean isAccBlobEnabled() throws ProtossException;
 
+  /**
+   * Discards the cached module state of a tenant so the next check reads it from the database.
+   * Must be called after modules of the tenant are changed through a ModuleManager.
+   *
+   * @param tenantId - id of the tenant whose modules changed
+   */
+  void refreshModules(String tenantId);
+
 }
@@ -0,0 +1,58 @@
+package com.qhrtech.emr.restapi.services;
+
+import com.qhrtech.emr.accuro.model.exceptions.ProtossException;
+import com.qhrtech.emr.restapi.services.exceptions.ProtectionLockTimeoutException;
+
+/**
+ * Coordinates requests waiting for the same protection lock.
+ *
+ * Requests of this server wait in line for a lock key and are woken as soon as the request ahead
+ * of them releases it, without querying the database. Only the first request in line queries the
+ * lock, backing off while it is held by another server.
+ */
+public interface ProtectionLockService {
+
+  /**
+   * Waits for the lock of a key and takes it.
+   *
+   * @param tenantId The tenant the lock belongs to.
+   * @param lockKey The key of the lock.
+   * @param operations Queries, takes and releases the lock in the database.
+   * @return The lease to release once done, always in a finally block.
+   * @throws ProtectionLockTimeoutException If the lock was not obtained before the wait deadline.
+   * @throws InterruptedException If the thread was interrupted while waiting.
+   * @throws ProtossException If the lock operations threw a non transient error.
+   */
+  Lease acquire(String tenantId, String lockKey, LockOperations operations)
+      throws ProtectionLockTimeoutException, InterruptedException, ProtossException;
+
+  /**
+   * The database operations on one protection lock.
+   */
+  interface LockOperations {
+
+    /**
+     * @return True if somebody holds the lock.
+     */
+    boolean isLocked() throws ProtossException;
+
+    /**
+     * @return True if the lock was taken, false if somebody else holds it.
+     */
+    boolean tryLock() throws ProtossException;
+
+    void unlock() throws ProtossException;
+  }
+
+  /**
+   * A protection lock held by the current request.
+   */
+  interface Lease {
+
+    /**
+     * Releases the lock in the database and hands it to the next request of this server in line.
+     * Releasing a lease more than once has no effect.
+     */
+    void release() throws ProtossException;
+  }
+}
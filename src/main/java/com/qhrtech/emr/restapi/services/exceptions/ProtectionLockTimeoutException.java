@@ -0,0 +1,30 @@
+package com.qhrtech.emr.restapi.services.exceptions;
+
+/**
+ * Thrown when a protection lock could not be obtained before the wait deadline.
+ */
+public class ProtectionLockTimeoutException extends Exception {
+
+  private final boolean unavailable;
+  private final long retryAfterSeconds;
+
+  /**
+   * @param message The detail message.
+   * @param unavailable True if the lock could not be queried, false if it was held throughout.
+   * @param retryAfterSeconds When the client should try again.
+   */
+  public ProtectionLockTimeoutException(String message, boolean unavailable,
+      long retryAfterSeconds) {
+    super(message);
+    this.unavailable = unavailable;
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public boolean isUnavailable() {
+    return unavailable;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
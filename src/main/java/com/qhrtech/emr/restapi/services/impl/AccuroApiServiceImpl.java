@@ -1,18 +1,30 @@
-
 package com.qhrtech.emr.restapi.services.impl;
 
+import com.qhrtech.emr.restapi.security.ApiSecurityContext;
 import com.qhrtech.emr.restapi.security.datasource.DataSourceService;
 import com.qhrtech.emr.restapi.services.AccuroApiService;
 import com.qhrtech.emr.restapi.services.ListenerPoolService;
 import com.qhrtech.emr.restapi.services.ManagerConstructor;
 import com.qhrtech.emr.restapi.services.ManagerMapping;
 import com.qhrtech.emr.restapi.services.SecurityContextService;
+import com.qhrtech.emr.restapi.util.ApiMetrics;
+import io.opentelemetry.api.metrics.LongCounter;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AccuroApiServiceImpl implements AccuroApiService {
 
+  private static final LongCounter SAVED_CONSTRUCTIONS_COUNTER = ApiMetrics.meter()
+      .counterBuilder("accuro.api.manager.constructions.saved")
+      .setDescription("Protoss manager constructions avoided by the request scoped cache")
+      .build();
+
+  private final LongAdder savedConstructions = new LongAdder();
+
   @Autowired
   private ListenerPoolService listenerPoolService;
 
@@ -27,6 +39,15 @@ public class AccuroApiServiceImpl implements AccuroApiService {
     return getImpl(interfaceClass, tenantId, false);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * Managers are memoized for the lifetime of the current {@link ApiSecurityContext}, so repeated
+   * lookups for the same interface, tenant and permission mode within a request share one instance.
+   * Parts of a request running on other threads, see
+   * {@link com.qhrtech.emr.restapi.security.SecurityContextExecutor}, share the context but get
+   * their own instances, as the Protoss managers are not documented to be thread safe.
+   */
   @Override
   public <D extends T, T> D getImpl(Class<T> interfaceClass, String tenantId,
       boolean skipPermissionsCheck) {
@@ -40,8 +61,75 @@ public class AccuroApiServiceImpl implements AccuroApiService {
           "Implementation not defined for " + interfaceClass.getName() + ".");
     }
 
+    ApiSecurityContext securityContext = securityContextService.getSecurityContext();
+    if (securityContext == null) {
+      // outside of a request there is nothing to scope the instance to
+      return createInstance(managerConstructor, tenantId, skipPermissionsCheck);
+    }
+
+    Map<Object, Object> instances = securityContext.getManagerInstances();
+    ManagerKey key = new ManagerKey(interfaceClass, tenantId, skipPermissionsCheck,
+        Thread.currentThread().getId());
+    @SuppressWarnings("unchecked")
+    D instance = (D) instances.get(key);
+    if (instance != null) {
+      savedConstructions.increment();
+      SAVED_CONSTRUCTIONS_COUNTER.add(1);
+      return instance;
+    }
+
+    instance = createInstance(managerConstructor, tenantId, skipPermissionsCheck);
+    instances.put(key, instance);
+    return instance;
+  }
+
+  /**
+   * @return the number of manager constructions avoided by the request scoped cache since startup.
+   */
+  public long getSavedConstructions() {
+    return savedConstructions.sum();
+  }
+
+  private <D> D createInstance(ManagerConstructor<D> managerConstructor, String tenantId,
+      boolean skipPermissionsCheck) {
     return managerConstructor.createInstance(dataSourceService,
         securityContextService, listenerPoolService,
         tenantId, skipPermissionsCheck);
   }
+
+  private static final class ManagerKey {
+
+    private final Class<?> interfaceClass;
+    private final String tenantId;
+    private final boolean skipPermissionsCheck;
+    private final long threadId;
+
+    private ManagerKey(Class<?> interfaceClass, String tenantId, boolean skipPermissionsCheck,
+        long threadId) {
+      this.interfaceClass = interfaceClass;
+      this.tenantId = tenantId;
+      this.skipPermissionsCheck = skipPermissionsCheck;
+      this.threadId = threadId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ManagerKey)) {
+        return false;
+      }
+      ManagerKey that = (ManagerKey) o;
+      return skipPermissionsCheck == that.skipPermissionsCheck
+          && threadId == that.threadId
+          && interfaceClass.equals(that.interfaceClass)
+          && Objects.equals(tenantId, that.tenantId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(interfaceClass, tenantId, skipPermissionsCheck, threadId);
+    }
+  }
 }
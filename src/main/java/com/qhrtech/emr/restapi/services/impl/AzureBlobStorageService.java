@@ -1,23 +1,63 @@
-
 package com.qhrtech.emr.restapi.services.impl;
 
+import com.azure.core.exception.ClientAuthenticationException;
 import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
 import com.azure.identity.ClientSecretCredential;
 import com.azure.storage.blob.BlobClient;
-import com.azure.storage.blob.BlobClientBuilder;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobRequestConditions;
 import com.azure.storage.blob.models.BlobStorageException;
 import com.microsoft.aad.msal4j.MsalServiceException;
 import com.qhrtech.emr.restapi.services.BlobIdentifier;
+import com.qhrtech.emr.restapi.services.BlobMetadata;
+import com.qhrtech.emr.restapi.services.BlobSource;
 import com.qhrtech.emr.restapi.services.BlobStorageService;
 import com.qhrtech.emr.restapi.services.CredentialService;
+import com.qhrtech.emr.restapi.services.exceptions.CredentialException;
 import com.qhrtech.emr.restapi.services.exceptions.StorageServiceException;
+import com.qhrtech.emr.restapi.util.ApiMetrics;
+import com.qhrtech.emr.restapi.util.ExpiringCache;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+/**
+ * Implementation of {@link BlobStorageService} backed by Azure Blob Storage.
+ *
+ * Key Vault credentials are cached for {@code azure.blob.credential-ttl}, while a vault without
+ * credentials is only remembered for {@code azure.blob.credential-negative-ttl}, and one
+ * {@link BlobContainerClient} is kept per storage account and container, so the HTTP pipeline and
+ * its access token are reused between requests. If storage rejects the cached credentials they are
+ * reloaded from Key Vault and the call is retried once.
+ */
 @Service
 public class AzureBlobStorageService implements BlobStorageService {
 
+  private static final DoubleHistogram CREDENTIAL_DURATION = ApiMetrics.meter()
+      .histogramBuilder("accuro.api.blob.credential.duration")
+      .setDescription("Time taken to load AccBlob credentials from Key Vault")
+      .setUnit("ms")
+      .build();
+  private static final DoubleHistogram CLIENT_SETUP_DURATION = ApiMetrics.meter()
+      .histogramBuilder("accuro.api.blob.client.setup.duration")
+      .setDescription("Time taken to build a blob container client")
+      .setUnit("ms")
+      .build();
+
   @Value("${azure.blob.endpoint:}")
   private String blobEndpoint;
 
@@ -26,19 +66,26 @@ public class AzureBlobStorageService implements BlobStorageService {
 
   private CredentialService credentialService;
 
-  public AzureBlobStorageService(@Autowired CredentialService credentialService) {
+  private final ExpiringCache<String, ClientSecretCredential> credentialCache;
+  private final Map<String, CachedContainerClient> containerClients = new ConcurrentHashMap<>();
+
+  @Autowired
+  public AzureBlobStorageService(CredentialService credentialService,
+      @Value("${azure.blob.credential-ttl:3600000}") Long credentialTtl,
+      @Value("${azure.blob.credential-negative-ttl:60000}") Long credentialNegativeTtl) {
     this.credentialService = credentialService;
+    this.credentialCache = new ExpiringCache<>(this::loadCredentials,
+        Duration.ofMillis(credentialTtl), Duration.ofMillis(credentialNegativeTtl));
   }
 
-  public BlobClientBuilder getBlobClientBuilder() {
-    return new BlobClientBuilder();
+  public BlobContainerClientBuilder getBlobContainerClientBuilder() {
+    return new BlobContainerClientBuilder();
   }
 
   @Override
   public byte[] downloadBlob(BlobIdentifier blobIdentifier) throws StorageServiceException {
     try {
-      BlobClient blobClient = createBlobClient(blobIdentifier);
-      BinaryData data = blobClient.downloadContent();
+      BinaryData data = withBlobClient(blobIdentifier, BlobClient::downloadContent);
 
       if (data != null) {
         return data.toBytes();
@@ -54,26 +101,138 @@ public class AzureBlobStorageService implements BlobStorageService {
   public void uploadBlob(BlobIdentifier blobIdentifier, byte[] blobData)
       throws StorageServiceException {
     try {
-      BlobClient blobClient = createBlobClient(blobIdentifier);
-      blobClient.upload(BinaryData.fromBytes(blobData), true);
+      withBlobClient(blobIdentifier, blobClient -> {
+        blobClient.upload(BinaryData.fromBytes(blobData), true);
+        return null;
+      });
     } catch (MsalServiceException | BlobStorageException exp) {
       throw new StorageServiceException("Error uploading blob content", exp);
     }
   }
 
-  private BlobClient createBlobClient(BlobIdentifier blobIdentifier) {
+  @Override
+  public void uploadBlob(BlobIdentifier blobIdentifier, BlobSource source, long length)
+      throws StorageServiceException {
+    try {
+      withBlobClient(blobIdentifier, blobClient -> {
+        try (InputStream data = source.openStream()) {
+          blobClient.upload(data, length, true);
+        } catch (IOException exp) {
+          throw new UncheckedIOException(exp);
+        }
+        return null;
+      });
+    } catch (MsalServiceException | BlobStorageException | UncheckedIOException exp) {
+      throw new StorageServiceException("Error uploading blob content", exp);
+    }
+  }
 
-    ClientSecretCredential credential = credentialService.getAccBlobCredentials(vaultName);
+  @Override
+  public BlobMetadata getBlobMetadata(BlobIdentifier blobIdentifier)
+      throws StorageServiceException {
+    try {
+      BlobProperties properties = withBlobClient(blobIdentifier, BlobClient::getProperties);
+      return new BlobMetadata(properties.getBlobSize(), properties.getETag());
+    } catch (MsalServiceException | BlobStorageException exp) {
+      throw new StorageServiceException("Error reading blob properties", exp);
+    }
+  }
+
+  @Override
+  public void downloadBlob(BlobIdentifier blobIdentifier, OutputStream outputStream, long offset,
+      long count, String eTag) throws StorageServiceException {
+    BlobRequestConditions conditions = new BlobRequestConditions().setIfMatch(eTag);
+    try {
+      withBlobClient(blobIdentifier, blobClient -> blobClient.downloadWithResponse(outputStream,
+          new BlobRange(offset, count), null, conditions, false, null, Context.NONE));
+    } catch (MsalServiceException | BlobStorageException exp) {
+      throw new StorageServiceException("Error downloading blob content", exp);
+    }
+  }
+
+  /**
+   * Runs the operation against the blob, refreshing the credentials and retrying once if they have
+   * been rejected.
+   */
+  private <T> T withBlobClient(BlobIdentifier blobIdentifier, Function<BlobClient, T> operation) {
+    try {
+      return operation.apply(getBlobClient(blobIdentifier));
+    } catch (MsalServiceException | ClientAuthenticationException exp) {
+      invalidateCredentials();
+      return operation.apply(getBlobClient(blobIdentifier));
+    } catch (BlobStorageException exp) {
+      if (exp.getStatusCode() != HttpStatus.UNAUTHORIZED.value()) {
+        throw exp;
+      }
+      invalidateCredentials();
+      return operation.apply(getBlobClient(blobIdentifier));
+    }
+  }
+
+  private BlobClient getBlobClient(BlobIdentifier blobIdentifier) {
+    ClientSecretCredential credential = credentialCache.get(vaultName)
+        .orElseThrow(() -> new CredentialException("Credentials not found."));
 
     // Storage account can contain only letters and numbers
     String storageAccount = blobIdentifier.getStorageAccount();
+    String containerName = blobIdentifier.getContainerName();
 
+    CachedContainerClient cached =
+        containerClients.compute(storageAccount + "/" + containerName, (key, existing) -> {
+          if (existing != null && existing.getCredential() == credential) {
+            return existing;
+          }
+          return new CachedContainerClient(credential,
+              buildContainerClient(storageAccount, containerName, credential));
+        });
+    return cached.getClient().getBlobClient(blobIdentifier.getBlobName());
+  }
+
+  private BlobContainerClient buildContainerClient(String storageAccount, String containerName,
+      ClientSecretCredential credential) {
+    long start = System.nanoTime();
     String url = String.format(blobEndpoint, storageAccount);
-    return getBlobClientBuilder()
+    BlobContainerClient client = getBlobContainerClientBuilder()
         .endpoint(url)
         .credential(credential)
-        .containerName(blobIdentifier.getContainerName())
-        .blobName(blobIdentifier.getBlobName())
+        .containerName(containerName)
         .buildClient();
+    CLIENT_SETUP_DURATION.record(elapsedMillis(start));
+    return client;
+  }
+
+  private ClientSecretCredential loadCredentials(String vault) {
+    long start = System.nanoTime();
+    ClientSecretCredential credential = credentialService.getAccBlobCredentials(vault);
+    CREDENTIAL_DURATION.record(elapsedMillis(start));
+    return credential;
+  }
+
+  private void invalidateCredentials() {
+    credentialCache.invalidate(vaultName);
+    containerClients.clear();
+  }
+
+  private static double elapsedMillis(long startNanos) {
+    return (System.nanoTime() - startNanos) / 1_000_000d;
+  }
+
+  private static final class CachedContainerClient {
+
+    private final ClientSecretCredential credential;
+    private final BlobContainerClient client;
+
+    private CachedContainerClient(ClientSecretCredential credential, BlobContainerClient client) {
+      this.credential = credential;
+      this.client = client;
+    }
+
+    private ClientSecretCredential getCredential() {
+      return credential;
+    }
+
+    private BlobContainerClient getClient() {
+      return client;
+    }
   }
 }
@@ -11,11 +11,20 @@ import com.qhrtech.emr.accuro.model.security.modules.Module;
 import com.qhrtech.emr.restapi.services.AccuroApiService;
 import com.qhrtech.emr.restapi.services.ModuleService;
 import com.qhrtech.emr.restapi.services.SecurityContextService;
+import com.qhrtech.emr.restapi.util.ExpiringCache;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
+ * Implementation of {@link ModuleService} that keeps a per-tenant snapshot of the enabled modules.
+ *
+ * Snapshots are loaded once per TTL with a single query per tenant, so module checks on the request
+ * path are in-memory reads.
+ *
  * @author jesse.pasos
  */
 @Service
@@ -29,11 +38,15 @@ public class DefaultModuleService implements ModuleService {
 
   private final AccuroApiService api;
   private final SecurityContextService securityContextService;
+  private final ExpiringCache<String, Map<Module, Boolean>> moduleCache;
 
   public DefaultModuleService(
-      AccuroApiService api, SecurityContextService securityContextService) {
+      AccuroApiService api, SecurityContextService securityContextService,
+      @Value("${modules.cache.ttl:60000}") Long moduleCacheTtl) {
     this.api = api;
     this.securityContextService = securityContextService;
+    Duration ttl = Duration.ofMillis(moduleCacheTtl);
+    this.moduleCache = new ExpiringCache<>(this::loadModules, ttl, ttl);
   }
 
   @Override
@@ -59,10 +72,49 @@ public class DefaultModuleService implements ModuleService {
     return isModuleEnabled(module, tenantId);
   }
 
+  @Override
+  public void refreshModules(String tenantId) {
+    moduleCache.invalidate(tenantId);
+  }
+
   private boolean isModuleEnabled(Module module, String tenantId) throws ProtossException {
-    ModuleManager manager = api.getImpl(ModuleManager.class, tenantId);
-    Map<Module, Boolean> modules = manager.getModules();
+    Map<Module, Boolean> modules;
+    try {
+      modules = moduleCache.get(tenantId).orElse(Collections.emptyMap());
+    } catch (ModuleLoadException ex) {
+      throw ex.getCause();
+    }
     return modules.containsKey(module)
         && modules.get(module);
   }
+
+  private Map<Module, Boolean> loadModules(String tenantId) {
+    ModuleManager manager = api.getImpl(ModuleManager.class, tenantId);
+    try {
+      Map<Module, Boolean> modules = manager.getModules();
+      if (modules == null) {
+        return null;
+      }
+      Map<Module, Boolean> snapshot = new EnumMap<>(Module.class);
+      snapshot.putAll(modules);
+      return Collections.unmodifiableMap(snapshot);
+    } catch (ProtossException ex) {
+      throw new ModuleLoadException(ex);
+    }
+  }
+
+  /**
+   * Carries a {@link ProtossException} out of the module cache loader.
+   */
+  private static final class ModuleLoadException extends RuntimeException {
+
+    private ModuleLoadException(ProtossException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized ProtossException getCause() {
+      return (ProtossException) super.getCause();
+    }
+  }
 }
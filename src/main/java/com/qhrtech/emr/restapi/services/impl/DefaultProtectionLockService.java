@@ -0,0 +1,226 @@
+package com.qhrtech.emr.restapi.services.impl;
+
+import com.qhrtech.emr.accuro.model.exceptions.ProtossException;
+import com.qhrtech.emr.accuro.model.exceptions.dataaccess.DatabaseInteractionException;
+import com.qhrtech.emr.restapi.services.ProtectionLockService;
+import com.qhrtech.emr.restapi.services.exceptions.ProtectionLockTimeoutException;
+import com.qhrtech.emr.restapi.util.ApiMetrics;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Protection lock coordination with one fair wait queue per tenant and lock key.
+ *
+ * Only the request at the head of a queue talks to the database. When the lock is held by another
+ * server it retries with exponential backoff and jitter, starting at
+ * {@code protection-lock.backoff-initial} ms and capped at {@code protection-lock.backoff-max} ms.
+ * A request gives up once it waited {@code protection-lock.wait-timeout} ms in total, in the queue
+ * and backing off together.
+ */
+@Component
+public class DefaultProtectionLockService implements ProtectionLockService {
+
+  private static final Logger log = LoggerFactory.getLogger(DefaultProtectionLockService.class);
+
+  private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+  private static final AttributeKey<String> REASON = AttributeKey.stringKey("reason");
+  private static final DoubleHistogram WAIT_DURATION = ApiMetrics.meter()
+      .histogramBuilder("accuro.api.protection-lock.wait.duration")
+      .setDescription("Time requests waited for a protection lock")
+      .setUnit("ms")
+      .build();
+  private static final LongCounter TIMEOUT_COUNTER = ApiMetrics.meter()
+      .counterBuilder("accuro.api.protection-lock.timeouts")
+      .setDescription("Requests that gave up waiting for a protection lock")
+      .build();
+  private static final LongCounter BACKOFF_COUNTER = ApiMetrics.meter()
+      .counterBuilder("accuro.api.protection-lock.backoffs")
+      .setDescription("Protection lock queries retried after a backoff")
+      .build();
+
+  private final Map<String, LockQueue> queues = new ConcurrentHashMap<>();
+  private final long waitTimeoutNanos;
+  private final long initialBackoffNanos;
+  private final long maxBackoffNanos;
+  private final long retryAfterSeconds;
+
+  @Autowired
+  public DefaultProtectionLockService(
+      @Value("${protection-lock.wait-timeout:30000}") long waitTimeoutMillis,
+      @Value("${protection-lock.backoff-initial:50}") long initialBackoffMillis,
+      @Value("${protection-lock.backoff-max:2000}") long maxBackoffMillis) {
+    this(Duration.ofMillis(waitTimeoutMillis), Duration.ofMillis(initialBackoffMillis),
+        Duration.ofMillis(maxBackoffMillis));
+  }
+
+  DefaultProtectionLockService(Duration waitTimeout, Duration initialBackoff,
+      Duration maxBackoff) {
+    this.waitTimeoutNanos = waitTimeout.toNanos();
+    this.initialBackoffNanos = Math.max(1, initialBackoff.toNanos());
+    this.maxBackoffNanos = Math.max(initialBackoffNanos, maxBackoff.toNanos());
+    this.retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(
+        maxBackoffNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+
+    ApiMetrics.meter()
+        .gaugeBuilder("accuro.api.protection-lock.queued")
+        .setDescription("Requests waiting behind another request of this server for a lock")
+        .ofLongs()
+        .buildWithCallback(measurement -> measurement.record(getQueued()));
+  }
+
+  @Override
+  public Lease acquire(String tenantId, String lockKey, LockOperations operations)
+      throws ProtectionLockTimeoutException, InterruptedException, ProtossException {
+    long start = System.nanoTime();
+    long deadline = start + waitTimeoutNanos;
+    String queueKey = tenantId + ":" + lockKey;
+    LockQueue queue = join(queueKey);
+    boolean queued = true;
+    boolean permitted = false;
+    try {
+      permitted = queue.permit.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      if (!permitted) {
+        throw timeout(lockKey, start, false);
+      }
+      lockDatabase(lockKey, operations, start, deadline);
+      recordWait(start, "acquired");
+      Lease lease = new QueueLease(queueKey, queue, operations);
+      queued = false;
+      return lease;
+    } finally {
+      if (queued) {
+        if (permitted) {
+          queue.permit.release();
+        }
+        leave(queueKey, queue);
+      }
+    }
+  }
+
+  /**
+   * @return The number of requests waiting for a lock held by another request of this server.
+   */
+  public long getQueued() {
+    long queued = 0;
+    for (LockQueue queue : queues.values()) {
+      queued += queue.permit.getQueueLength();
+    }
+    return queued;
+  }
+
+  private void lockDatabase(String lockKey, LockOperations operations, long start, long deadline)
+      throws ProtectionLockTimeoutException, InterruptedException, ProtossException {
+    for (int attempt = 0; ; attempt++) {
+      boolean unavailable = false;
+      try {
+        if (!operations.isLocked() && operations.tryLock()) {
+          return;
+        }
+      } catch (DatabaseInteractionException ex) {
+        log.debug("Protection lock query failed for {}, retrying", lockKey, ex);
+        unavailable = true;
+      }
+      long backoff = backoff(attempt);
+      if (System.nanoTime() + backoff >= deadline) {
+        throw timeout(lockKey, start, unavailable);
+      }
+      BACKOFF_COUNTER.add(1);
+      TimeUnit.NANOSECONDS.sleep(backoff);
+    }
+  }
+
+  /**
+   * Exponential backoff with equal jitter, half of the delay is fixed and half is random so
+   * servers contending for the same lock spread their queries.
+   */
+  private long backoff(int attempt) {
+    long delay = initialBackoffNanos << Math.min(attempt, 20);
+    if (delay <= 0 || delay > maxBackoffNanos) {
+      delay = maxBackoffNanos;
+    }
+    long half = delay / 2;
+    return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+  }
+
+  private ProtectionLockTimeoutException timeout(String lockKey, long start, boolean unavailable) {
+    String reason = unavailable ? "unavailable" : "conflict";
+    TIMEOUT_COUNTER.add(1, Attributes.of(REASON, reason));
+    recordWait(start, "timeout");
+    return new ProtectionLockTimeoutException(
+        "Timed out waiting for protection lock " + lockKey + " (" + reason + ")",
+        unavailable, retryAfterSeconds);
+  }
+
+  private static void recordWait(long start, String outcome) {
+    WAIT_DURATION.record((System.nanoTime() - start) / 1_000_000.0,
+        Attributes.of(OUTCOME, outcome));
+  }
+
+  private LockQueue join(String queueKey) {
+    return queues.compute(queueKey, (key, queue) -> {
+      LockQueue joined = queue == null ? new LockQueue() : queue;
+      joined.members++;
+      return joined;
+    });
+  }
+
+  private void leave(String queueKey, LockQueue queue) {
+    queues.computeIfPresent(queueKey, (key, current) -> {
+      if (current != queue) {
+        return current;
+      }
+      return --current.members == 0 ? null : current;
+    });
+  }
+
+  /**
+   * The requests of this server holding or waiting for one lock. Members are only counted inside
+   * the compute functions of the queue map, so an unused queue is removed atomically.
+   */
+  private static final class LockQueue {
+
+    private final Semaphore permit = new Semaphore(1, true);
+    private int members;
+  }
+
+  private final class QueueLease implements Lease {
+
+    private final String queueKey;
+    private final LockQueue queue;
+    private final LockOperations operations;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private QueueLease(String queueKey, LockQueue queue, LockOperations operations) {
+      this.queueKey = queueKey;
+      this.queue = queue;
+      this.operations = operations;
+    }
+
+    @Override
+    public void release() throws ProtossException {
+      if (!released.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        operations.unlock();
+      } finally {
+        queue.permit.release();
+        leave(queueKey, queue);
+      }
+    }
+  }
+}
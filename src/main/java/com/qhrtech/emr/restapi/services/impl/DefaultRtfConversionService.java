@@ -3,22 +3,32 @@ package com.qhrtech.emr.restapi.services.impl;
 
 import com.qhrtech.emr.restapi.services.RtfConversionService;
 import com.qhrtech.emr.restapi.services.exceptions.RtfConversionException;
+import com.qhrtech.emr.restapi.util.ApiMetrics;
+import com.qhrtech.emr.restapi.util.BoundedMaps;
+import com.qhrtech.emr.restapi.util.Hashes;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.swing.text.BadLocationException;
-import javax.swing.text.DefaultStyledDocument;
 import javax.swing.text.Document;
-import javax.swing.text.Element;
 import javax.swing.text.SimpleAttributeSet;
 import javax.swing.text.StyleConstants;
-import javax.swing.text.StyledDocument;
 import javax.swing.text.rtf.RTFEditorKit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
  * Implementation of {@link RtfConversionService} that converts RTF formatted data.
  *
+ * Plain text is extracted by {@link RtfTextExtractor} in a single pass and cached by a hash of the
+ * RTF content, so notes and letters viewed repeatedly are not parsed again. At most
+ * {@code rtf.cache.max-size} conversions are kept, 0 disables the cache.
+ *
  * @author David.Huang
  */
 @Component
@@ -31,36 +41,20 @@ public class DefaultRtfConversionService implements RtfConversionService {
    */
   private static final String RTF_HEADER = "{\\rtf";
 
-  /**
-   * Retrieve the plain text from a styled document and omit trike through text.
-   *
-   * @param doc Styled document
-   *
-   * @return Plain text.
-   *
-   * @throws BadLocationException if the portion is not a valid part of the document.
-   */
-  private static String retrieveText(StyledDocument doc) throws BadLocationException {
-
-    int offset = 0;
-    int length = doc.getLength();
+  private static final AttributeKey<String> RESULT = AttributeKey.stringKey("result");
+  private static final Attributes HIT = Attributes.of(RESULT, "hit");
+  private static final Attributes MISS = Attributes.of(RESULT, "miss");
+  private static final LongCounter LOOKUP_COUNTER = ApiMetrics.meter()
+      .counterBuilder("accuro.api.rtf.cache.lookups")
+      .setDescription("RTF plain text cache lookups by result")
+      .build();
 
-    StringBuilder result = new StringBuilder();
+  private final Map<String, String> cache = new ConcurrentHashMap<>();
+  private final int maxSize;
 
-    String text = doc.getText(offset, length);
-    for (int i = 0; i < text.length(); i++) {
-      Element e = doc.getCharacterElement(i);
-
-      // Omit strike through text
-      Object attr = e.getAttributes().getAttribute("strike");
-      if (attr != null) {
-        continue;
-      }
-
-      result.append(text.charAt(i));
-    }
-
-    return result.toString();
+  @Autowired
+  public DefaultRtfConversionService(@Value("${rtf.cache.max-size:1000}") int maxSize) {
+    this.maxSize = maxSize;
   }
 
   /**
@@ -71,25 +65,26 @@ public class DefaultRtfConversionService implements RtfConversionService {
    */
   @Override
   public String getPainText(String rtfText) throws RtfConversionException {
-    String originalText = rtfText;
-
-    while (rtfText.contains("\\\\")) {
-      rtfText = rtfText.replace("\\\\", "\\");
+    String collapsed = collapseBackslashes(rtfText);
+    if (!isRtfFormat(collapsed)) {
+      return rtfText;
     }
-
-    if (!isRtfFormat(rtfText)) {
-      return originalText;
+    if (maxSize <= 0) {
+      return RtfTextExtractor.extract(collapsed);
     }
 
-    DefaultStyledDocument rtfDocument = new DefaultStyledDocument();
-
-    try (StringReader reader = new StringReader(rtfText)) {
-      RTFEditorKit rtfParser = new RTFEditorKit();
-      rtfParser.read(reader, rtfDocument, 0);
-      return retrieveText(rtfDocument);
-    } catch (IOException | BadLocationException e) {
-      throw new RtfConversionException("Could not convert Rich Text content.", e);
+    String key = Hashes.sha256(collapsed);
+    String text = cache.get(key);
+    if (text != null) {
+      LOOKUP_COUNTER.add(1, HIT);
+      return text;
     }
+
+    LOOKUP_COUNTER.add(1, MISS);
+    text = RtfTextExtractor.extract(collapsed);
+    BoundedMaps.makeRoom(cache, maxSize);
+    cache.put(key, text);
+    return text;
   }
 
   /**
@@ -130,4 +125,23 @@ public class DefaultRtfConversionService implements RtfConversionService {
   private boolean isRtfFormat(String content) {
     return content.startsWith(RTF_HEADER);
   }
+
+  /**
+   * Replaces every run of backslashes with a single one, undoing the escaping of content stored
+   * with doubled backslashes.
+   */
+  private static String collapseBackslashes(String text) {
+    int index = text.indexOf("\\\\");
+    if (index < 0) {
+      return text;
+    }
+    StringBuilder collapsed = new StringBuilder(text.length()).append(text, 0, index + 1);
+    for (int i = index + 1; i < text.length(); i++) {
+      char ch = text.charAt(i);
+      if (ch != '\\' || text.charAt(i - 1) != '\\') {
+        collapsed.append(ch);
+      }
+    }
+    return collapsed.toString();
+  }
 }
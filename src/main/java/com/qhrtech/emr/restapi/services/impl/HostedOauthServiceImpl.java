@@ -45,8 +45,7 @@ public class HostedOauthServiceImpl implements ClientListService {
   public Collection<AccuroOAuthClient> getAllClients() {
 
     Collection<OauthClient> clients = null;
-    try {
-      Connection c = hostedOauthDataSource.getConnection();
+    try (Connection c = hostedOauthDataSource.getConnection()) {
       HostedOauthDao hostedOauthDao = getRegistryServDao(c);
       clients = hostedOauthDao.getAllClients(null);
     } catch (SQLException ex) {
@@ -65,8 +64,7 @@ public class HostedOauthServiceImpl implements ClientListService {
   @Override
   public Collection<AccuroOAuthClient> lookupClients(Collection<String> clientIds) {
     Collection<OauthClient> clients = null;
-    try {
-      Connection c = hostedOauthDataSource.getConnection();
+    try (Connection c = hostedOauthDataSource.getConnection()) {
       HostedOauthDao hostedOauthDao = getRegistryServDao(c);
       clients = hostedOauthDao.getAllClients(clientIds);
     } catch (SQLException ex) {
@@ -78,8 +76,7 @@ public class HostedOauthServiceImpl implements ClientListService {
   @Override
   public Set<AccuroScope> getAllScopes() {
     Collection<OauthScope> scopes = null;
-    try {
-      Connection c = hostedOauthDataSource.getConnection();
+    try (Connection c = hostedOauthDataSource.getConnection()) {
       HostedOauthDao hostedOauthDao = getRegistryServDao(c);
       scopes = hostedOauthDao.getAllScopes(null);
     } catch (SQLException ex) {
@@ -98,8 +95,7 @@ public class HostedOauthServiceImpl implements ClientListService {
   @Override
   public Collection<AccuroScope> lookupScopes(Collection<String> scopeIds) {
     Collection<OauthScope> scopes = null;
-    try {
-      Connection c = hostedOauthDataSource.getConnection();
+    try (Connection c = hostedOauthDataSource.getConnection()) {
       HostedOauthDao hostedOauthDao = getRegistryServDao(c);
       scopes = hostedOauthDao.getAllScopes(scopeIds);
     } catch (SQLException ex) {
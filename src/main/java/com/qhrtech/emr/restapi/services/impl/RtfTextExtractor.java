@@ -0,0 +1,585 @@
+package com.qhrtech.emr.restapi.services.impl;
+
+import com.qhrtech.emr.restapi.services.exceptions.RtfConversionException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single pass reader extracting the plain text of an RTF document, omitting struck through text.
+ *
+ * The output follows the Swing RTF reader used before: paragraphs end with a line feed, the text
+ * of font, colour and style tables, headers, footers, fields, pictures and ignorable ({@code \*})
+ * destinations is dropped, and unicode characters skip the fallback text following them. Unlike
+ * Swing, {@code \'hh} escapes are decoded with the code page of the current font or document,
+ * {@code \binN} data is skipped exactly and {@code \strike0} and {@code \plain} end struck through
+ * text.
+ *
+ * An extractor holds the state of one conversion, use {@link #extract(String)}.
+ */
+final class RtfTextExtractor {
+
+  private static final int DEFAULT_CODE_PAGE = 1252;
+
+  /**
+   * Control words and symbols standing for a character.
+   */
+  private static final Map<String, Character> TEXT_SYMBOLS = new HashMap<>();
+
+  /**
+   * Destinations whose text is not part of the document.
+   */
+  private static final Set<String> DISCARDED_DESTINATIONS = new HashSet<>(Arrays.asList(
+      "aftncn", "aftnsep", "aftnsepc", "annotation", "atnauthor", "atnicn", "atnid", "atnref",
+      "atntime", "atrfend", "atrfstart", "bkmkend", "bkmkstart", "colortbl", "datafield", "do",
+      "dptxbxtext", "falt", "field", "file", "filetbl", "fname", "fontemb", "fontfile", "footer",
+      "footerf", "footerl", "footerr", "footnote", "ftncn", "ftnsep", "ftnsepc", "header",
+      "headerf", "headerl", "headerr", "info", "keycode", "nextfile", "object", "pict", "pn",
+      "pnseclvl", "pntxtb", "pntxta", "revtbl", "rxe", "stylesheet", "tc", "template", "txe",
+      "xe"));
+
+  /**
+   * Code pages of the {@code \fcharsetN} values not using the document code page.
+   */
+  private static final Map<Integer, Integer> CHARSET_CODE_PAGES = new HashMap<>();
+
+  /**
+   * Code pages with characters of more than one byte, decoded a run of bytes at a time.
+   */
+  private static final Set<Integer> MULTI_BYTE_CODE_PAGES =
+      new HashSet<>(Arrays.asList(932, 936, 949, 950, 1361));
+
+  private static final Map<Integer, char[]> CODE_PAGE_TABLES = new ConcurrentHashMap<>();
+
+  static {
+    TEXT_SYMBOLS.put("\\", '\\');
+    TEXT_SYMBOLS.put("{", '{');
+    TEXT_SYMBOLS.put("}", '}');
+    TEXT_SYMBOLS.put(" ", '\u00A0');
+    TEXT_SYMBOLS.put("~", '\u00A0');
+    TEXT_SYMBOLS.put("_", '\u2011');
+    TEXT_SYMBOLS.put("-", '\u2027');
+    TEXT_SYMBOLS.put("bullet", '\u2022');
+    TEXT_SYMBOLS.put("emdash", '\u2014');
+    TEXT_SYMBOLS.put("emspace", '\u2003');
+    TEXT_SYMBOLS.put("endash", '\u2013');
+    TEXT_SYMBOLS.put("enspace", '\u2002');
+    TEXT_SYMBOLS.put("ldblquote", '\u201C');
+    TEXT_SYMBOLS.put("lquote", '\u2018');
+    TEXT_SYMBOLS.put("ltrmark", '\u200E');
+    TEXT_SYMBOLS.put("rdblquote", '\u201D');
+    TEXT_SYMBOLS.put("rquote", '\u2019');
+    TEXT_SYMBOLS.put("rtlmark", '\u200F');
+    TEXT_SYMBOLS.put("tab", '\t');
+    TEXT_SYMBOLS.put("zwj", '\u200D');
+    TEXT_SYMBOLS.put("zwnj", '\u200C');
+
+    CHARSET_CODE_PAGES.put(77, 10000);
+    CHARSET_CODE_PAGES.put(128, 932);
+    CHARSET_CODE_PAGES.put(129, 949);
+    CHARSET_CODE_PAGES.put(130, 1361);
+    CHARSET_CODE_PAGES.put(134, 936);
+    CHARSET_CODE_PAGES.put(136, 950);
+    CHARSET_CODE_PAGES.put(161, 1253);
+    CHARSET_CODE_PAGES.put(162, 1254);
+    CHARSET_CODE_PAGES.put(163, 1258);
+    CHARSET_CODE_PAGES.put(177, 1255);
+    CHARSET_CODE_PAGES.put(178, 1256);
+    CHARSET_CODE_PAGES.put(186, 1257);
+    CHARSET_CODE_PAGES.put(204, 1251);
+    CHARSET_CODE_PAGES.put(222, 874);
+    CHARSET_CODE_PAGES.put(238, 1250);
+    CHARSET_CODE_PAGES.put(255, 437);
+  }
+
+  private enum Destination {
+    NONE, DOCUMENT, FONT_TABLE, DISCARD
+  }
+
+  private final String rtf;
+  private final StringBuilder text;
+  private final Deque<Group> groups = new ArrayDeque<>();
+  private final Map<Integer, Integer> fontCodePages = new HashMap<>();
+  private Group group = new Group();
+  private byte[] bytes = new byte[16];
+  private int byteCount;
+  private int documentCodePage = DEFAULT_CODE_PAGE;
+  private int defaultFont = -1;
+  private int definedFont = -1;
+  private int skipCount;
+  private boolean ignorable;
+  private int position;
+
+  private RtfTextExtractor(String rtf) {
+    this.rtf = rtf;
+    this.text = new StringBuilder(rtf.length() / 2);
+  }
+
+  /**
+   * @param rtf RTF formatted data.
+   * @return The text of the document.
+   * @throws RtfConversionException If a group is closed that was never opened.
+   */
+  static String extract(String rtf) throws RtfConversionException {
+    return new RtfTextExtractor(rtf).read();
+  }
+
+  private String read() throws RtfConversionException {
+    int length = rtf.length();
+    while (position < length) {
+      char ch = rtf.charAt(position++);
+      if (ch == '\\') {
+        readControl();
+        continue;
+      }
+      if (ch == '\n' || ch == '\r') {
+        continue;
+      }
+      flushBytes();
+      if (ch == '{') {
+        openGroup();
+      } else if (ch == '}') {
+        closeGroup();
+      } else {
+        text(ch);
+      }
+    }
+    // a truncated document is closed like a complete one
+    flushBytes();
+    while (!groups.isEmpty()) {
+      closeGroup();
+    }
+    return text.toString();
+  }
+
+  private void readControl() {
+    if (position >= rtf.length()) {
+      return;
+    }
+    char ch = rtf.charAt(position++);
+    if (ch == '\'') {
+      readHex();
+      return;
+    }
+    flushBytes();
+    if (!Character.isLetter(ch)) {
+      symbol(String.valueOf(ch));
+      return;
+    }
+
+    int start = position - 1;
+    while (position < rtf.length() && Character.isLetter(rtf.charAt(position))) {
+      position++;
+    }
+    String word = rtf.substring(start, position);
+    // a control word still waiting for its delimiter at the end of the data is dropped
+    if (position >= rtf.length()) {
+      return;
+    }
+
+    ch = rtf.charAt(position);
+    if (!Character.isDigit(ch) && ch != '-') {
+      skipDelimiter();
+      controlWord(word);
+      return;
+    }
+
+    int parameterStart = position++;
+    while (position < rtf.length() && Character.isDigit(rtf.charAt(position))) {
+      position++;
+    }
+    if (position >= rtf.length()) {
+      return;
+    }
+    String digits = rtf.substring(parameterStart, position);
+    int parameter;
+    try {
+      parameter = Integer.parseInt(digits);
+    } catch (NumberFormatException ex) {
+      // a malformed parameter drops the control word
+      skipDelimiter();
+      return;
+    }
+    if ("bin".equals(word)) {
+      // the delimiter of \bin is never data
+      position++;
+      skipBinary(parameter);
+    } else {
+      skipDelimiter();
+      controlWord(word, parameter);
+    }
+  }
+
+  /**
+   * A space ending a control word belongs to it, any other delimiter is read as the next token.
+   */
+  private void skipDelimiter() {
+    if (Character.isWhitespace(rtf.charAt(position))) {
+      position++;
+    }
+  }
+
+  private void readHex() {
+    if (position >= rtf.length()) {
+      return;
+    }
+    int high = Character.digit(rtf.charAt(position++), 16);
+    if (high < 0 || position >= rtf.length()) {
+      return;
+    }
+    int low = Character.digit(rtf.charAt(position++), 16);
+    if (low < 0) {
+      return;
+    }
+    if (skipCount > 0) {
+      skipCount--;
+      return;
+    }
+    if (group.destination != Destination.DOCUMENT) {
+      return;
+    }
+    group.document.inParagraph = true;
+    if (byteCount == bytes.length) {
+      bytes = Arrays.copyOf(bytes, byteCount * 2);
+    }
+    bytes[byteCount++] = (byte) (high * 16 + low);
+  }
+
+  private void skipBinary(int length) {
+    position = Math.min(rtf.length(), position + Math.max(0, length));
+    if (skipCount > 0) {
+      skipCount--;
+    }
+  }
+
+  private void symbol(String symbol) {
+    if (skip()) {
+      return;
+    }
+    boolean ignorableDestination = ignorable;
+    ignorable = false;
+
+    Character ch = TEXT_SYMBOLS.get(symbol);
+    if (ch != null) {
+      text(ch);
+    } else if ("*".equals(symbol)) {
+      ignorable = true;
+    } else if ("\n".equals(symbol) || "\r".equals(symbol)) {
+      paragraph();
+    } else if (ignorableDestination) {
+      setDestination(Destination.DISCARD);
+    }
+  }
+
+  private void controlWord(String word) {
+    if (skip()) {
+      return;
+    }
+    boolean ignorableDestination = ignorable;
+    ignorable = false;
+
+    Character ch = TEXT_SYMBOLS.get(word);
+    if (ch != null) {
+      text(ch);
+      return;
+    }
+    switch (word) {
+      case "fonttbl":
+        setDestination(Destination.FONT_TABLE);
+        return;
+      case "ansi":
+        documentCodePage = DEFAULT_CODE_PAGE;
+        return;
+      case "mac":
+        documentCodePage = 10000;
+        return;
+      case "pc":
+        documentCodePage = 437;
+        return;
+      case "pca":
+        documentCodePage = 850;
+        return;
+      case "par":
+        paragraph();
+        return;
+      case "strike":
+        group.strike = true;
+        return;
+      case "plain":
+        group.strike = false;
+        group.font = -1;
+        return;
+      default:
+        break;
+    }
+    if (ignorableDestination || DISCARDED_DESTINATIONS.contains(word)) {
+      setDestination(Destination.DISCARD);
+    }
+  }
+
+  private void controlWord(String word, int parameter) {
+    if (skip()) {
+      return;
+    }
+    boolean ignorableDestination = ignorable;
+    ignorable = false;
+
+    switch (word) {
+      case "u":
+        text((char) (parameter < 0 ? parameter + 65536 : parameter));
+        skipCount = group.unicodeSkip;
+        return;
+      case "uc":
+        group.unicodeSkip = parameter;
+        return;
+      case "rtf":
+        setDestination(Destination.DOCUMENT);
+        return;
+      case "ansicpg":
+        documentCodePage = parameter;
+        return;
+      case "deff":
+        defaultFont = parameter;
+        return;
+      case "f":
+        if (group.destination == Destination.FONT_TABLE) {
+          definedFont = parameter;
+        } else {
+          group.font = parameter;
+        }
+        return;
+      case "fcharset":
+        if (group.destination == Destination.FONT_TABLE
+            && CHARSET_CODE_PAGES.containsKey(parameter)) {
+          fontCodePages.putIfAbsent(definedFont, CHARSET_CODE_PAGES.get(parameter));
+        }
+        return;
+      case "cpg":
+        if (group.destination == Destination.FONT_TABLE) {
+          fontCodePages.put(definedFont, parameter);
+        }
+        return;
+      case "strike":
+        group.strike = parameter != 0;
+        return;
+      default:
+        break;
+    }
+    if (ignorableDestination || word.startsWith("NeXT") || "private".equals(word)) {
+      setDestination(Destination.DISCARD);
+    }
+  }
+
+  /**
+   * Consumes a token if it is part of the fallback text of a unicode character.
+   */
+  private boolean skip() {
+    if (skipCount > 0) {
+      skipCount--;
+      return true;
+    }
+    return false;
+  }
+
+  private void text(char ch) {
+    if (skip() || group.destination != Destination.DOCUMENT) {
+      return;
+    }
+    group.document.inParagraph = true;
+    if (!group.strike) {
+      text.append(ch);
+    }
+  }
+
+  private void paragraph() {
+    if (group.destination != Destination.DOCUMENT) {
+      return;
+    }
+    if (!group.strike) {
+      text.append('\n');
+    }
+    group.document.inParagraph = false;
+  }
+
+  private void flushBytes() {
+    if (byteCount == 0) {
+      return;
+    }
+    if (!group.strike) {
+      decode(codePage(), bytes, byteCount, text);
+    }
+    byteCount = 0;
+  }
+
+  private int codePage() {
+    int font = group.font >= 0 ? group.font : defaultFont;
+    Integer codePage = fontCodePages.get(font);
+    return codePage != null ? codePage : documentCodePage;
+  }
+
+  private void openGroup() {
+    skipCount = 0;
+    groups.push(group);
+    group = new Group(group);
+  }
+
+  private void closeGroup() throws RtfConversionException {
+    skipCount = 0;
+    if (groups.isEmpty()) {
+      throw new RtfConversionException(
+          "Could not convert Rich Text content, unbalanced closing brace at " + position + ".");
+    }
+    Group parent = groups.pop();
+    if (ownsDocument(parent)) {
+      closeDocument();
+    }
+    group = parent;
+  }
+
+  private void setDestination(Destination destination) {
+    // outside of any group a document is never ended, as its text was never expected
+    if (!groups.isEmpty() && ownsDocument(groups.peek())) {
+      closeDocument();
+    }
+    group.destination = destination;
+    group.document = null;
+    if (destination == Destination.DOCUMENT) {
+      // a new document starts with plain text
+      group.document = new Document();
+      group.strike = false;
+    }
+  }
+
+  /**
+   * @return True if the current group started the document it belongs to.
+   */
+  private boolean ownsDocument(Group parent) {
+    return group.destination == Destination.DOCUMENT && parent.document != group.document;
+  }
+
+  /**
+   * Ends the last paragraph of a document, with the formatting of the group ending the document.
+   */
+  private void closeDocument() {
+    if (group.document.inParagraph) {
+      paragraph();
+    }
+  }
+
+  private static void decode(int codePage, byte[] bytes, int count, StringBuilder out) {
+    if (MULTI_BYTE_CODE_PAGES.contains(codePage)) {
+      Charset charset = charset(codePage);
+      if (charset != null) {
+        out.append(new String(bytes, 0, count, charset));
+        return;
+      }
+      codePage = DEFAULT_CODE_PAGE;
+    }
+    char[] table = CODE_PAGE_TABLES.computeIfAbsent(codePage, RtfTextExtractor::codePageTable);
+    for (int i = 0; i < count; i++) {
+      char ch = table[bytes[i] & 0xFF];
+      if (ch != 0) {
+        out.append(ch);
+      }
+    }
+  }
+
+  /**
+   * Maps each byte of a single byte code page to its character, bytes the code page does not
+   * define map to the character of the same value.
+   */
+  private static char[] codePageTable(int codePage) {
+    Charset charset = charset(codePage);
+    if (charset == null) {
+      charset = charset(DEFAULT_CODE_PAGE);
+    }
+    CharsetDecoder decoder = charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+    char[] table = new char[256];
+    for (int b = 0; b < table.length; b++) {
+      try {
+        CharBuffer decoded = decoder.decode(ByteBuffer.wrap(new byte[] {(byte) b}));
+        table[b] = decoded.length() == 1 ? decoded.get() : (char) b;
+      } catch (CharacterCodingException ex) {
+        table[b] = (char) b;
+      }
+    }
+    return table;
+  }
+
+  private static Charset charset(int codePage) {
+    String[] names;
+    switch (codePage) {
+      case 932:
+        names = new String[] {"windows-31j"};
+        break;
+      case 936:
+        names = new String[] {"GBK"};
+        break;
+      case 1361:
+        names = new String[] {"x-Johab"};
+        break;
+      case 10000:
+        names = new String[] {"x-MacRoman"};
+        break;
+      default:
+        names = new String[] {"windows-" + codePage, "x-windows-" + codePage, "IBM" + codePage,
+            "x-IBM" + codePage};
+        break;
+    }
+    for (String name : names) {
+      try {
+        if (Charset.isSupported(name)) {
+          return Charset.forName(name);
+        }
+      } catch (IllegalArgumentException ex) {
+        // not a valid charset name, try the next one
+      }
+    }
+    return codePage == DEFAULT_CODE_PAGE ? StandardCharsets.ISO_8859_1 : null;
+  }
+
+  /**
+   * The state of an RTF group, inherited by the groups nested in it.
+   */
+  private static final class Group {
+
+    private Destination destination = Destination.NONE;
+    private Document document;
+    private boolean strike;
+    private int unicodeSkip = 1;
+    private int font = -1;
+
+    private Group() {
+    }
+
+    private Group(Group parent) {
+      destination = parent.destination;
+      document = parent.document;
+      strike = parent.strike;
+      unicodeSkip = parent.unicodeSkip;
+      font = parent.font;
+    }
+  }
+
+  /**
+   * A document started by an {@code \rtfN} control word.
+   */
+  private static final class Document {
+
+    private boolean inParagraph;
+  }
+}
@@ -1,6 +1,14 @@
 
 package com.qhrtech.emr.restapi.util;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * The http requests which have exception of having full context The ENUM should be of the given
  * example type following three parameters:
@@ -12,6 +20,9 @@ package com.qhrtech.emr.restapi.util;
  *
  * EXAMPLE("\\/v1\\/provider-portal\\/patients\\/-?\\d+\\/profile-picture", "GET", true); The
  * example url will match with any patient id including negative numbers.
+ *
+ * The lookup runs for every authenticated request, so the urls are compiled once into a single
+ * pattern per request type rather than matched one by one.
  */
 public enum AccuroApiPartialContextEndpoints {
   GET_APPOINTMENT_STATUSES("\\/v\\d+\\/provider-portal\\/scheduler\\/statuses", "POST", true),
@@ -38,15 +49,9 @@ public enum AccuroApiPartialContextEndpoints {
   }
 
   public static Boolean lookUpByUrlAndRequestType(String url, String requestType) {
-    for (AccuroApiPartialContextEndpoints partialContextEndpoints : values()) {
-      if ((url.matches(partialContextEndpoints.url)
-          && requestType.equals(partialContextEndpoints.requestType))
-          || (url.matches(partialContextEndpoints.url)
-              && partialContextEndpoints.requestType.equals("ALL"))) {
-        return partialContextEndpoints.isPartialContext;
-      }
-    }
-    return null;
+    RouteMatcher matcher = RouteMatcher.MATCHERS.getOrDefault(requestType,
+        RouteMatcher.ALL_REQUEST_TYPES);
+    return matcher.lookUp(url);
   }
 
   public String getUrl() {
@@ -60,4 +65,69 @@ public enum AccuroApiPartialContextEndpoints {
   public Boolean getIsPartialContext() {
     return isPartialContext;
   }
+
+  /**
+   * All urls applicable to a request type combined into one alternation, in declaration order, so
+   * the first matching constant wins as it would when checking them one at a time.
+   */
+  private static final class RouteMatcher {
+
+    private static final String ALL = "ALL";
+    private static final RouteMatcher ALL_REQUEST_TYPES = new RouteMatcher(ALL);
+    private static final Map<String, RouteMatcher> MATCHERS = createMatchers();
+
+    private final Pattern pattern;
+    private final int[] groups;
+    private final AccuroApiPartialContextEndpoints[] endpoints;
+
+    private RouteMatcher(String requestType) {
+      List<AccuroApiPartialContextEndpoints> applicable = new ArrayList<>();
+      for (AccuroApiPartialContextEndpoints endpoint : values()) {
+        if (endpoint.requestType.equals(requestType) || endpoint.requestType.equals(ALL)) {
+          applicable.add(endpoint);
+        }
+      }
+
+      StringBuilder regex = new StringBuilder();
+      groups = new int[applicable.size()];
+      endpoints = applicable.toArray(new AccuroApiPartialContextEndpoints[0]);
+      int group = 1;
+      for (int i = 0; i < endpoints.length; i++) {
+        if (i > 0) {
+          regex.append('|');
+        }
+        regex.append('(').append(endpoints[i].url).append(')');
+        groups[i] = group;
+        // skip past any groups declared inside the url itself
+        group += Pattern.compile(endpoints[i].url).matcher("").groupCount() + 1;
+      }
+      pattern = endpoints.length > 0 ? Pattern.compile(regex.toString()) : null;
+    }
+
+    private static Map<String, RouteMatcher> createMatchers() {
+      Map<String, RouteMatcher> matchers = new HashMap<>();
+      for (AccuroApiPartialContextEndpoints endpoint : values()) {
+        if (!endpoint.requestType.equals(ALL)) {
+          matchers.computeIfAbsent(endpoint.requestType, RouteMatcher::new);
+        }
+      }
+      return Collections.unmodifiableMap(matchers);
+    }
+
+    private Boolean lookUp(String url) {
+      if (pattern == null) {
+        return null;
+      }
+      Matcher matcher = pattern.matcher(url);
+      if (!matcher.matches()) {
+        return null;
+      }
+      for (int i = 0; i < groups.length; i++) {
+        if (matcher.start(groups[i]) != -1) {
+          return endpoints[i].isPartialContext;
+        }
+      }
+      return null;
+    }
+  }
 }
@@ -0,0 +1,25 @@
+package com.qhrtech.emr.restapi.util;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.metrics.Meter;
+
+/**
+ * Entry point for the metrics recorded by Accuro API.
+ *
+ * Instruments are registered against the global OpenTelemetry instance, which is provided by the
+ * agent the application is deployed with. Without an agent every instrument is a no-op.
+ */
+public final class ApiMetrics {
+
+  private static final String INSTRUMENTATION_NAME = "com.qhrtech.emr.restapi";
+
+  private ApiMetrics() {
+  }
+
+  /**
+   * @return the {@link Meter} used to build Accuro API instruments.
+   */
+  public static Meter meter() {
+    return GlobalOpenTelemetry.getMeter(INSTRUMENTATION_NAME);
+  }
+}
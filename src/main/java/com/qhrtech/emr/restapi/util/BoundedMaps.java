@@ -0,0 +1,51 @@
+package com.qhrtech.emr.restapi.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Size bounds for concurrent maps used as caches.
+ *
+ * Evicted entries are arbitrary ones, in the order the map iterates them. This is cheaper than
+ * tracking access order and good enough for caches that are sized to rarely fill up.
+ */
+public final class BoundedMaps {
+
+  private BoundedMaps() {
+  }
+
+  /**
+   * Evicts entries until the map has room for one more, evicting expired entries first when it
+   * is full.
+   *
+   * @param map - the map to evict from.
+   * @param maxSize - the maximum number of entries, must be positive.
+   * @param expired - tells whether a value has expired.
+   * @return the number of evicted entries that had not expired.
+   */
+  public static <K, V> int makeRoom(Map<K, V> map, int maxSize, Predicate<? super V> expired) {
+    if (map.size() >= maxSize) {
+      map.values().removeIf(expired);
+    }
+    return makeRoom(map, maxSize);
+  }
+
+  /**
+   * Evicts arbitrary entries until the map has room for one more.
+   *
+   * @param map - the map to evict from.
+   * @param maxSize - the maximum number of entries, must be positive.
+   * @return the number of evicted entries.
+   */
+  public static int makeRoom(Map<?, ?> map, int maxSize) {
+    int evicted = 0;
+    Iterator<?> keys = map.keySet().iterator();
+    while (map.size() >= maxSize && keys.hasNext()) {
+      keys.next();
+      keys.remove();
+      evicted++;
+    }
+    return evicted;
+  }
+}
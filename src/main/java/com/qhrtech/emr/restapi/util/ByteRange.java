@@ -0,0 +1,85 @@
+package com.qhrtech.emr.restapi.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A single byte range requested through the HTTP {@code Range} header.
+ *
+ * Only a single range is supported. Requests for multiple ranges, or with a header that can not be
+ * parsed, are served the whole content as allowed by RFC 7233.
+ */
+public final class ByteRange {
+
+  private static final Pattern RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
+  private final long offset;
+  private final long length;
+
+  private ByteRange(long offset, long length) {
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * Parses the value of a {@code Range} header.
+   *
+   * @param header the header value, may be null.
+   * @param size the size of the content in bytes.
+   * @return the requested range, or null if the whole content should be served.
+   */
+  public static ByteRange parse(String header, long size) {
+    if (header == null) {
+      return null;
+    }
+    Matcher matcher = RANGE.matcher(header.trim());
+    if (!matcher.matches()) {
+      return null;
+    }
+    String first = matcher.group(1);
+    String last = matcher.group(2);
+    try {
+      if (first.isEmpty()) {
+        if (last.isEmpty()) {
+          return null;
+        }
+        // suffix range, the last n bytes
+        long suffix = Math.min(Long.parseLong(last), size);
+        return new ByteRange(size - suffix, suffix);
+      }
+      long start = Long.parseLong(first);
+      long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+      if (!last.isEmpty() && Long.parseLong(last) < start) {
+        return null;
+      }
+      return new ByteRange(start, Math.max(end - start + 1, 0));
+    } catch (NumberFormatException ex) {
+      return null;
+    }
+  }
+
+  public long getOffset() {
+    return offset;
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  /**
+   * @return false if the range starts after the end of the content.
+   */
+  public boolean isSatisfiable() {
+    return length > 0;
+  }
+
+  /**
+   * @return the value of the {@code Content-Range} header for this range.
+   */
+  public String toContentRange(long size) {
+    if (!isSatisfiable()) {
+      return "bytes */" + size;
+    }
+    return "bytes " + offset + "-" + (offset + length - 1) + "/" + size;
+  }
+}
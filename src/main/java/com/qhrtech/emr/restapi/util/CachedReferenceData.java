@@ -0,0 +1,36 @@
+package com.qhrtech.emr.restapi.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET resource method returning slowly changing reference data. Its serialized response
+ * is cached per tenant, sent with an {@code ETag} and answered with 304 Not Modified when the
+ * client already holds it. Authorization is still checked for every request.
+ *
+ * @see InvalidatesReferenceData
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedReferenceData {
+
+  /**
+   * The managers the response is read from. Writes through endpoints annotated with
+   * {@link InvalidatesReferenceData} for one of them evict the cached response.
+   *
+   * @return The managers the response is read from.
+   */
+  Class<?>[] invalidatedBy() default {};
+
+  /**
+   * Whether the response depends on the caller, e.g. when it is filtered by provider permissions,
+   * and must be cached per user rather than shared by the whole tenant.
+   *
+   * @return True if the response is cached per caller.
+   */
+  boolean perCaller() default false;
+}
@@ -1,6 +1,9 @@
 
 package com.qhrtech.emr.restapi.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.zip.Checksum;
 
 public class CheckSumFile implements Checksum {
@@ -50,4 +53,22 @@ public class CheckSumFile implements Checksum {
   public void readByteArray(byte[] data) {
     update(data, 0, data.length);
   }
+
+  /**
+   * Updates the checksum with the content of the stream, copying it to the output stream as it is
+   * read so the content never has to be held in memory.
+   *
+   * @return the number of bytes read.
+   */
+  public long readInputStream(InputStream in, OutputStream out) throws IOException {
+    byte[] buffer = new byte[8192];
+    long total = 0;
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      update(buffer, 0, read);
+      out.write(buffer, 0, read);
+      total += read;
+    }
+    return total;
+  }
 }
@@ -0,0 +1,138 @@
+package com.qhrtech.emr.restapi.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Read-through cache whose entries expire after a fixed time.
+ *
+ * Unlike {@link RateLimitedCache} entries are refreshed automatically once they expire. Missing
+ * values (the underlying service returned null) are cached as well, using a separate, usually
+ * shorter, time to live. Exceptions thrown by the underlying service are never cached.
+ *
+ * The cache holds at most {@code maxSize} entries. When it is full, expired entries are evicted
+ * first and then arbitrary ones, see {@link BoundedMaps}.
+ */
+public class ExpiringCache<K, T> {
+
+  /**
+   * Maximum number of entries when none is given.
+   */
+  public static final int DEFAULT_MAX_SIZE = 10000;
+
+  private final Map<K, CachedItem<T>> cache = new ConcurrentHashMap<>();
+  private final Map<K, CompletableFuture<CachedItem<T>>> loading = new ConcurrentHashMap<>();
+  private final Function<K, T> underlyingService;
+  private final Duration ttl;
+  private final Duration negativeTtl;
+  private final int maxSize;
+  private final Clock clock;
+
+  /**
+   * @param underlyingService - the service to load values from.
+   * @param ttl - how long a loaded value is kept.
+   * @param negativeTtl - how long a missing value is remembered.
+   */
+  public ExpiringCache(Function<K, T> underlyingService, Duration ttl, Duration negativeTtl) {
+    this(underlyingService, ttl, negativeTtl, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * @param underlyingService - the service to load values from.
+   * @param ttl - how long a loaded value is kept.
+   * @param negativeTtl - how long a missing value is remembered.
+   * @param maxSize - the maximum number of entries, must be positive.
+   */
+  public ExpiringCache(Function<K, T> underlyingService, Duration ttl, Duration negativeTtl,
+      int maxSize) {
+    this(underlyingService, ttl, negativeTtl, maxSize, Clock.systemUTC());
+  }
+
+  ExpiringCache(Function<K, T> underlyingService, Duration ttl, Duration negativeTtl,
+      int maxSize, Clock clock) {
+    this.underlyingService = underlyingService;
+    this.ttl = ttl;
+    this.negativeTtl = negativeTtl;
+    this.maxSize = maxSize;
+    this.clock = clock;
+  }
+
+  /**
+   * Retrieve an item from the cache. If the item does not exist or has expired it is loaded from
+   * the underlying service. Reads of unexpired items take no lock, concurrent callers for the same
+   * expired key share a single load, which runs without holding any lock of the map.
+   *
+   * @param key - the key to get.
+   * @return the value, empty if the underlying service returned null.
+   */
+  public Optional<T> get(K key) {
+    CachedItem<T> cached = cache.get(key);
+    if (cached != null && clock.instant().isBefore(cached.getExpiry())) {
+      return cached.getItem();
+    }
+
+    CompletableFuture<CachedItem<T>> load = new CompletableFuture<>();
+    CompletableFuture<CachedItem<T>> running = loading.putIfAbsent(key, load);
+    if (running != null) {
+      return Futures.join(running).getItem();
+    }
+    try {
+      Instant now = clock.instant();
+      cached = cache.get(key);
+      // another caller may have completed its load since the first read
+      if (cached == null || !now.isBefore(cached.getExpiry())) {
+        T value = underlyingService.apply(key);
+        cached = new CachedItem<>(value, now.plus(value == null ? negativeTtl : ttl));
+        if (!cache.containsKey(key)) {
+          BoundedMaps.makeRoom(cache, maxSize, item -> !now.isBefore(item.getExpiry()));
+        }
+        cache.put(key, cached);
+      }
+      load.complete(cached);
+    } catch (RuntimeException | Error ex) {
+      load.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      loading.remove(key, load);
+    }
+    return cached.getItem();
+  }
+
+  /**
+   * Remove an item from the cache so the next call to {@link #get(Object)} reloads it.
+   *
+   * @param key - the key to invalidate.
+   */
+  public void invalidate(K key) {
+    cache.remove(key);
+  }
+
+  int size() {
+    return cache.size();
+  }
+
+  private static final class CachedItem<T> {
+
+    private final Optional<T> item;
+    private final Instant expiry;
+
+    private CachedItem(T item, Instant expiry) {
+      this.item = Optional.ofNullable(item);
+      this.expiry = expiry;
+    }
+
+    private Optional<T> getItem() {
+      return item;
+    }
+
+    private Instant getExpiry() {
+      return expiry;
+    }
+  }
+}
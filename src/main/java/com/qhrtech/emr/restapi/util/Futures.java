@@ -0,0 +1,34 @@
+package com.qhrtech.emr.restapi.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Helpers for futures shared between the callers of a single load.
+ */
+public final class Futures {
+
+  private Futures() {
+  }
+
+  /**
+   * Waits for a future, rethrowing the runtime exception or error it failed with as is.
+   *
+   * @param future - the future to wait for.
+   * @return the value of the future.
+   */
+  public static <V> V join(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw ex;
+    }
+  }
+}
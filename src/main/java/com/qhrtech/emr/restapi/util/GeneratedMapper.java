@@ -0,0 +1,652 @@
+package com.qhrtech.emr.restapi.util;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.dozer.CustomConverter;
+import org.dozer.Mapper;
+import org.dozer.MappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * {@link Mapper} that copies flat beans through accessors generated at runtime instead of Dozer's
+ * reflective bean walk.
+ *
+ * A mapping plan is built, and cached, the first time a source and destination class pair is
+ * mapped. Properties are matched by name the same way Dozer's wildcard mapping does, after the
+ * {@code <field>} entries of the pair's XML mapping, which may rename a property or name its
+ * {@code get-method} and {@code set-method}. Values are passed through the custom converters
+ * declared in the Dozer mapping file, copied by reference when both sides have the same immutable
+ * type (primitives, wrappers, strings, enums and UUIDs) or a primitive is boxed, and nested beans,
+ * lists and sets are mapped recursively. Any pair that needs more than that, such as field
+ * converters, exclusions, deep or indexed fields, arrays, maps or destination fields initialised
+ * to a value, is mapped by the Dozer fallback so the existing semantics are kept.
+ */
+public class GeneratedMapper implements Mapper {
+
+  private static final Logger log = LoggerFactory.getLogger(GeneratedMapper.class);
+
+  private static final String DOZER_NAMESPACE = "http://dozer.sourceforge.net";
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+      Boolean.class, Byte.class, Character.class, Short.class, Integer.class, Long.class,
+      Float.class, Double.class, String.class, UUID.class));
+
+  /**
+   * Marks a class pair that is mapped by the fallback.
+   */
+  private static final MappingPlan FALLBACK = new MappingPlan(null, null);
+  private static final ValueMapper IDENTITY = value -> value;
+  private static final String DOMAIN_PACKAGE = "com.qhrtech.";
+
+  private final Mapper fallback;
+  private final List<ConverterDescription> converters;
+  private final List<ClassMapping> classMappings;
+  private final Map<Class<?>, Map<Class<?>, MappingPlan>> plans = new ConcurrentHashMap<>();
+
+  /**
+   * @param fallback the mapper to use for class pairs that can not be generated.
+   * @param mappingFile the Dozer mapping file the fallback was configured with.
+   */
+  public GeneratedMapper(Mapper fallback, InputStream mappingFile) {
+    this.fallback = fallback;
+    this.converters = new ArrayList<>();
+    this.classMappings = new ArrayList<>();
+    readMappingFile(mappingFile);
+  }
+
+  @Override
+  public <T> T map(Object source, Class<T> destinationClass) throws MappingException {
+    if (source == null) {
+      return fallback.map(source, destinationClass);
+    }
+    MappingPlan plan = getPlan(source.getClass(), destinationClass);
+    if (plan == FALLBACK) {
+      return fallback.map(source, destinationClass);
+    }
+    return destinationClass.cast(plan.map(source));
+  }
+
+  @Override
+  public void map(Object source, Object destination) throws MappingException {
+    fallback.map(source, destination);
+  }
+
+  @Override
+  public <T> T map(Object source, Class<T> destinationClass, String mapId)
+      throws MappingException {
+    return fallback.map(source, destinationClass, mapId);
+  }
+
+  @Override
+  public void map(Object source, Object destination, String mapId) throws MappingException {
+    fallback.map(source, destination, mapId);
+  }
+
+  /**
+   * @return true if the class pair is mapped by a generated plan rather than the fallback.
+   */
+  boolean isGenerated(Class<?> sourceClass, Class<?> destinationClass) {
+    return getPlan(sourceClass, destinationClass) != FALLBACK;
+  }
+
+  private MappingPlan getPlan(Class<?> sourceClass, Class<?> destinationClass) {
+    return plans.computeIfAbsent(sourceClass, k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(destinationClass, k -> buildPlan(sourceClass, destinationClass));
+  }
+
+  private MappingPlan buildPlan(Class<?> sourceClass, Class<?> destinationClass) {
+    String pair = sourceClass.getName() + " -> " + destinationClass.getName();
+    ClassMapping classMapping = findClassMapping(sourceClass, destinationClass);
+    if (!isBean(sourceClass) || !isBean(destinationClass)
+        || classMapping == ClassMapping.UNSUPPORTED
+        || findConverter(sourceClass, destinationClass) != null) {
+      log.debug("Mapping {} with Dozer", pair);
+      return FALLBACK;
+    }
+    try {
+      Supplier<Object> constructor = constructor(destinationClass);
+      // Dozer maps into values the destination already holds, so only null ones can be replaced
+      Object prototype = constructor.get();
+      Map<String, PropertyDescriptor> sourceProperties = readableProperties(sourceClass);
+      Map<String, PropertyDescriptor> destinationProperties = new LinkedHashMap<>();
+      for (PropertyDescriptor destination : Introspector.getBeanInfo(destinationClass)
+          .getPropertyDescriptors()) {
+        destinationProperties.put(destination.getName(), destination);
+      }
+      List<PropertyCopier> copiers = new ArrayList<>();
+      Set<String> mappedFields = new HashSet<>();
+      if (classMapping != null) {
+        boolean fromA = classMapping.classA == sourceClass;
+        for (FieldMapping field : classMapping.fields) {
+          FieldSide source = fromA ? field.a : field.b;
+          FieldSide destination = fromA ? field.b : field.a;
+          // Dozer's wildcard mapping may also claim the source name, leave that choice to Dozer
+          if (!source.name.equals(destination.name)
+              && sourceProperties.containsKey(source.name)
+              && destinationProperties.containsKey(source.name)) {
+            log.debug("Mapping {} with Dozer, field {} is also mapped by name", pair,
+                source.name);
+            return FALLBACK;
+          }
+          PropertyCopier copier = buildFieldCopier(source, sourceClass, sourceProperties,
+              destination, destinationClass, destinationProperties, prototype);
+          if (copier == null) {
+            log.debug("Mapping {} with Dozer, field {} is not supported", pair,
+                destination.name);
+            return FALLBACK;
+          }
+          copiers.add(copier);
+          mappedFields.add(destination.name);
+        }
+      }
+      for (PropertyDescriptor destination : destinationProperties.values()) {
+        Method setter = destination.getWriteMethod();
+        PropertyDescriptor source = sourceProperties.get(destination.getName());
+        if (setter == null || source == null || mappedFields.contains(destination.getName())) {
+          continue;
+        }
+        PropertyCopier copier = buildCopier(source.getReadMethod(), setter,
+            destination.getReadMethod(), prototype);
+        if (copier == null) {
+          log.debug("Mapping {} with Dozer, property {} is not supported", pair,
+              destination.getName());
+          return FALLBACK;
+        }
+        copiers.add(copier);
+      }
+      return new MappingPlan(constructor, copiers);
+    } catch (Throwable ex) {
+      log.debug("Mapping {} with Dozer, accessors could not be generated", pair, ex);
+      return FALLBACK;
+    }
+  }
+
+  /**
+   * Builds the copier of a {@code <field>} entry, or returns null if its accessors can not be
+   * found.
+   */
+  private PropertyCopier buildFieldCopier(FieldSide source, Class<?> sourceClass,
+      Map<String, PropertyDescriptor> sourceProperties, FieldSide destination,
+      Class<?> destinationClass, Map<String, PropertyDescriptor> destinationProperties,
+      Object prototype) throws Throwable {
+    PropertyDescriptor sourceProperty = sourceProperties.get(source.name);
+    PropertyDescriptor destinationProperty = destinationProperties.get(destination.name);
+    Method readMethod = source.getMethod != null
+        ? findMethod(sourceClass, source.getMethod, 0)
+        : sourceProperty == null ? null : sourceProperty.getReadMethod();
+    Method writeMethod = destination.setMethod != null
+        ? findMethod(destinationClass, destination.setMethod, 1)
+        : destinationProperty == null ? null : destinationProperty.getWriteMethod();
+    Method existingMethod = destination.getMethod != null
+        ? findMethod(destinationClass, destination.getMethod, 0)
+        : destinationProperty == null ? null : destinationProperty.getReadMethod();
+    if (readMethod == null || writeMethod == null
+        || (destination.getMethod != null && existingMethod == null)) {
+      return null;
+    }
+    return buildCopier(readMethod, writeMethod, existingMethod, prototype);
+  }
+
+  private PropertyCopier buildCopier(Method readMethod, Method writeMethod,
+      Method existingMethod, Object prototype) throws Throwable {
+    Class<?> sourceType = readMethod.getReturnType();
+    Class<?> destinationType = writeMethod.getParameterTypes()[0];
+    Function<Object, Object> getter = getter(readMethod);
+    BiConsumer<Object, Object> setter = setter(writeMethod);
+    Function<Object, Object> existing = existingMethod == null ? null : getter(existingMethod);
+
+    ConverterDescription converter = findConverter(sourceType, destinationType);
+    if (converter != null) {
+      CustomConverter instance = converter.getInstance();
+      return (src, dest) -> setter.accept(dest, instance.convert(
+          existing == null ? null : existing.apply(dest),
+          getter.apply(src),
+          destinationType,
+          sourceType));
+    }
+    ValueMapper valueMapper = valueMapper(readMethod.getGenericReturnType(),
+        writeMethod.getGenericParameterTypes()[0]);
+    if (valueMapper == null
+        || (valueMapper != IDENTITY && existing != null && existing.apply(prototype) != null)) {
+      return null;
+    }
+    return (src, dest) -> setter.accept(dest, valueMapper.map(getter.apply(src)));
+  }
+
+  /**
+   * Builds the mapping of a property or collection element value, or returns null if the types
+   * are not supported.
+   */
+  private ValueMapper valueMapper(Type sourceType, Type destinationType)
+      throws ReflectiveOperationException {
+    Class<?> sourceClass = rawClass(sourceType);
+    Class<?> destinationClass = rawClass(destinationType);
+    if (sourceClass == null || destinationClass == null) {
+      return null;
+    }
+    ConverterDescription converter = findConverter(sourceClass, destinationClass);
+    if (converter != null) {
+      CustomConverter instance = converter.getInstance();
+      return value -> instance.convert(null, value, destinationClass, sourceClass);
+    }
+    if ((sourceClass == destinationClass && isImmutable(sourceClass))
+        || (sourceClass.isPrimitive()
+            && MethodType.methodType(sourceClass).wrap().returnType() == destinationClass)) {
+      return IDENTITY;
+    }
+    if (isDomainBean(sourceClass) && isDomainBean(destinationClass)) {
+      return value -> value == null ? null : map(value, destinationClass);
+    }
+    if (Collection.class.isAssignableFrom(sourceClass)
+        && (destinationClass == List.class || destinationClass == Collection.class
+            || destinationClass == Set.class)) {
+      ValueMapper elementMapper =
+          valueMapper(elementType(sourceType), elementType(destinationType));
+      if (elementMapper == null) {
+        return null;
+      }
+      boolean toSet = destinationClass == Set.class;
+      return value -> {
+        if (value == null) {
+          return null;
+        }
+        Collection<?> values = (Collection<?>) value;
+        Collection<Object> result =
+            toSet ? new LinkedHashSet<>(values.size()) : new ArrayList<>(values.size());
+        for (Object element : values) {
+          result.add(elementMapper.map(element));
+        }
+        return result;
+      };
+    }
+    return null;
+  }
+
+  /**
+   * Finds the XML mapping of the pair. Returns null if there is none, or
+   * {@link ClassMapping#UNSUPPORTED} if the generator can not apply it, or the pair involves a
+   * class Dozer could apply the mapping of another pair to.
+   */
+  private ClassMapping findClassMapping(Class<?> sourceClass, Class<?> destinationClass) {
+    ClassMapping found = null;
+    for (ClassMapping mapping : classMappings) {
+      if (found == null && mapping.supported && mapping.matches(sourceClass, destinationClass)) {
+        found = mapping;
+      } else if (mapping.covers(sourceClass) || mapping.covers(destinationClass)) {
+        return ClassMapping.UNSUPPORTED;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Finds the public method Dozer would call for a {@code get-method} or {@code set-method}, or
+   * returns null if there is no single one.
+   */
+  private static Method findMethod(Class<?> type, String name, int parameterCount) {
+    Method found = null;
+    for (Method method : type.getMethods()) {
+      if (method.getName().equals(name) && method.getParameterCount() == parameterCount) {
+        if (found != null) {
+          return null;
+        }
+        found = method;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Finds the converter Dozer would use for the pair, the first declared one that accepts the
+   * types in either direction.
+   */
+  private ConverterDescription findConverter(Class<?> sourceType, Class<?> destinationType) {
+    for (ConverterDescription converter : converters) {
+      if (converter.accepts(sourceType, destinationType)) {
+        return converter;
+      }
+    }
+    return null;
+  }
+
+  private void readMappingFile(InputStream mappingFile) {
+    try (InputStream in = mappingFile) {
+      DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+      factory.setNamespaceAware(true);
+      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      DocumentBuilder builder = factory.newDocumentBuilder();
+      Document document = builder.parse(in);
+
+      NodeList converterNodes = document.getElementsByTagNameNS(DOZER_NAMESPACE, "converter");
+      for (int i = 0; i < converterNodes.getLength(); i++) {
+        Element element = (Element) converterNodes.item(i);
+        Class<?> classA = loadClass(childText(element, "class-a"));
+        Class<?> classB = loadClass(childText(element, "class-b"));
+        Class<?> type = loadClass(element.getAttribute("type"));
+        if (classA != null && classB != null && type != null) {
+          converters.add(new ConverterDescription(type, classA, classB));
+        }
+      }
+
+      NodeList mappingNodes = document.getElementsByTagNameNS(DOZER_NAMESPACE, "mapping");
+      for (int i = 0; i < mappingNodes.getLength(); i++) {
+        classMappings.add(readClassMapping((Element) mappingNodes.item(i)));
+      }
+    } catch (IOException | ParserConfigurationException | SAXException ex) {
+      throw new IllegalStateException("Unable to read the Dozer mapping file", ex);
+    }
+  }
+
+  /**
+   * Reads a {@code <mapping>}, which is only supported when it has no options and its fields
+   * plainly copy one property into another.
+   */
+  private static ClassMapping readClassMapping(Element element) {
+    Class<?> classA = loadClass(childText(element, "class-a"));
+    Class<?> classB = loadClass(childText(element, "class-b"));
+    List<FieldMapping> fields = new ArrayList<>();
+    boolean supported = classA != null && classB != null && !element.hasAttributes();
+    for (Element child : childElements(element)) {
+      String name = child.getLocalName();
+      if ("field".equals(name) && !child.hasAttributes()) {
+        FieldMapping field = readFieldMapping(child);
+        if (field == null) {
+          supported = false;
+        } else {
+          fields.add(field);
+        }
+      } else if (!"class-a".equals(name) && !"class-b".equals(name)) {
+        supported = false;
+      }
+    }
+    return new ClassMapping(classA, classB, fields, supported);
+  }
+
+  private static FieldMapping readFieldMapping(Element element) {
+    FieldSide a = null;
+    FieldSide b = null;
+    for (Element child : childElements(element)) {
+      if ("a".equals(child.getLocalName()) && a == null) {
+        a = readFieldSide(child);
+      } else if ("b".equals(child.getLocalName()) && b == null) {
+        b = readFieldSide(child);
+      } else {
+        return null;
+      }
+    }
+    return a == null || b == null ? null : new FieldMapping(a, b);
+  }
+
+  private static FieldSide readFieldSide(Element element) {
+    String name = element.getTextContent().trim();
+    int supportedAttributes = (element.hasAttribute("get-method") ? 1 : 0)
+        + (element.hasAttribute("set-method") ? 1 : 0);
+    if (name.isEmpty() || name.contains(".") || name.contains("[")
+        || element.getAttributes().getLength() != supportedAttributes) {
+      return null;
+    }
+    return new FieldSide(name, emptyToNull(element.getAttribute("get-method")),
+        emptyToNull(element.getAttribute("set-method")));
+  }
+
+  private static List<Element> childElements(Element element) {
+    List<Element> children = new ArrayList<>();
+    NodeList nodes = element.getChildNodes();
+    for (int i = 0; i < nodes.getLength(); i++) {
+      if (nodes.item(i) instanceof Element) {
+        children.add((Element) nodes.item(i));
+      }
+    }
+    return children;
+  }
+
+  private static String emptyToNull(String value) {
+    return value == null || value.isEmpty() ? null : value;
+  }
+
+  private static String childText(Element element, String name) {
+    NodeList children = element.getElementsByTagNameNS(DOZER_NAMESPACE, name);
+    return children.getLength() == 0 ? null : children.item(0).getTextContent().trim();
+  }
+
+  private static Class<?> loadClass(String name) {
+    if (name == null || name.isEmpty()) {
+      return null;
+    }
+    try {
+      return Class.forName(name, false, GeneratedMapper.class.getClassLoader());
+    } catch (ClassNotFoundException ex) {
+      log.warn("Class {} in the Dozer mapping file could not be loaded", name);
+      return null;
+    }
+  }
+
+  private static boolean isBean(Class<?> type) {
+    return !type.isPrimitive()
+        && !type.isArray()
+        && !type.isEnum()
+        && !type.isInterface()
+        && !Modifier.isAbstract(type.getModifiers())
+        && !isImmutable(type)
+        && !Iterable.class.isAssignableFrom(type)
+        && !Map.class.isAssignableFrom(type);
+  }
+
+  private static boolean isDomainBean(Class<?> type) {
+    return type.getName().startsWith(DOMAIN_PACKAGE) && isBean(type);
+  }
+
+  private static Class<?> rawClass(Type type) {
+    if (type instanceof Class) {
+      return (Class<?>) type;
+    }
+    if (type instanceof ParameterizedType) {
+      Type raw = ((ParameterizedType) type).getRawType();
+      return raw instanceof Class ? (Class<?>) raw : null;
+    }
+    return null;
+  }
+
+  private static Type elementType(Type collectionType) {
+    if (!(collectionType instanceof ParameterizedType)) {
+      return null;
+    }
+    Type[] arguments = ((ParameterizedType) collectionType).getActualTypeArguments();
+    return arguments.length == 1 ? arguments[0] : null;
+  }
+
+  private static boolean isImmutable(Class<?> type) {
+    return type.isPrimitive() || type.isEnum() || IMMUTABLE_TYPES.contains(type);
+  }
+
+  private static Map<String, PropertyDescriptor> readableProperties(Class<?> type)
+      throws IntrospectionException {
+    BeanInfo beanInfo = Introspector.getBeanInfo(type);
+    Map<String, PropertyDescriptor> properties = new HashMap<>();
+    for (PropertyDescriptor property : beanInfo.getPropertyDescriptors()) {
+      if (property.getReadMethod() != null && !"class".equals(property.getName())) {
+        properties.put(property.getName(), property);
+      }
+    }
+    return properties;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Supplier<Object> constructor(Class<?> type) throws Throwable {
+    MethodHandle handle = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+    CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get",
+        MethodType.methodType(Supplier.class), MethodType.methodType(Object.class), handle,
+        MethodType.methodType(type));
+    return (Supplier<Object>) site.getTarget().invoke();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Function<Object, Object> getter(Method method) throws Throwable {
+    MethodHandle handle = LOOKUP.unreflect(method);
+    CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+        MethodType.methodType(Function.class),
+        MethodType.methodType(Object.class, Object.class), handle, handle.type().wrap());
+    return (Function<Object, Object>) site.getTarget().invoke();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static BiConsumer<Object, Object> setter(Method method) throws Throwable {
+    MethodHandle handle = LOOKUP.unreflect(method);
+    CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+        MethodType.methodType(BiConsumer.class),
+        MethodType.methodType(void.class, Object.class, Object.class), handle,
+        handle.type().wrap().changeReturnType(void.class));
+    return (BiConsumer<Object, Object>) site.getTarget().invoke();
+  }
+
+  @FunctionalInterface
+  private interface ValueMapper {
+
+    Object map(Object value);
+  }
+
+  @FunctionalInterface
+  private interface PropertyCopier {
+
+    void copy(Object source, Object destination);
+  }
+
+  private static final class MappingPlan {
+
+    private final Supplier<Object> constructor;
+    private final List<PropertyCopier> copiers;
+
+    private MappingPlan(Supplier<Object> constructor, List<PropertyCopier> copiers) {
+      this.constructor = constructor;
+      this.copiers = copiers == null ? Collections.emptyList() : copiers;
+    }
+
+    private Object map(Object source) {
+      Object destination = constructor.get();
+      for (PropertyCopier copier : copiers) {
+        copier.copy(source, destination);
+      }
+      return destination;
+    }
+  }
+
+  private static final class ClassMapping {
+
+    /**
+     * Marks a class pair covered by a mapping the generator does not apply.
+     */
+    private static final ClassMapping UNSUPPORTED =
+        new ClassMapping(null, null, Collections.emptyList(), false);
+
+    private final Class<?> classA;
+    private final Class<?> classB;
+    private final List<FieldMapping> fields;
+    private final boolean supported;
+
+    private ClassMapping(Class<?> classA, Class<?> classB, List<FieldMapping> fields,
+        boolean supported) {
+      this.classA = classA;
+      this.classB = classB;
+      this.fields = fields;
+      this.supported = supported;
+    }
+
+    private boolean matches(Class<?> sourceClass, Class<?> destinationClass) {
+      return (classA == sourceClass && classB == destinationClass)
+          || (classB == sourceClass && classA == destinationClass);
+    }
+
+    private boolean covers(Class<?> type) {
+      return (classA != null && classA.isAssignableFrom(type))
+          || (classB != null && classB.isAssignableFrom(type));
+    }
+  }
+
+  private static final class FieldMapping {
+
+    private final FieldSide a;
+    private final FieldSide b;
+
+    private FieldMapping(FieldSide a, FieldSide b) {
+      this.a = a;
+      this.b = b;
+    }
+  }
+
+  private static final class FieldSide {
+
+    private final String name;
+    private final String getMethod;
+    private final String setMethod;
+
+    private FieldSide(String name, String getMethod, String setMethod) {
+      this.name = name;
+      this.getMethod = getMethod;
+      this.setMethod = setMethod;
+    }
+  }
+
+  private static final class ConverterDescription {
+
+    private final Class<?> type;
+    private final Class<?> classA;
+    private final Class<?> classB;
+    private volatile CustomConverter instance;
+
+    private ConverterDescription(Class<?> type, Class<?> classA, Class<?> classB) {
+      this.type = type;
+      this.classA = classA;
+      this.classB = classB;
+    }
+
+    private boolean accepts(Class<?> sourceType, Class<?> destinationType) {
+      return (classA.isAssignableFrom(sourceType) && classB.isAssignableFrom(destinationType))
+          || (classB.isAssignableFrom(sourceType) && classA.isAssignableFrom(destinationType));
+    }
+
+    private CustomConverter getInstance() throws ReflectiveOperationException {
+      if (instance == null) {
+        instance = (CustomConverter) type.getDeclaredConstructor().newInstance();
+      }
+      return instance;
+    }
+  }
+}
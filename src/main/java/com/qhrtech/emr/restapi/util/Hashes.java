@@ -0,0 +1,36 @@
+package com.qhrtech.emr.restapi.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Content hashes used as cache keys and entity tags.
+ */
+public final class Hashes {
+
+  private Hashes() {
+  }
+
+  /**
+   * @param content - the content to hash.
+   * @return the URL safe Base64 SHA-256 hash of the content, without padding.
+   */
+  public static String sha256(byte[] content) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest(content));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("SHA-256 is not available", ex);
+    }
+  }
+
+  /**
+   * @param content - the content to hash, encoded as UTF-8.
+   * @return the URL safe Base64 SHA-256 hash of the content, without padding.
+   */
+  public static String sha256(String content) {
+    return sha256(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,22 @@
+package com.qhrtech.emr.restapi.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a resource method that writes through the given managers. Once it succeeds the cached
+ * {@link CachedReferenceData} responses of the tenant read from those managers are evicted.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface InvalidatesReferenceData {
+
+  /**
+   * @return The managers written to.
+   */
+  Class<?>[] value();
+}
@@ -0,0 +1,108 @@
+package com.qhrtech.emr.restapi.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Function;
+import javax.ws.rs.core.StreamingOutput;
+
+/**
+ * Writes a JSON array, or an {@code EnvelopeDto} around one, converting each element just before
+ * it is written.
+ *
+ * Only the element being written is held as a DTO, the output is the same as serializing the
+ * fully mapped list or envelope. Conversion errors surface while the response is being written,
+ * so anything that can fail for a request reason must be checked before the output is returned.
+ *
+ * @param <S> Type of the source elements.
+ */
+public final class JsonStreamingOutput<S> implements StreamingOutput {
+
+  private final ObjectMapper objectMapper;
+  private final Iterable<S> source;
+  private final Function<? super S, ?> converter;
+  private final boolean envelope;
+  private final int count;
+  private final int total;
+  private final Long lastId;
+
+  private JsonStreamingOutput(ObjectMapper objectMapper, Iterable<S> source,
+      Function<? super S, ?> converter, boolean envelope, int count, int total, Long lastId) {
+    this.objectMapper = objectMapper;
+    this.source = source;
+    this.converter = converter;
+    this.envelope = envelope;
+    this.count = count;
+    this.total = total;
+    this.lastId = lastId;
+  }
+
+  /**
+   * @param objectMapper The mapper the elements are serialized with.
+   * @param source The elements to write.
+   * @param converter Converts an element to the object written for it.
+   * @param <S> Type of the source elements.
+   * @return Output writing a JSON array.
+   */
+  public static <S> JsonStreamingOutput<S> array(ObjectMapper objectMapper, Iterable<S> source,
+      Function<? super S, ?> converter) {
+    return new JsonStreamingOutput<>(objectMapper, source, converter, false, 0, 0, null);
+  }
+
+  /**
+   * @param objectMapper The mapper the elements are serialized with.
+   * @param source The elements of the page.
+   * @param converter Converts an element to the object written for it.
+   * @param count The count of records in the page.
+   * @param total The total number of records matching the query.
+   * @param lastId The identifier of the last record in the page.
+   * @param <S> Type of the source elements.
+   * @return Output writing an {@code EnvelopeDto}.
+   */
+  public static <S> JsonStreamingOutput<S> envelope(ObjectMapper objectMapper, Iterable<S> source,
+      Function<? super S, ?> converter, int count, int total, Long lastId) {
+    return new JsonStreamingOutput<>(objectMapper, source, converter, true, count, total, lastId);
+  }
+
+  @Override
+  public void write(OutputStream output) throws IOException {
+    // The writer is flushed once at the end instead of after every element.
+    ObjectWriter writer = objectMapper.writer()
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+    generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    // Leave the JSON unterminated if conversion fails, clients must not see a complete document.
+    generator.configure(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT, false);
+    try {
+      if (envelope) {
+        generator.writeStartObject();
+        generator.writeFieldName("contents");
+      }
+      if (source == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (S element : source) {
+          writer.writeValue(generator, converter.apply(element));
+        }
+        generator.writeEndArray();
+      }
+      if (envelope) {
+        generator.writeNumberField("count", count);
+        generator.writeNumberField("total", total);
+        generator.writeFieldName("lastId");
+        if (lastId == null) {
+          generator.writeNull();
+        } else {
+          generator.writeNumber(lastId);
+        }
+        generator.writeEndObject();
+      }
+    } finally {
+      generator.close();
+    }
+  }
+}
@@ -0,0 +1,237 @@
+package com.qhrtech.emr.restapi.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-through cache loading its misses in batches.
+ *
+ * Entries older than {@code refreshAfter} are still returned but reloaded in the background,
+ * entries older than {@code expireAfter} are reloaded before they are returned. Reads of cached
+ * entries take no lock, misses are loaded without holding any lock and concurrent misses for the
+ * same key share a single load. Keys the loader returns no value for are not cached.
+ *
+ * The cache holds at most {@code maxSize} entries, expired entries are evicted first and then
+ * arbitrary ones.
+ */
+public class RefreshingCache<K, V> {
+
+  private static final Logger log = LoggerFactory.getLogger(RefreshingCache.class);
+
+  private final Map<K, Entry<V>> cache = new ConcurrentHashMap<>();
+  private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+  private final Function<Set<K>, Map<K, V>> loader;
+  private final Duration refreshAfter;
+  private final Duration expireAfter;
+  private final int maxSize;
+  private final Executor refreshExecutor;
+  private final Clock clock;
+
+  /**
+   * @param loader - loads the values of a set of keys, omitting keys without a value.
+   * @param refreshAfter - age after which an entry is reloaded in the background.
+   * @param expireAfter - age after which an entry is no longer returned.
+   * @param maxSize - the maximum number of entries.
+   * @param refreshExecutor - runs the background reloads.
+   */
+  public RefreshingCache(Function<Set<K>, Map<K, V>> loader, Duration refreshAfter,
+      Duration expireAfter, int maxSize, Executor refreshExecutor) {
+    this(loader, refreshAfter, expireAfter, maxSize, refreshExecutor, Clock.systemUTC());
+  }
+
+  RefreshingCache(Function<Set<K>, Map<K, V>> loader, Duration refreshAfter,
+      Duration expireAfter, int maxSize, Executor refreshExecutor, Clock clock) {
+    this.loader = loader;
+    this.refreshAfter = refreshAfter;
+    this.expireAfter = expireAfter;
+    this.maxSize = maxSize;
+    this.refreshExecutor = refreshExecutor;
+    this.clock = clock;
+  }
+
+  /**
+   * @param key - the key to get.
+   * @return the value, or null if the loader has none.
+   */
+  public V get(K key) {
+    return getAll(Collections.singleton(key)).get(key);
+  }
+
+  /**
+   * Retrieve several items, loading all missing or expired ones in one call to the loader.
+   *
+   * @param keys - the keys to get.
+   * @return the values of the keys the loader has a value for.
+   */
+  public Map<K, V> getAll(Collection<K> keys) {
+    Map<K, V> result = new HashMap<>();
+    Set<K> missing = new LinkedHashSet<>();
+    Set<K> stale = new LinkedHashSet<>();
+    Instant now = clock.instant();
+    for (K key : keys) {
+      Entry<V> entry = cache.get(key);
+      if (entry == null || !now.isBefore(entry.loaded.plus(expireAfter))) {
+        missing.add(key);
+      } else {
+        result.put(key, entry.value);
+        if (!now.isBefore(entry.loaded.plus(refreshAfter))) {
+          stale.add(key);
+        }
+      }
+    }
+
+    if (!stale.isEmpty()) {
+      Set<K> owned = claim(stale, new HashMap<>());
+      if (!owned.isEmpty()) {
+        try {
+          refreshExecutor.execute(() -> refresh(owned));
+        } catch (RejectedExecutionException ex) {
+          fail(owned, ex);
+        }
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      Map<K, CompletableFuture<V>> pending = new HashMap<>();
+      Set<K> owned = claim(missing, pending);
+      if (!owned.isEmpty()) {
+        load(owned);
+      }
+      for (Map.Entry<K, CompletableFuture<V>> load : pending.entrySet()) {
+        V value = Futures.join(load.getValue());
+        if (value != null) {
+          result.put(load.getKey(), value);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Store an item loaded elsewhere, e.g. by a full reload of the underlying data.
+   *
+   * @param key - the key to store.
+   * @param value - the value to store.
+   */
+  public void put(K key, V value) {
+    store(key, value, clock.instant());
+  }
+
+  /**
+   * Remove an item from the cache so the next call to {@link #get(Object)} reloads it.
+   *
+   * @param key - the key to invalidate.
+   */
+  public void invalidate(K key) {
+    cache.remove(key);
+  }
+
+  public void clear() {
+    cache.clear();
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  /**
+   * Registers this caller as the loader of the keys nobody else is loading yet.
+   *
+   * @param keys - the keys to load.
+   * @param pending - receives the pending load of every key, owned or not.
+   * @return the keys this caller has to load.
+   */
+  private Set<K> claim(Set<K> keys, Map<K, CompletableFuture<V>> pending) {
+    Set<K> owned = new LinkedHashSet<>();
+    for (K key : keys) {
+      CompletableFuture<V> future = new CompletableFuture<>();
+      CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+      if (existing == null) {
+        owned.add(key);
+        pending.put(key, future);
+      } else {
+        pending.put(key, existing);
+      }
+    }
+    return owned;
+  }
+
+  private void load(Set<K> keys) {
+    Map<K, V> values;
+    try {
+      values = loader.apply(keys);
+    } catch (RuntimeException | Error ex) {
+      fail(keys, ex);
+      throw ex;
+    }
+    complete(keys, values);
+  }
+
+  private void refresh(Set<K> keys) {
+    Map<K, V> values;
+    try {
+      values = loader.apply(keys);
+    } catch (RuntimeException | Error ex) {
+      // The current values are kept, and served until they expire.
+      log.warn("Background refresh of {} cache entries failed", keys.size(), ex);
+      fail(keys, ex);
+      return;
+    }
+    complete(keys, values);
+  }
+
+  private void fail(Set<K> keys, Throwable cause) {
+    for (K key : keys) {
+      loading.remove(key).completeExceptionally(cause);
+    }
+  }
+
+  private void complete(Set<K> keys, Map<K, V> values) {
+    Instant now = clock.instant();
+    for (K key : keys) {
+      V value = values == null ? null : values.get(key);
+      if (value == null) {
+        cache.remove(key);
+      } else {
+        store(key, value, now);
+      }
+      loading.remove(key).complete(value);
+    }
+  }
+
+  private void store(K key, V value, Instant now) {
+    if (maxSize <= 0) {
+      return;
+    }
+    if (!cache.containsKey(key)) {
+      BoundedMaps.makeRoom(cache, maxSize,
+          entry -> !now.isBefore(entry.loaded.plus(expireAfter)));
+    }
+    cache.put(key, new Entry<>(value, now));
+  }
+
+  private static final class Entry<V> {
+
+    private final V value;
+    private final Instant loaded;
+
+    private Entry(V value, Instant loaded) {
+      this.value = value;
+      this.loaded = loaded;
+    }
+  }
+}
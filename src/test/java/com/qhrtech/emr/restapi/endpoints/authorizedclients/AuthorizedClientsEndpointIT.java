@@ -4,6 +4,7 @@ package com.qhrtech.emr.restapi.endpoints.authorizedclients;
 import static io.restassured.RestAssured.given;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.qhrtech.emr.accuro.api.security.AuthorizedClientManager;
 import com.qhrtech.emr.accuro.api.security.DefaultAuthorizedClientManager;
@@ -18,6 +19,7 @@ import com.qhrtech.emr.restapi.endpoints.utilities.TestUtilities;
 import com.qhrtech.emr.restapi.models.dto.authorizedclients.AuthorizedClientDto;
 import com.qhrtech.emr.restapi.models.dto.pagination.EnvelopeDto;
 import com.qhrtech.emr.restapi.security.ApiSecurityContext;
+import com.qhrtech.emr.restapi.security.apicontext.CachingAccuroApiContextService;
 import io.restassured.http.ContentType;
 import java.io.IOException;
 import java.sql.SQLException;
@@ -32,10 +34,12 @@ public class AuthorizedClientsEndpointIT extends
     AbstractEndpointIntegrationTest<AuthorizedClientsEndpoint> {
 
   private AuthorizedClientManager manager;
+  private CachingAccuroApiContextService accuroApiContextService;
 
   public AuthorizedClientsEndpointIT() throws IOException {
     super(new AuthorizedClientsEndpoint(), AuthorizedClientsEndpoint.class);
     manager = new DefaultAuthorizedClientManager(getDs(), null, defaultUser());
+    accuroApiContextService = mock(CachingAccuroApiContextService.class);
   }
 
   @Override
@@ -3,9 +3,13 @@ package com.qhrtech.emr.restapi.endpoints.authorizedclients;
 
 import static io.restassured.RestAssured.given;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -17,12 +21,18 @@ import com.qhrtech.emr.accuro.model.exceptions.dataaccess.TimeZoneNotFoundExcept
 import com.qhrtech.emr.accuro.model.exceptions.dataaccess.UnsupportedSchemaVersionException;
 import com.qhrtech.emr.accuro.model.pagination.Envelope;
 import com.qhrtech.emr.accuro.model.security.AuthorizedClient;
+import com.qhrtech.emr.accuro.model.security.permissions.AccuroApiContext;
 import com.qhrtech.emr.accuro.permissions.AuditLogUser;
 import com.qhrtech.emr.restapi.endpoints.utilities.AbstractEndpointTest;
 import com.qhrtech.emr.restapi.endpoints.utilities.TestUtilities;
 import com.qhrtech.emr.restapi.models.dto.authorizedclients.AuthorizedClientDto;
 import com.qhrtech.emr.restapi.models.dto.pagination.EnvelopeDto;
 import com.qhrtech.emr.restapi.security.ApiSecurityContext;
+import com.qhrtech.emr.restapi.security.apicontext.AccuroApiContextService;
+import com.qhrtech.emr.restapi.security.apicontext.AccuroApiTokenAdapter;
+import com.qhrtech.emr.restapi.security.apicontext.CachingAccuroApiContextService;
+import com.qhrtech.emr.restapi.security.apicontext.TokenRequestDetails;
+import com.qhrtech.emr.restapi.security.exceptions.FilterException;
 import com.qhrtech.emr.restapi.util.PaginationConstant;
 import io.restassured.http.ContentType;
 import java.util.ArrayList;
@@ -33,23 +43,30 @@ import java.util.Map;
 import java.util.UUID;
 import javax.ws.rs.core.Response.Status;
 import org.junit.Test;
+import org.springframework.http.HttpMethod;
 
 public class AuthorizedClientsEndpointTest extends AbstractEndpointTest<AuthorizedClientsEndpoint> {
 
   private static final int DEFAULT_PAGE_SIZE = PaginationConstant.DEFAULT_PAGE_SIZE.getSize();
   private static final int MAX_PAGE_SIZE = PaginationConstant.MAX_PAGE_SIZE.getSize();
+  private final String tenantId = TestUtilities.nextString(5);
   private AuthorizedClientManager manager;
+  private AccuroApiContextService contextDelegate;
+  private CachingAccuroApiContextService accuroApiContextService;
 
 
   public AuthorizedClientsEndpointTest() {
     super(new AuthorizedClientsEndpoint(), AuthorizedClientsEndpoint.class);
     manager = mock(AuthorizedClientManager.class);
+    contextDelegate = mock(AccuroApiContextService.class);
+    accuroApiContextService =
+        spy(new CachingAccuroApiContextService(contextDelegate, 30000L, 100));
   }
 
   @Override
   protected ApiSecurityContext getSecurityContext() {
     ApiSecurityContext context = new ApiSecurityContext();
-    context.setTenantId(TestUtilities.nextString(5));
+    context.setTenantId(tenantId);
     context.setUser(getFixture(AuditLogUser.class));
     return context;
   }
@@ -214,6 +231,7 @@ public class AuthorizedClientsEndpointTest extends AbstractEndpointTest<Authoriz
 
     assertEquals(expected, actual);
     verify(manager).createAuthorizedClient(authorizedClient);
+    verify(accuroApiContextService).invalidateTenant(tenantId);
   }
 
   @Test
@@ -245,6 +263,7 @@ public class AuthorizedClientsEndpointTest extends AbstractEndpointTest<Authoriz
         .statusCode(Status.NO_CONTENT.getStatusCode());
 
     verify(manager).updateAuthorizedClient(authorizedClient);
+    verify(accuroApiContextService).invalidateTenant(tenantId);
   }
 
   @Test
@@ -279,6 +298,41 @@ public class AuthorizedClientsEndpointTest extends AbstractEndpointTest<Authoriz
         .statusCode(Status.NO_CONTENT.getStatusCode());
 
     verify(manager).deleteAuthorizedClient(id);
+    verify(accuroApiContextService).invalidateTenant(tenantId);
+  }
+
+  @Test
+  public void testDeletedClientIsRefusedRightAway() throws Exception {
+    AccuroApiTokenAdapter token = mock(AccuroApiTokenAdapter.class);
+    when(token.getTokenValue()).thenReturn(TestUtilities.nextString(20));
+    when(token.getTenantId()).thenReturn(tenantId);
+    when(token.getUserIdentifier()).thenReturn("1");
+    when(token.getTokenRequestDetails())
+        .thenReturn(new TokenRequestDetails(HttpMethod.GET, "/v1/patients", tenantId));
+    AccuroApiContext context = new AccuroApiContext();
+    when(contextDelegate.getAccuroApiUserContext(token)).thenReturn(context);
+    assertSame(context, accuroApiContextService.getAccuroApiUserContext(token));
+    assertSame(context, accuroApiContextService.getAccuroApiUserContext(token));
+
+    int id = TestUtilities.nextInt();
+    when(contextDelegate.getAccuroApiUserContext(token))
+        .thenThrow(new FilterException(Status.UNAUTHORIZED.getStatusCode(),
+            "Provided clientId is not authorized to access the resources."));
+    given()
+        .pathParam("id", id)
+        .when()
+        .delete(getBaseUrl() + "/v1/authorized-clients/{id}")
+        .then()
+        .assertThat()
+        .statusCode(Status.NO_CONTENT.getStatusCode());
+
+    try {
+      accuroApiContextService.getAccuroApiUserContext(token);
+      fail("The deleted client was expected to be refused");
+    } catch (FilterException expected) {
+      assertEquals(Status.UNAUTHORIZED.getStatusCode(), expected.getStatus());
+    }
+    verify(contextDelegate, times(2)).getAccuroApiUserContext(token);
   }
 
 
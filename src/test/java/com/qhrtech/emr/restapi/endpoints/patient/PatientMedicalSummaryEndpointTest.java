@@ -68,6 +68,7 @@ import com.qhrtech.emr.restapi.models.dto.medicalsummary.PrescriptionDto;
 import com.qhrtech.emr.restapi.models.dto.medications.GenericDrugDto;
 import com.qhrtech.emr.restapi.models.dto.prescriptions.DosageDto;
 import com.qhrtech.emr.restapi.security.ApiSecurityContext;
+import com.qhrtech.emr.restapi.security.SecurityContextExecutor;
 import com.qhrtech.emr.restapi.security.exceptions.PrescriptionConversionException;
 import com.qhrtech.emr.restapi.services.PrescriptionDetailsService;
 import com.qhrtech.emr.restapi.util.EmrUnitsMapping;
@@ -113,6 +114,7 @@ public class PatientMedicalSummaryEndpointTest
   private AccuroApiContextManager accuroApiContextManagerMock;
   private CodeSystemManager codeSystemManagerMock;
   private AuditLogUser user;
+  private final SecurityContextExecutor executor = TestUtilities.sameThreadExecutor();
 
 
   public PatientMedicalSummaryEndpointTest() {
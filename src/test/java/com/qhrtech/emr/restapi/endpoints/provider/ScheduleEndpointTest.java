@@ -15,6 +15,7 @@ import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import com.qhrtech.emr.accuro.api.provider.ProviderScheduleCalenderManager;
+import com.qhrtech.emr.accuro.api.scheduling.AppointmentManager;
 import com.qhrtech.emr.accuro.api.scheduling.AvailabilityManager;
 import com.qhrtech.emr.accuro.api.scheduling.ScheduleSettingsManager;
 import com.qhrtech.emr.accuro.api.scheduling.StatusManager;
@@ -28,6 +29,7 @@ import com.qhrtech.emr.accuro.model.exceptions.security.InsufficientFeatureAcces
 import com.qhrtech.emr.accuro.model.exceptions.security.InsufficientPermissionsException;
 import com.qhrtech.emr.accuro.model.exceptions.security.InsufficientRolesException;
 import com.qhrtech.emr.accuro.model.provider.ProviderScheduleCalendar;
+import com.qhrtech.emr.accuro.model.scheduling.Appointment;
 import com.qhrtech.emr.accuro.model.scheduling.AppointmentReason;
 import com.qhrtech.emr.accuro.model.scheduling.Status;
 import com.qhrtech.emr.accuro.model.scheduling.availability.AppliedAvailability;
@@ -71,6 +73,7 @@ public class ScheduleEndpointTest extends AbstractEndpointTest<ScheduleEndpoint>
   private StatusManager statusManager;
   private AvailabilityManager availabilityManager;
   private UserAuthenticationManager userAuthenticationManager;
+  private AppointmentManager appointmentManager;
 
   public ScheduleEndpointTest() {
     super(new ScheduleEndpoint(), ScheduleEndpoint.class);
@@ -80,6 +83,7 @@ public class ScheduleEndpointTest extends AbstractEndpointTest<ScheduleEndpoint>
     statusManager = mock(StatusManager.class);
     availabilityManager = mock(AvailabilityManager.class);
     userAuthenticationManager = mock(UserAuthenticationManager.class);
+    appointmentManager = mock(AppointmentManager.class);
   }
 
   @Override
@@ -104,6 +108,7 @@ public class ScheduleEndpointTest extends AbstractEndpointTest<ScheduleEndpoint>
     servicesMap.put(StatusManager.class, statusManager);
     servicesMap.put(AvailabilityManager.class, availabilityManager);
     servicesMap.put(UserAuthenticationManager.class, userAuthenticationManager);
+    servicesMap.put(AppointmentManager.class, appointmentManager);
     return servicesMap;
   }
 
@@ -596,6 +601,81 @@ public class ScheduleEndpointTest extends AbstractEndpointTest<ScheduleEndpoint>
   }
 
 
+  @Test
+  public void testGetAppointmentsByOffice() throws ProtossException {
+    LocalDate date = LocalDate.fromCalendarFields(nextUtcCalendar());
+    int officeId = TestUtilities.nextId();
+    List<Appointment> appointments = new ArrayList<>();
+    for (int i = 1; i <= 4; i++) {
+      Appointment appointment = new Appointment();
+      appointment.setAppointmentId(i);
+      appointment.setOfficeId(i % 2 == 0 ? officeId : officeId + 1);
+      appointments.add(appointment);
+    }
+    when(appointmentManager.getAppointments(date, null, null, null, null, null))
+        .thenReturn(appointments);
+
+    AppointmentDto[] actual = given()
+        .queryParam("startDate", date.toString())
+        .queryParam("officeId", officeId)
+        .when()
+        .get(getBaseUrl() + "/v1/provider-portal/scheduler/appointments")
+        .then()
+        .assertThat()
+        .statusCode(200)
+        .extract().as(AppointmentDto[].class);
+
+    assertEquals(2, actual.length);
+    assertEquals(2, actual[0].getAppointmentId());
+    assertEquals(4, actual[1].getAppointmentId());
+  }
+
+  @Test
+  public void testGetAppointmentsPaged() throws ProtossException {
+    LocalDate date = LocalDate.fromCalendarFields(nextUtcCalendar());
+    List<Appointment> appointments = new ArrayList<>();
+    for (int i = 10; i >= 1; i--) {
+      Appointment appointment = new Appointment();
+      appointment.setAppointmentId(i);
+      appointments.add(appointment);
+    }
+    when(appointmentManager.getAppointments(date, date, null, null, null, null))
+        .thenReturn(appointments);
+
+    AppointmentDto[] actual = given()
+        .queryParam("startDate", date.toString())
+        .queryParam("endDate", date.toString())
+        .queryParam("startingId", 3)
+        .queryParam("pageSize", 4)
+        .when()
+        .get(getBaseUrl() + "/v1/provider-portal/scheduler/appointments")
+        .then()
+        .assertThat()
+        .statusCode(200)
+        .extract().as(AppointmentDto[].class);
+
+    assertEquals(4, actual.length);
+    for (int i = 0; i < actual.length; i++) {
+      assertEquals(i + 4, actual[i].getAppointmentId());
+    }
+  }
+
+  @Test
+  public void testGetAppointmentsDateRangeTooLong() {
+    LocalDate startDate = LocalDate.fromCalendarFields(nextUtcCalendar());
+
+    given()
+        .queryParam("startDate", startDate.toString())
+        .queryParam("endDate", startDate.plusDays(94).toString())
+        .when()
+        .get(getBaseUrl() + "/v1/provider-portal/scheduler/appointments")
+        .then()
+        .assertThat()
+        .statusCode(400);
+
+    verifyZeroInteractions(appointmentManager);
+  }
+
   @Test
   public void testCreateProviderCalendarNote() throws ProtossException {
     ProviderScheduleCalendarDto scheduleCalendarDto = getFixture(ProviderScheduleCalendarDto.class);
@@ -7,8 +7,10 @@ import static org.mockito.Mockito.verify;
 import com.qhrtech.emr.restapi.models.service.CloudStorageAccount;
 import com.qhrtech.emr.restapi.services.BlobIdentifier;
 import com.qhrtech.emr.restapi.services.BlobIdentifier.BlobIdentifierBuilder;
+import com.qhrtech.emr.restapi.services.BlobSource;
 import com.qhrtech.emr.restapi.services.BlobStorageService;
 import com.qhrtech.util.RandomUtils;
+import java.io.ByteArrayInputStream;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -45,4 +47,28 @@ public class BlobUploadStubTest {
 
     verify(blobStorageService).uploadBlob(blobIdentifier, data);
   }
+
+  @Test
+  public void getStreamingUploader() {
+    byte[] data = RandomUtils.getString(10).getBytes();
+    BlobSource source = () -> new ByteArrayInputStream(data);
+    CloudStorageAccount cloudStorageAccount = new CloudStorageAccount();
+    cloudStorageAccount.setStorageAccountName(RandomUtils.getString(10));
+    cloudStorageAccount.setContainerName(RandomUtils.getString(10));
+    BlobUploadStub blobUploadStub =
+        BlobUploadStub.getUploader(blobStorageService, cloudStorageAccount, source, data.length);
+
+    assertNotNull(blobUploadStub);
+
+    String name = RandomUtils.getString(10);
+    blobUploadStub.accept(name);
+
+    BlobIdentifier blobIdentifier = new BlobIdentifierBuilder()
+        .withContainerName(cloudStorageAccount.getContainerName())
+        .withStorageAccount(cloudStorageAccount.getStorageAccountName())
+        .withBlobName(name)
+        .build();
+
+    verify(blobStorageService).uploadBlob(blobIdentifier, source, data.length);
+  }
 }
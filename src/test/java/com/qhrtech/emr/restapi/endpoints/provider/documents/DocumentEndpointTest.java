@@ -5,6 +5,7 @@ import static io.restassured.RestAssured.given;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.AdditionalAnswers.delegatesTo;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Matchers.any;
@@ -44,11 +45,12 @@ import com.qhrtech.emr.restapi.security.ApiSecurityContext;
 import com.qhrtech.emr.restapi.services.AcronDetailsService;
 import com.qhrtech.emr.restapi.services.BlobStorageService;
 import com.qhrtech.emr.restapi.services.ModuleService;
+import com.qhrtech.emr.restapi.services.ProtectionLockService;
 import com.qhrtech.emr.restapi.services.exceptions.MD5Exception;
+import com.qhrtech.emr.restapi.services.impl.DefaultProtectionLockService;
 import com.qhrtech.emr.restapi.util.CustomMD5;
 import com.qhrtech.emr.restapi.util.DateFormatter;
 import java.io.File;
-import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -62,6 +64,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import javax.ws.rs.core.HttpHeaders;
 import org.joda.time.LocalDate;
 import org.joda.time.LocalDateTime;
 import org.joda.time.LocalTime;
@@ -93,6 +96,7 @@ public class DocumentEndpointTest extends AbstractEndpointTest<DocumentEndpoint>
 
   private ModuleService moduleService;
   private BlobStorageService blobStorageService;
+  private ProtectionLockService protectionLockService;
 
   private CloudStorageAccount cloudStorageAccount;
   private AcronConfiguration acronConfiguration;
@@ -109,6 +113,9 @@ public class DocumentEndpointTest extends AbstractEndpointTest<DocumentEndpoint>
     blobStorageService = mock(BlobStorageService.class);
 
     lockManager = mock(ProtectionLockManager.class);
+    // a short deadline so the lock conflict tests give up quickly
+    protectionLockService = mock(ProtectionLockService.class,
+        delegatesTo(new DefaultProtectionLockService(100, 1, 5)));
     folder = new FolderType();
     folder.setName(TestUtilities.nextString(10));
 
@@ -752,11 +759,6 @@ public class DocumentEndpointTest extends AbstractEndpointTest<DocumentEndpoint>
       Mockito.when(preferenceManager.getSystemPreference("ShowDocumentsSubType"))
           .thenReturn("true");
 
-      // To shorten wait time
-      Field field = DocumentEndpoint.class.getDeclaredField("WAIT_LOCK_INTERVAL");
-      field.setAccessible(true);
-      field.setInt(null, 1);
-
       ObjectWriter ow = new ObjectMapper().writer().withDefaultPrettyPrinter();
       String json = ow.writeValueAsString(documentDto);
 
@@ -767,7 +769,8 @@ public class DocumentEndpointTest extends AbstractEndpointTest<DocumentEndpoint>
           .when()
           .post(getBaseUrl() + "/v1/provider-portal/documents")
           .then()
-          .assertThat().statusCode(409);
+          .assertThat().statusCode(409)
+          .header(HttpHeaders.RETRY_AFTER, "1");
     } finally {
       file.delete();
     }
@@ -800,11 +803,6 @@ public class DocumentEndpointTest extends AbstractEndpointTest<DocumentEndpoint>
       Mockito.when(preferenceManager.getSystemPreference("ShowDocumentsSubType"))
           .thenReturn("true");
 
-      // To shorten wait time
-      Field field = DocumentEndpoint.class.getDeclaredField("WAIT_LOCK_INTERVAL");
-      field.setAccessible(true);
-      field.setInt(null, 1);
-
       ObjectWriter ow = new ObjectMapper().writer().withDefaultPrettyPrinter();
       String json = ow.writeValueAsString(documentDto);
 
@@ -815,7 +813,8 @@ public class DocumentEndpointTest extends AbstractEndpointTest<DocumentEndpoint>
           .when()
           .post(getBaseUrl() + "/v1/provider-portal/documents")
           .then()
-          .assertThat().statusCode(409);
+          .assertThat().statusCode(409)
+          .header(HttpHeaders.RETRY_AFTER, "1");
     } finally {
       file.delete();
     }
@@ -849,11 +848,6 @@ public class DocumentEndpointTest extends AbstractEndpointTest<DocumentEndpoint>
       Mockito.when(preferenceManager.getSystemPreference("ShowDocumentsSubType"))
           .thenReturn("true");
 
-      // To shorten wait time
-      Field field = DocumentEndpoint.class.getDeclaredField("WAIT_LOCK_INTERVAL");
-      field.setAccessible(true);
-      field.setInt(null, 1);
-
       ObjectWriter ow = new ObjectMapper().writer().withDefaultPrettyPrinter();
       String json = ow.writeValueAsString(documentDto);
 
@@ -864,7 +858,8 @@ public class DocumentEndpointTest extends AbstractEndpointTest<DocumentEndpoint>
           .when()
           .post(getBaseUrl() + "/v1/provider-portal/documents")
           .then()
-          .assertThat().statusCode(409);
+          .assertThat().statusCode(409)
+          .header(HttpHeaders.RETRY_AFTER, "1");
     } finally {
       file.delete();
     }
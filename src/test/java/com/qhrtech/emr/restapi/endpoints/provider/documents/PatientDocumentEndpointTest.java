@@ -5,9 +5,12 @@ import static io.restassured.RestAssured.given;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import com.qhrtech.emr.accdocs.api.docs.AccDocManager;
@@ -28,11 +31,15 @@ import com.qhrtech.emr.restapi.security.ApiSecurityContext;
 import com.qhrtech.emr.restapi.services.AcronDetailsService;
 import com.qhrtech.emr.restapi.services.BlobIdentifier;
 import com.qhrtech.emr.restapi.services.BlobIdentifier.BlobIdentifierBuilder;
+import com.qhrtech.emr.restapi.services.BlobMetadata;
 import com.qhrtech.emr.restapi.services.BlobStorageService;
 import com.qhrtech.emr.restapi.services.ModuleService;
 import com.qhrtech.emr.restapi.services.exceptions.StorageServiceException;
 import com.qhrtech.emr.restapi.services.impl.HostedDiscoveryDetailsService;
 import com.qhrtech.emr.restapi.util.DateFormatter;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -393,6 +400,64 @@ public class PatientDocumentEndpointTest extends AbstractEndpointTest<PatientDoc
   }
 
 
+  @Test
+  public void testGetDocRange() throws ProtossException {
+    Set<FileType> fileTypes = getFixtures(FileType.class, HashSet::new, 5);
+
+    String hash = "0123456789abcdef0123456789abcdef";
+    Document document = getFixture(Document.class);
+    document.setFileType(TestUtilities.nextElement(fileTypes).getTypeId());
+    document.setFileName(hash + ".pdf");
+
+    int documentId = document.getDocumentId();
+    int patientId = document.getPatientId();
+
+    AccDoc accDoc = getFixture(AccDoc.class);
+    byte[] content = new byte[30];
+    new Random().nextBytes(content);
+    accDoc.setContents(content);
+
+    when(documentManager.getDocumentById(documentId)).thenReturn(document);
+    when(documentManager.getFileTypes()).thenReturn(fileTypes);
+    when(accDocManager.getAccDocByFileName(document.getFileName(), document.getPathName()))
+        .thenReturn(accDoc);
+
+    ExtractableResponse<Response> response = given()
+        .pathParams("patientId", patientId, "documentId", documentId)
+        .header("Range", "bytes=-5")
+        .when()
+        .get(getBaseUrl() + "/v1/provider-portal/patients/{patientId}/documents/{documentId}")
+        .then()
+        .assertThat().statusCode(206)
+        .extract();
+
+    assertTrue(Arrays.equals(Arrays.copyOfRange(content, 25, 30), response.asByteArray()));
+    assertEquals("bytes 25-29/30", response.header("Content-Range"));
+
+    String eTag = response.header("ETag");
+    assertEquals("\"" + hash + "\"", eTag);
+    given()
+        .pathParams("patientId", patientId, "documentId", documentId)
+        .header("If-None-Match", eTag)
+        .when()
+        .get(getBaseUrl() + "/v1/provider-portal/patients/{patientId}/documents/{documentId}")
+        .then()
+        .assertThat().statusCode(304);
+
+    given()
+        .pathParams("patientId", patientId, "documentId", documentId)
+        .header("Range", "bytes=30-")
+        .when()
+        .get(getBaseUrl() + "/v1/provider-portal/patients/{patientId}/documents/{documentId}")
+        .then()
+        .assertThat().statusCode(416)
+        .header("Content-Range", "bytes */30");
+
+    // the not modified response is answered from the file name without reading the document
+    verify(accDocManager, times(2))
+        .getAccDocByFileName(document.getFileName(), document.getPathName());
+  }
+
   @Test
   public void testGetDocWithUnmatchedTypeId() throws ProtossException {
     Document document = getFixture(Document.class);
@@ -534,23 +599,116 @@ public class PatientDocumentEndpointTest extends AbstractEndpointTest<PatientDoc
 
     when(moduleService.isAccBlobEnabled()).thenReturn(true);
     when(docsAccblobManager.getByDocumentId(documentId)).thenReturn(docsAccblob);
-    when(blobStorageService.downloadBlob(eq(blobIdentifier))).thenReturn(expected);
+    String eTag = "\"" + TestUtilities.nextString(10) + "\"";
+    setUpBlobDownload(blobIdentifier, expected, eTag);
 
     int patientId = document.getPatientId();
 
-    byte[] actual = given()
+    ExtractableResponse<Response> response = given()
         .pathParams("patientId", patientId, "documentId", documentId)
         .when()
         .get(getBaseUrl() + "/v1/provider-portal/patients/{patientId}/documents/{documentId}")
         .then()
         .assertThat().statusCode(200)
-        .extract().asByteArray();
+        .extract();
 
-    assertTrue(Arrays.equals(expected, actual));
+    assertTrue(Arrays.equals(expected, response.asByteArray()));
+    assertEquals(eTag, response.header("ETag"));
+    assertEquals("bytes", response.header("Accept-Ranges"));
 
     verify(documentManager).getDocumentById(documentId);
     verify(documentManager).getFileTypes();
     verify(docsAccblobManager).getByDocumentId(documentId);
+    verify(blobStorageService).downloadBlob(eq(blobIdentifier), any(OutputStream.class), eq(0L),
+        eq((long) expected.length), eq(eTag));
+  }
+
+  @Test
+  public void testGetDocForAzureBlobRange() throws ProtossException {
+    Set<FileType> fileTypes = getFixtures(FileType.class, HashSet::new, 5);
+
+    Document document = getFixture(Document.class);
+    document.setFileType(TestUtilities.nextElement(fileTypes).getTypeId());
+
+    int documentId = document.getDocumentId();
+
+    byte[] content = new byte[30];
+    new Random().nextBytes(content);
+
+    when(documentManager.getDocumentById(documentId)).thenReturn(document);
+    when(documentManager.getFileTypes()).thenReturn(fileTypes);
+
+    setUpBlobStorageContent();
+
+    CloudStorageAccount cloudStorageAccount = getFixture(CloudStorageAccount.class);
+    when(discoveryDetailsService.getCloudStorageAccount(any(String.class))).thenReturn(
+        cloudStorageAccount);
+
+    BlobIdentifier blobIdentifier = new BlobIdentifierBuilder()
+        .withContainerName(cloudStorageAccount.getContainerName())
+        .withStorageAccount(cloudStorageAccount.getStorageAccountName())
+        .withBlobName(docsAccblob.getBlobName())
+        .build();
+
+    when(moduleService.isAccBlobEnabled()).thenReturn(true);
+    when(docsAccblobManager.getByDocumentId(documentId)).thenReturn(docsAccblob);
+    String eTag = "\"" + TestUtilities.nextString(10) + "\"";
+    setUpBlobDownload(blobIdentifier, content, eTag);
+
+    int patientId = document.getPatientId();
+
+    ExtractableResponse<Response> response = given()
+        .pathParams("patientId", patientId, "documentId", documentId)
+        .header("Range", "bytes=10-19")
+        .when()
+        .get(getBaseUrl() + "/v1/provider-portal/patients/{patientId}/documents/{documentId}")
+        .then()
+        .assertThat().statusCode(206)
+        .extract();
+
+    assertTrue(Arrays.equals(Arrays.copyOfRange(content, 10, 20), response.asByteArray()));
+    assertEquals("bytes 10-19/30", response.header("Content-Range"));
+
+    verify(blobStorageService).downloadBlob(eq(blobIdentifier), any(OutputStream.class),
+        eq(10L), eq(10L), eq(eTag));
+  }
+
+  @Test
+  public void testGetDocForAzureBlobNotModified() throws ProtossException {
+    Set<FileType> fileTypes = getFixtures(FileType.class, HashSet::new, 5);
+
+    Document document = getFixture(Document.class);
+    document.setFileType(TestUtilities.nextElement(fileTypes).getTypeId());
+
+    int documentId = document.getDocumentId();
+
+    when(documentManager.getDocumentById(documentId)).thenReturn(document);
+    when(documentManager.getFileTypes()).thenReturn(fileTypes);
+
+    setUpBlobStorageContent();
+
+    CloudStorageAccount cloudStorageAccount = getFixture(CloudStorageAccount.class);
+    when(discoveryDetailsService.getCloudStorageAccount(any(String.class))).thenReturn(
+        cloudStorageAccount);
+
+    when(moduleService.isAccBlobEnabled()).thenReturn(true);
+    when(docsAccblobManager.getByDocumentId(documentId)).thenReturn(docsAccblob);
+    String eTag = "\"" + TestUtilities.nextString(10) + "\"";
+    when(blobStorageService.getBlobMetadata(any(BlobIdentifier.class)))
+        .thenReturn(new BlobMetadata(30, eTag));
+
+    int patientId = document.getPatientId();
+
+    given()
+        .pathParams("patientId", patientId, "documentId", documentId)
+        .header("If-None-Match", eTag)
+        .when()
+        .get(getBaseUrl() + "/v1/provider-portal/patients/{patientId}/documents/{documentId}")
+        .then()
+        .assertThat().statusCode(304);
+
+    verify(blobStorageService, never()).downloadBlob(any(BlobIdentifier.class),
+        any(OutputStream.class), anyLong(), anyLong(), any());
   }
 
   @Test
@@ -604,7 +762,7 @@ public class PatientDocumentEndpointTest extends AbstractEndpointTest<PatientDoc
 
     when(docsAccblobManager.getByDocumentId(documentId)).thenReturn(docsAccblob);
 
-    when(blobStorageService.downloadBlob(any(BlobIdentifier.class))).thenThrow(
+    when(blobStorageService.getBlobMetadata(any(BlobIdentifier.class))).thenThrow(
         StorageServiceException.class);
 
     int patientId = document.getPatientId();
@@ -626,6 +784,19 @@ public class PatientDocumentEndpointTest extends AbstractEndpointTest<PatientDoc
     docsAccblob = getFixture(DocsAccblob.class);
   }
 
+  private void setUpBlobDownload(BlobIdentifier blobIdentifier, byte[] content, String eTag) {
+    when(blobStorageService.getBlobMetadata(eq(blobIdentifier)))
+        .thenReturn(new BlobMetadata(content.length, eTag));
+    doAnswer(invocation -> {
+      OutputStream output = invocation.getArgument(1);
+      long offset = invocation.getArgument(2);
+      long count = invocation.getArgument(3);
+      output.write(content, (int) offset, (int) count);
+      return null;
+    }).when(blobStorageService).downloadBlob(eq(blobIdentifier), any(OutputStream.class),
+        anyLong(), anyLong(), eq(eTag));
+  }
+
   private void setDefaultValuesForDocument(Set<Document> documents, int patientId) {
     documents.forEach(
         doc -> {
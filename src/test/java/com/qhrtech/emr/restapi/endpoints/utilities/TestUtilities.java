@@ -1,6 +1,10 @@
 
 package com.qhrtech.emr.restapi.endpoints.utilities;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import com.qhrtech.emr.restapi.security.SecurityContextExecutor;
 import java.security.SecureRandom;
 import java.sql.Timestamp;
 import java.util.Calendar;
@@ -8,6 +12,8 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.Random;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang.RandomStringUtils;
@@ -124,4 +130,24 @@ public class TestUtilities {
     return e.stream().skip((int) (e.size() * random.nextDouble())).findFirst()
         .orElseThrow(() -> new IllegalStateException("Collection must contain elements."));
   }
+
+  /**
+   * Creates an executor running each submitted task on the calling thread, to be injected in
+   * place of the {@link SecurityContextExecutor} bean.
+   *
+   * @return The executor.
+   */
+  public static SecurityContextExecutor sameThreadExecutor() {
+    SecurityContextExecutor executor = mock(SecurityContextExecutor.class);
+    when(executor.submit(any())).thenAnswer(invocation -> {
+      CompletableFuture<Object> future = new CompletableFuture<>();
+      try {
+        future.complete(invocation.<Callable<?>>getArgument(0).call());
+      } catch (Exception ex) {
+        future.completeExceptionally(ex);
+      }
+      return future;
+    });
+    return executor;
+  }
 }
@@ -0,0 +1,272 @@
+package com.qhrtech.emr.restapi.external;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.cxf.configuration.jsse.TLSClientParameters;
+import org.apache.cxf.rs.security.oauth2.client.Consumer;
+import org.apache.cxf.rs.security.oauth2.common.AccessTokenGrant;
+import org.apache.cxf.rs.security.oauth2.common.ClientAccessToken;
+import org.apache.cxf.rs.security.oauth2.grants.owner.ResourceOwnerGrant;
+import org.apache.cxf.rs.security.oauth2.provider.OAuthServiceException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OAuthTokenClientTest {
+
+  private static final long ROUND_TRIP = 200;
+  private static final int CONCURRENT = 10;
+  private static final Duration EARLY_RENEW_PERIOD = Duration.ofSeconds(60);
+  private static final long EXPIRES_IN = 600;
+
+  private final List<Runnable> renewals = new ArrayList<>();
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private Clock clock;
+  private ExecutorService executor;
+  private long delay;
+  private boolean failing;
+
+  @Before
+  public void setup() {
+    clock = mock(Clock.class);
+    when(clock.millis()).thenReturn(0L);
+    executor = Executors.newFixedThreadPool(CONCURRENT);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void concurrentLoginsRunInParallel() throws Exception {
+    OAuthTokenClient tokenClient = newTokenClient();
+    delay = ROUND_TRIP;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<ClientAccessToken>> logins = new ArrayList<>();
+    for (int i = 0; i < CONCURRENT; i++) {
+      ResourceOwnerGrant grant = new ResourceOwnerGrant("user" + i, "password");
+      logins.add(executor.submit(() -> {
+        start.await();
+        return tokenClient.requestToken(grant);
+      }));
+    }
+
+    long started = System.nanoTime();
+    start.countDown();
+    for (Future<ClientAccessToken> login : logins) {
+      assertNotNull(login.get(5, TimeUnit.SECONDS));
+    }
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+    assertEquals(CONCURRENT, requests.get());
+    assertEquals(CONCURRENT, maxInFlight.get());
+    assertTrue("Logins took " + elapsed + " ms", elapsed < 2 * ROUND_TRIP);
+  }
+
+  @Test
+  public void concurrentLoginsShareOneWebClient() throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/oauth/token", this::handleToken);
+    server.start();
+    OAuthTokenClient tokenClient = new OAuthTokenClient(
+        "http://localhost:" + server.getAddress().getPort() + "/oauth/token",
+        new Consumer("client", "secret"), new TLSClientParameters(), EARLY_RENEW_PERIOD,
+        renewals::add);
+    try {
+      delay = ROUND_TRIP;
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<ClientAccessToken>> logins = new ArrayList<>();
+      for (int i = 0; i < CONCURRENT; i++) {
+        ResourceOwnerGrant grant = new ResourceOwnerGrant("user" + i, "password");
+        logins.add(executor.submit(() -> {
+          start.await();
+          return tokenClient.requestToken(grant);
+        }));
+      }
+
+      long started = System.nanoTime();
+      start.countDown();
+      for (Future<ClientAccessToken> login : logins) {
+        assertNotNull(login.get(5, TimeUnit.SECONDS).getTokenKey());
+      }
+      long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+      assertEquals(CONCURRENT, maxInFlight.get());
+      assertTrue("Logins took " + elapsed + " ms", elapsed < 2 * ROUND_TRIP);
+      assertEquals("Bearer token" + (CONCURRENT + 1), tokenClient.getAuthenticationHeader());
+    } finally {
+      tokenClient.close();
+      server.stop(0);
+    }
+  }
+
+  @Test
+  public void unconfiguredEndpointFailsOnFirstUse() {
+    new IdpTokenManager("", "client", "secret").shutdown();
+    new RegistryTokenManager("", "client", "secret").shutdown();
+
+    OAuthTokenClient tokenClient = new OAuthTokenClient("", new Consumer("client", "secret"),
+        new TLSClientParameters(), EARLY_RENEW_PERIOD, renewals::add);
+    try {
+      tokenClient.getAuthenticationHeader();
+      fail("An unconfigured token endpoint was expected to fail");
+    } catch (RuntimeException expected) {
+      assertTrue(renewals.isEmpty());
+    } finally {
+      tokenClient.close();
+    }
+  }
+
+  @Test
+  public void cachedHeaderIsServedWithoutRequest() {
+    OAuthTokenClient tokenClient = newTokenClient();
+
+    assertEquals("Bearer token1", tokenClient.getAuthenticationHeader());
+    assertEquals("Bearer token1", tokenClient.getAuthenticationHeader());
+
+    assertEquals(1, requests.get());
+    assertTrue(renewals.isEmpty());
+  }
+
+  @Test
+  public void concurrentMissesShareOneRequest() throws Exception {
+    OAuthTokenClient tokenClient = newTokenClient();
+    delay = ROUND_TRIP;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<String>> headers = new ArrayList<>();
+    for (int i = 0; i < CONCURRENT; i++) {
+      headers.add(executor.submit(() -> {
+        start.await();
+        return tokenClient.getAuthenticationHeader();
+      }));
+    }
+
+    start.countDown();
+    for (Future<String> header : headers) {
+      assertEquals("Bearer token1", header.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, requests.get());
+  }
+
+  @Test
+  public void tokenIsRenewedInBackgroundBeforeItExpires() {
+    OAuthTokenClient tokenClient = newTokenClient();
+    tokenClient.getAuthenticationHeader();
+    long renewAt = TimeUnit.SECONDS.toMillis(EXPIRES_IN) - 2 * EARLY_RENEW_PERIOD.toMillis();
+
+    when(clock.millis()).thenReturn(renewAt - 1);
+    tokenClient.getAuthenticationHeader();
+    assertTrue(renewals.isEmpty());
+
+    when(clock.millis()).thenReturn(renewAt);
+    assertEquals("Bearer token1", tokenClient.getAuthenticationHeader());
+    assertEquals("Bearer token1", tokenClient.getAuthenticationHeader());
+    assertEquals(1, renewals.size());
+    assertEquals(1, requests.get());
+
+    renewals.remove(0).run();
+    assertEquals("Bearer token2", tokenClient.getAuthenticationHeader());
+    assertEquals(2, requests.get());
+  }
+
+  @Test
+  public void failedBackgroundRenewalKeepsToken() {
+    OAuthTokenClient tokenClient = newTokenClient();
+    tokenClient.getAuthenticationHeader();
+
+    failing = true;
+    when(clock.millis()).thenReturn(
+        TimeUnit.SECONDS.toMillis(EXPIRES_IN) - 2 * EARLY_RENEW_PERIOD.toMillis());
+    tokenClient.getAuthenticationHeader();
+    renewals.remove(0).run();
+
+    assertEquals("Bearer token1", tokenClient.getAuthenticationHeader());
+    assertEquals(1, renewals.size());
+  }
+
+  @Test
+  public void expiredTokenIsRenewedBeforeUse() {
+    OAuthTokenClient tokenClient = newTokenClient();
+    tokenClient.getAuthenticationHeader();
+
+    when(clock.millis()).thenReturn(
+        TimeUnit.SECONDS.toMillis(EXPIRES_IN) - EARLY_RENEW_PERIOD.toMillis());
+    assertEquals("Bearer token2", tokenClient.getAuthenticationHeader());
+    assertTrue(renewals.isEmpty());
+
+    failing = true;
+    when(clock.millis()).thenReturn(TimeUnit.SECONDS.toMillis(2 * EXPIRES_IN));
+    try {
+      tokenClient.getAuthenticationHeader();
+      fail("An OAuthServiceException was expected");
+    } catch (OAuthServiceException expected) {
+      assertEquals(3, requests.get());
+    }
+  }
+
+  private OAuthTokenClient newTokenClient() {
+    return new OAuthTokenClient(this::request, EARLY_RENEW_PERIOD, renewals::add, clock);
+  }
+
+  private void handleToken(HttpExchange exchange) throws IOException {
+    int request = requests.incrementAndGet();
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      inFlight.decrementAndGet();
+    }
+    byte[] body = ("{\"access_token\":\"token" + request + "\",\"token_type\":\"Bearer\","
+        + "\"expires_in\":" + EXPIRES_IN + "}").getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private ClientAccessToken request(AccessTokenGrant grant) {
+    int request = requests.incrementAndGet();
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      inFlight.decrementAndGet();
+    }
+    if (failing) {
+      throw new OAuthServiceException("unavailable");
+    }
+    ClientAccessToken token = new ClientAccessToken("Bearer", "token" + request);
+    token.setIssuedAt(TimeUnit.MILLISECONDS.toSeconds(clock.millis()));
+    token.setExpiresIn(EXPIRES_IN);
+    return token;
+  }
+}
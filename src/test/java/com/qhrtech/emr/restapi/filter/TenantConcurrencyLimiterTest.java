@@ -0,0 +1,131 @@
+package com.qhrtech.emr.restapi.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+public class TenantConcurrencyLimiterTest {
+
+  private static final String TENANT = "tenant";
+  private static final String OTHER_TENANT = "other";
+
+  private Map<String, Object> properties;
+  private TenantConcurrencyLimiter limiter;
+
+  @Before
+  public void setUp() {
+    properties = new HashMap<>();
+    properties.put("tenants.limit.initial", 2);
+    properties.put("tenants.limit.min", 1);
+    properties.put("tenants.limit.max", 4);
+    properties.put("tenants.limit.latency-threshold", 1000);
+    properties.put("tenants.limit.queue-size", 0);
+    StandardEnvironment environment = new StandardEnvironment();
+    environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+    limiter = new TenantConcurrencyLimiter(environment);
+  }
+
+  @Test
+  public void testRejectsOverLimit() {
+    assertTrue(limiter.tryAcquire(TENANT));
+    assertTrue(limiter.tryAcquire(TENANT));
+    assertFalse(limiter.tryAcquire(TENANT));
+
+    assertEquals(2, limiter.getInFlight(TENANT));
+    assertEquals(1, limiter.getRejected(TENANT));
+
+    // tenants are limited independently
+    assertTrue(limiter.tryAcquire(OTHER_TENANT));
+  }
+
+  @Test
+  public void testLimitGrowsWhenFastAndSaturated() {
+    assertTrue(limiter.tryAcquire(TENANT));
+    assertTrue(limiter.tryAcquire(TENANT));
+    limiter.release(TENANT, 10);
+    assertEquals(3, limiter.getLimit(TENANT));
+
+    // a single request in flight does not use half of the limit
+    limiter.release(TENANT, 10);
+    assertEquals(3, limiter.getLimit(TENANT));
+    assertEquals(0, limiter.getInFlight(TENANT));
+  }
+
+  @Test
+  public void testLimitIsCapped() {
+    for (int i = 0; i < 10; i++) {
+      while (limiter.tryAcquire(TENANT)) {
+        // fill the limit
+      }
+      for (long inFlight = limiter.getInFlight(TENANT); inFlight > 0; inFlight--) {
+        limiter.release(TENANT, 10);
+      }
+    }
+    assertEquals(4, limiter.getLimit(TENANT));
+  }
+
+  @Test
+  public void testLimitShrinksWhenSlow() {
+    properties.put("tenants.limit.initial", 4);
+    properties.put("tenants.limit.backoff-ratio", 0.5);
+
+    assertTrue(limiter.tryAcquire(TENANT));
+    limiter.release(TENANT, 5000);
+    assertEquals(2, limiter.getLimit(TENANT));
+
+    assertTrue(limiter.tryAcquire(TENANT));
+    limiter.release(TENANT, 5000);
+    assertTrue(limiter.tryAcquire(TENANT));
+    limiter.release(TENANT, 5000);
+    assertEquals(1, limiter.getLimit(TENANT));
+  }
+
+  @Test
+  public void testTenantOverride() {
+    properties.put("tenants.limit." + TENANT + ".initial", 1);
+
+    assertEquals(1, limiter.getLimit(TENANT));
+    assertEquals(2, limiter.getLimit(OTHER_TENANT));
+  }
+
+  @Test
+  public void testQueuedRequestGetsReleasedSlot() throws Exception {
+    properties.put("tenants.limit.initial", 1);
+    properties.put("tenants.limit.queue-size", 1);
+    properties.put("tenants.limit.queue-timeout", 10000);
+
+    assertTrue(limiter.tryAcquire(TENANT));
+    CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(
+        () -> limiter.tryAcquire(TENANT));
+    while (limiter.getQueued(TENANT) == 0) {
+      Thread.sleep(1);
+    }
+    // the queue is full
+    assertFalse(limiter.tryAcquire(TENANT));
+
+    limiter.release(TENANT, 10);
+    assertTrue(queued.get(5, TimeUnit.SECONDS));
+    assertEquals(0, limiter.getQueued(TENANT));
+    assertEquals(1, limiter.getInFlight(TENANT));
+  }
+
+  @Test
+  public void testQueuedRequestTimesOut() {
+    properties.put("tenants.limit.initial", 1);
+    properties.put("tenants.limit.queue-size", 1);
+    properties.put("tenants.limit.queue-timeout", 10);
+
+    assertTrue(limiter.tryAcquire(TENANT));
+    assertFalse(limiter.tryAcquire(TENANT));
+    assertEquals(1, limiter.getRejected(TENANT));
+    assertEquals(0, limiter.getQueued(TENANT));
+  }
+}
@@ -15,7 +15,7 @@ import static org.mockito.MockitoAnnotations.openMocks;
 import com.qhrtech.emr.restapi.security.AccuroOAuthClient;
 import com.qhrtech.emr.restapi.security.AccuroScope;
 import com.qhrtech.emr.restapi.services.impl.HostedOauthServiceImpl;
-import com.qhrtech.util.SoftCache;
+import com.qhrtech.emr.restapi.util.RefreshingCache;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Set;
@@ -38,13 +38,13 @@ import uk.co.jemos.podam.api.PodamFactoryImpl;
 public class RegistrySyncTaskTest {
 
   @Mock
-  public SoftCache<String, AccuroOAuthClient> clientCache;
+  public RefreshingCache<String, AccuroOAuthClient> clientCache;
 
   @Mock
   private DataSource dataSource;
 
   @Mock
-  public SoftCache<String, AccuroScope> scopeCache;
+  public RefreshingCache<String, AccuroScope> scopeCache;
 
   @Mock
   private HostedOauthServiceImpl clientListService;
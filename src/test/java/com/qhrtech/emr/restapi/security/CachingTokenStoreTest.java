@@ -0,0 +1,192 @@
+package com.qhrtech.emr.restapi.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.Serializable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+public class CachingTokenStoreTest {
+
+  private static final Duration TTL = Duration.ofSeconds(60);
+  private static final String TOKEN = "token";
+
+  private TokenStore delegate;
+  private Clock clock;
+  private TokenInvalidationChannel channel;
+  private CachingTokenStore tokenStore;
+
+  @Before
+  public void setUp() {
+    delegate = mock(TokenStore.class);
+    clock = mock(Clock.class);
+    when(clock.instant()).thenReturn(Instant.EPOCH);
+    channel = new LocalTokenInvalidationChannel();
+    tokenStore = new CachingTokenStore(delegate, channel, TTL, 100, clock);
+  }
+
+  @Test
+  public void testAccessTokenCachedUntilTtl() {
+    when(delegate.readAccessToken(TOKEN)).thenReturn(newToken(null));
+
+    assertEquals(TOKEN, tokenStore.readAccessToken(TOKEN).getValue());
+    assertEquals(TOKEN, tokenStore.readAccessToken(TOKEN).getValue());
+    verify(delegate, times(1)).readAccessToken(TOKEN);
+    assertEquals(1, tokenStore.getHits());
+    assertEquals(1, tokenStore.getMisses());
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(TTL));
+    tokenStore.readAccessToken(TOKEN);
+    verify(delegate, times(2)).readAccessToken(TOKEN);
+  }
+
+  @Test
+  public void testAccessTokenCachedUntilExpiration() {
+    Instant expiration = Instant.EPOCH.plusSeconds(10);
+    when(delegate.readAccessToken(TOKEN)).thenReturn(newToken(expiration));
+
+    tokenStore.readAccessToken(TOKEN);
+    when(clock.instant()).thenReturn(expiration);
+    tokenStore.readAccessToken(TOKEN);
+
+    verify(delegate, times(2)).readAccessToken(TOKEN);
+  }
+
+  @Test
+  public void testMissingTokenIsNotCached() {
+    assertNull(tokenStore.readAccessToken(TOKEN));
+    assertNull(tokenStore.readAuthentication(TOKEN));
+    assertNull(tokenStore.readAccessToken(TOKEN));
+
+    verify(delegate, times(2)).readAccessToken(TOKEN);
+    assertEquals(0, tokenStore.size());
+  }
+
+  @Test
+  public void testAuthenticationIsCopied() {
+    when(delegate.readAuthentication(TOKEN)).thenReturn(newAuthentication());
+
+    OAuth2Authentication first = tokenStore.readAuthentication(TOKEN);
+    first.getOAuth2Request().getExtensions().put("office", 2);
+    OAuth2Authentication second = tokenStore.readAuthentication(TOKEN);
+
+    verify(delegate, times(1)).readAuthentication(TOKEN);
+    assertNotSame(first, second);
+    assertEquals(1, second.getOAuth2Request().getExtensions().get("office"));
+  }
+
+  @Test
+  public void testStoreAccessTokenEvicts() {
+    DefaultOAuth2AccessToken token = newToken(null);
+    when(delegate.readAccessToken(TOKEN)).thenReturn(token);
+    when(delegate.readAuthentication(TOKEN)).thenReturn(newAuthentication());
+    tokenStore.readAccessToken(TOKEN);
+    tokenStore.readAuthentication(TOKEN);
+
+    tokenStore.storeAccessToken(token, newAuthentication());
+    tokenStore.readAccessToken(TOKEN);
+    tokenStore.readAuthentication(TOKEN);
+
+    verify(delegate, times(2)).readAccessToken(TOKEN);
+    verify(delegate, times(2)).readAuthentication(TOKEN);
+  }
+
+  @Test
+  public void testReadRacingRemovalIsNotCached() {
+    DefaultOAuth2AccessToken token = newToken(null);
+    // the token is removed after the delegate has read it but before the read is cached
+    when(delegate.readAccessToken(TOKEN)).thenAnswer(invocation -> {
+      tokenStore.removeAccessToken(token);
+      return token;
+    }).thenReturn(null);
+
+    assertEquals(TOKEN, tokenStore.readAccessToken(TOKEN).getValue());
+    assertEquals(0, tokenStore.size());
+    assertNull(tokenStore.readAccessToken(TOKEN));
+    verify(delegate, times(2)).readAccessToken(TOKEN);
+  }
+
+  @Test
+  public void testRemoveAccessTokenEvictsOnOtherNodes() {
+    CachingTokenStore otherNode = new CachingTokenStore(delegate, channel, TTL, 100, clock);
+    DefaultOAuth2AccessToken token = newToken(null);
+    when(delegate.readAccessToken(TOKEN)).thenReturn(token);
+    otherNode.readAccessToken(TOKEN);
+    assertEquals(1, otherNode.size());
+
+    tokenStore.removeAccessToken(token);
+
+    assertEquals(0, otherNode.size());
+  }
+
+  @Test
+  public void testRemoveUsingRefreshTokenEvicts() {
+    DefaultOAuth2RefreshToken refreshToken = new DefaultOAuth2RefreshToken("refresh");
+    DefaultOAuth2AccessToken token = newToken(null);
+    token.setRefreshToken(refreshToken);
+    when(delegate.readAccessToken(TOKEN)).thenReturn(token);
+    tokenStore.readAccessToken(TOKEN);
+
+    tokenStore.removeAccessTokenUsingRefreshToken(refreshToken);
+
+    verify(delegate).removeAccessTokenUsingRefreshToken(refreshToken);
+    assertEquals(0, tokenStore.size());
+  }
+
+  @Test
+  public void testBoundedBySize() {
+    tokenStore = new CachingTokenStore(delegate, channel, TTL, 1, clock);
+    when(delegate.readAccessToken("other")).thenReturn(new DefaultOAuth2AccessToken("other"));
+    when(delegate.readAccessToken(TOKEN)).thenReturn(newToken(null));
+
+    tokenStore.readAccessToken(TOKEN);
+    tokenStore.readAccessToken("other");
+
+    assertEquals(1, tokenStore.size());
+  }
+
+  @Test
+  public void testDisabled() {
+    tokenStore = new CachingTokenStore(delegate, channel, Duration.ZERO, 100, clock);
+    when(delegate.readAccessToken(TOKEN)).thenReturn(newToken(null));
+
+    tokenStore.readAccessToken(TOKEN);
+    tokenStore.readAccessToken(TOKEN);
+
+    verify(delegate, times(2)).readAccessToken(TOKEN);
+  }
+
+  private static DefaultOAuth2AccessToken newToken(Instant expiration) {
+    DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(TOKEN);
+    if (expiration != null) {
+      token.setExpiration(Date.from(expiration));
+    }
+    return token;
+  }
+
+  private static OAuth2Authentication newAuthentication() {
+    Map<String, Serializable> extensions = new HashMap<>();
+    extensions.put("office", 1);
+    OAuth2Request request = new OAuth2Request(null, "client", null, true,
+        Collections.singleton("PATIENT_DEMOGRAPHICS"), null, null, null, extensions);
+    return new OAuth2Authentication(request, null);
+  }
+}
@@ -0,0 +1,117 @@
+package com.qhrtech.emr.restapi.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+public class OktaResourceServerTokenServicesTest {
+
+  private static final Instant EXPIRY = Instant.EPOCH.plusSeconds(3600);
+
+  private TokenStore tokenStore;
+  private Clock clock;
+  private OktaResourceServerTokenServices tokenServices;
+
+  @Before
+  public void setUp() {
+    OktaResourcesFactory resourcesFactory = mock(OktaResourcesFactory.class);
+    tokenStore = mock(TokenStore.class);
+    when(resourcesFactory.getJwkTokenStore(anyString())).thenReturn(tokenStore);
+    when(tokenStore.readAuthentication(anyString())).thenAnswer(
+        invocation -> newAuthentication());
+    clock = mock(Clock.class);
+    when(clock.instant()).thenReturn(Instant.EPOCH);
+    tokenServices = new OktaResourceServerTokenServices(resourcesFactory, 2, clock);
+  }
+
+  @Test
+  public void testCachedUntilExpiry() {
+    String token = token("1", EXPIRY);
+
+    tokenServices.loadAuthentication(token);
+    tokenServices.loadAuthentication(token);
+    verify(tokenStore, times(1)).readAuthentication(token);
+
+    when(clock.instant()).thenReturn(EXPIRY);
+    tokenServices.loadAuthentication(token);
+    verify(tokenStore, times(2)).readAuthentication(token);
+  }
+
+  @Test
+  public void testAuthenticationIsCopied() {
+    String token = token("1", EXPIRY);
+
+    OAuth2Authentication first = tokenServices.loadAuthentication(token);
+    first.getOAuth2Request().getExtensions().put("tenant", "OTHER");
+    OAuth2Authentication second = tokenServices.loadAuthentication(token);
+
+    assertNotSame(first, second);
+    assertEquals("DEVBC", second.getOAuth2Request().getExtensions().get("tenant"));
+  }
+
+  @Test
+  public void testBoundedBySize() {
+    tokenServices.loadAuthentication(token("1", EXPIRY));
+    tokenServices.loadAuthentication(token("2", EXPIRY));
+    tokenServices.loadAuthentication(token("3", EXPIRY));
+
+    assertEquals(2, tokenServices.size());
+  }
+
+  @Test
+  public void testExpiredEvictedFirst() {
+    String expiring = token("1", Instant.EPOCH.plusSeconds(10));
+    String token = token("2", EXPIRY);
+    tokenServices.loadAuthentication(expiring);
+    tokenServices.loadAuthentication(token);
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plusSeconds(10));
+    tokenServices.loadAuthentication(token("3", EXPIRY));
+    tokenServices.loadAuthentication(token);
+
+    verify(tokenStore, times(1)).readAuthentication(token);
+  }
+
+  @Test
+  public void testTokenWithoutExpiryIsNotCached() {
+    String token = token("1", null);
+
+    tokenServices.loadAuthentication(token);
+    tokenServices.loadAuthentication(token);
+
+    verify(tokenStore, times(2)).readAuthentication(token);
+  }
+
+  private static String token(String id, Instant expiry) {
+    Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    String claims = "{\"jti\":\"" + id + "\""
+        + (expiry == null ? "" : ",\"exp\":" + expiry.getEpochSecond()) + "}";
+    return encoder.encodeToString("{\"alg\":\"RS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+        + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".c2lnbmF0dXJl";
+  }
+
+  private static OAuth2Authentication newAuthentication() {
+    Map<String, Serializable> extensions = new HashMap<>();
+    extensions.put("tenant", "DEVBC");
+    OAuth2Request request = new OAuth2Request(null, "client", null, true,
+        Collections.singleton("PATIENT_DEMOGRAPHICS"), null, null, null, extensions);
+    return new OAuth2Authentication(request, null);
+  }
+}
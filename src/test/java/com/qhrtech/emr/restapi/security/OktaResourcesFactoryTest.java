@@ -0,0 +1,231 @@
+package com.qhrtech.emr.restapi.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+
+/**
+ * Runs {@link OktaResourcesFactory} against a stub issuer serving the metadata and key set.
+ */
+public class OktaResourcesFactoryTest {
+
+  private static final Duration REFRESH_AHEAD = Duration.ofMinutes(5);
+  private static final Duration STALE_WINDOW = Duration.ofMinutes(60);
+  private static final Duration TTL = Duration.ofMinutes(60);
+  private static final Duration KEY_ID_REFRESH_INTERVAL = Duration.ofSeconds(30);
+  private static final String KEY_ID = "key-1";
+
+  private static String modulus;
+  private static String exponent;
+
+  private final AtomicInteger metadataRequests = new AtomicInteger();
+  private volatile CountDownLatch metadataLatch = new CountDownLatch(0);
+  private volatile int metadataStatus = 200;
+
+  private HttpServer server;
+  private String issuer;
+  private Clock clock;
+  private OktaResourcesFactory factory;
+
+  @BeforeClass
+  public static void setUpClass() throws NoSuchAlgorithmException {
+    // the stub issuer is served over http
+    System.setProperty("okta.testing.disableHttpsCheck", "true");
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    RSAPublicKey key = (RSAPublicKey) generator.generateKeyPair().getPublic();
+    modulus = encode(key.getModulus());
+    exponent = encode(key.getPublicExponent());
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    issuer = "http://localhost:" + server.getAddress().getPort() + "/oauth2/default";
+    server.createContext("/oauth2/default" + OktaResourcesFactory.METADATA_PATH,
+        this::handleMetadata);
+    server.createContext("/oauth2/default/v1/keys", this::handleKeys);
+    server.start();
+
+    clock = mock(Clock.class);
+    when(clock.instant()).thenReturn(Instant.EPOCH);
+    factory = new OktaResourcesFactory(issuer, "api://default", REFRESH_AHEAD, STALE_WINDOW, TTL,
+        KEY_ID_REFRESH_INTERVAL, clock);
+  }
+
+  @After
+  public void tearDown() {
+    factory.shutdown();
+    server.stop(0);
+  }
+
+  @Test
+  public void testLoadsOnFirstUse() {
+    factory.validatePublicKeys();
+    factory.validatePublicKeys();
+
+    assertNotNull(factory.getJwkTokenStore());
+    assertEquals(1, metadataRequests.get());
+  }
+
+  @Test
+  public void testConcurrentColdStartSharesOneRefresh() throws Exception {
+    metadataLatch = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<?>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      results.add(executor.submit(() -> factory.validatePublicKeys()));
+    }
+    Thread.sleep(200);
+    metadataLatch.countDown();
+    for (Future<?> result : results) {
+      result.get(10, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    assertEquals(1, metadataRequests.get());
+  }
+
+  @Test
+  public void testStaleKeysUsedWhileRefreshing() {
+    factory.validatePublicKeys();
+    metadataLatch = new CountDownLatch(1);
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(TTL));
+
+    // returns without waiting for the blocked issuer
+    factory.validatePublicKeys();
+    assertNotNull(factory.getJwkTokenStore());
+
+    metadataLatch.countDown();
+    factory.awaitRefresh();
+    assertEquals(2, metadataRequests.get());
+  }
+
+  @Test
+  public void testRefreshedAheadOfExpiry() {
+    factory.validatePublicKeys();
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(TTL).minus(REFRESH_AHEAD).minusSeconds(1));
+    factory.refreshAhead();
+    factory.awaitRefresh();
+    assertEquals(1, metadataRequests.get());
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(TTL).minus(REFRESH_AHEAD));
+    factory.refreshAhead();
+    factory.awaitRefresh();
+    assertEquals(2, metadataRequests.get());
+  }
+
+  @Test
+  public void testUnknownKeyIdRefreshes() {
+    factory.getJwkTokenStore(token(KEY_ID));
+    assertEquals(1, metadataRequests.get());
+
+    factory.getJwkTokenStore(token("key-2"));
+    assertEquals(2, metadataRequests.get());
+
+    // limited to one refresh per interval
+    factory.getJwkTokenStore(token("key-3"));
+    assertEquals(2, metadataRequests.get());
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(KEY_ID_REFRESH_INTERVAL).plusSeconds(1));
+    factory.getJwkTokenStore(token("key-3"));
+    assertEquals(3, metadataRequests.get());
+  }
+
+  @Test
+  public void testUnavailablePastStaleWindow() {
+    factory.validatePublicKeys();
+    metadataStatus = 503;
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(TTL).plusSeconds(1));
+    factory.validatePublicKeys();
+    factory.awaitRefresh();
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(TTL).plus(STALE_WINDOW));
+    try {
+      factory.validatePublicKeys();
+      fail("Expected InvalidTokenException");
+    } catch (InvalidTokenException e) {
+      assertEquals(3, metadataRequests.get());
+    }
+  }
+
+  @Test(expected = InvalidTokenException.class)
+  public void testNotEnabled() {
+    new OktaResourcesFactory("", "api://default", REFRESH_AHEAD, STALE_WINDOW, TTL,
+        KEY_ID_REFRESH_INTERVAL, clock).validatePublicKeys();
+  }
+
+  private void handleMetadata(HttpExchange exchange) throws IOException {
+    metadataRequests.incrementAndGet();
+    try {
+      metadataLatch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    respond(exchange, metadataStatus, "{\"issuer\":\"" + issuer + "\",\"jwks_uri\":\"" + issuer
+        + "/v1/keys\"}");
+  }
+
+  private void handleKeys(HttpExchange exchange) throws IOException {
+    respond(exchange, 200, "{\"keys\":[{\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\","
+        + "\"kid\":\"" + KEY_ID + "\",\"n\":\"" + modulus + "\",\"e\":\"" + exponent + "\"}]}");
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private static String token(String keyId) {
+    Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    String header = "{\"alg\":\"RS256\",\"kid\":\"" + keyId + "\"}";
+    return encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+        + encoder.encodeToString("{}".getBytes(StandardCharsets.UTF_8)) + ".c2lnbmF0dXJl";
+  }
+
+  private static String encode(BigInteger value) {
+    byte[] bytes = value.toByteArray();
+    if (bytes[0] == 0) {
+      byte[] unsigned = new byte[bytes.length - 1];
+      System.arraycopy(bytes, 1, unsigned, 0, unsigned.length);
+      bytes = unsigned;
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+}
@@ -0,0 +1,123 @@
+package com.qhrtech.emr.restapi.security;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qhrtech.emr.restapi.security.ReferenceDataCache.CachedResponse;
+import com.qhrtech.emr.restapi.security.ReferenceDataCache.Key;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReferenceDataCacheTest {
+
+  private static final Duration TTL = Duration.ofMinutes(5);
+  private static final Key GENDERS = new Key("tenant", null, "genders", "/v1/genders");
+  private static final Key SITES = new Key("tenant", null, "sites", "/v1/sites");
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private Clock clock;
+  private ReferenceDataCache cache;
+
+  @Before
+  public void setUp() {
+    clock = mock(Clock.class);
+    when(clock.instant()).thenReturn(Instant.EPOCH);
+    cache = new ReferenceDataCache(objectMapper, TTL, 2, clock);
+  }
+
+  @Test
+  public void testResponseCachedUntilTtl() throws Exception {
+    CachedResponse stored = cache.put(GENDERS, Arrays.asList("F", "M"), String.class);
+
+    CachedResponse cached = cache.get(GENDERS);
+    assertNotNull(cached);
+    assertArrayEquals(objectMapper.writeValueAsBytes(Arrays.asList("F", "M")), cached.getBody());
+    assertEquals(stored.getEntityTag(), cached.getEntityTag());
+    assertEquals(1, cache.getHits());
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(TTL));
+    assertNull(cache.get(GENDERS));
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void testKeysAreSeparatedByTenantAndCaller() throws Exception {
+    cache.put(GENDERS, Collections.singletonList("F"));
+
+    assertNull(cache.get(new Key("other", null, "genders", "/v1/genders")));
+    assertNull(cache.get(new Key("tenant", "user:1", "genders", "/v1/genders")));
+    assertNotNull(cache.get(new Key("tenant", null, "genders", "/v1/genders")));
+  }
+
+  @Test
+  public void testEntityTagFollowsContent() throws Exception {
+    CachedResponse first = cache.put(GENDERS, Collections.singletonList("F"));
+    CachedResponse same = cache.put(GENDERS, Collections.singletonList("F"));
+    CachedResponse changed = cache.put(GENDERS, Collections.singletonList("M"));
+
+    assertFalse(first.getEntityTag().isWeak());
+    assertEquals(first.getEntityTag(), same.getEntityTag());
+    assertNotEquals(first.getEntityTag(), changed.getEntityTag());
+  }
+
+  @Test
+  public void testIfNoneMatch() throws Exception {
+    CachedResponse response = cache.put(GENDERS, Collections.singletonList("F"));
+    String tag = response.getEntityTag().getValue();
+
+    assertTrue(response.isNotModified(Collections.singletonList("\"" + tag + "\"")));
+    assertTrue(response.isNotModified(Collections.singletonList("W/\"" + tag + "\"")));
+    assertTrue(response.isNotModified(Collections.singletonList("\"other\", \"" + tag + "\"")));
+    assertTrue(response.isNotModified(Collections.singletonList("*")));
+    assertFalse(response.isNotModified(Collections.singletonList("\"other\"")));
+    assertFalse(response.isNotModified(null));
+  }
+
+  @Test
+  public void testInvalidateEvictsResponsesReadFromManager() throws Exception {
+    cache.put(GENDERS, Collections.singletonList("F"), String.class);
+    cache.put(SITES, Collections.singletonList(1), Integer.class);
+
+    cache.invalidate("other", String.class);
+    assertNotNull(cache.get(GENDERS));
+
+    cache.invalidate("tenant", String.class);
+    assertNull(cache.get(GENDERS));
+    assertNotNull(cache.get(SITES));
+  }
+
+  @Test
+  public void testSizeIsBounded() throws Exception {
+    cache.put(GENDERS, Collections.singletonList("F"));
+    cache.put(SITES, Collections.singletonList(1));
+    cache.put(new Key("tenant", null, "titles", "/v1/titles"), Collections.singletonList("Dr"));
+
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testExpiredResponsesEvictedFirst() throws Exception {
+    cache.put(GENDERS, Collections.singletonList("F"));
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(TTL.dividedBy(2)));
+    cache.put(SITES, Collections.singletonList(1));
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(TTL));
+    Key titles = new Key("tenant", null, "titles", "/v1/titles");
+    cache.put(titles, Collections.singletonList("Dr"));
+
+    assertNotNull(cache.get(SITES));
+    assertNotNull(cache.get(titles));
+  }
+}
@@ -0,0 +1,163 @@
+package com.qhrtech.emr.restapi.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qhrtech.emr.restapi.util.CachedReferenceData;
+import com.qhrtech.emr.restapi.util.InvalidatesReferenceData;
+import java.lang.reflect.Method;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.security.access.AccessDeniedException;
+
+public class ReferenceDataCachingInvokerTest {
+
+  private static final String TENANT_ID = "tenant";
+
+  @Mock
+  private MethodInterceptor methodSecurityInterceptor;
+
+  @Spy
+  private ReferenceDataCache referenceDataCache = new ReferenceDataCache(new ObjectMapper(),
+      Duration.ofMinutes(5), 10, Clock.systemUTC());
+
+  @InjectMocks
+  private ReferenceDataCachingInvoker invoker;
+
+  private final GenderResource resource = new GenderResource();
+  private Map<String, List<String>> headers;
+  private boolean authorized;
+
+  @Before
+  public void setUp() throws Throwable {
+    MockitoAnnotations.initMocks(this);
+    headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    authorized = true;
+    // Stands in for the @PreAuthorize checks of the resource method
+    when(methodSecurityInterceptor.invoke(any(MethodInvocation.class))).thenAnswer(invocation -> {
+      if (!authorized) {
+        throw new AccessDeniedException("Insufficient scope");
+      }
+      return invocation.<MethodInvocation>getArgument(0).proceed();
+    });
+
+    ApiSecurityContext context = mock(ApiSecurityContext.class);
+    when(context.getTenantId()).thenReturn(TENANT_ID);
+    ApiSecurityManager.getInstance().attachSecurityContext(context);
+  }
+
+  @After
+  public void tearDown() {
+    ApiSecurityManager.getInstance().attachSecurityContext(null);
+  }
+
+  @Test
+  public void testCachedResponseIsAuthorized() throws Exception {
+    assertEquals(200, getGenders().getStatus());
+    verify(methodSecurityInterceptor, never()).invoke(any(MethodInvocation.class));
+
+    assertEquals(200, getGenders().getStatus());
+    assertEquals(1, resource.reads);
+    verify(methodSecurityInterceptor).invoke(any(MethodInvocation.class));
+
+    authorized = false;
+    try {
+      getGenders();
+      fail("An AccessDeniedException was expected");
+    } catch (AccessDeniedException expected) {
+      assertEquals(1, resource.reads);
+      verify(methodSecurityInterceptor, times(2)).invoke(any(MethodInvocation.class));
+    }
+  }
+
+  @Test
+  public void testMatchingIfNoneMatchIsNotModified() throws Exception {
+    EntityTag entityTag = getGenders().getEntityTag();
+    assertNotNull(entityTag);
+
+    headers.put(HttpHeaders.IF_NONE_MATCH,
+        Collections.singletonList("\"" + entityTag.getValue() + "\""));
+    Response response = getGenders();
+
+    assertEquals(304, response.getStatus());
+    assertEquals(entityTag, response.getEntityTag());
+    assertEquals(1, resource.reads);
+
+    headers.put(HttpHeaders.IF_NONE_MATCH, Collections.singletonList("\"stale\""));
+    assertEquals(200, getGenders().getStatus());
+  }
+
+  @Test
+  public void testWriteEvictsTenantResponses() throws Exception {
+    getGenders();
+    getGenders();
+    assertEquals(1, resource.reads);
+
+    invoke("updateGender");
+    verify(referenceDataCache).invalidate(TENANT_ID, GenderManager.class);
+
+    getGenders();
+    assertEquals(2, resource.reads);
+  }
+
+  private Response getGenders() throws Exception {
+    return (Response) invoke("getGenders");
+  }
+
+  private Object invoke(String methodName) throws Exception {
+    Message message = new MessageImpl();
+    message.put(Message.REQUEST_URI, "/v1/genders");
+    message.put(Message.PROTOCOL_HEADERS, headers);
+    Exchange exchange = new ExchangeImpl();
+    exchange.setInMessage(message);
+    Method method = GenderResource.class.getMethod(methodName);
+    return invoker.performInvocation(exchange, resource, method, new Object[0]);
+  }
+
+  public interface GenderManager {
+  }
+
+  public static class GenderResource {
+
+    private int reads;
+
+    @CachedReferenceData(invalidatedBy = GenderManager.class)
+    public List<String> getGenders() {
+      reads++;
+      return Arrays.asList("F", "M");
+    }
+
+    @InvalidatesReferenceData(GenderManager.class)
+    public Response updateGender() {
+      return Response.noContent().build();
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package com.qhrtech.emr.restapi.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import com.qhrtech.emr.accuro.model.exceptions.ProtossException;
+import com.qhrtech.emr.accuro.model.exceptions.dataaccess.DatabaseInteractionException;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+public class SecurityContextExecutorTest {
+
+  private SecurityContextExecutor executor;
+  private ApiSecurityContext apiContext;
+  private Authentication authentication;
+
+  @Before
+  public void setUp() {
+    executor = new SecurityContextExecutor(1, 1);
+    apiContext = new ApiSecurityContext();
+    authentication = new UsernamePasswordAuthenticationToken("user", "password");
+    ApiSecurityManager.getInstance().attachSecurityContext(apiContext);
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+    MDC.put("tenant", "tenant");
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdown();
+    ApiSecurityManager.getInstance().attachSecurityContext(null);
+    SecurityContextHolder.clearContext();
+    MDC.clear();
+  }
+
+  @Test
+  public void testContextIsPropagatedToWorker() throws ProtossException {
+    ContextSnapshot snapshot = SecurityContextExecutor.await(executor.submit(ContextSnapshot::new));
+
+    assertNotSame(Thread.currentThread(), snapshot.thread);
+    assertTrue(snapshot.thread.getName().startsWith("request-worker-"));
+    assertSame(apiContext, snapshot.apiContext);
+    assertSame(authentication, snapshot.springContext.getAuthentication());
+    assertEquals("tenant", snapshot.tenant);
+  }
+
+  @Test
+  public void testWorkerContextIsRestoredAfterTask() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    // completing the task runs this stage on the worker, after the task context is removed
+    CompletableFuture<ContextSnapshot> afterTask = executor.submit(() -> {
+      release.await(5, TimeUnit.SECONDS);
+      return null;
+    }).thenApply(ignored -> new ContextSnapshot());
+    release.countDown();
+    ContextSnapshot snapshot = SecurityContextExecutor.await(afterTask);
+
+    assertTrue(snapshot.thread.getName().startsWith("request-worker-"));
+    assertNull(snapshot.apiContext);
+    assertNull(snapshot.springContext.getAuthentication());
+    assertNull(snapshot.tenant);
+  }
+
+  @Test
+  public void testTaskRunsOnCallerWhenSaturated() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Void> running = executor.submit(() -> {
+      started.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return null;
+    });
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    CompletableFuture<Void> queued = executor.submit(() -> null);
+
+    ContextSnapshot snapshot;
+    try {
+      snapshot = SecurityContextExecutor.await(executor.submit(() -> {
+        ApiSecurityManager.getInstance().attachSecurityContext(new ApiSecurityContext());
+        MDC.put("tenant", "other");
+        return new ContextSnapshot();
+      }));
+    } finally {
+      release.countDown();
+    }
+    SecurityContextExecutor.await(running);
+    SecurityContextExecutor.await(queued);
+
+    assertSame(Thread.currentThread(), snapshot.thread);
+    assertEquals("other", snapshot.tenant);
+    // the caller keeps its own context once the task is done
+    assertSame(apiContext, ApiSecurityManager.getInstance().getCurrentSecurityContext());
+    assertSame(authentication, SecurityContextHolder.getContext().getAuthentication());
+    assertEquals("tenant", MDC.get("tenant"));
+  }
+
+  @Test
+  public void testAwaitRethrowsTaskFailure() throws ProtossException {
+    DatabaseInteractionException protossFailure = new DatabaseInteractionException("failed");
+    try {
+      SecurityContextExecutor.await(executor.submit(() -> {
+        throw protossFailure;
+      }));
+      fail("A DatabaseInteractionException was expected");
+    } catch (DatabaseInteractionException expected) {
+      assertSame(protossFailure, expected);
+    }
+
+    IllegalArgumentException runtimeFailure = new IllegalArgumentException("failed");
+    try {
+      SecurityContextExecutor.await(executor.submit(() -> {
+        throw runtimeFailure;
+      }));
+      fail("An IllegalArgumentException was expected");
+    } catch (IllegalArgumentException expected) {
+      assertSame(runtimeFailure, expected);
+    }
+
+    IOException checkedFailure = new IOException("failed");
+    try {
+      SecurityContextExecutor.await(executor.submit(() -> {
+        throw checkedFailure;
+      }));
+      fail("An IllegalStateException was expected");
+    } catch (IllegalStateException expected) {
+      assertSame(checkedFailure, expected.getCause());
+    }
+  }
+
+  private static final class ContextSnapshot {
+
+    private final Thread thread = Thread.currentThread();
+    private final ApiSecurityContext apiContext =
+        ApiSecurityManager.getInstance().getCurrentSecurityContext();
+    private final SecurityContext springContext = SecurityContextHolder.getContext();
+    private final String tenant = MDC.get("tenant");
+  }
+}
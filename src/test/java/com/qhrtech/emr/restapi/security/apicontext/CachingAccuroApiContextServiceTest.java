@@ -0,0 +1,119 @@
+package com.qhrtech.emr.restapi.security.apicontext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import com.qhrtech.emr.accuro.model.security.permissions.AccuroApiContext;
+import com.qhrtech.emr.restapi.security.exceptions.FilterException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+public class CachingAccuroApiContextServiceTest {
+
+  private static final Duration TTL = Duration.ofSeconds(30);
+  private static final String TENANT = "DEVBC";
+  private static final String REQUEST_URI = "/v1/provider-portal/scheduler/statuses";
+
+  private AccuroApiContextService delegate;
+  private Clock clock;
+  private CachingAccuroApiContextService cachingService;
+
+  @Before
+  public void setUp() {
+    delegate = mock(AccuroApiContextService.class);
+    clock = mock(Clock.class);
+    when(clock.instant()).thenReturn(Instant.EPOCH);
+    cachingService = new CachingAccuroApiContextService(delegate, TTL, 100, clock);
+  }
+
+  @Test
+  public void testCachedUntilTtl() {
+    AccuroApiTokenAdapter token = mockToken("token", HttpMethod.GET);
+    AccuroApiContext context = new AccuroApiContext();
+    when(delegate.getAccuroApiUserContext(token)).thenReturn(context);
+
+    assertSame(context, cachingService.getAccuroApiUserContext(token));
+    assertSame(context, cachingService.getAccuroApiUserContext(token));
+    verify(delegate, times(1)).getAccuroApiUserContext(token);
+    assertEquals(1, cachingService.getHits());
+    assertEquals(1, cachingService.getMisses());
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(TTL));
+    cachingService.getAccuroApiUserContext(token);
+    verify(delegate, times(2)).getAccuroApiUserContext(token);
+  }
+
+  @Test
+  public void testKeyedByTokenAndPermissionLevel() {
+    AccuroApiTokenAdapter readToken = mockToken("token", HttpMethod.GET);
+    AccuroApiTokenAdapter writeToken = mockToken("token", HttpMethod.POST);
+    AccuroApiTokenAdapter otherToken = mockToken("other", HttpMethod.GET);
+    when(delegate.getAccuroApiUserContext(readToken)).thenReturn(new AccuroApiContext());
+    when(delegate.getAccuroApiUserContext(writeToken)).thenReturn(new AccuroApiContext());
+    when(delegate.getAccuroApiUserContext(otherToken)).thenReturn(new AccuroApiContext());
+
+    cachingService.getAccuroApiUserContext(readToken);
+    cachingService.getAccuroApiUserContext(writeToken);
+    cachingService.getAccuroApiUserContext(otherToken);
+
+    assertEquals(0, cachingService.getHits());
+    assertEquals(3, cachingService.getMisses());
+  }
+
+  @Test
+  public void testInvalidateTenant() {
+    AccuroApiTokenAdapter token = mockToken("token", HttpMethod.GET);
+    when(delegate.getAccuroApiUserContext(token)).thenReturn(new AccuroApiContext());
+
+    cachingService.getAccuroApiUserContext(token);
+    cachingService.invalidateTenant(TENANT);
+    cachingService.getAccuroApiUserContext(token);
+
+    verify(delegate, times(2)).getAccuroApiUserContext(token);
+  }
+
+  @Test
+  public void testFailuresNotCached() {
+    AccuroApiTokenAdapter token = mockToken("token", HttpMethod.GET);
+    when(delegate.getAccuroApiUserContext(token))
+        .thenThrow(new FilterException(401, "Unauthorized"))
+        .thenReturn(new AccuroApiContext());
+
+    try {
+      cachingService.getAccuroApiUserContext(token);
+    } catch (FilterException ex) {
+      // expected
+    }
+    cachingService.getAccuroApiUserContext(token);
+
+    verify(delegate, times(2)).getAccuroApiUserContext(token);
+  }
+
+  @Test
+  public void testNoTokenValueNotCached() {
+    AccuroApiTokenAdapter token = mockToken(null, HttpMethod.GET);
+    when(delegate.getAccuroApiUserContext(token)).thenReturn(new AccuroApiContext());
+
+    cachingService.getAccuroApiUserContext(token);
+    cachingService.getAccuroApiUserContext(token);
+
+    verify(delegate, times(2)).getAccuroApiUserContext(token);
+  }
+
+  private AccuroApiTokenAdapter mockToken(String tokenValue, HttpMethod method) {
+    AccuroApiTokenAdapter token = mock(AccuroApiTokenAdapter.class);
+    when(token.getTokenValue()).thenReturn(tokenValue);
+    when(token.getTenantId()).thenReturn(TENANT);
+    when(token.getUserIdentifier()).thenReturn("1");
+    when(token.getTokenRequestDetails())
+        .thenReturn(new TokenRequestDetails(method, REQUEST_URI, TENANT));
+    return token;
+  }
+}
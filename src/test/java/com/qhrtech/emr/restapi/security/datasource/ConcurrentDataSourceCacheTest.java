@@ -0,0 +1,136 @@
+package com.qhrtech.emr.restapi.security.datasource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConcurrentDataSourceCacheTest {
+
+  private static final String KEY = "DEVBC_ACCURO";
+  private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+  private Clock clock;
+  private ConcurrentDataSourceCache cache;
+
+  @Before
+  public void setUp() {
+    clock = mock(Clock.class);
+    when(clock.instant()).thenReturn(Instant.EPOCH);
+    cache = new ConcurrentDataSourceCache(IDLE_TIMEOUT, clock);
+  }
+
+  @Test
+  public void testPutAndGet() {
+    DataSource ds = mock(DataSource.class);
+    cache.put(KEY, ds);
+    assertSame(ds, cache.get(KEY));
+    cache.evict(KEY);
+    assertNull(cache.get(KEY));
+  }
+
+  @Test
+  public void testComputeIfAbsentCoalescesConcurrentBuilds() throws Exception {
+    DataSource ds = mock(DataSource.class);
+    AtomicInteger builds = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<DataSource>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return cache.computeIfAbsent(KEY, key -> {
+            builds.incrementAndGet();
+            return ds;
+          });
+        }));
+      }
+      start.countDown();
+      for (Future<DataSource> result : results) {
+        assertSame(ds, result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, builds.get());
+    assertEquals(0, cache.buildsInProgress());
+  }
+
+  @Test
+  public void testFailedBuildIsNotKept() {
+    IllegalStateException failure = new IllegalStateException("unreachable");
+    try {
+      cache.computeIfAbsent(KEY, key -> {
+        throw failure;
+      });
+      fail("An IllegalStateException was expected");
+    } catch (IllegalStateException expected) {
+      assertSame(failure, expected);
+    }
+    assertEquals(0, cache.buildsInProgress());
+
+    DataSource ds = mock(DataSource.class);
+    assertSame(ds, cache.computeIfAbsent(KEY, key -> ds));
+    assertEquals(0, cache.buildsInProgress());
+  }
+
+  @Test
+  public void testValidateHidesUnhealthyDataSource() throws SQLException {
+    DataSource ds = mock(DataSource.class);
+    when(ds.getConnection()).thenThrow(new SQLException("down"));
+    cache.put(KEY, ds);
+
+    cache.validate();
+    assertNull(cache.get(KEY));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testValidateRestoresRecoveredDataSource() throws SQLException {
+    DataSource ds = mock(DataSource.class);
+    when(ds.getConnection())
+        .thenThrow(new SQLException("down"))
+        .thenReturn(mock(Connection.class));
+    cache.put(KEY, ds);
+
+    cache.validate();
+    assertNull(cache.get(KEY));
+    cache.validate();
+    assertSame(ds, cache.get(KEY));
+  }
+
+  @Test
+  public void testValidateEvictsIdleDataSource() throws SQLException {
+    DataSource ds = mock(DataSource.class);
+    when(ds.getConnection()).thenReturn(mock(Connection.class));
+    cache.put(KEY, ds);
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(IDLE_TIMEOUT).minusSeconds(1));
+    cache.validate();
+    assertEquals(1, cache.size());
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(IDLE_TIMEOUT).plusSeconds(1));
+    cache.validate();
+    assertEquals(0, cache.size());
+    assertNull(cache.get(KEY));
+  }
+}
@@ -2,6 +2,9 @@
 package com.qhrtech.emr.restapi.security.datasource;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -48,6 +51,7 @@ public class HostedDataSourceServiceTest {
 
     hostedDataSourceService = spy(new HostedDataSourceService());
     openMocks(this);
+    doCallRealMethod().when(dataSourceCache).computeIfAbsent(anyString(), any());
   }
 
   @Test(expected = InvalidTenantException.class)
@@ -1,19 +1,56 @@
-
 package com.qhrtech.emr.restapi.services;
 
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+import com.qhrtech.emr.accuro.api.demographics.GenderManager;
+import com.qhrtech.emr.accuro.db.DatabaseType;
 import com.qhrtech.emr.restapi.endpoints.utilities.TestUtilities;
+import com.qhrtech.emr.restapi.security.ApiSecurityContext;
+import com.qhrtech.emr.restapi.security.datasource.DataSourceService;
 import com.qhrtech.emr.restapi.services.impl.AccuroApiServiceImpl;
 import com.qhrtech.emr.restapi.services.impl.ImplementationNotFoundException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.sql.DataSource;
+import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
 
 public class AccuroApiServiceImplTest {
 
-  private final AccuroApiServiceImpl accuroApiServiceImpl = new AccuroApiServiceImpl();
+  @Mock
+  private ListenerPoolService listenerPoolService;
+
+  @Mock
+  private DataSourceService dataSourceService;
+
+  @Mock
+  private SecurityContextService securityContextService;
+
+  @InjectMocks
+  private AccuroApiServiceImpl accuroApiServiceImpl;
 
   public AccuroApiServiceImplTest() {
   }
 
+  @Before
+  public void setUp() {
+    accuroApiServiceImpl = new AccuroApiServiceImpl();
+    openMocks(this);
+    when(dataSourceService.getDataSource(anyString(), any(DatabaseType.class)))
+        .thenReturn(mock(DataSource.class));
+  }
+
   @Test(expected = ImplementationNotFoundException.class)
   public void testInstantiateManagerWithMissingMapping() throws Exception {
     AccuroApiServiceImpl impl =
@@ -30,5 +67,77 @@ public class AccuroApiServiceImplTest {
     accuroApiServiceImpl.getImpl(null, TestUtilities.nextString(5), true);
   }
 
-}
+  @Test
+  public void testManagerMemoizedWithinSecurityContext() {
+    String tenant = TestUtilities.nextString(5);
+    when(securityContextService.getSecurityContext()).thenReturn(new ApiSecurityContext());
+
+    GenderManager first = accuroApiServiceImpl.getImpl(GenderManager.class, tenant);
+    GenderManager second = accuroApiServiceImpl.getImpl(GenderManager.class, tenant);
+
+    assertSame(first, second);
+    assertEquals(1, accuroApiServiceImpl.getSavedConstructions());
+    verify(dataSourceService, times(1)).getDataSource(tenant, DatabaseType.Accuro);
+  }
+
+  @Test
+  public void testManagerKeyedByTenantAndPermissions() {
+    String tenant = TestUtilities.nextString(5);
+    when(securityContextService.getSecurityContext()).thenReturn(new ApiSecurityContext());
+
+    GenderManager first = accuroApiServiceImpl.getImpl(GenderManager.class, tenant);
+    GenderManager skipped = accuroApiServiceImpl.getImpl(GenderManager.class, tenant, true);
+    GenderManager otherTenant =
+        accuroApiServiceImpl.getImpl(GenderManager.class, "not" + tenant);
+
+    assertNotSame(first, skipped);
+    assertNotSame(first, otherTenant);
+    assertEquals(0, accuroApiServiceImpl.getSavedConstructions());
+  }
 
+  @Test
+  public void testManagerNotMemoizedWithoutSecurityContext() {
+    String tenant = TestUtilities.nextString(5);
+
+    GenderManager first = accuroApiServiceImpl.getImpl(GenderManager.class, tenant);
+    GenderManager second = accuroApiServiceImpl.getImpl(GenderManager.class, tenant);
+
+    assertNotSame(first, second);
+    assertEquals(0, accuroApiServiceImpl.getSavedConstructions());
+  }
+
+  @Test
+  public void testManagerNotSharedAcrossSecurityContexts() {
+    String tenant = TestUtilities.nextString(5);
+    when(securityContextService.getSecurityContext())
+        .thenReturn(new ApiSecurityContext())
+        .thenReturn(new ApiSecurityContext());
+
+    GenderManager first = accuroApiServiceImpl.getImpl(GenderManager.class, tenant);
+    GenderManager second = accuroApiServiceImpl.getImpl(GenderManager.class, tenant);
+
+    assertNotSame(first, second);
+  }
+
+  @Test
+  public void testManagerNotSharedAcrossThreads() throws Exception {
+    String tenant = TestUtilities.nextString(5);
+    when(securityContextService.getSecurityContext()).thenReturn(new ApiSecurityContext());
+    ExecutorService worker = Executors.newSingleThreadExecutor();
+    try {
+      GenderManager first = getGenderManager(tenant);
+      GenderManager other = worker.submit(() -> getGenderManager(tenant)).get();
+
+      assertNotSame(first, other);
+      assertSame(other, worker.submit(() -> getGenderManager(tenant)).get());
+      assertSame(first, getGenderManager(tenant));
+    } finally {
+      worker.shutdownNow();
+    }
+  }
+
+  private GenderManager getGenderManager(String tenant) {
+    return accuroApiServiceImpl.getImpl(GenderManager.class, tenant);
+  }
+
+}
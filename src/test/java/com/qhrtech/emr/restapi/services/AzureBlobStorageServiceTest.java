@@ -1,25 +1,43 @@
 
 package com.qhrtech.emr.restapi.services;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import com.azure.core.http.HttpResponse;
 import com.azure.core.util.BinaryData;
 import com.azure.identity.ClientSecretCredential;
 import com.azure.identity.ClientSecretCredentialBuilder;
 import com.azure.storage.blob.BlobClient;
-import com.azure.storage.blob.BlobClientBuilder;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobRequestConditions;
 import com.azure.storage.blob.models.BlobStorageException;
 import com.qhrtech.emr.restapi.services.BlobIdentifier.BlobIdentifierBuilder;
+import com.qhrtech.emr.restapi.services.exceptions.CredentialException;
 import com.qhrtech.emr.restapi.services.exceptions.StorageServiceException;
 import com.qhrtech.emr.restapi.services.impl.AzureBlobStorageService;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.UUID;
 import org.apache.commons.lang.RandomStringUtils;
 import org.junit.Before;
@@ -31,16 +49,19 @@ public class AzureBlobStorageServiceTest {
   private AzureBlobStorageService azureBlobStorageService;
   private BlobIdentifier blobIdentifier;
 
-  private BlobClientBuilder clientBuilderMock;
+  private BlobContainerClientBuilder clientBuilderMock;
 
+  private BlobContainerClient containerClient;
   private BlobClient blobClient;
+  private String vaultName;
   private CredentialService credentialServiceMock;
   private ClientSecretCredential credentialMock;
 
   public AzureBlobStorageServiceTest() {
 
     credentialServiceMock = mock(CredentialService.class);
-    azureBlobStorageService = spy(new AzureBlobStorageService(credentialServiceMock));
+    azureBlobStorageService =
+        spy(new AzureBlobStorageService(credentialServiceMock, 3600000L, 0L));
 
     blobIdentifier = new BlobIdentifierBuilder().withStorageAccount(randomString())
         .withContainerName(randomString())
@@ -55,7 +76,7 @@ public class AzureBlobStorageServiceTest {
     endpoint.set(azureBlobStorageService, "https://%s.blob.core.windows.net");
 
     Field fieldVaultName = AzureBlobStorageService.class.getDeclaredField("vaultName");
-    String vaultName = randomString();
+    vaultName = randomString();
     fieldVaultName.setAccessible(true);
     fieldVaultName.set(azureBlobStorageService, vaultName);
 
@@ -64,17 +85,18 @@ public class AzureBlobStorageServiceTest {
     when(credentialServiceMock.getAccBlobCredentials(vaultName)).thenReturn(credentialMock);
 
     blobClient = mock(BlobClient.class);
-    clientBuilderMock = mock(BlobClientBuilder.class);
+    containerClient = mock(BlobContainerClient.class);
+    clientBuilderMock = mock(BlobContainerClientBuilder.class);
 
-    when(azureBlobStorageService.getBlobClientBuilder()).thenReturn(clientBuilderMock);
+    when(azureBlobStorageService.getBlobContainerClientBuilder()).thenReturn(clientBuilderMock);
 
     doReturn(clientBuilderMock).when(clientBuilderMock).endpoint(
         "https://" + blobIdentifier.getStorageAccount() + ".blob.core.windows.net");
     doReturn(clientBuilderMock).when(clientBuilderMock).credential(credentialMock);
     doReturn(clientBuilderMock).when(clientBuilderMock)
         .containerName(blobIdentifier.getContainerName());
-    doReturn(clientBuilderMock).when(clientBuilderMock).blobName(blobIdentifier.getBlobName());
-    doReturn(blobClient).when(clientBuilderMock).buildClient();
+    doReturn(containerClient).when(clientBuilderMock).buildClient();
+    doReturn(blobClient).when(containerClient).getBlobClient(blobIdentifier.getBlobName());
   }
 
   @Test
@@ -114,6 +136,114 @@ public class AzureBlobStorageServiceTest {
     azureBlobStorageService.uploadBlob(blobIdentifier, randomString().getBytes());
   }
 
+  @Test
+  public void testCredentialsAndContainerClientReused() throws Exception {
+    doReturn(BinaryData.fromBytes(randomString().getBytes())).when(blobClient).downloadContent();
+
+    azureBlobStorageService.downloadBlob(blobIdentifier);
+    azureBlobStorageService.uploadBlob(blobIdentifier, randomString().getBytes());
+    azureBlobStorageService.downloadBlob(blobIdentifier);
+
+    verify(credentialServiceMock, times(1)).getAccBlobCredentials(vaultName);
+    verify(clientBuilderMock, times(1)).buildClient();
+  }
+
+  @Test
+  public void testCredentialsReloadedWhenRejected() throws Exception {
+    HttpResponse unauthorized = mock(HttpResponse.class);
+    when(unauthorized.getStatusCode()).thenReturn(401);
+    byte[] expected = randomString().getBytes();
+    when(blobClient.downloadContent())
+        .thenThrow(new BlobStorageException(randomString(), unauthorized, randomString()))
+        .thenReturn(BinaryData.fromBytes(expected));
+
+    byte[] data = azureBlobStorageService.downloadBlob(blobIdentifier);
+
+    assertArrayEquals(expected, data);
+    verify(credentialServiceMock, times(2)).getAccBlobCredentials(vaultName);
+  }
+
+  @Test
+  public void testMissingCredentialsLookedUpAgain() throws Exception {
+    when(credentialServiceMock.getAccBlobCredentials(vaultName))
+        .thenReturn(null)
+        .thenReturn(credentialMock);
+    byte[] expected = randomString().getBytes();
+    doReturn(BinaryData.fromBytes(expected)).when(blobClient).downloadContent();
+
+    try {
+      azureBlobStorageService.downloadBlob(blobIdentifier);
+      fail("A CredentialException was expected");
+    } catch (CredentialException ignored) {
+      // the vault had no credentials yet
+    }
+    byte[] data = azureBlobStorageService.downloadBlob(blobIdentifier);
+
+    assertArrayEquals(expected, data);
+    verify(credentialServiceMock, times(2)).getAccBlobCredentials(vaultName);
+  }
+
+  @Test
+  public void testStreamingUpload() throws Exception {
+    byte[] content = randomString().getBytes();
+
+    azureBlobStorageService.uploadBlob(blobIdentifier, () -> new ByteArrayInputStream(content),
+        content.length);
+
+    verify(blobClient).upload(any(InputStream.class), eq((long) content.length), eq(true));
+  }
+
+  @Test
+  public void testStreamingUploadReopensSourceWhenRejected() throws Exception {
+    HttpResponse unauthorized = mock(HttpResponse.class);
+    when(unauthorized.getStatusCode()).thenReturn(401);
+    byte[] content = randomString().getBytes();
+    doThrow(new BlobStorageException(randomString(), unauthorized, randomString()))
+        .doReturn(null)
+        .when(blobClient).upload(any(InputStream.class), anyLong(), eq(true));
+
+    AtomicInteger opened = new AtomicInteger();
+    azureBlobStorageService.uploadBlob(blobIdentifier, () -> {
+      opened.incrementAndGet();
+      return new ByteArrayInputStream(content);
+    }, content.length);
+
+    assertEquals(2, opened.get());
+    verify(credentialServiceMock, times(2)).getAccBlobCredentials(vaultName);
+  }
+
+  @Test
+  public void testGetBlobMetadata() throws Exception {
+    String eTag = randomString();
+    BlobProperties properties = mock(BlobProperties.class);
+    when(properties.getBlobSize()).thenReturn(42L);
+    when(properties.getETag()).thenReturn(eTag);
+    doReturn(properties).when(blobClient).getProperties();
+
+    BlobMetadata metadata = azureBlobStorageService.getBlobMetadata(blobIdentifier);
+
+    assertEquals(42L, metadata.getSize());
+    assertEquals(eTag, metadata.getETag());
+  }
+
+  @Test
+  public void testStreamingDownload() throws Exception {
+    byte[] content = randomString().getBytes();
+    String eTag = randomString();
+    when(blobClient.downloadWithResponse(any(OutputStream.class), any(BlobRange.class), any(),
+        any(BlobRequestConditions.class), eq(false), any(), any())).thenAnswer(invocation -> {
+          OutputStream output = invocation.getArgument(0);
+          BlobRange range = invocation.getArgument(1);
+          output.write(content, (int) range.getOffset(), range.getCount().intValue());
+          return null;
+        });
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    azureBlobStorageService.downloadBlob(blobIdentifier, output, 5, 10, eTag);
+
+    assertArrayEquals(Arrays.copyOfRange(content, 5, 15), output.toByteArray());
+  }
+
   private String randomString() {
     return RandomStringUtils.randomAlphabetic(30);
   }
@@ -4,6 +4,8 @@ package com.qhrtech.emr.restapi.services.impl;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import com.qhrtech.emr.accuro.api.security.ModuleManager;
 import com.qhrtech.emr.accuro.model.exceptions.ProtossException;
@@ -31,7 +33,7 @@ public class DefaultModuleServiceTest {
     api = mock(AccuroApiService.class);
     securityContextService = mock(SecurityContextService.class);
     mockModuleManager = mock(ModuleManager.class);
-    moduleService = new DefaultModuleService(api, securityContextService);
+    moduleService = new DefaultModuleService(api, securityContextService, 60000L);
   }
 
   @Test
@@ -77,4 +79,41 @@ public class DefaultModuleServiceTest {
     assertFalse(accBlobEnabled);
   }
 
+  @Test
+  public void isRestApiEnabledUsesCachedModules() throws ProtossException {
+    String tenant = RandomUtils.getString(5);
+    Map<Module, Boolean> expected = new HashMap();
+    expected.put(Module.REST_API_ACCESS, true);
+    when(mockModuleManager.getModules()).thenReturn(expected);
+    when(api.getImpl(ModuleManager.class, tenant)).thenReturn(mockModuleManager);
+
+    assertTrue(moduleService.isRestApiEnabled(tenant));
+    assertTrue(moduleService.isRestApiEnabled(tenant));
+    verify(mockModuleManager, times(1)).getModules();
+  }
+
+  @Test
+  public void refreshModulesReloadsTenant() throws ProtossException {
+    String tenant = RandomUtils.getString(5);
+    Map<Module, Boolean> enabled = new HashMap();
+    enabled.put(Module.REST_API_ACCESS, true);
+    Map<Module, Boolean> disabled = new HashMap();
+    disabled.put(Module.REST_API_ACCESS, false);
+    when(mockModuleManager.getModules()).thenReturn(enabled).thenReturn(disabled);
+    when(api.getImpl(ModuleManager.class, tenant)).thenReturn(mockModuleManager);
+
+    assertTrue(moduleService.isRestApiEnabled(tenant));
+    moduleService.refreshModules(tenant);
+    assertFalse(moduleService.isRestApiEnabled(tenant));
+  }
+
+  @Test(expected = ProtossException.class)
+  public void isRestApiEnabledPropagatesProtossException() throws ProtossException {
+    String tenant = RandomUtils.getString(5);
+    when(mockModuleManager.getModules()).thenThrow(new ProtossException("Test"));
+    when(api.getImpl(ModuleManager.class, tenant)).thenReturn(mockModuleManager);
+
+    moduleService.isRestApiEnabled(tenant);
+  }
+
 }
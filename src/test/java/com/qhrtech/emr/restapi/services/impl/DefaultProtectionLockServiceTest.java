@@ -0,0 +1,186 @@
+package com.qhrtech.emr.restapi.services.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import com.qhrtech.emr.accuro.model.exceptions.ProtossException;
+import com.qhrtech.emr.accuro.model.exceptions.dataaccess.DatabaseInteractionException;
+import com.qhrtech.emr.restapi.services.ProtectionLockService.Lease;
+import com.qhrtech.emr.restapi.services.ProtectionLockService.LockOperations;
+import com.qhrtech.emr.restapi.services.exceptions.ProtectionLockTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DefaultProtectionLockServiceTest {
+
+  private static final String TENANT = "tenant";
+  private static final String KEY = "1-2";
+
+  private DefaultProtectionLockService lockService;
+  private ExecutorService executor;
+
+  @Before
+  public void setup() {
+    lockService = new DefaultProtectionLockService(Duration.ofMillis(500), Duration.ofMillis(1),
+        Duration.ofMillis(5));
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void localWaiterIsWokenWithoutPolling() throws Exception {
+    DatabaseLock database = new DatabaseLock();
+    Lease first = lockService.acquire(TENANT, KEY, database);
+
+    Future<Lease> second = executor.submit(() -> lockService.acquire(TENANT, KEY, database));
+    waitForQueued(1);
+    assertEquals(1, database.queries.get());
+
+    first.release();
+    second.get(5, TimeUnit.SECONDS).release();
+
+    assertEquals(2, database.queries.get());
+    assertEquals(2, database.unlocks.get());
+    assertEquals(0, lockService.getQueued());
+  }
+
+  @Test
+  public void remoteHolderIsRetriedWithBackoff() throws Exception {
+    DatabaseLock database = new DatabaseLock();
+    database.locked.set(true);
+
+    Future<Lease> lease = executor.submit(() -> lockService.acquire(TENANT, KEY, database));
+    while (database.queries.get() < 3) {
+      Thread.sleep(1);
+    }
+    database.locked.set(false);
+
+    lease.get(5, TimeUnit.SECONDS).release();
+    assertFalse(database.locked.get());
+  }
+
+  @Test
+  public void remoteHolderTimesOutWithConflict() throws ProtossException, InterruptedException {
+    DatabaseLock database = new DatabaseLock();
+    database.locked.set(true);
+
+    try {
+      lockService.acquire(TENANT, KEY, database);
+      fail("A timeout was expected");
+    } catch (ProtectionLockTimeoutException expected) {
+      assertFalse(expected.isUnavailable());
+      assertEquals(1, expected.getRetryAfterSeconds());
+    }
+    assertTrue(database.queries.get() > 1);
+    assertEquals(0, database.unlocks.get());
+  }
+
+  @Test
+  public void failingQueriesTimeOutAsUnavailable() throws ProtossException, InterruptedException {
+    DatabaseLock database = new DatabaseLock() {
+      @Override
+      public boolean isLocked() throws ProtossException {
+        super.isLocked();
+        throw new DatabaseInteractionException("failed");
+      }
+    };
+
+    try {
+      lockService.acquire(TENANT, KEY, database);
+      fail("A timeout was expected");
+    } catch (ProtectionLockTimeoutException expected) {
+      assertTrue(expected.isUnavailable());
+    }
+    assertTrue(database.queries.get() > 1);
+  }
+
+  @Test
+  public void localWaiterTimesOutAndLeavesQueue() throws Exception {
+    DatabaseLock database = new DatabaseLock();
+    Lease first = lockService.acquire(TENANT, KEY, database);
+
+    try {
+      lockService.acquire(TENANT, KEY, database);
+      fail("A timeout was expected");
+    } catch (ProtectionLockTimeoutException expected) {
+      assertFalse(expected.isUnavailable());
+    }
+    assertEquals(1, database.queries.get());
+    assertEquals(0, lockService.getQueued());
+
+    first.release();
+    lockService.acquire(TENANT, KEY, database).release();
+  }
+
+  @Test
+  public void releasingTwiceHasNoEffect() throws Exception {
+    DatabaseLock database = new DatabaseLock();
+    Lease first = lockService.acquire(TENANT, KEY, database);
+    first.release();
+    first.release();
+
+    assertEquals(1, database.unlocks.get());
+    Lease second = lockService.acquire(TENANT, KEY, database);
+    first.release();
+    assertTrue(database.locked.get());
+    second.release();
+  }
+
+  @Test
+  public void keysAndTenantsDoNotShareQueues() throws Exception {
+    Lease first = lockService.acquire(TENANT, KEY, new DatabaseLock());
+    Lease otherKey = lockService.acquire(TENANT, "1-3", new DatabaseLock());
+    Lease otherTenant = lockService.acquire("other", KEY, new DatabaseLock());
+
+    first.release();
+    otherKey.release();
+    otherTenant.release();
+  }
+
+  private void waitForQueued(long expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (lockService.getQueued() != expected) {
+      if (System.currentTimeMillis() > deadline) {
+        fail("Expected " + expected + " queued requests");
+      }
+      Thread.sleep(1);
+    }
+  }
+
+  private static class DatabaseLock implements LockOperations {
+
+    private final AtomicBoolean locked = new AtomicBoolean();
+    private final AtomicInteger queries = new AtomicInteger();
+    private final AtomicInteger unlocks = new AtomicInteger();
+
+    @Override
+    public boolean isLocked() throws ProtossException {
+      queries.incrementAndGet();
+      return locked.get();
+    }
+
+    @Override
+    public boolean tryLock() {
+      return locked.compareAndSet(false, true);
+    }
+
+    @Override
+    public void unlock() {
+      unlocks.incrementAndGet();
+      locked.set(false);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.qhrtech.emr.restapi.services.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import com.qhrtech.emr.restapi.services.exceptions.RtfConversionException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DefaultRtfConversionServiceTest {
+
+  private DefaultRtfConversionService conversionService;
+
+  @Before
+  public void setup() {
+    conversionService = new DefaultRtfConversionService(0);
+  }
+
+  /**
+   * The expected text of the golden files is the output of the Swing RTF reader used before.
+   */
+  @Test
+  public void matchesGoldenFiles() throws IOException, RtfConversionException {
+    String[] documents = {"encounter-note", "letter", "medical-history", "unicode-note",
+        "escaped-note"};
+    for (String document : documents) {
+      String rtf = readResource("/rtf/" + document + ".rtf");
+      String expected = readResource("/rtf/" + document + ".txt");
+      assertEquals(document, expected, conversionService.getPainText(rtf));
+    }
+  }
+
+  @Test
+  public void plainTextIsReturnedUnchanged() throws RtfConversionException {
+    String text = "Follow up in C:\\\\notes one month.";
+    assertSame(text, conversionService.getPainText(text));
+  }
+
+  @Test
+  public void strikeOffEndsStruckText() throws RtfConversionException {
+    assertEquals("acd\n",
+        conversionService.getPainText("{\\rtf1\\ansi a{\\strike b\\strike0 c}d}"));
+    assertEquals("cd\n",
+        conversionService.getPainText("{\\rtf1\\ansi {\\strike b\\plain c}d\\par}"));
+  }
+
+  @Test
+  public void hexEscapesUseDocumentCodePage() throws RtfConversionException {
+    assertEquals("\u201Cquoted\u201D \u20AC 5\n",
+        conversionService.getPainText("{\\rtf1\\ansi \\'93quoted\\'94 \\'80 5}"));
+    assertEquals("\u041F\u0440\u0438\u0432\u0435\u0442\n", conversionService.getPainText(
+        "{\\rtf1\\ansi\\ansicpg1251 \\'cf\\'f0\\'e8\\'e2\\'e5\\'f2}"));
+  }
+
+  @Test
+  public void binaryDataIsSkipped() throws RtfConversionException {
+    assertEquals("ac\n",
+        conversionService.getPainText("{\\rtf1\\ansi a{\\*\\blob \\bin5 }}}}}b}c\\par}"));
+  }
+
+  @Test
+  public void unbalancedBraceFails() {
+    try {
+      conversionService.getPainText("{\\rtf1\\ansi a}}");
+      fail("An RtfConversionException was expected");
+    } catch (RtfConversionException expected) {
+      assertEquals("Could not convert Rich Text content, unbalanced closing brace at 15.",
+          expected.getMessage());
+    }
+  }
+
+  @Test
+  public void conversionsAreCached() throws RtfConversionException {
+    String rtf = "{\\rtf1\\ansi Patient reports headaches.\\par}";
+    assertNotSame(conversionService.getPainText(rtf), conversionService.getPainText(rtf));
+
+    DefaultRtfConversionService cachingService = new DefaultRtfConversionService(1);
+    String text = cachingService.getPainText(rtf);
+    assertSame(text, cachingService.getPainText(rtf));
+    assertEquals("Other\n", cachingService.getPainText("{\\rtf1\\ansi Other}"));
+    assertEquals(text, cachingService.getPainText(rtf));
+  }
+
+  private String readResource(String name) throws IOException {
+    try (InputStream in = getClass().getResourceAsStream(name)) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -12,6 +12,8 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 import com.qhrtech.emr.restapi.security.AccuroOAuthClient;
@@ -44,6 +46,8 @@ public class HostedOauthServiceImplTest {
   @Mock
   HostedOauthDao hostedOauthDao;
 
+  private Connection connection;
+
   @InjectMocks
   @Spy
   private HostedOauthServiceImpl registryServ;
@@ -53,7 +57,7 @@ public class HostedOauthServiceImplTest {
   public void setUp() throws Exception {
     MockitoAnnotations.initMocks(this);
 
-    Connection connection = mock(Connection.class);
+    connection = mock(Connection.class);
 
     registryServ = spy(new HostedOauthServiceImpl());
     openMocks(this);
@@ -138,4 +142,13 @@ public class HostedOauthServiceImplTest {
     Collection<AccuroScope> scopes = registryServ.lookupScopes(Collections.singleton(SCOPE_ID));
     assertEquals(1, scopes.size());
   }
+
+  @Test
+  public void testConnectionsAreClosed() throws Exception {
+    registryServ.getAllClients();
+    registryServ.lookupClients(Collections.singleton(CLIENT_ID));
+    registryServ.getAllScopes();
+    registryServ.lookupScopes(Collections.singleton(SCOPE_ID));
+    verify(connection, times(4)).close();
+  }
 }
@@ -0,0 +1,61 @@
+package com.qhrtech.emr.restapi.util;
+
+import junit.framework.TestCase;
+
+public class AccuroApiPartialContextEndpointsTest extends TestCase {
+
+  public void testMatchingRequestType() {
+    assertEquals(Boolean.TRUE, AccuroApiPartialContextEndpoints
+        .lookUpByUrlAndRequestType("/v1/provider-portal/scheduler/statuses", "POST"));
+    assertEquals(Boolean.FALSE, AccuroApiPartialContextEndpoints
+        .lookUpByUrlAndRequestType("/v1/accessible-providers", "GET"));
+  }
+
+  public void testOtherRequestType() {
+    assertNull(AccuroApiPartialContextEndpoints
+        .lookUpByUrlAndRequestType("/v1/provider-portal/scheduler/statuses", "GET"));
+    assertNull(AccuroApiPartialContextEndpoints
+        .lookUpByUrlAndRequestType("/v1/accessible-providers", "DELETE"));
+  }
+
+  public void testAllRequestTypes() {
+    assertEquals(Boolean.TRUE, AccuroApiPartialContextEndpoints
+        .lookUpByUrlAndRequestType("/v1/patient-portal/appointments", "PUT"));
+    assertEquals(Boolean.TRUE, AccuroApiPartialContextEndpoints
+        .lookUpByUrlAndRequestType("/v2/spade/users/1", "PATCH"));
+  }
+
+  public void testPathParameters() {
+    assertEquals(Boolean.TRUE, AccuroApiPartialContextEndpoints
+        .lookUpByUrlAndRequestType("/v1/provider-portal/patients/-12/activity/search", "POST"));
+    assertNull(AccuroApiPartialContextEndpoints
+        .lookUpByUrlAndRequestType("/v1/provider-portal/patients/abc/activity/search", "POST"));
+  }
+
+  public void testUnknownUrl() {
+    assertNull(AccuroApiPartialContextEndpoints
+        .lookUpByUrlAndRequestType("/v1/provider-portal/insurers/5", "POST"));
+  }
+
+  public void testMatchesIndividualUrls() {
+    String[] requestTypes = {"GET", "POST", "PUT", "DELETE"};
+    String[] urls = {"/v1/provider-portal/scheduler/statuses", "/v1/provider-portal/insurers",
+        "/v3/portal/token", "/v1/spade/", "/v1/accessible-providers", "/v1/patients"};
+    for (String url : urls) {
+      for (String requestType : requestTypes) {
+        assertEquals(url + " " + requestType, lookUpIndividually(url, requestType),
+            AccuroApiPartialContextEndpoints.lookUpByUrlAndRequestType(url, requestType));
+      }
+    }
+  }
+
+  private static Boolean lookUpIndividually(String url, String requestType) {
+    for (AccuroApiPartialContextEndpoints endpoint : AccuroApiPartialContextEndpoints.values()) {
+      if (url.matches(endpoint.getUrl()) && (requestType.equals(endpoint.getRequestType())
+          || "ALL".equals(endpoint.getRequestType()))) {
+        return endpoint.getIsPartialContext();
+      }
+    }
+    return null;
+  }
+}
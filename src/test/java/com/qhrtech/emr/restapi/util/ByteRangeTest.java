@@ -0,0 +1,53 @@
+package com.qhrtech.emr.restapi.util;
+
+import junit.framework.TestCase;
+
+public class ByteRangeTest extends TestCase {
+
+  public void testNoHeader() {
+    assertNull(ByteRange.parse(null, 100));
+  }
+
+  public void testClosedRange() {
+    ByteRange range = ByteRange.parse("bytes=10-19", 100);
+    assertEquals(10, range.getOffset());
+    assertEquals(10, range.getLength());
+    assertEquals("bytes 10-19/100", range.toContentRange(100));
+  }
+
+  public void testOpenRange() {
+    ByteRange range = ByteRange.parse("bytes=90-", 100);
+    assertEquals(90, range.getOffset());
+    assertEquals(10, range.getLength());
+  }
+
+  public void testEndPastContentIsTruncated() {
+    ByteRange range = ByteRange.parse("bytes=90-500", 100);
+    assertEquals(90, range.getOffset());
+    assertEquals(10, range.getLength());
+  }
+
+  public void testSuffixRange() {
+    ByteRange range = ByteRange.parse("bytes=-30", 100);
+    assertEquals(70, range.getOffset());
+    assertEquals(30, range.getLength());
+
+    range = ByteRange.parse("bytes=-300", 100);
+    assertEquals(0, range.getOffset());
+    assertEquals(100, range.getLength());
+  }
+
+  public void testUnsatisfiable() {
+    ByteRange range = ByteRange.parse("bytes=100-", 100);
+    assertFalse(range.isSatisfiable());
+    assertEquals("bytes */100", range.toContentRange(100));
+  }
+
+  public void testIgnoredRanges() {
+    assertNull(ByteRange.parse("bytes=0-1,5-6", 100));
+    assertNull(ByteRange.parse("items=0-1", 100));
+    assertNull(ByteRange.parse("bytes=-", 100));
+    assertNull(ByteRange.parse("bytes=20-10", 100));
+    assertNull(ByteRange.parse("bytes=99999999999999999999-", 100));
+  }
+}
@@ -0,0 +1,205 @@
+package com.qhrtech.emr.restapi.util;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import com.qhrtech.util.RandomUtils;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import junit.framework.TestCase;
+
+public class ExpiringCacheTest extends TestCase {
+
+  private final Duration ttl = Duration.ofMillis(2000);
+  private final Duration negativeTtl = Duration.ofMillis(500);
+  private final AtomicInteger calls = new AtomicInteger();
+  private Clock clock;
+
+  @Override
+  protected void setUp() {
+    clock = mock(Clock.class);
+    when(clock.instant()).thenReturn(Instant.EPOCH);
+  }
+
+  public void testGetServiceReturnsValue() {
+    String key = RandomUtils.getString(10);
+    ExpiringCache<String, Boolean> cache = newCache(input -> input.equals(key));
+
+    Optional<Boolean> result = cache.get(key);
+    assertTrue(result.isPresent());
+    assertTrue(result.get());
+    cache.get(key);
+    assertEquals(1, calls.get());
+  }
+
+  public void testGetReloadsAfterTtl() {
+    String key = RandomUtils.getString(10);
+    ExpiringCache<String, Boolean> cache = newCache(input -> true);
+
+    cache.get(key);
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(ttl).minusMillis(1));
+    cache.get(key);
+    assertEquals(1, calls.get());
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(ttl));
+    cache.get(key);
+    assertEquals(2, calls.get());
+  }
+
+  public void testGetServiceReturnsNullUsesNegativeTtl() {
+    String key = RandomUtils.getString(10);
+    ExpiringCache<String, Boolean> cache = newCache(input -> null);
+
+    assertFalse(cache.get(key).isPresent());
+    cache.get(key);
+    assertEquals(1, calls.get());
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(negativeTtl));
+    cache.get(key);
+    assertEquals(2, calls.get());
+  }
+
+  public void testGetServiceThrowsRuntimeIsNotCached() {
+    String key = RandomUtils.getString(10);
+    ExpiringCache<String, Boolean> cache = newCache(input -> {
+      throw new IllegalStateException("");
+    });
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        cache.get(key);
+        fail("An exception was expected to be thrown");
+      } catch (IllegalStateException expected) {
+        // expected
+      }
+    }
+    assertEquals(2, calls.get());
+  }
+
+  public void testInvalidate() {
+    String key = RandomUtils.getString(10);
+    ExpiringCache<String, Boolean> cache = newCache(input -> true);
+
+    cache.get(key);
+    cache.invalidate(key);
+    cache.get(key);
+    assertEquals(2, calls.get());
+  }
+
+  public void testFullCacheEvictsExpiredEntriesFirst() {
+    ExpiringCache<String, Boolean> cache =
+        newCache(input -> input.startsWith("known") ? true : null, 2);
+
+    cache.get("missing");
+    cache.get("known1");
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(negativeTtl));
+    // the expired miss makes room, the known entry is kept
+    cache.get("known2");
+    cache.get("known1");
+    assertEquals(3, calls.get());
+
+    // without expired entries an arbitrary one is evicted
+    cache.get("other");
+    assertEquals(2, cache.size());
+    assertEquals(4, calls.get());
+  }
+
+  public void testLoaderCanReadOtherKeys() {
+    AtomicReference<ExpiringCache<String, Boolean>> cache = new AtomicReference<>();
+    cache.set(newCache(input -> input.equals("outer")
+        ? cache.get().get("inner").orElse(false)
+        : true));
+
+    assertTrue(cache.get().get("outer").get());
+    assertEquals(2, calls.get());
+  }
+
+  public void testSlowLoadDoesNotBlockOtherKeys() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExpiringCache<String, Boolean> cache = newCache(input -> {
+      if (input.equals("slow")) {
+        loading.countDown();
+        await(release);
+      }
+      return true;
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Optional<Boolean>> slow = executor.submit(() -> cache.get("slow"));
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+      Future<Optional<Boolean>> waiting = executor.submit(() -> cache.get("slow"));
+
+      // the map is not locked by the slow load
+      for (int i = 0; i < 100; i++) {
+        assertTrue(cache.get("fast" + i).get());
+      }
+      assertFalse(waiting.isDone());
+
+      release.countDown();
+      assertTrue(slow.get(5, TimeUnit.SECONDS).get());
+      assertTrue(waiting.get(5, TimeUnit.SECONDS).get());
+      assertEquals(101, calls.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  public void testWaitersReceiveLoadFailure() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExpiringCache<String, Boolean> cache = newCache(input -> {
+      loading.countDown();
+      await(release);
+      throw new IllegalStateException("failed");
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Optional<Boolean>> first = executor.submit(() -> cache.get("key"));
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+      Future<Optional<Boolean>> second = executor.submit(() -> cache.get("key"));
+      Thread.sleep(50);
+      release.countDown();
+
+      for (Future<Optional<Boolean>> result : Arrays.asList(first, second)) {
+        try {
+          result.get(5, TimeUnit.SECONDS);
+          fail("An exception was expected to be thrown");
+        } catch (ExecutionException expected) {
+          assertTrue(expected.getCause() instanceof IllegalStateException);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private ExpiringCache<String, Boolean> newCache(Function<String, Boolean> service) {
+    return newCache(service, ExpiringCache.DEFAULT_MAX_SIZE);
+  }
+
+  private ExpiringCache<String, Boolean> newCache(Function<String, Boolean> service,
+      int maxSize) {
+    return new ExpiringCache<>(input -> {
+      calls.incrementAndGet();
+      return service.apply(input);
+    }, ttl, negativeTtl, maxSize, clock);
+  }
+}
@@ -0,0 +1,550 @@
+package com.qhrtech.emr.restapi.util;
+
+import com.qhrtech.emr.accuro.model.scheduling.Appointment;
+import com.qhrtech.emr.restapi.config.MappingConfig;
+import com.qhrtech.emr.restapi.models.dto.AppointmentDto;
+import com.qhrtech.util.RandomUtils;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import javax.xml.parsers.DocumentBuilderFactory;
+import junit.framework.TestCase;
+import org.dozer.DozerBeanMapper;
+import org.dozer.Mapper;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import uk.co.jemos.podam.api.PodamFactory;
+import uk.co.jemos.podam.api.PodamFactoryImpl;
+
+public class GeneratedMapperTest extends TestCase {
+
+  private static final int MAX_DEPTH = 5;
+  private static final String MAPPINGS = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<mappings xmlns=\"http://dozer.sourceforge.net\">\n"
+      + "  <configuration>\n"
+      + "    <custom-converters>\n"
+      + "      <converter type=\""
+      + "com.qhrtech.emr.restapi.models.dto.converter.CalendarValidateConverter\">\n"
+      + "        <class-a>java.util.Calendar</class-a>\n"
+      + "        <class-b>java.util.Calendar</class-b>\n"
+      + "      </converter>\n"
+      + "    </custom-converters>\n"
+      + "  </configuration>\n"
+      + "  <mapping>\n"
+      + "    <class-a>" + RenamedSource.class.getName() + "</class-a>\n"
+      + "    <class-b>" + RenamedDto.class.getName() + "</class-b>\n"
+      + "    <field>\n"
+      + "      <a>label</a>\n"
+      + "      <b>name</b>\n"
+      + "    </field>\n"
+      + "    <field>\n"
+      + "      <a get-method=\"hasNotes\">notes</a>\n"
+      + "      <b>notes</b>\n"
+      + "    </field>\n"
+      + "  </mapping>\n"
+      + "  <mapping>\n"
+      + "    <class-a>" + ConvertedSource.class.getName() + "</class-a>\n"
+      + "    <class-b>" + ConvertedDto.class.getName() + "</class-b>\n"
+      + "    <field custom-converter=\""
+      + "com.qhrtech.emr.restapi.models.dto.converter.CalendarValidateConverter\">\n"
+      + "      <a>created</a>\n"
+      + "      <b>created</b>\n"
+      + "    </field>\n"
+      + "  </mapping>\n"
+      + "</mappings>\n";
+
+  private DozerBeanMapper dozer;
+  private GeneratedMapper mapper;
+
+  @Override
+  protected void setUp() {
+    dozer = new DozerBeanMapper();
+    dozer.addMapping(mappings());
+    mapper = new GeneratedMapper(dozer, mappings());
+  }
+
+  public void testFlatBeanIsGenerated() {
+    assertTrue(mapper.isGenerated(FlatEntity.class, FlatDto.class));
+
+    FlatEntity entity = newEntity();
+    FlatDto generated = mapper.map(entity, FlatDto.class);
+    FlatDto expected = dozer.map(entity, FlatDto.class);
+
+    assertEquals(expected.getName(), generated.getName());
+    assertEquals(expected.getCount(), generated.getCount());
+    assertEquals(expected.getTotal(), generated.getTotal());
+    assertEquals(expected.isActive(), generated.isActive());
+    assertEquals(expected.getStatus(), generated.getStatus());
+    assertEquals(expected.getUuid(), generated.getUuid());
+    assertEquals(expected.getCreated(), generated.getCreated());
+    assertEquals("unmapped", generated.getUnmapped());
+  }
+
+  public void testConverterIsApplied() {
+    FlatEntity entity = newEntity();
+    FlatDto dto = mapper.map(entity, FlatDto.class);
+
+    // CalendarValidateConverter returns a copy of the calendar
+    assertEquals(entity.getCreated(), dto.getCreated());
+    assertNotSame(entity.getCreated(), dto.getCreated());
+  }
+
+  public void testNullValuesAreMapped() {
+    FlatEntity entity = new FlatEntity();
+    FlatDto dto = mapper.map(entity, FlatDto.class);
+
+    assertNull(dto.getName());
+    assertNull(dto.getTotal());
+    assertNull(dto.getCreated());
+  }
+
+  public void testNestedBeansAreGenerated() {
+    assertTrue(mapper.isGenerated(NestedEntity.class, NestedDto.class));
+
+    NestedEntity entity = new NestedEntity();
+    entity.setParent(newEntity());
+    entity.setChildren(Arrays.asList(newEntity(), newEntity()));
+    NestedDto dto = mapper.map(entity, NestedDto.class);
+
+    assertEquals(entity.getParent().getName(), dto.getParent().getName());
+    assertEquals(2, dto.getChildren().size());
+    assertEquals(entity.getChildren().get(0).getName(), dto.getChildren().get(0).getName());
+    assertEquals(entity.getChildren().get(1).getUuid(), dto.getChildren().get(1).getUuid());
+  }
+
+  public void testInitialisedCollectionFallsBackToDozer() {
+    assertFalse(mapper.isGenerated(NestedEntity.class, InitialisedDto.class));
+
+    NestedEntity entity = new NestedEntity();
+    entity.setChildren(Arrays.asList(newEntity(), newEntity()));
+    InitialisedDto dto = mapper.map(entity, InitialisedDto.class);
+
+    assertEquals(2, dto.getChildren().size());
+    assertEquals(entity.getChildren().get(0).getName(), dto.getChildren().get(0).getName());
+  }
+
+  public void testExplicitFieldMappingIsGenerated() {
+    assertTrue(mapper.isGenerated(RenamedSource.class, RenamedDto.class));
+
+    RenamedSource source = new RenamedSource();
+    source.setLabel(RandomUtils.getString(10));
+    source.setNotes(true);
+    RenamedDto generated = mapper.map(source, RenamedDto.class);
+    RenamedDto expected = dozer.map(source, RenamedDto.class);
+
+    assertEquals(source.getLabel(), generated.getName());
+    assertEquals(expected.getName(), generated.getName());
+    assertEquals(Boolean.TRUE, generated.getNotes());
+    assertEquals(expected.getNotes(), generated.getNotes());
+  }
+
+  public void testFieldConverterFallsBackToDozer() {
+    assertFalse(mapper.isGenerated(ConvertedSource.class, ConvertedDto.class));
+
+    ConvertedSource source = new ConvertedSource();
+    source.setCreated(Calendar.getInstance());
+
+    assertEquals(source.getCreated(), mapper.map(source, ConvertedDto.class).getCreated());
+  }
+
+  public void testApplicationMappingFileLoads() {
+    Mapper modelMapper = new MappingConfig().modelMapper();
+    FlatEntity entity = newEntity();
+
+    assertEquals(entity.getName(), modelMapper.map(entity, FlatDto.class).getName());
+  }
+
+  /**
+   * Every pair with a mapping in the application mapping file is mapped the same way as Dozer
+   * maps it, in both directions.
+   */
+  public void testApplicationMappingsMatchDozer() throws Exception {
+    MappingConfig config = new MappingConfig();
+    Mapper modelMapper = config.modelMapper();
+    Mapper dozerMapper = config.dozerMapper();
+    PodamFactory podamFactory = new PodamFactoryImpl();
+    for (Class<?>[] mapping : applicationMappings()) {
+      for (int i = 0; i < mapping.length; i++) {
+        Class<?> sourceClass = mapping[i];
+        Class<?> destinationClass = mapping[1 - i];
+        String pair = sourceClass.getSimpleName() + " -> " + destinationClass.getSimpleName();
+        Object source = podamFactory.manufacturePojo(sourceClass);
+        assertSameProperties(pair, dozerMapper.map(source, destinationClass),
+            modelMapper.map(source, destinationClass), 0);
+      }
+    }
+  }
+
+  public void testAppointmentIsGenerated() {
+    GeneratedMapper modelMapper = (GeneratedMapper) new MappingConfig().modelMapper();
+
+    assertTrue(modelMapper.isGenerated(Appointment.class, AppointmentDto.class));
+  }
+
+  private static List<Class<?>[]> applicationMappings() throws Exception {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    Document document;
+    try (InputStream in = GeneratedMapperTest.class.getResourceAsStream("/dozer-mappings.xml")) {
+      document = factory.newDocumentBuilder().parse(in);
+    }
+    List<Class<?>[]> mappings = new ArrayList<>();
+    NodeList mappingNodes = document.getElementsByTagNameNS("*", "mapping");
+    for (int i = 0; i < mappingNodes.getLength(); i++) {
+      Element mapping = (Element) mappingNodes.item(i);
+      mappings.add(new Class<?>[] {
+          Class.forName(childText(mapping, "class-a")),
+          Class.forName(childText(mapping, "class-b"))});
+    }
+    assertFalse(mappings.isEmpty());
+    return mappings;
+  }
+
+  private static String childText(Element element, String name) {
+    return element.getElementsByTagNameNS("*", name).item(0).getTextContent().trim();
+  }
+
+  /**
+   * Compares the readable properties of two mapped objects, descending into domain beans and
+   * lists.
+   */
+  private static void assertSameProperties(String path, Object expected, Object actual,
+      int depth) throws Exception {
+    if (expected == null || actual == null) {
+      assertEquals(path, expected, actual);
+      return;
+    }
+    if (expected instanceof List && actual instanceof List) {
+      List<?> expectedList = (List<?>) expected;
+      List<?> actualList = (List<?>) actual;
+      assertEquals(path + ".size", expectedList.size(), actualList.size());
+      for (int i = 0; i < expectedList.size(); i++) {
+        assertSameProperties(path + "[" + i + "]", expectedList.get(i), actualList.get(i),
+            depth + 1);
+      }
+      return;
+    }
+    if (expected instanceof Set && actual instanceof Set) {
+      assertEquals(path + ".size", ((Set<?>) expected).size(), ((Set<?>) actual).size());
+      return;
+    }
+    Class<?> type = expected.getClass();
+    assertEquals(path, type, actual.getClass());
+    if (type.isArray()) {
+      assertTrue(path, Objects.deepEquals(expected, actual));
+    } else if (type.isEnum() || !type.getName().startsWith("com.qhrtech.")
+        || depth > MAX_DEPTH) {
+      assertEquals(path, expected, actual);
+    } else {
+      for (PropertyDescriptor property : Introspector.getBeanInfo(type)
+          .getPropertyDescriptors()) {
+        Method readMethod = property.getReadMethod();
+        if (readMethod != null && !"class".equals(property.getName())) {
+          assertSameProperties(path + "." + property.getName(), readMethod.invoke(expected),
+              readMethod.invoke(actual), depth + 1);
+        }
+      }
+    }
+  }
+
+  private static InputStream mappings() {
+    return new ByteArrayInputStream(MAPPINGS.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static FlatEntity newEntity() {
+    FlatEntity entity = new FlatEntity();
+    entity.setName(RandomUtils.getString(10));
+    entity.setCount(RandomUtils.getInt(0, 100));
+    entity.setTotal((long) RandomUtils.getInt(0, 100));
+    entity.setActive(true);
+    entity.setStatus(Status.CLOSED);
+    entity.setUuid(UUID.randomUUID());
+    entity.setCreated(Calendar.getInstance());
+    return entity;
+  }
+
+  public enum Status {
+    OPEN, CLOSED
+  }
+
+  public static class FlatEntity {
+
+    private String name;
+    private int count;
+    private Long total;
+    private boolean active;
+    private Status status;
+    private UUID uuid;
+    private Calendar created;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+
+    public Long getTotal() {
+      return total;
+    }
+
+    public void setTotal(Long total) {
+      this.total = total;
+    }
+
+    public boolean isActive() {
+      return active;
+    }
+
+    public void setActive(boolean active) {
+      this.active = active;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    public void setStatus(Status status) {
+      this.status = status;
+    }
+
+    public UUID getUuid() {
+      return uuid;
+    }
+
+    public void setUuid(UUID uuid) {
+      this.uuid = uuid;
+    }
+
+    public Calendar getCreated() {
+      return created;
+    }
+
+    public void setCreated(Calendar created) {
+      this.created = created;
+    }
+  }
+
+  public static class FlatDto {
+
+    private String name;
+    private int count;
+    private Long total;
+    private boolean active;
+    private Status status;
+    private UUID uuid;
+    private Calendar created;
+    private String unmapped = "unmapped";
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+
+    public Long getTotal() {
+      return total;
+    }
+
+    public void setTotal(Long total) {
+      this.total = total;
+    }
+
+    public boolean isActive() {
+      return active;
+    }
+
+    public void setActive(boolean active) {
+      this.active = active;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    public void setStatus(Status status) {
+      this.status = status;
+    }
+
+    public UUID getUuid() {
+      return uuid;
+    }
+
+    public void setUuid(UUID uuid) {
+      this.uuid = uuid;
+    }
+
+    public Calendar getCreated() {
+      return created;
+    }
+
+    public void setCreated(Calendar created) {
+      this.created = created;
+    }
+
+    public String getUnmapped() {
+      return unmapped;
+    }
+
+    public void setUnmapped(String unmapped) {
+      this.unmapped = unmapped;
+    }
+  }
+
+  public static class RenamedSource {
+
+    private String label;
+    private boolean notes;
+
+    public String getLabel() {
+      return label;
+    }
+
+    public void setLabel(String label) {
+      this.label = label;
+    }
+
+    public boolean hasNotes() {
+      return notes;
+    }
+
+    public void setNotes(boolean notes) {
+      this.notes = notes;
+    }
+  }
+
+  public static class RenamedDto {
+
+    private String name;
+    private Boolean notes;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public Boolean getNotes() {
+      return notes;
+    }
+
+    public void setNotes(Boolean notes) {
+      this.notes = notes;
+    }
+  }
+
+  public static class ConvertedSource {
+
+    private Calendar created;
+
+    public Calendar getCreated() {
+      return created;
+    }
+
+    public void setCreated(Calendar created) {
+      this.created = created;
+    }
+  }
+
+  public static class ConvertedDto {
+
+    private Calendar created;
+
+    public Calendar getCreated() {
+      return created;
+    }
+
+    public void setCreated(Calendar created) {
+      this.created = created;
+    }
+  }
+
+  public static class NestedEntity {
+
+    private FlatEntity parent;
+    private List<FlatEntity> children;
+
+    public FlatEntity getParent() {
+      return parent;
+    }
+
+    public void setParent(FlatEntity parent) {
+      this.parent = parent;
+    }
+
+    public List<FlatEntity> getChildren() {
+      return children;
+    }
+
+    public void setChildren(List<FlatEntity> children) {
+      this.children = children;
+    }
+  }
+
+  public static class NestedDto {
+
+    private FlatDto parent;
+    private List<FlatDto> children;
+
+    public FlatDto getParent() {
+      return parent;
+    }
+
+    public void setParent(FlatDto parent) {
+      this.parent = parent;
+    }
+
+    public List<FlatDto> getChildren() {
+      return children;
+    }
+
+    public void setChildren(List<FlatDto> children) {
+      this.children = children;
+    }
+  }
+
+  public static class InitialisedDto {
+
+    private List<FlatDto> children = new ArrayList<>();
+
+    public List<FlatDto> getChildren() {
+      return children;
+    }
+
+    public void setChildren(List<FlatDto> children) {
+      this.children = children;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.qhrtech.emr.restapi.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qhrtech.emr.restapi.config.serialization.AccuroObjectMapperFactory;
+import com.qhrtech.emr.restapi.models.dto.AppointmentDto;
+import com.qhrtech.emr.restapi.models.dto.pagination.EnvelopeDto;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import junit.framework.TestCase;
+import org.joda.time.LocalDate;
+
+public class JsonStreamingOutputTest extends TestCase {
+
+  private final ObjectMapper objectMapper = AccuroObjectMapperFactory.newJsonObjectMapper();
+
+  public void testArrayMatchesSerializedList() throws IOException {
+    List<Integer> ids = Arrays.asList(3, 1, 2);
+
+    String actual = write(JsonStreamingOutput.array(objectMapper, ids, this::toAppointment));
+
+    assertEquals(objectMapper.writeValueAsString(toAppointments(ids)), actual);
+  }
+
+  public void testEmptyArray() throws IOException {
+    String actual = write(
+        JsonStreamingOutput.array(objectMapper, Collections.<Integer>emptyList(),
+            this::toAppointment));
+
+    assertEquals("[]", actual);
+  }
+
+  public void testEnvelopeMatchesSerializedEnvelope() throws IOException {
+    List<Integer> ids = Arrays.asList(4, 5);
+    EnvelopeDto<AppointmentDto> expected = new EnvelopeDto<>();
+    expected.setContents(toAppointments(ids));
+    expected.setCount(2);
+    expected.setTotal(10);
+    expected.setLastId(5L);
+
+    String actual = write(
+        JsonStreamingOutput.envelope(objectMapper, ids, this::toAppointment, 2, 10, 5L));
+
+    assertEquals(objectMapper.writeValueAsString(expected), actual);
+  }
+
+  public void testEnvelopeWithoutLastId() throws IOException {
+    EnvelopeDto<AppointmentDto> expected = new EnvelopeDto<>();
+    expected.setContents(Collections.emptyList());
+
+    String actual = write(JsonStreamingOutput.envelope(objectMapper,
+        Collections.<Integer>emptyList(), this::toAppointment, 0, 0, null));
+
+    assertEquals(objectMapper.writeValueAsString(expected), actual);
+  }
+
+  public void testFailedConversionLeavesDocumentIncomplete() {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    JsonStreamingOutput<Integer> streamingOutput =
+        JsonStreamingOutput.array(objectMapper, Arrays.asList(1, 2), id -> {
+          if (id == 2) {
+            throw new IllegalStateException();
+          }
+          return toAppointment(id);
+        });
+
+    try {
+      streamingOutput.write(output);
+      fail("Expected the conversion failure");
+    } catch (IllegalStateException | IOException ex) {
+      // expected
+    }
+    assertFalse(new String(output.toByteArray(), StandardCharsets.UTF_8).endsWith("]"));
+  }
+
+  private String write(JsonStreamingOutput<?> streamingOutput) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    streamingOutput.write(output);
+    return new String(output.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private List<AppointmentDto> toAppointments(List<Integer> ids) {
+    return ids.stream().map(this::toAppointment).collect(Collectors.toList());
+  }
+
+  private AppointmentDto toAppointment(int id) {
+    AppointmentDto appointment = new AppointmentDto();
+    appointment.setAppointmentId(id);
+    appointment.setOfficeId(id * 10);
+    appointment.setDate(new LocalDate(2020, 1, id));
+    return appointment;
+  }
+}
@@ -0,0 +1,189 @@
+package com.qhrtech.emr.restapi.util;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import junit.framework.TestCase;
+
+public class RefreshingCacheTest extends TestCase {
+
+  private final Duration refreshAfter = Duration.ofMillis(1000);
+  private final Duration expireAfter = Duration.ofMillis(5000);
+  private final List<Set<String>> loads = Collections.synchronizedList(new ArrayList<>());
+  private final List<Runnable> refreshes = new ArrayList<>();
+  private Clock clock;
+
+  @Override
+  protected void setUp() {
+    clock = mock(Clock.class);
+    when(clock.instant()).thenReturn(Instant.EPOCH);
+  }
+
+  public void testGetAllLoadsMissesInOneBatch() {
+    RefreshingCache<String, String> cache = newCache(10, this::upperCase);
+
+    cache.get("a");
+    Map<String, String> result = cache.getAll(Arrays.asList("a", "b", "c"));
+
+    assertEquals(3, result.size());
+    assertEquals("B", result.get("b"));
+    assertEquals(2, loads.size());
+    assertEquals(new HashSet<>(Arrays.asList("b", "c")), loads.get(1));
+  }
+
+  public void testStaleEntryIsReturnedAndRefreshedInBackground() {
+    RefreshingCache<String, String> cache = newCache(10, this::upperCase);
+
+    cache.get("a");
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(refreshAfter).minusMillis(1));
+    cache.get("a");
+    assertTrue(refreshes.isEmpty());
+
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(refreshAfter));
+    assertEquals("A", cache.get("a"));
+    assertEquals(1, loads.size());
+    assertEquals(1, refreshes.size());
+
+    // A second read while the refresh is pending does not start another one.
+    cache.get("a");
+    assertEquals(1, refreshes.size());
+
+    refreshes.get(0).run();
+    assertEquals(2, loads.size());
+  }
+
+  public void testFailedRefreshKeepsCurrentValue() {
+    RefreshingCache<String, String> cache = newCache(10, keys -> {
+      if (loads.size() > 1) {
+        throw new IllegalStateException();
+      }
+      return upperCase(keys);
+    });
+
+    cache.get("a");
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(refreshAfter));
+    cache.get("a");
+    refreshes.get(0).run();
+
+    assertEquals("A", cache.get("a"));
+    assertEquals(1, cache.size());
+  }
+
+  public void testExpiredEntryIsReloaded() {
+    RefreshingCache<String, String> cache = newCache(10, this::upperCase);
+
+    cache.get("a");
+    when(clock.instant()).thenReturn(Instant.EPOCH.plus(expireAfter));
+    cache.get("a");
+
+    assertEquals(2, loads.size());
+    assertTrue(refreshes.isEmpty());
+  }
+
+  public void testMissingValueIsNotCached() {
+    RefreshingCache<String, String> cache = newCache(10, keys -> Collections.emptyMap());
+
+    assertNull(cache.get("a"));
+    assertNull(cache.get("a"));
+    assertEquals(2, loads.size());
+    assertEquals(0, cache.size());
+  }
+
+  public void testLoaderExceptionIsNotCached() {
+    RefreshingCache<String, String> cache = newCache(10, keys -> {
+      throw new IllegalStateException();
+    });
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        cache.get("a");
+        fail("An exception was expected to be thrown");
+      } catch (IllegalStateException expected) {
+        // expected
+      }
+    }
+    assertEquals(2, loads.size());
+  }
+
+  public void testConcurrentMissesShareOneLoad() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    RefreshingCache<String, String> cache = newCache(10, keys -> {
+      loading.countDown();
+      await(release);
+      return upperCase(keys);
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = executor.submit(() -> cache.get("a"));
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+      Future<String> second = executor.submit(() -> cache.get("a"));
+      release.countDown();
+
+      assertEquals("A", first.get(5, TimeUnit.SECONDS));
+      assertEquals("A", second.get(5, TimeUnit.SECONDS));
+      assertEquals(1, loads.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  public void testSizeIsBounded() {
+    RefreshingCache<String, String> cache = newCache(2, this::upperCase);
+
+    cache.getAll(Arrays.asList("a", "b", "c"));
+
+    assertEquals(2, cache.size());
+  }
+
+  public void testPutReplacesEntry() {
+    RefreshingCache<String, String> cache = newCache(10, this::upperCase);
+
+    cache.get("a");
+    cache.put("a", "other");
+
+    assertEquals("other", cache.get("a"));
+    assertEquals(1, loads.size());
+  }
+
+  private RefreshingCache<String, String> newCache(int maxSize,
+      Function<Set<String>, Map<String, String>> loader) {
+    return new RefreshingCache<>(keys -> {
+      loads.add(new HashSet<>(keys));
+      return loader.apply(keys);
+    }, refreshAfter, expireAfter, maxSize, refreshes::add, clock);
+  }
+
+  private Map<String, String> upperCase(Set<String> keys) {
+    Map<String, String> values = new HashMap<>();
+    for (String key : keys) {
+      values.put(key, key.toUpperCase());
+    }
+    return values;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -4,7 +4,9 @@ package com.qhrtech.emr.restapi.utilities;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.qhrtech.emr.restapi.config.MappingConfig;
+import com.qhrtech.emr.restapi.config.serialization.AccuroObjectMapperFactory;
 import com.qhrtech.emr.restapi.security.ApiSecurityContext;
 import com.qhrtech.emr.restapi.services.AccuroApiService;
 import com.qhrtech.emr.restapi.services.SecurityContextService;
@@ -14,6 +16,9 @@ import java.util.Map;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
 import org.dozer.Mapper;
 import org.junit.Before;
 import org.mockito.InjectMocks;
@@ -25,6 +30,9 @@ import uk.co.jemos.podam.api.PodamFactoryImpl;
 
 public abstract class AbstractTest<T> {
 
+  private static final ValidatorFactory VALIDATOR_FACTORY =
+      Validation.buildDefaultValidatorFactory();
+
   /**
    * Mocked out testObject container. The actual services returned will be supplied by the
    * implementing test.
@@ -46,6 +54,18 @@ public abstract class AbstractTest<T> {
   @Spy
   private Mapper dozerMapper;
 
+  /**
+   * The JSON mapper used by endpoints that stream their responses.
+   */
+  @Spy
+  private ObjectMapper jsonObjectMapper;
+
+  /**
+   * The bean validator used by endpoints validating patched objects by hand.
+   */
+  @Spy
+  private Validator beanValidator;
+
   /**
    * The object of the tests will be running against.
    */
@@ -65,6 +85,8 @@ public abstract class AbstractTest<T> {
   public AbstractTest(T testObject) {
     this.testObject = testObject;
     this.dozerMapper = new MappingConfig().modelMapper();
+    this.jsonObjectMapper = AccuroObjectMapperFactory.newJsonObjectMapper();
+    this.beanValidator = VALIDATOR_FACTORY.getValidator();
     this.podamFactory = new PodamFactoryImpl();
   }
 